@@ -0,0 +1,47 @@
+package com.example.dependencyscanner.dao;
+
+import com.example.dependencyscanner.model.Vulnerability;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 漏洞数据变更事件
+ * 记录发生变化的 groupId:artifactId，为空且 all 为 true 时表示整表变化
+ */
+public class VulnerabilityChangeEvent {
+
+    private final Set<String> keys;
+    private final boolean all;
+
+    private VulnerabilityChangeEvent(Set<String> keys, boolean all) {
+        this.keys = keys;
+        this.all = all;
+    }
+
+    public static VulnerabilityChangeEvent of(Collection<Vulnerability> vulnerabilities) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Vulnerability vulnerability : vulnerabilities) {
+            keys.add(key(vulnerability.getGroupId(), vulnerability.getArtifactId()));
+        }
+        return new VulnerabilityChangeEvent(Collections.unmodifiableSet(keys), false);
+    }
+
+    public static VulnerabilityChangeEvent all() {
+        return new VulnerabilityChangeEvent(Collections.<String>emptySet(), true);
+    }
+
+    public static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    public Set<String> getKeys() {
+        return keys;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+}
@@ -2,12 +2,14 @@ package com.example.dependencyscanner.dao;
 
 import com.example.dependencyscanner.model.Vulnerability;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,6 +23,9 @@ public class VulnerabilityDao {
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private static final RowMapper<Vulnerability> VULNERABILITY_ROW_MAPPER = new RowMapper<Vulnerability>() {
         @Override
         public Vulnerability mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -60,7 +65,7 @@ public class VulnerabilityDao {
         String sql = "INSERT INTO vulnerabilities (group_id, artifact_id, vulnerable_versions, " +
                     "safe_version, cve, description, severity, reference) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        return jdbcTemplate.update(sql,
+        int rows = jdbcTemplate.update(sql,
                 vulnerability.getGroupId(),
                 vulnerability.getArtifactId(),
                 vulnerability.getVulnerableVersions(),
@@ -69,6 +74,8 @@ public class VulnerabilityDao {
                 vulnerability.getDescription(),
                 vulnerability.getSeverity(),
                 vulnerability.getReference());
+        eventPublisher.publishEvent(VulnerabilityChangeEvent.of(Collections.singletonList(vulnerability)));
+        return rows;
     }
     
     /**
@@ -97,6 +104,7 @@ public class VulnerabilityDao {
                     ps.setString(7, vulnerability.getSeverity());
                     ps.setString(8, vulnerability.getReference());
                 });
+        eventPublisher.publishEvent(VulnerabilityChangeEvent.of(vulnerabilities));
     }
     
     /**
@@ -104,6 +112,7 @@ public class VulnerabilityDao {
      */
     public void deleteAll() {
         jdbcTemplate.update("DELETE FROM vulnerabilities");
+        eventPublisher.publishEvent(VulnerabilityChangeEvent.all());
     }
     
     /**
@@ -0,0 +1,263 @@
+package com.example.dependencyscanner.service;
+
+import com.example.dependencyscanner.model.DependencyInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OSV.dev API客户端
+ * 依赖通过 /v1/querybatch 批量查询（每批最多 batch-size 个），只返回漏洞ID和修改时间；
+ * 漏洞详情通过 /v1/vulns/{id} 按ID获取，多个依赖共享同一漏洞时只请求一次。
+ * 查询结果和漏洞详情都经过磁盘缓存，并发扫描中相同坐标、相同漏洞的请求合并为一次
+ */
+@Component
+public class OsvClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OsvClient.class);
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final OsvResponseCache cache;
+    private final ExecutorService executorService;
+
+    private final Map<String, CompletableFuture<List<VulnRef>>> inflightQueries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<JsonNode>> inflightVulns = new ConcurrentHashMap<>();
+
+    @Value("${vulnerability.osv.base-url:https://api.osv.dev}")
+    private String baseUrl;
+
+    @Value("${vulnerability.osv.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${vulnerability.scan.parallel:true}")
+    private boolean enableParallelScan;
+
+    public OsvClient(RestTemplate restTemplate, ObjectMapper objectMapper, OsvResponseCache cache) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.executorService = Executors.newFixedThreadPool(10);
+    }
+
+    /**
+     * 查询依赖受影响的漏洞
+     *
+     * @param dependencies 依赖列表
+     * @return 依赖坐标到漏洞引用的映射，值在查询完成后可用
+     */
+    public Map<String, CompletableFuture<List<VulnRef>>> query(Collection<DependencyInfo> dependencies) {
+        Map<String, CompletableFuture<List<VulnRef>>> results = new LinkedHashMap<>();
+        List<DependencyInfo> pending = new ArrayList<>();
+
+        for (DependencyInfo dependency : dependencies) {
+            String coordinate = coordinate(dependency);
+            if (results.containsKey(coordinate)) {
+                continue;
+            }
+
+            List<VulnRef> cached = cache.getQuery(coordinate);
+            if (cached != null) {
+                results.put(coordinate, CompletableFuture.completedFuture(cached));
+                continue;
+            }
+
+            // 其他扫描正在查询同一坐标时直接等待其结果
+            CompletableFuture<List<VulnRef>> future = new CompletableFuture<>();
+            CompletableFuture<List<VulnRef>> inflight = inflightQueries.putIfAbsent(coordinate, future);
+            if (inflight != null) {
+                results.put(coordinate, inflight);
+            } else {
+                results.put(coordinate, future);
+                pending.add(dependency);
+            }
+        }
+
+        logger.debug("OSV.dev查询: {} 个坐标，其中 {} 个需要请求", results.size(), pending.size());
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<DependencyInfo> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            submit(() -> queryBatch(batch));
+        }
+        return results;
+    }
+
+    /**
+     * 获取漏洞详情
+     */
+    public CompletableFuture<JsonNode> fetchVulnerability(VulnRef ref) {
+        JsonNode cached = cache.getVulnerability(ref.getId(), ref.getModified());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        CompletableFuture<JsonNode> inflight = inflightVulns.putIfAbsent(ref.getId(), future);
+        if (inflight != null) {
+            return inflight;
+        }
+
+        submit(() -> {
+            try {
+                JsonNode vuln = exchange(HttpMethod.GET, "/v1/vulns/" + ref.getId(), null);
+                cache.putVulnerability(ref.getId(), vuln);
+                future.complete(vuln);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                inflightVulns.remove(ref.getId(), future);
+            }
+        });
+        return future;
+    }
+
+    public static String coordinate(DependencyInfo dependency) {
+        return dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion();
+    }
+
+    private void submit(Runnable task) {
+        if (enableParallelScan) {
+            executorService.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
+    private void queryBatch(List<DependencyInfo> batch) {
+        try {
+            List<List<VulnRef>> refs = postQueryBatch(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                String coordinate = coordinate(batch.get(i));
+                cache.putQuery(coordinate, refs.get(i));
+                CompletableFuture<List<VulnRef>> future = inflightQueries.remove(coordinate);
+                if (future != null) {
+                    future.complete(refs.get(i));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("OSV.dev批量查询失败: {}", e.getMessage());
+            for (DependencyInfo dependency : batch) {
+                CompletableFuture<List<VulnRef>> future = inflightQueries.remove(coordinate(dependency));
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 发送批量查询，结果有 next_page_token 时只对这些依赖继续翻页
+     */
+    private List<List<VulnRef>> postQueryBatch(List<DependencyInfo> batch) {
+        List<List<VulnRef>> refs = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            refs.add(new ArrayList<>());
+        }
+
+        Map<Integer, String> pageTokens = new LinkedHashMap<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            pending.add(i);
+        }
+
+        while (!pending.isEmpty()) {
+            List<Map<String, Object>> queries = new ArrayList<>();
+            for (int index : pending) {
+                DependencyInfo dependency = batch.get(index);
+                Map<String, String> packageInfo = new HashMap<>();
+                packageInfo.put("ecosystem", "Maven");
+                packageInfo.put("name", dependency.getGroupId() + ":" + dependency.getArtifactId());
+
+                Map<String, Object> query = new HashMap<>();
+                query.put("package", packageInfo);
+                query.put("version", dependency.getVersion());
+                if (pageTokens.containsKey(index)) {
+                    query.put("page_token", pageTokens.get(index));
+                }
+                queries.add(query);
+            }
+
+            JsonNode results = exchange(HttpMethod.POST, "/v1/querybatch",
+                Collections.singletonMap("queries", queries)).path("results");
+
+            List<Integer> nextPending = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                int index = pending.get(i);
+                JsonNode result = results.path(i);
+                for (JsonNode vuln : result.path("vulns")) {
+                    refs.get(index).add(new VulnRef(vuln.path("id").asText(), vuln.path("modified").asText("")));
+                }
+                String pageToken = result.path("next_page_token").asText("");
+                if (!pageToken.isEmpty()) {
+                    pageTokens.put(index, pageToken);
+                    nextPending.add(index);
+                }
+            }
+            pending = nextPending;
+        }
+        return refs;
+    }
+
+    private JsonNode exchange(HttpMethod method, String path, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON));
+        headers.set("User-Agent", "DependencyScanner/1.0");
+
+        ResponseEntity<String> response = restTemplate.exchange(
+            baseUrl + path, method, new HttpEntity<>(body, headers), String.class);
+        if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+            throw new IllegalStateException("OSV.dev请求失败，HTTP状态码: " + response.getStatusCode());
+        }
+        try {
+            return objectMapper.readTree(response.getBody());
+        } catch (Exception e) {
+            throw new IllegalStateException("OSV.dev响应解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * 查询结果中的漏洞引用
+     */
+    public static final class VulnRef {
+        private final String id;
+        private final String modified;
+
+        public VulnRef(String id, String modified) {
+            this.id = id;
+            this.modified = modified;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getModified() {
+            return modified;
+        }
+    }
+}
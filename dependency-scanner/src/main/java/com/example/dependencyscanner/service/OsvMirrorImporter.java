@@ -0,0 +1,172 @@
+package com.example.dependencyscanner.service;
+
+import com.example.dependencyscanner.dao.VulnerabilityDao;
+import com.example.dependencyscanner.model.Vulnerability;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * OSV离线镜像导入
+ * 将OSV数据包（如 https://osv-vulnerabilities.storage.googleapis.com/Maven/all.zip，
+ * 或其解压目录、单个JSON文件）导入本地漏洞库，配合 local 扫描模式可完全离线运行
+ */
+@Service
+public class OsvMirrorImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OsvMirrorImporter.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private VulnerabilityDao vulnerabilityDao;
+
+    @Autowired
+    private OsvVulnerabilityParser osvParser;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vulnerability.osv.mirror.path:}")
+    private String mirrorPath;
+
+    /**
+     * 配置了镜像路径时在启动完成后导入
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void importOnStartup() {
+        if (mirrorPath == null || mirrorPath.trim().isEmpty()) {
+            return;
+        }
+
+        try {
+            importDump(Paths.get(mirrorPath.trim()));
+        } catch (Exception e) {
+            logger.error("OSV镜像导入失败: {}", mirrorPath, e);
+        }
+    }
+
+    /**
+     * 导入OSV数据包
+     *
+     * @param path zip文件、目录或单个JSON文件
+     * @return 导入的漏洞条数（按受影响组件计）
+     */
+    public int importDump(Path path) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Batch batch = new Batch();
+
+        if (Files.isDirectory(path)) {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(path)) {
+                files = stream.filter(file -> file.toString().endsWith(".json")).collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    importRecord(in, file.toString(), batch);
+                }
+            }
+        } else if (path.toString().endsWith(".zip")) {
+            try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (!entry.isDirectory() && entry.getName().endsWith(".json")) {
+                        try (InputStream in = zipFile.getInputStream(entry)) {
+                            importRecord(in, entry.getName(), batch);
+                        }
+                    }
+                }
+            }
+        } else {
+            try (InputStream in = Files.newInputStream(path)) {
+                importRecord(in, path.toString(), batch);
+            }
+        }
+        batch.flush();
+
+        logger.info("OSV镜像导入完成: {} 条记录, {} 条漏洞, 跳过 {} 条, 耗时 {} ms",
+                   batch.records, batch.imported, batch.skipped, System.currentTimeMillis() - startTime);
+        return batch.imported;
+    }
+
+    private void importRecord(InputStream in, String name, Batch batch) {
+        JsonNode vuln;
+        try {
+            vuln = objectMapper.readTree(in);
+        } catch (IOException e) {
+            logger.debug("跳过无法解析的OSV记录: {} - {}", name, e.getMessage());
+            batch.skipped++;
+            return;
+        }
+
+        batch.records++;
+        if (vuln.hasNonNull("withdrawn")) {
+            batch.skipped++;
+            return;
+        }
+
+        // 一条记录可能影响多个Maven组件，每个组件一行
+        for (JsonNode affected : vuln.path("affected")) {
+            JsonNode packageNode = affected.path("package");
+            String packageName = packageNode.path("name").asText("");
+            int separator = packageName.indexOf(':');
+            if (!"Maven".equals(packageNode.path("ecosystem").asText("")) || separator <= 0) {
+                continue;
+            }
+
+            Vulnerability vulnerability = osvParser.parse(vuln,
+                packageName.substring(0, separator), packageName.substring(separator + 1));
+            if (vulnerability.getVulnerableVersions() == null || vulnerability.getVulnerableVersions().isEmpty()) {
+                batch.skipped++;
+                continue;
+            }
+            batch.add(vulnerability);
+        }
+    }
+
+    /**
+     * 分批写入数据库，每批写入后漏洞索引按变化的组件增量刷新
+     */
+    private class Batch {
+        private final List<Vulnerability> pending = new ArrayList<>();
+        private int records;
+        private int imported;
+        private int skipped;
+
+        void add(Vulnerability vulnerability) {
+            pending.add(vulnerability);
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            vulnerabilityDao.batchInsert(pending);
+            imported += pending.size();
+            pending.clear();
+        }
+    }
+}
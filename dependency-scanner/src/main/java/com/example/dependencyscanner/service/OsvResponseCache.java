@@ -0,0 +1,148 @@
+package com.example.dependencyscanner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OSV响应磁盘缓存
+ * queries 目录按依赖坐标保存 querybatch 返回的漏洞ID及其修改时间，在有效期内跳过网络查询；
+ * vulns 目录按漏洞ID保存完整记录，只有修改时间与查询结果一致时才复用，漏洞更新后自动重新获取
+ */
+@Component
+public class OsvResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OsvResponseCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path queryDir;
+    private final Path vulnDir;
+    private final long queryTtlMillis;
+
+    public OsvResponseCache(ObjectMapper objectMapper,
+                            @Value("${vulnerability.osv.cache.enabled:true}") boolean enabled,
+                            @Value("${vulnerability.osv.cache.dir:${java.io.tmpdir}/dependency-scanner/osv}") String dir,
+                            @Value("${vulnerability.osv.cache.query-ttl-minutes:60}") long queryTtlMinutes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.queryDir = Paths.get(dir, "queries");
+        this.vulnDir = Paths.get(dir, "vulns");
+        this.queryTtlMillis = TimeUnit.MINUTES.toMillis(queryTtlMinutes);
+    }
+
+    /**
+     * 读取依赖坐标的查询结果
+     *
+     * @return 未缓存或已过期时返回 null
+     */
+    public List<OsvClient.VulnRef> getQuery(String coordinate) {
+        JsonNode node = read(queryDir.resolve(hash(coordinate) + ".json"));
+        if (node == null || !coordinate.equals(node.path("coordinate").asText())
+                || System.currentTimeMillis() - node.path("fetchedAt").asLong() > queryTtlMillis) {
+            return null;
+        }
+
+        List<OsvClient.VulnRef> refs = new ArrayList<>();
+        for (JsonNode vuln : node.path("vulns")) {
+            refs.add(new OsvClient.VulnRef(vuln.path("id").asText(), vuln.path("modified").asText("")));
+        }
+        return refs;
+    }
+
+    public void putQuery(String coordinate, List<OsvClient.VulnRef> refs) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("coordinate", coordinate);
+        node.put("fetchedAt", System.currentTimeMillis());
+        ArrayNode vulns = node.putArray("vulns");
+        for (OsvClient.VulnRef ref : refs) {
+            vulns.addObject().put("id", ref.getId()).put("modified", ref.getModified());
+        }
+        write(queryDir.resolve(hash(coordinate) + ".json"), node);
+    }
+
+    /**
+     * 读取漏洞记录
+     *
+     * @param modified 查询结果中的修改时间，为空时不校验
+     * @return 未缓存或已过时返回 null
+     */
+    public JsonNode getVulnerability(String id, String modified) {
+        JsonNode node = read(vulnDir.resolve(fileName(id)));
+        if (node == null || (!modified.isEmpty() && !modified.equals(node.path("modified").asText()))) {
+            return null;
+        }
+        return node;
+    }
+
+    public void putVulnerability(String id, JsonNode vuln) {
+        write(vulnDir.resolve(fileName(id)), vuln);
+    }
+
+    private JsonNode read(Path file) {
+        if (!enabled || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(file.toFile());
+        } catch (IOException e) {
+            logger.debug("读取OSV缓存失败: {} - {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再移动，并发扫描不会读到写了一半的文件
+     */
+    private void write(Path file, JsonNode node) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                objectMapper.writeValue(temp.toFile(), node);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            logger.debug("写入OSV缓存失败: {} - {}", file, e.getMessage());
+        }
+    }
+
+    private static String fileName(String id) {
+        return id.replaceAll("[^A-Za-z0-9._-]", "_") + ".json";
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.dependencyscanner.service;
+
+import com.example.dependencyscanner.model.Vulnerability;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OSV漏洞数据解析器
+ * 将OSV格式（API响应或数据包中的单条记录）转换为漏洞信息，在线扫描和离线镜像导入共用
+ */
+@Component
+public class OsvVulnerabilityParser {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OsvVulnerabilityParser.class);
+    
+    /**
+     * 解析指定组件的漏洞信息
+     * 
+     * @param vuln OSV漏洞记录
+     * @param groupId 组件groupId
+     * @param artifactId 组件artifactId
+     * @return 漏洞信息
+     */
+    public Vulnerability parse(JsonNode vuln, String groupId, String artifactId) {
+        Vulnerability vulnerability = new Vulnerability();
+        vulnerability.setGroupId(groupId);
+        vulnerability.setArtifactId(artifactId);
+        
+        // 1. 漏洞ID - 优先使用CVE，否则使用OSV ID
+        vulnerability.setCve(extractVulnerabilityId(vuln));
+        
+        // 2. 漏洞描述 - 合并summary和details
+        vulnerability.setDescription(buildDescription(vuln));
+        
+        // 3. 严重程度 - 从severity或database_specific中提取
+        vulnerability.setSeverity(extractSeverity(vuln));
+        
+        // 4. 参考链接 - 优先使用ADVISORY类型的链接
+        vulnerability.setReference(extractReference(vuln));
+        
+        // 5. 版本信息 - 解析affected数组获取版本范围和修复版本
+        extractVersionInfo(vuln, vulnerability, groupId, artifactId);
+        
+        return vulnerability;
+    }
+    
+    /**
+     * 提取漏洞ID，优先CVE
+     */
+    private String extractVulnerabilityId(JsonNode vuln) {
+        // 优先从aliases中查找CVE
+        JsonNode aliases = vuln.path("aliases");
+        if (aliases.isArray()) {
+            for (JsonNode alias : aliases) {
+                String aliasStr = alias.asText();
+                if (aliasStr.startsWith("CVE-")) {
+                    return aliasStr;
+                }
+            }
+        }
+        
+        // 如果没有CVE，使用OSV ID
+        return vuln.path("id").asText("UNKNOWN");
+    }
+    
+    /**
+     * 构建漏洞描述
+     */
+    private String buildDescription(JsonNode vuln) {
+        String summary = vuln.path("summary").asText("");
+        String details = vuln.path("details").asText("");
+        
+        if (!summary.isEmpty() && !details.isEmpty()) {
+            // 如果details比summary长很多，只使用summary
+            if (details.length() > summary.length() * 5) {
+                return summary;
+            }
+            // 否则合并两者
+            return summary + "\n\n" + details.substring(0, Math.min(details.length(), 500)) + 
+                   (details.length() > 500 ? "..." : "");
+        }
+        
+        return !summary.isEmpty() ? summary : 
+               (!details.isEmpty() ? details.substring(0, Math.min(details.length(), 300)) : "暂无描述");
+    }
+    
+    /**
+     * 提取严重程度
+     */
+    private String extractSeverity(JsonNode vuln) {
+        // 1. 从severity数组中提取
+        JsonNode severity = vuln.path("severity");
+        if (severity.isArray() && severity.size() > 0) {
+            for (JsonNode sev : severity) {
+                String type = sev.path("type").asText();
+                if ("CVSS_V3".equals(type)) {
+                    String score = sev.path("score").asText();
+                    return mapCVSSToSeverity(score);
+                }
+            }
+        }
+        
+        // 2. 从database_specific中提取
+        JsonNode dbSpecific = vuln.path("database_specific");
+        if (!dbSpecific.isMissingNode()) {
+            String severity_str = dbSpecific.path("severity").asText("");
+            if (!severity_str.isEmpty()) {
+                return mapSeverityString(severity_str);
+            }
+        }
+        
+        return "MEDIUM";
+    }
+    
+    /**
+     * 从CVSS评分映射到严重程度
+     */
+    private String mapCVSSToSeverity(String cvssScore) {
+        if (cvssScore.isEmpty()) return "MEDIUM";
+        
+        try {
+            // 提取CVSS分数 (格式如 "CVSS:3.1/AV:N/AC:L/PR:N/UI:N/S:U/C:H/I:H/A:H")
+            if (cvssScore.contains("/")) {
+                String[] parts = cvssScore.split("/");
+                for (String part : parts) {
+                    if (part.contains(":") && part.split(":").length == 2) {
+                        String value = part.split(":")[1];
+                        // 根据CVSS组件判断严重程度
+                        if ("C:H".equals(part) || "I:H".equals(part) || "A:H".equals(part)) {
+                            return "HIGH";
+                        }
+                    }
+                }
+            }
+            
+            // 尝试解析数字分数
+            String numPart = cvssScore.replaceAll("[^0-9.]", "");
+            if (!numPart.isEmpty()) {
+                double score = Double.parseDouble(numPart.split("\\.")[0] + "." + 
+                    (numPart.split("\\.").length > 1 ? numPart.split("\\.")[1] : "0"));
+                
+                if (score >= 9.0) return "CRITICAL";
+                if (score >= 7.0) return "HIGH";
+                if (score >= 4.0) return "MEDIUM";
+                return "LOW";
+            }
+        } catch (Exception e) {
+            logger.debug("解析CVSS评分失败: {}", cvssScore);
+        }
+        
+        return "MEDIUM";
+    }
+    
+    /**
+     * 映射严重程度字符串
+     */
+    private String mapSeverityString(String severity) {
+        if (severity == null) return "MEDIUM";
+        
+        String upper = severity.toUpperCase();
+        switch (upper) {
+            case "CRITICAL": return "CRITICAL";
+            case "HIGH": return "HIGH";
+            case "MODERATE": case "MEDIUM": return "MEDIUM";
+            case "LOW": return "LOW";
+            default: return "MEDIUM";
+        }
+    }
+    
+    /**
+     * 提取参考链接，优先ADVISORY类型
+     */
+    private String extractReference(JsonNode vuln) {
+        JsonNode references = vuln.path("references");
+        if (!references.isArray() || references.size() == 0) {
+            return "";
+        }
+        
+        // 优先查找ADVISORY类型的链接
+        for (JsonNode ref : references) {
+            String type = ref.path("type").asText("");
+            if ("ADVISORY".equals(type)) {
+                return ref.path("url").asText("");
+            }
+        }
+        
+        // 如果没有ADVISORY，使用第一个链接
+        return references.get(0).path("url").asText("");
+    }
+    
+    /**
+     * 提取版本信息
+     */
+    private void extractVersionInfo(JsonNode vuln, Vulnerability vulnerability, String groupId, String artifactId) {
+        JsonNode affected = vuln.path("affected");
+        if (!affected.isArray() || affected.size() == 0) {
+            return;
+        }
+        
+        // 查找匹配当前包的affected信息
+        for (JsonNode affectedItem : affected) {
+            JsonNode packageNode = affectedItem.path("package");
+            String packageName = packageNode.path("name").asText("");
+            String ecosystem = packageNode.path("ecosystem").asText("");
+            
+            // 检查是否匹配当前包
+            String expectedName = groupId + ":" + artifactId;
+            if ("Maven".equals(ecosystem) && expectedName.equals(packageName)) {
+                
+                // 提取版本范围
+                JsonNode ranges = affectedItem.path("ranges");
+                if (ranges.isArray() && ranges.size() > 0) {
+                    String versionRange = parseVersionRangeFromOSV(ranges);
+                    vulnerability.setVulnerableVersions(versionRange);
+                    
+                    // 提取修复版本
+                    String safeVersion = extractFixedVersionFromRanges(ranges);
+                    if (safeVersion != null) {
+                        vulnerability.setSafeVersion(safeVersion);
+                    }
+                }
+                
+                // 没有范围时使用枚举的受影响版本
+                JsonNode versions = affectedItem.path("versions");
+                if ((vulnerability.getVulnerableVersions() == null || vulnerability.getVulnerableVersions().isEmpty())
+                        && versions.isArray() && versions.size() > 0) {
+                    List<String> affectedVersions = new ArrayList<>();
+                    for (JsonNode version : versions) {
+                        affectedVersions.add(version.asText());
+                    }
+                    vulnerability.setVulnerableVersions(String.join(", ", affectedVersions));
+                }
+                
+                break; // 找到匹配的包就停止
+            }
+        }
+        
+        // 如果没有找到安全版本，设置默认建议
+        if (vulnerability.getSafeVersion() == null || vulnerability.getSafeVersion().isEmpty()) {
+            vulnerability.setSafeVersion("请查看最新版本");
+        }
+    }
+    
+    /**
+     * 从OSV ranges中解析版本范围
+     */
+    private String parseVersionRangeFromOSV(JsonNode ranges) {
+        StringBuilder sb = new StringBuilder();
+        
+        for (JsonNode range : ranges) {
+            String type = range.path("type").asText("");
+            if ("ECOSYSTEM".equals(type)) {
+                JsonNode events = range.path("events");
+                if (events.isArray()) {
+                    String rangeStr = buildVersionRangeString(events);
+                    if (!rangeStr.isEmpty()) {
+                        if (sb.length() > 0) sb.append(", ");
+                        sb.append(rangeStr);
+                    }
+                }
+            }
+        }
+        
+        return sb.toString();
+    }
+    
+    /**
+     * 构建版本范围字符串
+     * 按顺序将 introduced 与随后的 fixed / last_affected 配对，输出Maven区间，如 [2.0,2.15.0)；
+     * 多段区间用逗号分隔，introduced 为 0 表示没有下界
+     */
+    private String buildVersionRangeString(JsonNode events) {
+        List<String> intervals = new ArrayList<>();
+        String introduced = null;
+        boolean open = false;
+        
+        for (JsonNode event : events) {
+            if (event.has("introduced")) {
+                if (!open) {
+                    introduced = event.path("introduced").asText();
+                    open = true;
+                }
+            } else if (event.has("fixed")) {
+                intervals.add(buildInterval(introduced, event.path("fixed").asText(), false));
+                open = false;
+            } else if (event.has("last_affected")) {
+                intervals.add(buildInterval(introduced, event.path("last_affected").asText(), true));
+                open = false;
+            }
+        }
+        
+        if (open) {
+            intervals.add(buildInterval(introduced, null, false));
+        }
+        return String.join(", ", intervals);
+    }
+    
+    private String buildInterval(String introduced, String upper, boolean upperInclusive) {
+        boolean unbounded = introduced == null || introduced.isEmpty() || "0".equals(introduced);
+        return (unbounded ? "(," : "[" + introduced + ",")
+            + (upper == null ? ")" : upper + (upperInclusive ? "]" : ")"));
+    }
+    
+    /**
+     * 从ranges中提取修复版本
+     */
+    private String extractFixedVersionFromRanges(JsonNode ranges) {
+        String latestFixed = null;
+        
+        for (JsonNode range : ranges) {
+            JsonNode events = range.path("events");
+            if (events.isArray()) {
+                for (JsonNode event : events) {
+                    if (event.has("fixed")) {
+                        String fixedVersion = event.path("fixed").asText();
+                        if (!fixedVersion.isEmpty()) {
+                            // 保留最后一个修复版本（通常是最新的）
+                            latestFixed = fixedVersion;
+                        }
+                    }
+                }
+            }
+        }
+        
+        return latestFixed;
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.dependencyscanner.service;
+
+import com.example.dependencyscanner.dao.VulnerabilityChangeEvent;
+import com.example.dependencyscanner.dao.VulnerabilityDao;
+import com.example.dependencyscanner.model.DependencyInfo;
+import com.example.dependencyscanner.model.Vulnerability;
+import com.example.dependencyscanner.util.VersionRange;
+import com.example.dependencyscanner.util.VersionRangeChecker;
+import com.example.dependencyscanner.util.VersionRangeIndex;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地漏洞库内存索引
+ * 按 groupId:artifactId 分组，每组的漏洞版本范围预先解析为有序区间，
+ * 匹配一个依赖只需哈希查找候选组件，再在区间上二分查找，不再逐条比对全部漏洞。
+ * 首次使用时从数据库全量加载；之后收到 {@link VulnerabilityChangeEvent} 只重新加载变化的组件
+ */
+@Component
+public class VulnerabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VulnerabilityIndex.class);
+
+    private static final int MIN_FULL_RELOAD_KEYS = 64;
+
+    private final VulnerabilityDao vulnerabilityDao;
+
+    private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean reloadAll = true;
+    private volatile Snapshot snapshot = new Snapshot(Collections.<String, Package>emptyMap());
+
+    public VulnerabilityIndex(VulnerabilityDao vulnerabilityDao) {
+        this.vulnerabilityDao = vulnerabilityDao;
+    }
+
+    /**
+     * 记录变化的组件，下次匹配前增量刷新
+     */
+    @EventListener
+    public void onVulnerabilityChange(VulnerabilityChangeEvent event) {
+        if (event.isAll()) {
+            reloadAll = true;
+        } else {
+            dirtyKeys.addAll(event.getKeys());
+        }
+    }
+
+    /**
+     * 绕过DAO直接修改数据库后，标记下次匹配前全量重建
+     */
+    public void invalidateAll() {
+        reloadAll = true;
+    }
+
+    /**
+     * 查找影响指定依赖版本的漏洞
+     *
+     * @param dependency 依赖信息
+     * @return 命中的漏洞，未知版本返回空列表
+     */
+    public List<Vulnerability> match(DependencyInfo dependency) {
+        String version = dependency.getVersion();
+        if (version == null || "unknown".equals(version)) {
+            return Collections.emptyList();
+        }
+
+        Collection<Package> candidates = refresh().candidates(dependency);
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        ArtifactVersion parsedVersion = new DefaultArtifactVersion(version);
+        List<Vulnerability> matched = new ArrayList<>();
+        for (Package pkg : candidates) {
+            BitSet hits = pkg.ranges.match(parsedVersion, version);
+            for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+                matched.add(pkg.advisories.get(i));
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 索引中的漏洞条数
+     */
+    public int size() {
+        return refresh().advisoryCount;
+    }
+
+    private Snapshot refresh() {
+        if (!reloadAll && dirtyKeys.isEmpty()) {
+            return snapshot;
+        }
+        synchronized (this) {
+            // 大批量导入时逐个组件查询反而更慢
+            if (reloadAll || dirtyKeys.size() > Math.max(MIN_FULL_RELOAD_KEYS, snapshot.packages.size() / 4)) {
+                reloadAll = false;
+                dirtyKeys.clear();
+                try {
+                    snapshot = load();
+                } catch (RuntimeException e) {
+                    reloadAll = true;
+                    throw e;
+                }
+            } else if (!dirtyKeys.isEmpty()) {
+                snapshot = reload(snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        long startTime = System.currentTimeMillis();
+        List<Vulnerability> vulnerabilities = vulnerabilityDao.findAll();
+
+        Map<String, List<Vulnerability>> grouped = new LinkedHashMap<>();
+        for (Vulnerability vulnerability : vulnerabilities) {
+            if (vulnerability.getGroupId() == null || vulnerability.getArtifactId() == null) {
+                continue;
+            }
+            String key = VulnerabilityChangeEvent.key(vulnerability.getGroupId(), vulnerability.getArtifactId());
+            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(vulnerability);
+        }
+
+        Map<String, Package> packages = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Vulnerability>> entry : grouped.entrySet()) {
+            packages.put(entry.getKey(), new Package(entry.getValue()));
+        }
+
+        Snapshot loaded = new Snapshot(packages);
+        logger.info("漏洞索引已加载: {} 条漏洞, {} 个组件, 耗时 {} ms",
+                   loaded.advisoryCount, packages.size(), System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+
+    private Snapshot reload(Snapshot current) {
+        Map<String, Package> packages = new LinkedHashMap<>(current.packages);
+        int reloaded = 0;
+
+        Iterator<String> iterator = dirtyKeys.iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+            iterator.remove();
+
+            int separator = key.indexOf(':');
+            List<Vulnerability> vulnerabilities = vulnerabilityDao.findByGroupIdAndArtifactId(
+                key.substring(0, separator), key.substring(separator + 1));
+            if (vulnerabilities.isEmpty()) {
+                packages.remove(key);
+            } else {
+                packages.put(key, new Package(vulnerabilities));
+            }
+            reloaded++;
+        }
+
+        logger.debug("漏洞索引增量刷新 {} 个组件", reloaded);
+        return new Snapshot(packages);
+    }
+
+    /**
+     * 单个组件的全部漏洞及其版本区间
+     */
+    private static final class Package {
+        private final String groupId;
+        private final String artifactId;
+        private final List<Vulnerability> advisories;
+        private final VersionRangeIndex ranges;
+
+        Package(List<Vulnerability> advisories) {
+            this.groupId = advisories.get(0).getGroupId().toLowerCase();
+            this.artifactId = advisories.get(0).getArtifactId().toLowerCase();
+            this.advisories = advisories;
+
+            VersionRangeIndex.Builder builder = VersionRangeIndex.builder();
+            for (int i = 0; i < advisories.size(); i++) {
+                for (VersionRange range : VersionRangeChecker.parse(advisories.get(i).getVulnerableVersions())) {
+                    builder.add(range, i);
+                }
+            }
+            this.ranges = builder.build();
+        }
+    }
+
+    /**
+     * 不可变的索引快照，刷新时整体替换
+     */
+    private static final class Snapshot {
+        private final Map<String, Package> packages;
+        private final Map<String, List<Package>> byArtifact = new HashMap<>();
+        private final Map<String, List<Package>> byGroup = new HashMap<>();
+        private final List<Package> log4jPackages = new ArrayList<>();
+        private final String[] groups;
+        private final int advisoryCount;
+
+        // 依赖 groupId 与索引中 groupId 的包含关系，同一批依赖的 groupId 大量重复
+        private final Map<String, List<String>> relatedGroups = new ConcurrentHashMap<>();
+
+        Snapshot(Map<String, Package> packages) {
+            this.packages = packages;
+            int count = 0;
+            for (Package pkg : packages.values()) {
+                byArtifact.computeIfAbsent(pkg.artifactId, k -> new ArrayList<>()).add(pkg);
+                byGroup.computeIfAbsent(pkg.groupId, k -> new ArrayList<>()).add(pkg);
+                if (pkg.artifactId.contains("log4j")) {
+                    log4jPackages.add(pkg);
+                }
+                count += pkg.advisories.size();
+            }
+            this.groups = byGroup.keySet().toArray(new String[0]);
+            this.advisoryCount = count;
+        }
+
+        /**
+         * 找出与依赖匹配的组件
+         * 精确匹配 groupId:artifactId，并保留原有的模糊匹配规则：
+         * groupId 为 unknown 时只比较 artifactId；groupId、artifactId 互相包含；
+         * Spring、Jackson 同名构件；log4j 相关构件
+         */
+        Collection<Package> candidates(DependencyInfo dependency) {
+            Set<Package> result = new LinkedHashSet<>();
+            Package exact = packages.get(VulnerabilityChangeEvent.key(dependency.getGroupId(), dependency.getArtifactId()));
+            if (exact != null) {
+                result.add(exact);
+            }
+
+            String depGroupId = dependency.getGroupId().toLowerCase();
+            String depArtifactId = dependency.getArtifactId().toLowerCase();
+            List<Package> sameArtifact = byArtifact.getOrDefault(depArtifactId, Collections.<Package>emptyList());
+
+            if ("unknown".equals(depGroupId)) {
+                result.addAll(sameArtifact);
+                return result;
+            }
+
+            for (String group : relatedGroups.computeIfAbsent(depGroupId, this::findRelatedGroups)) {
+                for (Package pkg : byGroup.get(group)) {
+                    if (depArtifactId.contains(pkg.artifactId) || pkg.artifactId.contains(depArtifactId)) {
+                        result.add(pkg);
+                    }
+                }
+            }
+
+            boolean spring = depGroupId.startsWith("org.springframework");
+            boolean jackson = depGroupId.contains("jackson");
+            if (spring || jackson) {
+                for (Package pkg : sameArtifact) {
+                    if ((spring && pkg.groupId.startsWith("org.springframework"))
+                        || (jackson && pkg.groupId.contains("jackson"))) {
+                        result.add(pkg);
+                    }
+                }
+            }
+
+            if (depArtifactId.contains("log4j")) {
+                result.addAll(log4jPackages);
+            }
+            return result;
+        }
+
+        private List<String> findRelatedGroups(String depGroupId) {
+            List<String> related = new ArrayList<>();
+            for (String group : groups) {
+                if (depGroupId.contains(group) || group.contains(depGroupId)) {
+                    related.add(group);
+                }
+            }
+            return related;
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.example.dependencyscanner.service;
 
-import com.example.dependencyscanner.dao.VulnerabilityDao;
 import com.example.dependencyscanner.model.DependencyInfo;
 import com.example.dependencyscanner.model.DependencyRisk;
 import com.example.dependencyscanner.model.Vulnerability;
-import com.example.dependencyscanner.util.VersionRangeChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +10,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 漏洞匹配服务
@@ -25,7 +27,7 @@ public class VulnerabilityMatcher {
     private static final Logger logger = LoggerFactory.getLogger(VulnerabilityMatcher.class);
     
     @Autowired
-    private VulnerabilityDao vulnerabilityDao;
+    private VulnerabilityIndex vulnerabilityIndex;
     
     @Autowired
     private OnlineVulnerabilityService onlineVulnerabilityService;
@@ -33,6 +35,9 @@ public class VulnerabilityMatcher {
     @Value("${vulnerability.scan.mode:online}")
     private String scanMode;
     
+    @Value("${vulnerability.scan.parallel:true}")
+    private boolean enableParallelScan;
+    
     /**
      * 匹配依赖列表中的漏洞
      * 
@@ -47,13 +52,13 @@ public class VulnerabilityMatcher {
         if ("online".equalsIgnoreCase(scanMode)) {
             logger.info("使用在线漏洞扫描模式");
             risks = onlineVulnerabilityService.scanDependencies(dependencies);
-        }/* else if ("local".equalsIgnoreCase(scanMode)) {
+        } else if ("local".equalsIgnoreCase(scanMode)) {
             logger.info("使用本地数据库扫描模式");
             risks = matchWithLocalDatabase(dependencies);
         } else if ("hybrid".equalsIgnoreCase(scanMode)) {
             logger.info("使用混合扫描模式（本地+在线）");
             risks = matchWithHybridMode(dependencies);
-        } */else {
+        } else {
             logger.warn("未知的扫描模式: {}，使用默认在线模式", scanMode);
             risks = onlineVulnerabilityService.scanDependencies(dependencies);
         }
@@ -64,19 +69,15 @@ public class VulnerabilityMatcher {
     
     /**
      * 使用本地数据库匹配
+     * 通过内存索引查找，各依赖之间互不影响，可以并行处理
      */
     private List<DependencyRisk> matchWithLocalDatabase(List<DependencyInfo> dependencies) {
-        List<DependencyRisk> risks = new ArrayList<>();
-        List<Vulnerability> allVulnerabilities = vulnerabilityDao.findAll();
-        
-        logger.info("本地漏洞数据库中共有 {} 条漏洞记录", allVulnerabilities.size());
-        
-        for (DependencyInfo dependency : dependencies) {
-            List<DependencyRisk> dependencyRisks = matchSingleDependency(dependency, allVulnerabilities);
-            risks.addAll(dependencyRisks);
-        }
+        logger.info("本地漏洞数据库中共有 {} 条漏洞记录", vulnerabilityIndex.size());
         
-        return risks;
+        Stream<DependencyInfo> stream = enableParallelScan ? dependencies.parallelStream() : dependencies.stream();
+        return stream
+            .flatMap(dependency -> matchSingleDependency(dependency).stream())
+            .collect(Collectors.toList());
     }
     
     /**
@@ -90,13 +91,14 @@ public class VulnerabilityMatcher {
         risks.addAll(localRisks);
         
         // 对于本地数据库没有发现漏洞的依赖，使用在线扫描
+        Set<String> foundInLocal = new HashSet<>();
+        for (DependencyRisk risk : localRisks) {
+            foundInLocal.add(risk.getGroupId() + ":" + risk.getArtifactId());
+        }
+        
         List<DependencyInfo> unscannedDependencies = new ArrayList<>();
         for (DependencyInfo dependency : dependencies) {
-            boolean foundInLocal = localRisks.stream()
-                .anyMatch(risk -> risk.getGroupId().equals(dependency.getGroupId()) 
-                    && risk.getArtifactId().equals(dependency.getArtifactId()));
-            
-            if (!foundInLocal) {
+            if (!foundInLocal.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
                 unscannedDependencies.add(dependency);
             }
         }
@@ -114,113 +116,24 @@ public class VulnerabilityMatcher {
      * 匹配单个依赖的漏洞
      * 
      * @param dependency 依赖信息
-     * @param vulnerabilities 漏洞列表
      * @return 该依赖的风险列表
      */
-    private List<DependencyRisk> matchSingleDependency(DependencyInfo dependency, List<Vulnerability> vulnerabilities) {
+    private List<DependencyRisk> matchSingleDependency(DependencyInfo dependency) {
         List<DependencyRisk> risks = new ArrayList<>();
         
-        for (Vulnerability vulnerability : vulnerabilities) {
-            if (isMatch(dependency, vulnerability)) {
-                if (isVersionVulnerable(dependency.getVersion(), vulnerability.getVulnerableVersions())) {
-                    DependencyRisk risk = new DependencyRisk(dependency, vulnerability);
-                    risks.add(risk);
-                    
-                    logger.debug("发现漏洞: {}:{}:{} -> {}", 
-                               dependency.getGroupId(), 
-                               dependency.getArtifactId(), 
-                               dependency.getVersion(), 
-                               vulnerability.getCve());
-                }
-            }
+        for (Vulnerability vulnerability : vulnerabilityIndex.match(dependency)) {
+            risks.add(new DependencyRisk(dependency, vulnerability));
+            
+            logger.debug("发现漏洞: {}:{}:{} -> {}", 
+                       dependency.getGroupId(), 
+                       dependency.getArtifactId(), 
+                       dependency.getVersion(), 
+                       vulnerability.getCve());
         }
         
         return risks;
     }
     
-    /**
-     * 检查依赖是否匹配漏洞记录
-     * 
-     * @param dependency 依赖信息
-     * @param vulnerability 漏洞信息
-     * @return 是否匹配
-     */
-    private boolean isMatch(DependencyInfo dependency, Vulnerability vulnerability) {
-        // 精确匹配 groupId 和 artifactId
-        if (dependency.getGroupId().equals(vulnerability.getGroupId()) && 
-            dependency.getArtifactId().equals(vulnerability.getArtifactId())) {
-            return true;
-        }
-        
-        // 模糊匹配：处理一些特殊情况
-        return isFuzzyMatch(dependency, vulnerability);
-    }
-    
-    /**
-     * 模糊匹配逻辑
-     * 处理一些groupId或artifactId可能不完全一致的情况
-     */
-    private boolean isFuzzyMatch(DependencyInfo dependency, Vulnerability vulnerability) {
-        String depGroupId = dependency.getGroupId().toLowerCase();
-        String depArtifactId = dependency.getArtifactId().toLowerCase();
-        String vulnGroupId = vulnerability.getGroupId().toLowerCase();
-        String vulnArtifactId = vulnerability.getArtifactId().toLowerCase();
-        
-        // 处理 unknown groupId 的情况
-        if ("unknown".equals(depGroupId)) {
-            return depArtifactId.equals(vulnArtifactId);
-        }
-        
-        // 处理 artifactId 包含关系
-        if (depArtifactId.contains(vulnArtifactId) || vulnArtifactId.contains(depArtifactId)) {
-            // 进一步检查 groupId 是否相关
-            if (depGroupId.contains(vulnGroupId) || vulnGroupId.contains(depGroupId)) {
-                return true;
-            }
-        }
-        
-        // 处理一些常见的命名变化
-        return isCommonVariation(depGroupId, depArtifactId, vulnGroupId, vulnArtifactId);
-    }
-    
-    /**
-     * 检查是否为常见的命名变化
-     */
-    private boolean isCommonVariation(String depGroupId, String depArtifactId, 
-                                     String vulnGroupId, String vulnArtifactId) {
-        // Spring Boot 相关的变化
-        if (depGroupId.startsWith("org.springframework") && vulnGroupId.startsWith("org.springframework")) {
-            return depArtifactId.equals(vulnArtifactId);
-        }
-        
-        // Jackson 相关的变化
-        if (depGroupId.contains("jackson") && vulnGroupId.contains("jackson")) {
-            return depArtifactId.equals(vulnArtifactId);
-        }
-        
-        // Log4j 相关的变化
-        if (depArtifactId.contains("log4j") && vulnArtifactId.contains("log4j")) {
-            return true;
-        }
-        
-        return false;
-    }
-    
-    /**
-     * 检查版本是否存在漏洞
-     * 
-     * @param version 当前版本
-     * @param vulnerableVersions 漏洞版本范围
-     * @return 是否存在漏洞
-     */
-    private boolean isVersionVulnerable(String version, String vulnerableVersions) {
-        if ("unknown".equals(version) || vulnerableVersions == null) {
-            return false;
-        }
-        
-        return VersionRangeChecker.isVulnerable(version, vulnerableVersions);
-    }
-    
     /**
      * 根据风险等级排序
      * 
@@ -0,0 +1,96 @@
+package com.example.dependencyscanner.util;
+
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+
+/**
+ * 预解析的版本区间
+ * 上下界为 null 表示无界；无法解析的表达式退化为按原始字符串精确匹配
+ */
+public final class VersionRange {
+
+    private final ArtifactVersion lower;
+    private final boolean lowerInclusive;
+    private final ArtifactVersion upper;
+    private final boolean upperInclusive;
+    private final String exact;
+
+    private VersionRange(ArtifactVersion lower, boolean lowerInclusive,
+                         ArtifactVersion upper, boolean upperInclusive, String exact) {
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+        this.exact = exact;
+    }
+
+    public static VersionRange between(ArtifactVersion lower, boolean lowerInclusive,
+                                       ArtifactVersion upper, boolean upperInclusive) {
+        return new VersionRange(lower, lowerInclusive, upper, upperInclusive, null);
+    }
+
+    public static VersionRange point(ArtifactVersion version) {
+        return new VersionRange(version, true, version, true, null);
+    }
+
+    public static VersionRange literal(String version) {
+        return new VersionRange(null, false, null, false, version);
+    }
+
+    /**
+     * 检查版本是否落在区间内
+     *
+     * @param version 已解析的版本
+     * @param raw 原始版本字符串，用于精确匹配
+     */
+    public boolean contains(ArtifactVersion version, String raw) {
+        if (exact != null) {
+            return exact.equals(raw);
+        }
+        return isAboveLower(version) && isBelowUpper(version);
+    }
+
+    boolean isAboveLower(ArtifactVersion version) {
+        if (lower == null) {
+            return true;
+        }
+        int comparison = version.compareTo(lower);
+        return lowerInclusive ? comparison >= 0 : comparison > 0;
+    }
+
+    boolean isBelowUpper(ArtifactVersion version) {
+        if (upper == null) {
+            return true;
+        }
+        int comparison = version.compareTo(upper);
+        return upperInclusive ? comparison <= 0 : comparison < 0;
+    }
+
+    boolean isLiteral() {
+        return exact != null;
+    }
+
+    String getLiteral() {
+        return exact;
+    }
+
+    ArtifactVersion getLower() {
+        return lower;
+    }
+
+    ArtifactVersion getUpper() {
+        return upper;
+    }
+
+    boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    @Override
+    public String toString() {
+        if (exact != null) {
+            return exact;
+        }
+        return (lowerInclusive ? "[" : "(") + (lower == null ? "" : lower.toString()) + ","
+            + (upper == null ? "" : upper.toString()) + (upperInclusive ? "]" : ")");
+    }
+}
@@ -5,6 +5,8 @@ import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +30,11 @@ public class VersionRangeChecker {
         "^(<=|>=|<|>|=)?\\s*([0-9]+(?:\\.[0-9]+)*(?:-[A-Za-z0-9]+)*)$"
     );
     
+    // 单个比较表达式或版本号 (如 <=2.14.1, 1.2.3.RELEASE)
+    private static final Pattern COMPARISON_PATTERN = Pattern.compile(
+        "^(<=|>=|<|>|=)?\\s*([^\\s,<>=\\[\\]\\(\\)]+)$"
+    );
+    
     /**
      * 检查指定版本是否在漏洞版本范围内
      * 
@@ -41,10 +48,9 @@ public class VersionRangeChecker {
         }
         
         try {
-            // 处理多个范围用逗号分隔的情况
-            String[] ranges = vulnerableVersions.split("\\s*,\\s*");
-            for (String range : ranges) {
-                if (isVersionInRange(version, range.trim())) {
+            ArtifactVersion currentVersion = new DefaultArtifactVersion(version);
+            for (VersionRange range : parse(vulnerableVersions)) {
+                if (range.contains(currentVersion, version)) {
                     return true;
                 }
             }
@@ -57,23 +63,103 @@ public class VersionRangeChecker {
     }
     
     /**
-     * 检查版本是否在指定范围内
+     * 解析漏洞版本范围表达式
+     * 多个范围用方括号/圆括号外的逗号分隔，任意一个命中即视为存在漏洞
+     * 
+     * @param vulnerableVersions 漏洞版本范围表达式
+     * @return 解析后的区间列表
+     */
+    public static List<VersionRange> parse(String vulnerableVersions) {
+        List<VersionRange> ranges = new ArrayList<>();
+        if (vulnerableVersions == null) {
+            return ranges;
+        }
+        
+        for (String range : splitRanges(vulnerableVersions)) {
+            if (!range.isEmpty()) {
+                ranges.add(parseRange(range));
+            }
+        }
+        return ranges;
+    }
+    
+    /**
+     * 按括号外的逗号拆分，[1.0,2.0) 这类区间内部的逗号不拆
      */
-    private static boolean isVersionInRange(String version, String range) {
-        // 首先尝试简单比较表达式
-        Matcher simpleMatcher = SIMPLE_PATTERN.matcher(range);
-        if (simpleMatcher.matches()) {
-            return checkSimpleRange(version, simpleMatcher.group(1), simpleMatcher.group(2));
+    private static List<String> splitRanges(String vulnerableVersions) {
+        List<String> ranges = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < vulnerableVersions.length(); i++) {
+            char c = vulnerableVersions.charAt(i);
+            if (c == '[' || c == '(') {
+                depth++;
+            } else if ((c == ']' || c == ')') && depth > 0) {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                ranges.add(vulnerableVersions.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        ranges.add(vulnerableVersions.substring(start).trim());
+        return ranges;
+    }
+    
+    /**
+     * 解析单个范围
+     * 支持比较表达式（<=2.14.1）、Maven区间（[1.0,2.0)、[1.0]）和单独的版本号，
+     * 其余格式按原始字符串精确匹配
+     */
+    private static VersionRange parseRange(String range) {
+        Matcher comparisonMatcher = COMPARISON_PATTERN.matcher(range);
+        if (comparisonMatcher.matches()) {
+            String operator = comparisonMatcher.group(1);
+            ArtifactVersion target = new DefaultArtifactVersion(comparisonMatcher.group(2));
+            if (operator == null || operator.equals("=")) {
+                return VersionRange.point(target);
+            }
+            switch (operator) {
+                case "<=":
+                    return VersionRange.between(null, false, target, true);
+                case ">=":
+                    return VersionRange.between(target, true, null, false);
+                case "<":
+                    return VersionRange.between(null, false, target, false);
+                default:
+                    return VersionRange.between(target, false, null, false);
+            }
         }
         
-        // 尝试Maven风格的范围表达式
         Matcher rangeMatcher = RANGE_PATTERN.matcher(range);
-        if (rangeMatcher.matches()) {
-            return checkMavenRange(version, rangeMatcher);
+        if (rangeMatcher.matches() && rangeMatcher.group(1) != null && rangeMatcher.group(4) != null) {
+            String lowerBound = trimToNull(rangeMatcher.group(2));
+            String upperBound = rangeMatcher.group(3);
+            boolean lowerInclusive = "[".equals(rangeMatcher.group(1));
+            boolean upperInclusive = "]".equals(rangeMatcher.group(4));
+            
+            if (upperBound == null) {
+                // [1.0] 表示仅该版本
+                if (lowerBound != null && lowerInclusive && upperInclusive) {
+                    return VersionRange.point(new DefaultArtifactVersion(lowerBound));
+                }
+            } else {
+                upperBound = trimToNull(upperBound);
+                return VersionRange.between(
+                    lowerBound == null ? null : new DefaultArtifactVersion(lowerBound), lowerInclusive,
+                    upperBound == null ? null : new DefaultArtifactVersion(upperBound), upperInclusive);
+            }
         }
         
         // 如果都不匹配，尝试精确匹配
-        return version.equals(range);
+        return VersionRange.literal(range);
+    }
+    
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
     }
     
     /**
@@ -103,60 +189,6 @@ public class VersionRangeChecker {
         }
     }
     
-    /**
-     * 检查Maven风格的范围表达式
-     * 格式: [1.0,2.0) 表示 1.0 <= version < 2.0
-     *      (1.0,2.0] 表示 1.0 < version <= 2.0
-     *      [1.0,) 表示 version >= 1.0
-     *      (,2.0] 表示 version <= 2.0
-     */
-    private static boolean checkMavenRange(String version, Matcher matcher) {
-        String leftBracket = matcher.group(1);
-        String lowerBound = matcher.group(2);
-        String upperBound = matcher.group(3);
-        String rightBracket = matcher.group(4);
-        
-        ArtifactVersion currentVersion = new DefaultArtifactVersion(version);
-        
-        // 检查下界
-        if (lowerBound != null && !lowerBound.isEmpty()) {
-            ArtifactVersion lower = new DefaultArtifactVersion(lowerBound);
-            int lowerComparison = currentVersion.compareTo(lower);
-            
-            if ("[".equals(leftBracket)) {
-                // 包含下界
-                if (lowerComparison < 0) {
-                    return false;
-                }
-            } else {
-                // 不包含下界
-                if (lowerComparison <= 0) {
-                    return false;
-                }
-            }
-        }
-        
-        // 检查上界
-        if (upperBound != null && !upperBound.isEmpty()) {
-            ArtifactVersion upper = new DefaultArtifactVersion(upperBound);
-            int upperComparison = currentVersion.compareTo(upper);
-            
-            if ("]".equals(rightBracket)) {
-                // 包含上界
-                if (upperComparison > 0) {
-                    return false;
-                }
-            } else {
-                // 不包含上界
-                if (upperComparison >= 0) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
-    }
-    
     /**
      * 比较两个版本号
      * 
@@ -0,0 +1,147 @@
+package com.example.dependencyscanner.util;
+
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 同一组件所有漏洞版本区间的查找结构
+ * 区间按下界升序排列，并记录前缀中最大的上界：查询时二分定位最后一个下界不超过目标版本的区间，
+ * 再向前扫描，一旦前缀最大上界已低于目标版本即可停止
+ */
+public final class VersionRangeIndex {
+
+    private static final Comparator<VersionRange> BY_LOWER = (r1, r2) -> {
+        if (r1.getLower() == null || r2.getLower() == null) {
+            return r1.getLower() == null ? (r2.getLower() == null ? 0 : -1) : 1;
+        }
+        return r1.getLower().compareTo(r2.getLower());
+    };
+
+    private final VersionRange[] ranges;
+    private final int[] owners;
+    private final int[] maxUpper;
+    private final Map<String, int[]> literals;
+    private final int ownerCount;
+
+    private VersionRangeIndex(VersionRange[] ranges, int[] owners, Map<String, int[]> literals, int ownerCount) {
+        this.ranges = ranges;
+        this.owners = owners;
+        this.literals = literals;
+        this.ownerCount = ownerCount;
+        this.maxUpper = new int[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            maxUpper[i] = i == 0 || isHigherUpper(ranges[i], ranges[maxUpper[i - 1]]) ? i : maxUpper[i - 1];
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 查找包含指定版本的区间所属的编号
+     *
+     * @param version 已解析的版本
+     * @param raw 原始版本字符串
+     * @return 命中的编号集合
+     */
+    public BitSet match(ArtifactVersion version, String raw) {
+        BitSet matched = new BitSet(ownerCount);
+
+        int[] literalOwners = literals.get(raw);
+        if (literalOwners != null) {
+            for (int owner : literalOwners) {
+                matched.set(owner);
+            }
+        }
+
+        for (int i = lastLowerNotAbove(version); i >= 0; i--) {
+            if (!ranges[maxUpper[i]].isBelowUpper(version)) {
+                break;
+            }
+            if (ranges[i].contains(version, raw)) {
+                matched.set(owners[i]);
+            }
+        }
+        return matched;
+    }
+
+    public int size() {
+        return ranges.length;
+    }
+
+    private int lastLowerNotAbove(ArtifactVersion version) {
+        int low = 0;
+        int high = ranges.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            ArtifactVersion lower = ranges[mid].getLower();
+            if (lower == null || lower.compareTo(version) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private static boolean isHigherUpper(VersionRange r1, VersionRange r2) {
+        if (r2.getUpper() == null) {
+            return false;
+        }
+        if (r1.getUpper() == null) {
+            return true;
+        }
+        int comparison = r1.getUpper().compareTo(r2.getUpper());
+        return comparison > 0 || (comparison == 0 && r1.isUpperInclusive() && !r2.isUpperInclusive());
+    }
+
+    public static final class Builder {
+        private final List<VersionRange> ranges = new ArrayList<>();
+        private final List<Integer> owners = new ArrayList<>();
+        private final Map<String, List<Integer>> literals = new HashMap<>();
+        private int ownerCount;
+
+        private Builder() {
+        }
+
+        public Builder add(VersionRange range, int owner) {
+            if (range.isLiteral()) {
+                literals.computeIfAbsent(range.getLiteral(), k -> new ArrayList<>()).add(owner);
+            } else {
+                ranges.add(range);
+                owners.add(owner);
+            }
+            ownerCount = Math.max(ownerCount, owner + 1);
+            return this;
+        }
+
+        public VersionRangeIndex build() {
+            Integer[] order = new Integer[ranges.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (i1, i2) -> BY_LOWER.compare(ranges.get(i1), ranges.get(i2)));
+
+            VersionRange[] sortedRanges = new VersionRange[order.length];
+            int[] sortedOwners = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedRanges[i] = ranges.get(order[i]);
+                sortedOwners[i] = owners.get(order[i]);
+            }
+
+            Map<String, int[]> literalOwners = new HashMap<>();
+            for (Map.Entry<String, List<Integer>> entry : literals.entrySet()) {
+                literalOwners.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return new VersionRangeIndex(sortedRanges, sortedOwners, literalOwners, ownerCount);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- 本地漏洞库，local / hybrid 扫描模式和OSV离线镜像使用
+CREATE TABLE IF NOT EXISTS vulnerabilities (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    group_id VARCHAR(255) NOT NULL,
+    artifact_id VARCHAR(255) NOT NULL,
+    vulnerable_versions TEXT,
+    safe_version VARCHAR(255),
+    cve VARCHAR(100) NOT NULL,
+    description TEXT,
+    severity VARCHAR(20),
+    reference VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_vulnerability (group_id, artifact_id, cve)
+);
@@ -0,0 +1,115 @@
+import com.example.dependencyscanner.dao.VulnerabilityChangeEvent;
+import com.example.dependencyscanner.dao.VulnerabilityDao;
+import com.example.dependencyscanner.model.DependencyInfo;
+import com.example.dependencyscanner.model.Vulnerability;
+import com.example.dependencyscanner.service.VulnerabilityIndex;
+import com.example.dependencyscanner.util.VersionRangeChecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * 本地漏洞索引基准：20万条漏洞 × 1000个依赖
+ * 对比逐条遍历全部漏洞并解析版本范围的做法
+ */
+public class VulnerabilityIndexBenchmark {
+
+    private static final int ADVISORIES = 200_000;
+    private static final int DEPENDENCIES = 1_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<Vulnerability> vulnerabilities = new ArrayList<>(ADVISORIES);
+        for (int i = 0; i < ADVISORIES; i++) {
+            String groupId = "org.example.g" + (i % 2_000);
+            String artifactId = "lib-" + (i % 20_000);
+            vulnerabilities.add(new Vulnerability(groupId, artifactId, randomRange(random),
+                    null, "CVE-2024-" + i, null, "HIGH", null));
+        }
+
+        List<DependencyInfo> dependencies = new ArrayList<>(DEPENDENCIES);
+        for (int i = 0; i < DEPENDENCIES; i++) {
+            int pkg = random.nextInt(40_000);
+            String version = random.nextInt(5) + "." + random.nextInt(10) + "." + random.nextInt(10);
+            dependencies.add(new DependencyInfo("org.example.g" + (pkg % 2_000), "lib-" + pkg, version, null));
+        }
+
+        InMemoryDao dao = new InMemoryDao(vulnerabilities);
+        VulnerabilityIndex index = new VulnerabilityIndex(dao);
+
+        long start = System.nanoTime();
+        index.size();
+        System.out.printf("索引构建: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            int matched = dependencies.parallelStream().mapToInt(d -> index.match(d).size()).sum();
+            long indexed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int scanned = scanAll(dependencies, vulnerabilities);
+            long linear = System.nanoTime() - start;
+
+            System.out.printf("索引匹配: %d ms (%d 条) | 逐条遍历: %d ms (%d 条)%n",
+                    indexed / 1_000_000, matched, linear / 1_000_000, scanned);
+        }
+
+        Vulnerability added = new Vulnerability("org.example.g7", "lib-7", "[0,)", null, "CVE-2024-NEW", null, "HIGH", null);
+        dao.vulnerabilities.add(added);
+        index.onVulnerabilityChange(VulnerabilityChangeEvent.of(Collections.singletonList(added)));
+        start = System.nanoTime();
+        index.size();
+        System.out.printf("增量刷新1个组件: %.2f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    private static int scanAll(List<DependencyInfo> dependencies, List<Vulnerability> vulnerabilities) {
+        int matched = 0;
+        for (DependencyInfo dependency : dependencies) {
+            for (Vulnerability vulnerability : vulnerabilities) {
+                if (dependency.matches(vulnerability)
+                        && VersionRangeChecker.isVulnerable(dependency.getVersion(), vulnerability.getVulnerableVersions())) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static String randomRange(Random random) {
+        String low = random.nextInt(4) + "." + random.nextInt(10);
+        String high = (random.nextInt(4) + 1) + "." + random.nextInt(10) + "." + random.nextInt(10);
+        switch (random.nextInt(4)) {
+            case 0:
+                return "[" + low + "," + high + ")";
+            case 1:
+                return "<=" + high;
+            case 2:
+                return "(," + low + "], [" + high + ",)";
+            default:
+                return low + ".0";
+        }
+    }
+
+    private static class InMemoryDao extends VulnerabilityDao {
+        private final List<Vulnerability> vulnerabilities;
+
+        InMemoryDao(List<Vulnerability> vulnerabilities) {
+            this.vulnerabilities = new ArrayList<>(vulnerabilities);
+        }
+
+        @Override
+        public List<Vulnerability> findAll() {
+            return vulnerabilities;
+        }
+
+        @Override
+        public List<Vulnerability> findByGroupIdAndArtifactId(String groupId, String artifactId) {
+            return vulnerabilities.stream()
+                    .filter(v -> v.getGroupId().equals(groupId) && v.getArtifactId().equals(artifactId))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -6,11 +6,19 @@ import com.example.asn1.service.Asn1ParserService;
 import com.example.asn1.exception.Asn1ParseException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -71,6 +79,45 @@ public class Asn1Controller {
         }
     }
 
+    /**
+     * 流式扫描二进制DER/BER数据
+     * 请求体先落盘再以内存映射方式扫描，适合上百MB的CRL等大文件，只返回前几层结构和按类型的计数
+     *
+     * @param request      请求，请求体为原始二进制数据
+     * @param outlineDepth 返回的结构层级
+     * @return 扫描结果
+     */
+    @PostMapping(value = "/scan", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Asn1ParseResponse> scanAsn1(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "3") @Min(1) @Max(16) int outlineDepth) {
+
+        log.info("收到ASN.1扫描请求，数据长度: {}, 结构层级: {}", request.getContentLengthLong(), outlineDepth);
+
+        Path file = null;
+        try {
+            file = Files.createTempFile("asn1-scan-", ".der");
+            Files.copy(request.getInputStream(), file, StandardCopyOption.REPLACE_EXISTING);
+
+            Asn1ParseResponse response = asn1ParserService.scanAsn1File(file, outlineDepth);
+            log.info("ASN.1扫描成功，耗时: {}ms", response.getMetadata().get("elapsedMillis"));
+            return ResponseEntity.ok(response);
+
+        } catch (Asn1ParseException e) {
+            log.warn("ASN.1扫描失败: {}", e.getMessage());
+            Asn1ParseResponse errorResponse = createErrorResponse(e.getMessage(), e.getErrorCode());
+            return ResponseEntity.badRequest().body(errorResponse);
+
+        } catch (Exception e) {
+            log.error("ASN.1扫描异常: ", e);
+            Asn1ParseResponse errorResponse = createErrorResponse("服务器内部错误", "INTERNAL_ERROR");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
     /**
      * 获取ASN.1解析器信息
      *
@@ -90,6 +137,7 @@ public class Asn1Controller {
             "UTCTime", "GeneralizedTime", "TAGGED"
         ));
         info.put("encodingRules", Arrays.asList("BER", "DER"));
+        info.put("parser", "单次遍历TLV分词器");
         info.put("library", "Bouncy Castle");
         info.put("bouncyCastleVersion", "1.75");
 
@@ -176,6 +224,22 @@ public class Asn1Controller {
         return ResponseEntity.ok(samples);
     }
 
+    /**
+     * 删除临时文件
+     *
+     * @param file 文件路径
+     */
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("删除临时文件失败: {}", file, e);
+        }
+    }
+
     /**
      * 创建错误响应
      *
@@ -0,0 +1,133 @@
+package com.example.asn1.parser;
+
+/**
+ * ASN.1标签常量及名称
+ *
+ * @version 1.0.0
+ */
+public final class Asn1Tags {
+
+    public static final int UNIVERSAL = 0;
+    public static final int APPLICATION = 1;
+    public static final int CONTEXT_SPECIFIC = 2;
+    public static final int PRIVATE = 3;
+
+    public static final int END_OF_CONTENTS = 0;
+    public static final int BOOLEAN = 1;
+    public static final int INTEGER = 2;
+    public static final int BIT_STRING = 3;
+    public static final int OCTET_STRING = 4;
+    public static final int NULL = 5;
+    public static final int OBJECT_IDENTIFIER = 6;
+    public static final int OBJECT_DESCRIPTOR = 7;
+    public static final int EXTERNAL = 8;
+    public static final int REAL = 9;
+    public static final int ENUMERATED = 10;
+    public static final int UTF8_STRING = 12;
+    public static final int RELATIVE_OID = 13;
+    public static final int SEQUENCE = 16;
+    public static final int SET = 17;
+    public static final int NUMERIC_STRING = 18;
+    public static final int PRINTABLE_STRING = 19;
+    public static final int T61_STRING = 20;
+    public static final int VIDEOTEX_STRING = 21;
+    public static final int IA5_STRING = 22;
+    public static final int UTC_TIME = 23;
+    public static final int GENERALIZED_TIME = 24;
+    public static final int GRAPHIC_STRING = 25;
+    public static final int VISIBLE_STRING = 26;
+    public static final int GENERAL_STRING = 27;
+    public static final int UNIVERSAL_STRING = 28;
+    public static final int BMP_STRING = 30;
+
+    private static final String[] UNIVERSAL_NAMES = new String[31];
+
+    static {
+        UNIVERSAL_NAMES[BOOLEAN] = "BOOLEAN";
+        UNIVERSAL_NAMES[INTEGER] = "INTEGER";
+        UNIVERSAL_NAMES[BIT_STRING] = "BIT STRING";
+        UNIVERSAL_NAMES[OCTET_STRING] = "OCTET STRING";
+        UNIVERSAL_NAMES[NULL] = "NULL";
+        UNIVERSAL_NAMES[OBJECT_IDENTIFIER] = "OBJECT IDENTIFIER";
+        UNIVERSAL_NAMES[OBJECT_DESCRIPTOR] = "ObjectDescriptor";
+        UNIVERSAL_NAMES[EXTERNAL] = "EXTERNAL";
+        UNIVERSAL_NAMES[REAL] = "REAL";
+        UNIVERSAL_NAMES[ENUMERATED] = "ENUMERATED";
+        UNIVERSAL_NAMES[UTF8_STRING] = "UTF8String";
+        UNIVERSAL_NAMES[RELATIVE_OID] = "RELATIVE-OID";
+        UNIVERSAL_NAMES[SEQUENCE] = "SEQUENCE";
+        UNIVERSAL_NAMES[SET] = "SET";
+        UNIVERSAL_NAMES[NUMERIC_STRING] = "NumericString";
+        UNIVERSAL_NAMES[PRINTABLE_STRING] = "PrintableString";
+        UNIVERSAL_NAMES[T61_STRING] = "T61String";
+        UNIVERSAL_NAMES[VIDEOTEX_STRING] = "VideotexString";
+        UNIVERSAL_NAMES[IA5_STRING] = "IA5String";
+        UNIVERSAL_NAMES[UTC_TIME] = "UTCTime";
+        UNIVERSAL_NAMES[GENERALIZED_TIME] = "GeneralizedTime";
+        UNIVERSAL_NAMES[GRAPHIC_STRING] = "GraphicString";
+        UNIVERSAL_NAMES[VISIBLE_STRING] = "VisibleString";
+        UNIVERSAL_NAMES[GENERAL_STRING] = "GeneralString";
+        UNIVERSAL_NAMES[UNIVERSAL_STRING] = "UniversalString";
+        UNIVERSAL_NAMES[BMP_STRING] = "BMPString";
+    }
+
+    private Asn1Tags() {
+    }
+
+    /**
+     * 获取通用类型名称，未知编号返回 null
+     */
+    public static String universalName(int tagNumber) {
+        return tagNumber >= 0 && tagNumber < UNIVERSAL_NAMES.length ? UNIVERSAL_NAMES[tagNumber] : null;
+    }
+
+    /**
+     * 获取标签类别名称
+     */
+    public static String className(int tagClass) {
+        switch (tagClass) {
+            case UNIVERSAL:
+                return "UNIVERSAL";
+            case APPLICATION:
+                return "APPLICATION";
+            case CONTEXT_SPECIFIC:
+                return "CONTEXT_SPECIFIC";
+            case PRIVATE:
+                return "PRIVATE";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    /**
+     * 判断头部是否像一个真实的ASN.1元素，用于损坏后重新同步和识别内嵌编码。
+     * 只接受已知的通用类型（构造位与类型相符）和构造形式的上下文标签，
+     * 随机字节很少能同时满足标签和长度的约束
+     */
+    static boolean isPlausible(Tlv tlv) {
+        if (tlv.tagClass == CONTEXT_SPECIFIC) {
+            return tlv.constructed && tlv.tagNumber < 31;
+        }
+        if (tlv.tagClass != UNIVERSAL || universalName(tlv.tagNumber) == null) {
+            return false;
+        }
+        switch (tlv.tagNumber) {
+            case BOOLEAN:
+                return !tlv.constructed && tlv.contentLength == 1;
+            case NULL:
+                return !tlv.constructed && tlv.contentLength == 0;
+            case INTEGER:
+            case OBJECT_IDENTIFIER:
+            case ENUMERATED:
+            case REAL:
+            case RELATIVE_OID:
+                return !tlv.constructed && tlv.contentLength > 0;
+            case EXTERNAL:
+            case SEQUENCE:
+            case SET:
+                return tlv.constructed;
+            default:
+                return true;
+        }
+    }
+}
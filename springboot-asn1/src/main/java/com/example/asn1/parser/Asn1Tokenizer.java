@@ -0,0 +1,295 @@
+package com.example.asn1.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * BER/DER TLV分词器
+ *
+ * 按偏移量从头到尾遍历一次缓冲区，只读取头部字节，内容不复制，也不为子元素重新解析父元素；
+ * 嵌套用显式栈维护，支持不定长编码。缓冲区使用绝对位置读取，可以是堆内数组、直接内存或
+ * 内存映射文件，调用方的 position 和 limit 不受影响
+ *
+ * @version 1.0.0
+ */
+public final class Asn1Tokenizer {
+
+    /**
+     * 默认最大嵌套层级
+     */
+    public static final int DEFAULT_MAX_DEPTH = 256;
+
+    /**
+     * 高位标签编号最多占用的字节数，28位足够表示所有实际使用的编号
+     */
+    private static final int MAX_TAG_BYTES = 4;
+
+    /**
+     * 重新同步时在第一个候选位置之后继续寻找更可靠位置的最大字节数
+     */
+    private static final int RESYNC_WINDOW = 4096;
+
+    private final ByteBuffer buffer;
+    private final int maxDepth;
+    private final Tlv scratch = new Tlv();
+
+    private Tlv[] stack = new Tlv[16];
+    private int[] limits = new int[16];
+
+    public Asn1Tokenizer(ByteBuffer buffer) {
+        this(buffer, DEFAULT_MAX_DEPTH);
+    }
+
+    public Asn1Tokenizer(ByteBuffer buffer, int maxDepth) {
+        this.buffer = buffer;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * 容错遍历：遇到损坏数据时通知回调，并向后寻找下一个合法的标签重新同步
+     *
+     * @param from    起始偏移（包含）
+     * @param to      结束偏移（不包含）
+     * @param visitor 事件回调
+     */
+    public void tokenize(int from, int to, Asn1Visitor visitor) {
+        walk(from, to, visitor, true);
+    }
+
+    /**
+     * 严格遍历：遇到第一处错误即停止
+     *
+     * @return 是否完整遍历了整个区间
+     */
+    public boolean tokenizeStrict(int from, int to, Asn1Visitor visitor) {
+        return walk(from, to, visitor, false);
+    }
+
+    private boolean walk(int from, int to, Asn1Visitor visitor, boolean lenient) {
+        if (from < 0 || to > buffer.limit() || from > to) {
+            throw new IndexOutOfBoundsException("无效的区间: [" + from + ", " + to + ")");
+        }
+
+        int depth = 0;
+        int pos = from;
+        while (true) {
+            Tlv parent = depth > 0 ? stack[depth - 1] : null;
+            int limit = depth > 0 ? limits[depth - 1] : to;
+
+            if (parent == null) {
+                if (pos >= to) {
+                    return true;
+                }
+            } else if (!parent.indefinite) {
+                if (pos >= parent.end) {
+                    depth--;
+                    visitor.exit(parent, depth);
+                    continue;
+                }
+            } else if (pos + 1 < limit && buffer.get(pos) == 0 && buffer.get(pos + 1) == 0) {
+                parent.contentLength = pos - parent.getContentOffset();
+                parent.end = pos + 2;
+                depth--;
+                visitor.exit(parent, depth);
+                pos += 2;
+                continue;
+            } else if (pos >= limit) {
+                if (!lenient) {
+                    return false;
+                }
+                visitor.corrupted(parent.offset, limit, "不定长编码缺少结束标记");
+                parent.contentLength = limit - parent.getContentOffset();
+                parent.end = limit;
+                parent.truncated = true;
+                depth--;
+                visitor.exit(parent, depth);
+                pos = limit;
+                continue;
+            }
+
+            Tlv tlv = slot(depth);
+            String error = readHeader(pos, limit, tlv);
+            if (error == null) {
+                error = validate(tlv, depth);
+            }
+            if (error == null && !tlv.indefinite && (long) tlv.getContentOffset() + tlv.contentLength > limit) {
+                if (!lenient || !tlv.constructed || limit != to) {
+                    error = "长度 " + tlv.contentLength + " 超出可用数据";
+                } else {
+                    // 输入本身被截断时，构造类型仍然可以解析出已有的子元素
+                    visitor.corrupted(pos, tlv.getContentOffset(), "长度 " + tlv.contentLength + " 超出可用数据，按剩余数据截断");
+                    tlv.contentLength = limit - tlv.getContentOffset();
+                    tlv.end = limit;
+                    tlv.truncated = true;
+                }
+            }
+            if (error != null) {
+                if (!lenient) {
+                    return false;
+                }
+                int resume = resync(pos + 1, limit, parent != null && parent.indefinite);
+                visitor.corrupted(pos, resume, error);
+                pos = resume;
+                continue;
+            }
+
+            visitor.enter(tlv, depth);
+            if (tlv.constructed) {
+                limits[depth] = tlv.indefinite ? limit : tlv.end;
+                depth++;
+                pos = tlv.getContentOffset();
+            } else {
+                visitor.exit(tlv, depth);
+                pos = tlv.end;
+            }
+        }
+    }
+
+    /**
+     * 检查头部在当前位置是否合法
+     */
+    private String validate(Tlv tlv, int depth) {
+        if (tlv.tagClass == Asn1Tags.UNIVERSAL && tlv.tagNumber == Asn1Tags.END_OF_CONTENTS) {
+            return "意外的结束标记";
+        }
+        if (tlv.indefinite && !tlv.constructed) {
+            return "基本类型不能使用不定长编码";
+        }
+        if (tlv.constructed && depth + 1 >= maxDepth) {
+            return "嵌套层级超过 " + maxDepth;
+        }
+        return null;
+    }
+
+    /**
+     * 从指定位置向后寻找下一个看起来合法的TLV头部，找不到时返回 limit。
+     * 优先选择结束处紧跟另一个合法头部（或到达区间末尾）的候选，否则定长重复的记录
+     * （如CRL条目）中的内容字节可能恰好拼成合法头部，使解析每条记录都错位一次；
+     * 在第一个候选之后的窗口内找不到这样的位置时退回第一个候选
+     */
+    private int resync(int from, int limit, boolean insideIndefinite) {
+        int fallback = -1;
+        for (int q = from; q < limit; q++) {
+            if (fallback >= 0 && q - fallback > RESYNC_WINDOW) {
+                break;
+            }
+            if (isEndOfContents(q, limit, insideIndefinite)) {
+                return q;
+            }
+            if (!isPlausibleAt(q, limit)) {
+                continue;
+            }
+            if (scratch.indefinite || scratch.end == limit || isEndOfContents(scratch.end, limit, insideIndefinite)
+                    || isPlausibleAt(scratch.end, limit)) {
+                return q;
+            }
+            if (fallback < 0) {
+                fallback = q;
+            }
+        }
+        return fallback >= 0 ? fallback : limit;
+    }
+
+    private boolean isPlausibleAt(int pos, int limit) {
+        return readHeader(pos, limit, scratch) == null && Asn1Tags.isPlausible(scratch)
+            && (scratch.indefinite || scratch.end <= limit);
+    }
+
+    private boolean isEndOfContents(int pos, int limit, boolean insideIndefinite) {
+        return insideIndefinite && pos + 1 < limit && buffer.get(pos) == 0 && buffer.get(pos + 1) == 0;
+    }
+
+    /**
+     * 解析 pos 处的标签和长度字段
+     *
+     * @return 错误原因，成功时返回 null
+     */
+    String readHeader(int pos, int limit, Tlv tlv) {
+        if (pos >= limit) {
+            return "数据不足";
+        }
+
+        int b = buffer.get(pos) & 0xFF;
+        tlv.offset = pos;
+        tlv.tagClass = b >>> 6;
+        tlv.constructed = (b & 0x20) != 0;
+        tlv.truncated = false;
+
+        int p = pos + 1;
+        int number = b & 0x1F;
+        if (number == 0x1F) {
+            number = 0;
+            for (int count = 0; ; count++) {
+                if (p >= limit) {
+                    return "标签截断";
+                }
+                int t = buffer.get(p++) & 0xFF;
+                if (count == 0 && t == 0x80) {
+                    return "标签编号存在多余的前导字节";
+                }
+                if (count == MAX_TAG_BYTES) {
+                    return "标签编号过大";
+                }
+                number = (number << 7) | (t & 0x7F);
+                if ((t & 0x80) == 0) {
+                    break;
+                }
+            }
+        }
+        tlv.tagNumber = number;
+
+        if (p >= limit) {
+            return "长度截断";
+        }
+        int first = buffer.get(p++) & 0xFF;
+        long length;
+        boolean minimal = true;
+        if (first < 0x80) {
+            length = first;
+        } else if (first == 0x80) {
+            length = -1;
+        } else if (first == 0xFF) {
+            return "保留的长度编码 0xFF";
+        } else {
+            int count = first & 0x7F;
+            if (p + count > limit) {
+                return "长度截断";
+            }
+            minimal = buffer.get(p) != 0;
+            length = 0;
+            for (int i = 0; i < count; i++) {
+                length = (length << 8) | (buffer.get(p++) & 0xFF);
+                if (length > Integer.MAX_VALUE) {
+                    return "长度超出范围";
+                }
+            }
+            minimal &= length >= 0x80;
+        }
+        if (p + length > Integer.MAX_VALUE) {
+            return "长度超出范围";
+        }
+
+        tlv.headerLength = p - pos;
+        tlv.minimalLength = minimal;
+        tlv.indefinite = length < 0;
+        tlv.contentLength = tlv.indefinite ? 0 : (int) length;
+        tlv.end = tlv.indefinite ? -1 : p + tlv.contentLength;
+        return null;
+    }
+
+    private Tlv slot(int depth) {
+        if (depth == stack.length) {
+            Tlv[] grown = new Tlv[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+            int[] grownLimits = new int[depth * 2];
+            System.arraycopy(limits, 0, grownLimits, 0, depth);
+            limits = grownLimits;
+        }
+        Tlv tlv = stack[depth];
+        if (tlv == null) {
+            tlv = new Tlv();
+            stack[depth] = tlv;
+        }
+        return tlv;
+    }
+}
@@ -0,0 +1,433 @@
+package com.example.asn1.parser;
+
+import com.example.asn1.dto.Asn1ParseResponse;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 根据分词事件构建 {@link Asn1ParseResponse.Asn1Structure} 结构树
+ *
+ * 偏移量是元素在输入中的绝对位置，长度是内容字节数。层级不小于 maxTreeDepth 的元素
+ * 只计数不生成节点，用于大文件只输出概要；不解码值时也不尝试展开内嵌编码。
+ * 展开的内嵌编码与外层共用 {@link Asn1Tokenizer#DEFAULT_MAX_DEPTH} 的嵌套层级上限
+ *
+ * @version 1.0.0
+ */
+public class Asn1TreeBuilder implements Asn1Visitor {
+
+    /**
+     * 最多保留的警告条数，更多的损坏只计数
+     */
+    private static final int MAX_WARNINGS = 100;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+
+    private final ByteBuffer buffer;
+    private final boolean verbose;
+    private final boolean decodeValues;
+    private final int maxTreeDepth;
+
+    /**
+     * 本构建器还可以使用的嵌套层级，内嵌编码的构建器只得到外层剩余的部分
+     */
+    private final int depthLimit;
+
+    private final List<Asn1ParseResponse.Asn1Structure> roots = new ArrayList<>();
+    private final List<String> warnings = new ArrayList<>();
+    private final long[] universalCounts = new long[31];
+    private final long[] classCounts = new long[4];
+
+    private Asn1ParseResponse.Asn1Structure[] open = new Asn1ParseResponse.Asn1Structure[16];
+    private int[] childCounts = new int[16];
+
+    private long totalObjects;
+    private int maxDepth;
+    private int corruptedRegions;
+    private boolean der = true;
+
+    private Asn1TreeBuilder(ByteBuffer buffer, boolean verbose, boolean decodeValues, int maxTreeDepth,
+                            int depthLimit) {
+        this.buffer = buffer;
+        this.verbose = verbose;
+        this.decodeValues = decodeValues;
+        this.maxTreeDepth = maxTreeDepth;
+        this.depthLimit = depthLimit;
+    }
+
+    /**
+     * 构建完整结构树并解码所有值
+     */
+    public static Asn1TreeBuilder fullTree(ByteBuffer buffer, boolean verbose) {
+        return new Asn1TreeBuilder(buffer, verbose, true, Integer.MAX_VALUE, Asn1Tokenizer.DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * 只构建前若干层的概要，不解码值，其余元素只计数
+     */
+    public static Asn1TreeBuilder outline(ByteBuffer buffer, int maxTreeDepth) {
+        return new Asn1TreeBuilder(buffer, false, false, maxTreeDepth, Asn1Tokenizer.DEFAULT_MAX_DEPTH);
+    }
+
+    @Override
+    public void enter(Tlv tlv, int depth) {
+        totalObjects++;
+        maxDepth = Math.max(maxDepth, depth + 1);
+        if (tlv.tagClass == Asn1Tags.UNIVERSAL && tlv.tagNumber < universalCounts.length) {
+            universalCounts[tlv.tagNumber]++;
+        } else {
+            classCounts[tlv.tagClass]++;
+        }
+        if (tlv.indefinite || !tlv.minimalLength
+                || (tlv.constructed && tlv.tagClass == Asn1Tags.UNIVERSAL
+                    && tlv.tagNumber != Asn1Tags.SEQUENCE && tlv.tagNumber != Asn1Tags.SET)) {
+            der = false;
+        }
+        if (depth > 0) {
+            childCounts[depth - 1]++;
+        }
+        if (depth >= maxTreeDepth) {
+            return;
+        }
+
+        Asn1ParseResponse.Asn1Structure node = new Asn1ParseResponse.Asn1Structure();
+        String name = tlv.tagClass == Asn1Tags.UNIVERSAL ? Asn1Tags.universalName(tlv.tagNumber) : null;
+        if (tlv.tagClass != Asn1Tags.UNIVERSAL) {
+            node.setTag("TAGGED");
+            node.setType(tlv.constructed ? "CONSTRUCTED" : "IMPLICIT");
+        } else if (name != null) {
+            node.setTag(name);
+            node.setType(name);
+        } else {
+            node.setTag("UNKNOWN");
+            node.setType("UNKNOWN");
+        }
+        node.setTagNumber(tlv.tagNumber);
+        node.setTagClass(Asn1Tags.className(tlv.tagClass));
+        node.setOffset(tlv.offset);
+        if (tlv.constructed && depth + 1 < maxTreeDepth) {
+            node.setChildren(new ArrayList<>());
+        }
+
+        if (depth == 0) {
+            roots.add(node);
+        } else {
+            open[depth - 1].getChildren().add(node);
+        }
+        ensureCapacity(depth);
+        open[depth] = node;
+        childCounts[depth] = 0;
+    }
+
+    @Override
+    public void exit(Tlv tlv, int depth) {
+        if (depth >= maxTreeDepth) {
+            return;
+        }
+
+        Asn1ParseResponse.Asn1Structure node = open[depth];
+        open[depth] = null;
+        node.setLength(tlv.contentLength);
+        if (tlv.constructed) {
+            node.setValue(childCounts[depth] + " 个元素");
+        } else if (decodeValues) {
+            decodeValue(tlv, depth, node);
+        }
+
+        if (verbose) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("headerLength", tlv.headerLength);
+            properties.put("totalLength", tlv.getTotalLength());
+            properties.put("constructed", tlv.constructed);
+            if (tlv.indefinite) {
+                properties.put("indefiniteLength", true);
+            }
+            if (tlv.truncated) {
+                properties.put("truncated", true);
+            }
+            node.setProperties(properties);
+        }
+    }
+
+    @Override
+    public void corrupted(int offset, int resumeOffset, String reason) {
+        corruptedRegions++;
+        if (warnings.size() < MAX_WARNINGS) {
+            warnings.add("偏移 " + offset + " 处数据损坏（" + reason + "），从偏移 " + resumeOffset + " 继续解析");
+        }
+    }
+
+    /**
+     * 按通用类型解码基本类型的值
+     */
+    private void decodeValue(Tlv tlv, int depth, Asn1ParseResponse.Asn1Structure node) {
+        int off = tlv.getContentOffset();
+        int len = tlv.contentLength;
+        if (tlv.tagClass != Asn1Tags.UNIVERSAL) {
+            node.setValue("0x" + hex(off, len));
+            return;
+        }
+
+        String value = null;
+        switch (tlv.tagNumber) {
+            case Asn1Tags.BOOLEAN:
+                if (len == 1) {
+                    value = buffer.get(off) != 0 ? "TRUE" : "FALSE";
+                }
+                break;
+            case Asn1Tags.INTEGER:
+            case Asn1Tags.ENUMERATED:
+                value = decodeInteger(off, len);
+                break;
+            case Asn1Tags.NULL:
+                value = "NULL";
+                break;
+            case Asn1Tags.OBJECT_IDENTIFIER:
+                value = decodeOid(off, len, false);
+                break;
+            case Asn1Tags.RELATIVE_OID:
+                value = decodeOid(off, len, true);
+                break;
+            case Asn1Tags.OCTET_STRING:
+                // 展开后内容已由子节点表示，不再输出十六进制
+                if (!expandEncapsulated(node, depth, off, off + len)) {
+                    value = "0x" + hex(off, len);
+                }
+                break;
+            case Asn1Tags.BIT_STRING:
+                if (len > 0) {
+                    // 首字节是末尾未使用的位数，为0时内容可能是内嵌的DER编码（公钥、签名等）
+                    if (buffer.get(off) != 0 || !expandEncapsulated(node, depth, off + 1, off + len)) {
+                        value = "0x" + hex(off + 1, len - 1);
+                    }
+                }
+                break;
+            case Asn1Tags.UTF8_STRING:
+                value = decodeString(off, len, StandardCharsets.UTF_8);
+                break;
+            case Asn1Tags.BMP_STRING:
+                value = decodeString(off, len, StandardCharsets.UTF_16BE);
+                break;
+            case Asn1Tags.UNIVERSAL_STRING:
+                value = decodeString(off, len, UTF_32BE);
+                break;
+            case Asn1Tags.OBJECT_DESCRIPTOR:
+            case Asn1Tags.NUMERIC_STRING:
+            case Asn1Tags.PRINTABLE_STRING:
+            case Asn1Tags.T61_STRING:
+            case Asn1Tags.VIDEOTEX_STRING:
+            case Asn1Tags.IA5_STRING:
+            case Asn1Tags.UTC_TIME:
+            case Asn1Tags.GENERALIZED_TIME:
+            case Asn1Tags.GRAPHIC_STRING:
+            case Asn1Tags.VISIBLE_STRING:
+            case Asn1Tags.GENERAL_STRING:
+                value = decodeString(off, len, StandardCharsets.ISO_8859_1);
+                break;
+            default:
+                break;
+        }
+        if (node.getValue() == null) {
+            node.setValue(value != null ? value : "0x" + hex(off, len));
+        }
+    }
+
+    /**
+     * OCTET STRING 和 BIT STRING 的内容若是完整的DER编码，则作为子节点展开。
+     * 在同一缓冲区的内容区间上严格分词，不复制字节，偏移量仍是在整个输入中的位置。
+     * 内嵌对象从 depth + 1 层开始，层级上限用完后不再展开
+     *
+     * @return 是否已展开
+     */
+    private boolean expandEncapsulated(Asn1ParseResponse.Asn1Structure node, int depth, int from, int to) {
+        int remainingDepth = depthLimit - depth - 1;
+        if (to - from < 2 || remainingDepth <= 0) {
+            return false;
+        }
+
+        Asn1Tokenizer tokenizer = new Asn1Tokenizer(buffer, remainingDepth);
+        Tlv first = new Tlv();
+        if (tokenizer.readHeader(from, to, first) != null || first.tagClass != Asn1Tags.UNIVERSAL
+                || !Asn1Tags.isPlausible(first)) {
+            return false;
+        }
+
+        Asn1TreeBuilder nested = new Asn1TreeBuilder(buffer, verbose, true, Integer.MAX_VALUE, remainingDepth);
+        if (!tokenizer.tokenizeStrict(from, to, nested) || nested.roots.isEmpty()) {
+            return false;
+        }
+
+        node.setChildren(nested.roots);
+        node.setValue(nested.roots.size() + " 个嵌套对象");
+        totalObjects += nested.totalObjects;
+        der &= nested.der;
+        return true;
+    }
+
+    private String decodeInteger(int off, int len) {
+        if (len == 0) {
+            return null;
+        }
+        if (len <= 8) {
+            long value = buffer.get(off);
+            for (int i = 1; i < len; i++) {
+                value = (value << 8) | (buffer.get(off + i) & 0xFF);
+            }
+            return Long.toString(value);
+        }
+        return new BigInteger(copy(off, len)).toString();
+    }
+
+    /**
+     * 直接从缓冲区解码对象标识符，超出 long 范围的弧改用 BigInteger
+     */
+    private String decodeOid(int off, int len, boolean relative) {
+        if (len == 0 || (buffer.get(off + len - 1) & 0x80) != 0) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(len * 3);
+        boolean firstArc = !relative;
+        long value = 0;
+        BigInteger big = null;
+        for (int i = 0; i < len; i++) {
+            int b = buffer.get(off + i) & 0xFF;
+            if (big == null && value > (Long.MAX_VALUE >>> 7)) {
+                big = BigInteger.valueOf(value);
+            }
+            if (big != null) {
+                big = big.shiftLeft(7).or(BigInteger.valueOf(b & 0x7F));
+            } else {
+                value = (value << 7) | (b & 0x7F);
+            }
+            if ((b & 0x80) != 0) {
+                continue;
+            }
+
+            if (sb.length() > 0) {
+                sb.append('.');
+            }
+            if (firstArc) {
+                firstArc = false;
+                if (big != null) {
+                    sb.append("2.").append(big.subtract(BigInteger.valueOf(80)));
+                } else if (value < 40) {
+                    sb.append("0.").append(value);
+                } else if (value < 80) {
+                    sb.append("1.").append(value - 40);
+                } else {
+                    sb.append("2.").append(value - 80);
+                }
+            } else {
+                sb.append(big != null ? big.toString() : Long.toString(value));
+            }
+            value = 0;
+            big = null;
+        }
+        return sb.toString();
+    }
+
+    private String decodeString(int off, int len, Charset charset) {
+        return new String(copy(off, len), charset);
+    }
+
+    private String hex(int off, int len) {
+        char[] chars = new char[len * 2];
+        for (int i = 0; i < len; i++) {
+            int b = buffer.get(off + i) & 0xFF;
+            chars[i * 2] = HEX_DIGITS[b >>> 4];
+            chars[i * 2 + 1] = HEX_DIGITS[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    private byte[] copy(int off, int len) {
+        byte[] bytes = new byte[len];
+        ByteBuffer view = buffer.duplicate();
+        view.position(off);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private void ensureCapacity(int depth) {
+        if (depth >= open.length) {
+            int size = Math.max(open.length * 2, depth + 1);
+            Asn1ParseResponse.Asn1Structure[] grown = new Asn1ParseResponse.Asn1Structure[size];
+            System.arraycopy(open, 0, grown, 0, open.length);
+            open = grown;
+            int[] grownCounts = new int[size];
+            System.arraycopy(childCounts, 0, grownCounts, 0, childCounts.length);
+            childCounts = grownCounts;
+        }
+    }
+
+    /**
+     * 顶层元素
+     */
+    public List<Asn1ParseResponse.Asn1Structure> getRoots() {
+        return roots;
+    }
+
+    /**
+     * 损坏警告，最多保留 {@value #MAX_WARNINGS} 条
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * 元素总数，包含展开的内嵌对象
+     */
+    public long getTotalObjects() {
+        return totalObjects;
+    }
+
+    /**
+     * 最大嵌套层级，顶层为1
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * 损坏区域数
+     */
+    public int getCorruptedRegions() {
+        return corruptedRegions;
+    }
+
+    /**
+     * 是否没有出现不定长编码、非最短长度和构造形式的字符串
+     */
+    public boolean isDer() {
+        return der;
+    }
+
+    /**
+     * 各类型的元素数量，非通用类型按标签类别汇总
+     */
+    public Map<String, Long> getTagCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (int i = 0; i < universalCounts.length; i++) {
+            if (universalCounts[i] > 0) {
+                String name = Asn1Tags.universalName(i);
+                counts.put(name != null ? name : "UNIVERSAL " + i, universalCounts[i]);
+            }
+        }
+        for (int i = 0; i < classCounts.length; i++) {
+            if (classCounts[i] > 0) {
+                counts.merge(Asn1Tags.className(i), classCounts[i], Long::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.asn1.parser;
+
+/**
+ * ASN.1分词事件回调
+ *
+ * 构造类型先收到 enter，所有子元素处理完后收到 exit；基本类型的 enter 和 exit 连续出现。
+ * 不定长编码的内容长度在 exit 时才确定
+ *
+ * @version 1.0.0
+ */
+public interface Asn1Visitor {
+
+    /**
+     * 进入一个TLV
+     *
+     * @param tlv   头部信息
+     * @param depth 嵌套层级，顶层为0
+     */
+    void enter(Tlv tlv, int depth);
+
+    /**
+     * 离开一个TLV
+     *
+     * @param tlv   头部信息
+     * @param depth 嵌套层级，顶层为0
+     */
+    void exit(Tlv tlv, int depth);
+
+    /**
+     * 遇到损坏的数据
+     *
+     * @param offset       出错位置
+     * @param resumeOffset 重新同步后继续解析的位置
+     * @param reason       原因
+     */
+    default void corrupted(int offset, int resumeOffset, String reason) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.asn1.parser;
+
+import lombok.Getter;
+
+/**
+ * TLV头部信息
+ *
+ * 只记录标签、长度以及在缓冲区中的偏移，内容字节不复制。
+ * 分词器按嵌套层级复用实例，回调返回后不要继续持有
+ *
+ * @version 1.0.0
+ */
+@Getter
+public final class Tlv {
+
+    /**
+     * TLV起始偏移量
+     */
+    int offset;
+
+    /**
+     * 标签类别（0-3）
+     */
+    int tagClass;
+
+    /**
+     * 是否为构造类型
+     */
+    boolean constructed;
+
+    /**
+     * 标签编号
+     */
+    int tagNumber;
+
+    /**
+     * 标签和长度字段占用的字节数
+     */
+    int headerLength;
+
+    /**
+     * 内容长度，不定长编码在找到结束标记后才确定
+     */
+    int contentLength;
+
+    /**
+     * 是否为不定长编码
+     */
+    boolean indefinite;
+
+    /**
+     * 长度字段是否为最短编码（DER要求）
+     */
+    boolean minimalLength;
+
+    /**
+     * 长度超出可用数据，已按剩余数据截断
+     */
+    boolean truncated;
+
+    /**
+     * TLV结束位置，不定长编码包含结束标记
+     */
+    int end;
+
+    /**
+     * 内容起始偏移量
+     */
+    public int getContentOffset() {
+        return offset + headerLength;
+    }
+
+    /**
+     * 内容结束偏移量
+     */
+    public int getContentEnd() {
+        return getContentOffset() + contentLength;
+    }
+
+    /**
+     * 整个TLV占用的字节数
+     */
+    public int getTotalLength() {
+        return end - offset;
+    }
+
+    /**
+     * 是否为指定编号的通用类型标签
+     */
+    public boolean isUniversal(int number) {
+        return tagClass == Asn1Tags.UNIVERSAL && tagNumber == number;
+    }
+}
@@ -4,9 +4,9 @@ import com.example.danmaku.dto.DanmakuDTO;
 import com.example.danmaku.model.Danmaku;
 import com.example.danmaku.service.DanmakuService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,11 +23,11 @@ public class DanmakuController {
     }
     
     /**
-     * 发送弹幕
+     * 发送弹幕，由 DanmakuBroadcaster 按帧广播到 /topic/video/{videoId}
      */
     @MessageMapping("/danmaku/send")
-    public Danmaku sendDanmaku(DanmakuDTO danmakuDTO) {
-        return danmakuService.saveDanmaku(danmakuDTO);
+    public void sendDanmaku(DanmakuDTO danmakuDTO) {
+        danmakuService.saveDanmaku(danmakuDTO);
     }
     
     /**
@@ -42,12 +42,26 @@ public class DanmakuController {
     /**
      * 获取指定时间范围内的弹幕（REST API）
      */
-    @GetMapping("/video/{videoId}/timerange")
-    public ResponseEntity<List<Danmaku>> getDanmakusByTimeRange(
+    @GetMapping(value = "/video/{videoId}/timerange", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getDanmakusByTimeRange(
             @PathVariable String videoId,
             @RequestParam Double start,
             @RequestParam Double end) {
-        List<Danmaku> danmakus = danmakuService.getDanmakusByVideoIdAndTimeRange(videoId, start, end);
-        return ResponseEntity.ok(danmakus);
+        // NaN 与结束早于开始的范围直接拒绝
+        if (!(start <= end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(danmakuService.getDanmakusByVideoIdAndTimeRange(videoId, start, end));
+    }
+    
+    /**
+     * 获取一个回放分段的弹幕（REST API），forward 表示播放方向，用于预取后续分段
+     */
+    @GetMapping(value = "/video/{videoId}/segment/{index}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getDanmakuSegment(
+            @PathVariable String videoId,
+            @PathVariable int index,
+            @RequestParam(defaultValue = "true") boolean forward) {
+        return ResponseEntity.ok(danmakuService.getDanmakuSegment(videoId, index, forward));
     }
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package com.example.danmaku.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.danmaku.model.Danmaku;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
@@ -25,4 +27,25 @@ public interface DanmakuMapper extends BaseMapper<Danmaku> {
             @Param("videoId") String videoId, 
             @Param("startTime") Double startTime, 
             @Param("endTime") Double endTime);
+    
+    /**
+     * 根据视频ID查询 [startTime, endTime) 内的弹幕，用于按分段加载
+     */
+    @Select("SELECT * FROM danmaku WHERE video_id = #{videoId} AND time >= #{startTime} AND time < #{endTime} ORDER BY time ASC, id ASC")
+    List<Danmaku> findByVideoIdAndTimeRange(
+            @Param("videoId") String videoId,
+            @Param("startTime") Double startTime,
+            @Param("endTime") Double endTime);
+    
+    /**
+     * 批量插入弹幕，多条合并为一条多行 INSERT
+     */
+    @Insert("<script>" +
+            "INSERT INTO danmaku (content, color, font_size, time, video_id, user_id, username, created_at) VALUES " +
+            "<foreach collection='list' item='d' separator=','>" +
+            "(#{d.content}, #{d.color}, #{d.fontSize}, #{d.time}, #{d.videoId}, #{d.userId}, #{d.username}, #{d.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<Danmaku> danmakus);
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.danmaku.service;
+
+import com.example.danmaku.mapper.DanmakuMapper;
+import com.example.danmaku.model.Danmaku;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 弹幕异步批量入库
+ * 发送线程只把弹幕放入有界队列，单个写线程把队列中积压的弹幕合并为一条多行 INSERT；
+ * 负载越高每批越大，空闲时来一条写一条，不额外增加延迟。队列满时发送方阻塞，形成背压
+ */
+@Slf4j
+@Component
+public class DanmakuBatchWriter {
+
+    private final DanmakuMapper danmakuMapper;
+    private final DanmakuReplayIndex replayIndex;
+    private final BlockingQueue<Danmaku> queue;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public DanmakuBatchWriter(DanmakuMapper danmakuMapper, DanmakuReplayIndex replayIndex,
+                              @Value("${danmaku.persist.queue-capacity:100000}") int queueCapacity,
+                              @Value("${danmaku.persist.batch-size:500}") int batchSize) {
+        this.danmakuMapper = danmakuMapper;
+        this.replayIndex = replayIndex;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::run, "danmaku-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    public void enqueue(Danmaku danmaku) {
+        try {
+            queue.put(danmaku);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("弹幕入库队列等待被中断", e);
+        }
+    }
+
+    private void run() {
+        List<Danmaku> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Danmaku first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // 停止时继续写完队列中剩余的弹幕
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Danmaku> batch) {
+        List<Danmaku> written = batch;
+        try {
+            danmakuMapper.insertBatch(batch);
+        } catch (Exception e) {
+            // 整批失败时逐条写入，只丢弃真正有问题的那几条
+            log.error("批量写入弹幕失败，条数: {}, 改为逐条写入", batch.size(), e);
+            written = new ArrayList<>(batch.size());
+            for (Danmaku danmaku : batch) {
+                try {
+                    danmakuMapper.insert(danmaku);
+                    written.add(danmaku);
+                } catch (Exception ex) {
+                    log.error("写入弹幕失败: {}", danmaku, ex);
+                }
+            }
+        }
+
+        // 入库后写入回放索引中已缓存的分段，失败只记录日志，不能再走重新入库的分支
+        try {
+            replayIndex.onPersisted(written);
+        } catch (Exception e) {
+            log.error("更新弹幕回放索引失败，条数: {}", written.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
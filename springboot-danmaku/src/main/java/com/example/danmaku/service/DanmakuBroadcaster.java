@@ -0,0 +1,165 @@
+package com.example.danmaku.service;
+
+import com.example.danmaku.model.Danmaku;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 弹幕合帧广播
+ * 每个视频一个环形缓冲区，新弹幕只写入缓冲区；广播线程每隔一帧（默认 80ms）把各视频缓冲区中的弹幕
+ * 合并成一个 JSON 数组，只序列化一次，作为同一条消息推送给该视频的全部订阅者。
+ * 缓冲区满时丢弃最旧的弹幕，单帧内的弹幕数不超过缓冲区容量
+ */
+@Slf4j
+@Component
+public class DanmakuBroadcaster {
+
+    private static final String DESTINATION_PREFIX = "/topic/video/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final long frameIntervalMs;
+    private final int ringCapacity;
+    private final long idleTimeoutMs;
+
+    private final Map<String, VideoRing> rings = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService frameExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "danmaku-frame");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DanmakuBroadcaster(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper,
+                              @Value("${danmaku.broadcast.frame-interval-ms:80}") long frameIntervalMs,
+                              @Value("${danmaku.broadcast.ring-capacity:512}") int ringCapacity,
+                              @Value("${danmaku.broadcast.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.frameIntervalMs = frameIntervalMs;
+        this.ringCapacity = ringCapacity;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        frameExecutor.scheduleAtFixedRate(this::flushFrames, frameIntervalMs, frameIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void publish(Danmaku danmaku) {
+        // 在 compute 中写入，与清理空闲缓冲区互斥，不会写进已被移除的缓冲区
+        rings.compute(danmaku.getVideoId(), (videoId, ring) -> {
+            if (ring == null) {
+                ring = new VideoRing(ringCapacity);
+            }
+            ring.add(danmaku);
+            return ring;
+        });
+    }
+
+    private void flushFrames() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, VideoRing> entry : rings.entrySet()) {
+            String videoId = entry.getKey();
+            try {
+                VideoRing ring = entry.getValue();
+                List<Danmaku> frame = ring.drain(now);
+                if (frame.isEmpty()) {
+                    rings.computeIfPresent(videoId, (id, current) -> current.isIdle(now, idleTimeoutMs) ? null : current);
+                    continue;
+                }
+                broadcast(videoId, frame);
+            } catch (Exception e) {
+                log.error("广播弹幕失败, videoId: {}", videoId, e);
+            }
+        }
+    }
+
+    private void broadcast(String videoId, List<Danmaku> frame) throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(frame);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+        messagingTemplate.send(DESTINATION_PREFIX + videoId, message);
+    }
+
+    @PreDestroy
+    public void stop() {
+        frameExecutor.shutdown();
+        try {
+            frameExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushFrames();
+    }
+
+    /**
+     * 单个视频的环形缓冲区
+     */
+    private static class VideoRing {
+        private final Danmaku[] buffer;
+        private int head;
+        private int size;
+        private long dropped;
+        private long lastActiveAt = System.currentTimeMillis();
+
+        VideoRing(int capacity) {
+            this.buffer = new Danmaku[capacity];
+        }
+
+        synchronized void add(Danmaku danmaku) {
+            if (size == buffer.length) {
+                // 满了覆盖最旧的一条
+                buffer[head] = danmaku;
+                head = (head + 1) % buffer.length;
+                dropped++;
+            } else {
+                buffer[(head + size) % buffer.length] = danmaku;
+                size++;
+            }
+        }
+
+        synchronized List<Danmaku> drain(long now) {
+            if (size == 0) {
+                return List.of();
+            }
+            List<Danmaku> frame = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % buffer.length;
+                frame.add(buffer[index]);
+                buffer[index] = null;
+            }
+            if (dropped > 0) {
+                log.debug("弹幕过多，本帧丢弃 {} 条", dropped);
+                dropped = 0;
+            }
+            head = 0;
+            size = 0;
+            lastActiveAt = now;
+            return frame;
+        }
+
+        synchronized boolean isIdle(long now, long idleTimeoutMs) {
+            return size == 0 && now - lastActiveAt > idleTimeoutMs;
+        }
+    }
+}
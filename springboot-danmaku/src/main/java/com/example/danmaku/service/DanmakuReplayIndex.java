@@ -0,0 +1,399 @@
+package com.example.danmaku.service;
+
+import com.example.danmaku.mapper.DanmakuMapper;
+import com.example.danmaku.model.Danmaku;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 弹幕回放索引
+ * 按播放时间把每个视频的弹幕切成固定长度的分段（默认 10 秒），热点分段缓存在内存中：
+ * - 分段内的弹幕按时间排序，存放在按字段拆开的数组中，不保留实体对象
+ * - 分段第一次被请求时序列化为 JSON 并保存，之后直接把字节写入响应
+ * - 缓存按弹幕总条数限制大小，超出时淘汰最久未访问的分段
+ * - 弹幕入库后同步写入已缓存的分段
+ * - 加载某个分段时，异步预取播放方向上的后续分段
+ * 同一分段同时未命中时只查询一次数据库
+ */
+@Slf4j
+@Component
+public class DanmakuReplayIndex {
+
+    // 时间范围查询最多经过缓存的分段数
+    private static final int MAX_RANGE_SEGMENTS = 30;
+
+    private static final byte[] EMPTY_JSON = {'[', ']'};
+
+    private final DanmakuMapper danmakuMapper;
+    private final ObjectMapper objectMapper;
+    private final double segmentSeconds;
+    private final int prefetchSegments;
+    private final long maxCachedDanmaku;
+    // 最后一个有效分段，超出最大播放时间的时间和分段号都截断到这里
+    private final int maxSegment;
+
+    // 访问顺序的 LinkedHashMap 实现 LRU，读写都在 synchronized (cache) 中进行
+    private final LinkedHashMap<SegmentKey, Segment> cache = new LinkedHashMap<>(256, 0.75f, true);
+    // 已缓存分段的总大小，见 Segment.weight()
+    private long cachedDanmaku;
+
+    // 正在加载的分段
+    private final Map<SegmentKey, Load> loading = new ConcurrentHashMap<>();
+
+    private final ExecutorService prefetchExecutor = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "danmaku-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DanmakuReplayIndex(DanmakuMapper danmakuMapper, ObjectMapper objectMapper,
+                              @Value("${danmaku.replay.segment-seconds:10}") double segmentSeconds,
+                              @Value("${danmaku.replay.prefetch-segments:1}") int prefetchSegments,
+                              @Value("${danmaku.replay.cache-max-danmaku:500000}") long maxCachedDanmaku,
+                              @Value("${danmaku.replay.max-time-seconds:86400}") double maxTimeSeconds) {
+        this.danmakuMapper = danmakuMapper;
+        this.objectMapper = objectMapper;
+        this.segmentSeconds = segmentSeconds;
+        this.prefetchSegments = prefetchSegments;
+        this.maxCachedDanmaku = maxCachedDanmaku;
+        this.maxSegment = (int) Math.floor(maxTimeSeconds / segmentSeconds);
+    }
+
+    /**
+     * 时间所在的分段，截断到 [0, maxSegment]
+     */
+    public int segmentOf(double time) {
+        return (int) Math.max(0, Math.min(maxSegment, Math.floor(time / segmentSeconds)));
+    }
+
+    /**
+     * 获取一个分段的 JSON，并预取播放方向上的后续分段
+     *
+     * @param forward 是否正向播放，倒放/向前拖动时为 false
+     */
+    public byte[] getSegmentJson(String videoId, int index, boolean forward) {
+        if (index < 0 || index > maxSegment) {
+            return EMPTY_JSON;
+        }
+        byte[] json = getSegment(videoId, index).toJson(objectMapper);
+        prefetch(videoId, index, forward);
+        return json;
+    }
+
+    /**
+     * 获取 [startTime, endTime] 内的弹幕 JSON，完整覆盖的分段直接拼接已序列化的字节
+     * 分段号截断到最大播放时间内，遍历的分段数有上限
+     *
+     * @throws IllegalArgumentException 时间不是有效数字或 endTime 早于 startTime
+     */
+    public byte[] getRangeJson(String videoId, double startTime, double endTime) {
+        if (!(startTime <= endTime)) {
+            throw new IllegalArgumentException("无效的时间范围: [" + startTime + ", " + endTime + "]");
+        }
+        if (endTime < 0 || startTime > (maxSegment + 1) * segmentSeconds) {
+            return EMPTY_JSON;
+        }
+        int first = segmentOf(startTime);
+        int last = segmentOf(endTime);
+        if (last - first >= MAX_RANGE_SEGMENTS) {
+            // 跨度过大的查询不经过缓存，避免一次请求挤掉大量热点分段
+            try {
+                return objectMapper.writeValueAsBytes(
+                        danmakuMapper.findByVideoIdAndTimeBetween(videoId, startTime, endTime));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean empty = true;
+        for (int index = first; index <= last; index++) {
+            Segment segment = getSegment(videoId, index);
+            double segmentStart = index * segmentSeconds;
+            byte[] json = segmentStart >= startTime && segmentStart + segmentSeconds <= endTime
+                    ? segment.toJson(objectMapper)
+                    : segment.slice(startTime, endTime).toJson(objectMapper);
+            // 去掉分段 JSON 数组两端的括号后拼接
+            if (json.length > 2) {
+                if (!empty) {
+                    out.write(',');
+                }
+                out.write(json, 1, json.length - 2);
+                empty = false;
+            }
+        }
+        out.write(']');
+        if (last >= 0) {
+            prefetch(videoId, last, true);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 弹幕入库后调用，写入已缓存的分段；正在加载的分段标记为过期，加载结果不进入缓存
+     */
+    public void onPersisted(List<Danmaku> danmakus) {
+        Map<SegmentKey, List<Danmaku>> bySegment = new HashMap<>();
+        for (Danmaku danmaku : danmakus) {
+            if (danmaku.getVideoId() == null || danmaku.getTime() == null) {
+                continue;
+            }
+            SegmentKey key = new SegmentKey(danmaku.getVideoId(), segmentOf(danmaku.getTime()));
+            bySegment.computeIfAbsent(key, k -> new ArrayList<>()).add(danmaku);
+        }
+        synchronized (cache) {
+            for (Map.Entry<SegmentKey, List<Danmaku>> entry : bySegment.entrySet()) {
+                Load load = loading.get(entry.getKey());
+                if (load != null) {
+                    load.stale = true;
+                }
+                Segment segment = cache.get(entry.getKey());
+                if (segment != null) {
+                    Segment merged = segment.merge(entry.getValue());
+                    cache.put(entry.getKey(), merged);
+                    cachedDanmaku += merged.size() - segment.size();
+                }
+            }
+            evict();
+        }
+    }
+
+    private Segment getSegment(String videoId, int index) {
+        SegmentKey key = new SegmentKey(videoId, index);
+        synchronized (cache) {
+            Segment segment = cache.get(key);
+            if (segment != null) {
+                return segment;
+            }
+        }
+        Load load = new Load();
+        Load existing = loading.putIfAbsent(key, load);
+        if (existing != null) {
+            return existing.future.join();
+        }
+        try {
+            Segment segment = Segment.of(danmakuMapper.findByVideoIdAndTimeRange(
+                    videoId, index * segmentSeconds, (index + 1) * segmentSeconds));
+            synchronized (cache) {
+                if (!load.stale && !cache.containsKey(key)) {
+                    cache.put(key, segment);
+                    cachedDanmaku += segment.weight();
+                    evict();
+                }
+                loading.remove(key);
+            }
+            load.future.complete(segment);
+            return segment;
+        } catch (RuntimeException e) {
+            loading.remove(key);
+            load.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void prefetch(String videoId, int index, boolean forward) {
+        for (int i = 1; i <= prefetchSegments; i++) {
+            int next = forward ? index + i : index - i;
+            if (next < 0 || next > maxSegment) {
+                break;
+            }
+            SegmentKey key = new SegmentKey(videoId, next);
+            boolean cached;
+            synchronized (cache) {
+                // containsKey 不改变访问顺序
+                cached = cache.containsKey(key);
+            }
+            if (!cached && !loading.containsKey(key)) {
+                prefetchExecutor.execute(() -> {
+                    try {
+                        getSegment(videoId, next);
+                    } catch (Exception e) {
+                        log.warn("预取弹幕分段失败, videoId: {}, segment: {}", videoId, next, e);
+                    }
+                });
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<SegmentKey, Segment>> iterator = cache.entrySet().iterator();
+        while (cachedDanmaku > maxCachedDanmaku && iterator.hasNext()) {
+            cachedDanmaku -= iterator.next().getValue().weight();
+            iterator.remove();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private static class Load {
+        private final CompletableFuture<Segment> future = new CompletableFuture<>();
+        private volatile boolean stale;
+    }
+
+    private record SegmentKey(String videoId, int index) {
+    }
+
+    /**
+     * 一个分段的弹幕，按时间排序，各字段分别存放在数组中；不可变，写入时生成新的分段
+     */
+    private static final class Segment {
+
+        private static final int NO_FONT_SIZE = Integer.MIN_VALUE;
+
+        private static final Segment EMPTY = new Segment(new long[0], new double[0], new String[0], new String[0],
+                new int[0], new String[0], new String[0], new String[0], new LocalDateTime[0]);
+
+        private final long[] ids;
+        private final double[] times;
+        private final String[] contents;
+        private final String[] colors;
+        private final int[] fontSizes;
+        private final String[] videoIds;
+        private final String[] userIds;
+        private final String[] usernames;
+        private final LocalDateTime[] createdAts;
+
+        // 首次请求时生成，并发生成多次也只是重复计算
+        private volatile byte[] json;
+
+        private Segment(long[] ids, double[] times, String[] contents, String[] colors, int[] fontSizes,
+                        String[] videoIds, String[] userIds, String[] usernames, LocalDateTime[] createdAts) {
+            this.ids = ids;
+            this.times = times;
+            this.contents = contents;
+            this.colors = colors;
+            this.fontSizes = fontSizes;
+            this.videoIds = videoIds;
+            this.userIds = userIds;
+            this.usernames = usernames;
+            this.createdAts = createdAts;
+        }
+
+        static Segment of(List<Danmaku> danmakus) {
+            if (danmakus.isEmpty()) {
+                return EMPTY;
+            }
+            int size = danmakus.size();
+            Segment segment = new Segment(new long[size], new double[size], new String[size], new String[size],
+                    new int[size], new String[size], new String[size], new String[size], new LocalDateTime[size]);
+            for (int i = 0; i < size; i++) {
+                Danmaku danmaku = danmakus.get(i);
+                // 没有 id、字号的记为特殊值，序列化时还原为 null
+                segment.ids[i] = danmaku.getId() != null ? danmaku.getId() : -1;
+                segment.times[i] = danmaku.getTime();
+                segment.contents[i] = danmaku.getContent();
+                segment.colors[i] = danmaku.getColor();
+                segment.fontSizes[i] = danmaku.getFontSize() != null ? danmaku.getFontSize() : NO_FONT_SIZE;
+                segment.videoIds[i] = danmaku.getVideoId();
+                segment.userIds[i] = danmaku.getUserId();
+                segment.usernames[i] = danmaku.getUsername();
+                segment.createdAts[i] = danmaku.getCreatedAt();
+            }
+            return segment;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * 计入缓存上限的大小，空分段也占一个单位
+         */
+        long weight() {
+            return ids.length + 1L;
+        }
+
+        Danmaku get(int i) {
+            Danmaku danmaku = new Danmaku();
+            danmaku.setId(ids[i] >= 0 ? ids[i] : null);
+            danmaku.setContent(contents[i]);
+            danmaku.setColor(colors[i]);
+            danmaku.setFontSize(fontSizes[i] != NO_FONT_SIZE ? fontSizes[i] : null);
+            danmaku.setTime(times[i]);
+            danmaku.setVideoId(videoIds[i]);
+            danmaku.setUserId(userIds[i]);
+            danmaku.setUsername(usernames[i]);
+            danmaku.setCreatedAt(createdAts[i]);
+            return danmaku;
+        }
+
+        List<Danmaku> toList() {
+            List<Danmaku> danmakus = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                danmakus.add(get(i));
+            }
+            return danmakus;
+        }
+
+        byte[] toJson(ObjectMapper objectMapper) {
+            byte[] bytes = json;
+            if (bytes == null) {
+                try {
+                    bytes = objectMapper.writeValueAsBytes(toList());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                json = bytes;
+            }
+            return bytes;
+        }
+
+        /**
+         * [startTime, endTime] 内的部分
+         */
+        Segment slice(double startTime, double endTime) {
+            List<Danmaku> danmakus = new ArrayList<>();
+            for (int i = 0; i < size(); i++) {
+                if (times[i] >= startTime && times[i] <= endTime) {
+                    danmakus.add(get(i));
+                }
+            }
+            return of(danmakus);
+        }
+
+        /**
+         * 合并新写入的弹幕，保持按时间、id 排序，分段中已有的 id 不重复加入
+         */
+        Segment merge(List<Danmaku> added) {
+            Set<Long> existing = new HashSet<>(size() * 2);
+            for (long id : ids) {
+                if (id >= 0) {
+                    existing.add(id);
+                }
+            }
+            List<Danmaku> danmakus = toList();
+            for (Danmaku danmaku : added) {
+                if (danmaku.getId() == null || existing.add(danmaku.getId())) {
+                    danmakus.add(danmaku);
+                }
+            }
+            danmakus.sort(Comparator.comparing(Danmaku::getTime)
+                    .thenComparing(Danmaku::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+            return of(danmakus);
+        }
+    }
+}
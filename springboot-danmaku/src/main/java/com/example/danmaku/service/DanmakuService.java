@@ -4,7 +4,6 @@ import com.example.danmaku.dto.DanmakuDTO;
 import com.example.danmaku.mapper.DanmakuMapper;
 import com.example.danmaku.model.Danmaku;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -14,20 +13,29 @@ import java.util.List;
 public class DanmakuService {
     
     private final DanmakuMapper danmakuMapper;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SensitiveWordFilter sensitiveWordFilter;
+    private final DanmakuBatchWriter danmakuBatchWriter;
+    private final DanmakuBroadcaster danmakuBroadcaster;
+    private final DanmakuReplayIndex danmakuReplayIndex;
     
     @Autowired
-    public DanmakuService(DanmakuMapper danmakuMapper, SimpMessagingTemplate messagingTemplate) {
+    public DanmakuService(DanmakuMapper danmakuMapper, SensitiveWordFilter sensitiveWordFilter,
+                          DanmakuBatchWriter danmakuBatchWriter, DanmakuBroadcaster danmakuBroadcaster,
+                          DanmakuReplayIndex danmakuReplayIndex) {
         this.danmakuMapper = danmakuMapper;
-        this.messagingTemplate = messagingTemplate;
+        this.sensitiveWordFilter = sensitiveWordFilter;
+        this.danmakuBatchWriter = danmakuBatchWriter;
+        this.danmakuBroadcaster = danmakuBroadcaster;
+        this.danmakuReplayIndex = danmakuReplayIndex;
     }
     
     /**
      * 保存并发送弹幕
+     * 入库和广播都是异步合并进行的，返回时弹幕尚未写入数据库，id 为空
      */
     public Danmaku saveDanmaku(DanmakuDTO danmakuDTO) {
-        // 内容过滤（简单示例）
-        String filteredContent = filterContent(danmakuDTO.getContent());
+        // 内容过滤
+        String filteredContent = sensitiveWordFilter.filter(danmakuDTO.getContent());
         
         // 创建弹幕实体
         Danmaku danmaku = new Danmaku();
@@ -40,11 +48,11 @@ public class DanmakuService {
         danmaku.setUsername(danmakuDTO.getUsername());
         danmaku.setCreatedAt(LocalDateTime.now());
         
-        // 保存到数据库
-        danmakuMapper.insert(danmaku);
+        // 放入批量入库队列
+        danmakuBatchWriter.enqueue(danmaku);
         
-        // 通过WebSocket发送到客户端
-        messagingTemplate.convertAndSend("/topic/video/" + danmaku.getVideoId(), danmaku);
+        // 放入视频的广播缓冲区，按帧合并后通过WebSocket发送到客户端
+        danmakuBroadcaster.publish(danmaku);
         
         return danmaku;
     }
@@ -57,25 +65,17 @@ public class DanmakuService {
     }
     
     /**
-     * 获取指定时间范围内的弹幕
+     * 获取指定时间范围内的弹幕，返回序列化好的 JSON
      */
-    public List<Danmaku> getDanmakusByVideoIdAndTimeRange(
+    public byte[] getDanmakusByVideoIdAndTimeRange(
             String videoId, Double startTime, Double endTime) {
-        return danmakuMapper.findByVideoIdAndTimeBetween(videoId, startTime, endTime);
+        return danmakuReplayIndex.getRangeJson(videoId, startTime, endTime);
     }
     
     /**
-     * 简单的内容过滤实现
+     * 获取一个回放分段的弹幕，返回序列化好的 JSON
      */
-    private String filterContent(String content) {
-        // 实际应用中这里可能会有更复杂的过滤逻辑
-        String[] sensitiveWords = {"敏感词1", "敏感词2", "敏感词3"};
-        String filtered = content;
-        
-        for (String word : sensitiveWords) {
-            filtered = filtered.replaceAll(word, "***");
-        }
-        
-        return filtered;
+    public byte[] getDanmakuSegment(String videoId, int index, boolean forward) {
+        return danmakuReplayIndex.getSegmentJson(videoId, index, forward);
     }
 }
\ No newline at end of file
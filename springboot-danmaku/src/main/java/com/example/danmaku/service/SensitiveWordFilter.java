@@ -0,0 +1,121 @@
+package com.example.danmaku.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * 敏感词过滤
+ * 启动时把全部敏感词编译为 Aho-Corasick 自动机，过滤时只扫描一遍内容，耗时与敏感词数量无关；
+ * 命中的词（重叠时取最靠前、最长的一个）替换为 ***
+ */
+@Component
+public class SensitiveWordFilter {
+
+    private static final String MASK = "***";
+
+    private final Node root = new Node();
+
+    public SensitiveWordFilter(@Value("${danmaku.filter.sensitive-words:敏感词1,敏感词2,敏感词3}") String[] words) {
+        for (String word : words) {
+            String trimmed = word.trim();
+            if (!trimmed.isEmpty()) {
+                insert(trimmed);
+            }
+        }
+        buildFailureLinks();
+    }
+
+    public String filter(String content) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+        // 以每个位置开头的最长命中词长度
+        int[] longestAt = null;
+        Node node = root;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            while (node != root && !node.children.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.children.getOrDefault(c, root);
+            for (Node hit = node.terminal ? node : node.output; hit != null; hit = hit.output) {
+                if (longestAt == null) {
+                    longestAt = new int[content.length()];
+                }
+                int start = i - hit.depth + 1;
+                longestAt[start] = Math.max(longestAt[start], hit.depth);
+            }
+        }
+        if (longestAt == null) {
+            return content;
+        }
+
+        StringBuilder filtered = new StringBuilder(content.length());
+        int i = 0;
+        while (i < content.length()) {
+            if (longestAt[i] > 0) {
+                filtered.append(MASK);
+                i += longestAt[i];
+            } else {
+                filtered.append(content.charAt(i++));
+            }
+        }
+        return filtered.toString();
+    }
+
+    private void insert(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            int depth = i + 1;
+            node = node.children.computeIfAbsent(word.charAt(i), c -> new Node(depth));
+        }
+        node.terminal = true;
+    }
+
+    /**
+     * 按层遍历建立失败指针，以及指向最近一个可命中后缀的输出指针
+     */
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+                Node fail = node.fail;
+                while (fail != root && !fail.children.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                Node target = fail.children.get(c);
+                child.fail = target != null && target != child ? target : root;
+                child.output = child.fail.terminal ? child.fail : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final int depth;
+        private boolean terminal;
+        private Node fail;
+        private Node output;
+
+        Node() {
+            this(0);
+        }
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+    }
+}
@@ -27,13 +27,14 @@ document.addEventListener('DOMContentLoaded', function() {
             console.log('Connected to WebSocket: ' + frame);
 
             // 订阅当前视频的弹幕频道
+            // 服务端按帧合并推送，每条消息是一组弹幕
             stompClient.subscribe('/topic/video/' + videoId, function(response) {
-                const danmaku = JSON.parse(response.body);
-                showDanmaku(danmaku);
+                const frame = JSON.parse(response.body);
+                frame.forEach(showDanmaku);
             });
 
-            // 获取历史弹幕
-            loadHistoryDanmaku();
+            // 获取当前播放位置的历史弹幕
+            loadSegment(segmentOf(videoPlayer.currentTime), true);
         }, function(error) {
             console.error('WebSocket连接失败: ', error);
             // 尝试重新连接
@@ -41,16 +42,29 @@ document.addEventListener('DOMContentLoaded', function() {
         });
     }
 
-    // 加载历史弹幕
-    function loadHistoryDanmaku() {
-        fetch(`/api/danmaku/video/${videoId}`)
+    // 历史弹幕按播放时间分段加载，与服务端的分段长度一致
+    const SEGMENT_SECONDS = 10;
+    const historySegments = {};
+
+    function segmentOf(time) {
+        return Math.floor(time / SEGMENT_SECONDS);
+    }
+
+    // 加载一个分段的历史弹幕，forward 为播放方向，服务端据此预取后续分段
+    function loadSegment(index, forward) {
+        if (index < 0 || historySegments[index]) return;
+        historySegments[index] = [];
+        fetch(`/api/danmaku/video/${videoId}/segment/${index}?forward=${forward}`)
             .then(response => response.json())
             .then(danmakus => {
                 // 记录历史弹幕，用于播放到相应时间点时显示
-                window.historyDanmakus = danmakus;
-                console.log(`已加载${danmakus.length}条历史弹幕`);
+                historySegments[index] = danmakus;
+                console.log(`已加载分段${index}的${danmakus.length}条历史弹幕`);
             })
-            .catch(error => console.error('获取历史弹幕失败:', error));
+            .catch(error => {
+                delete historySegments[index];
+                console.error('获取历史弹幕失败:', error);
+            });
     }
 
     // 发送弹幕
@@ -106,12 +120,20 @@ document.addEventListener('DOMContentLoaded', function() {
     videoPlayer.addEventListener('timeupdate', function() {
         const currentTime = videoPlayer.currentTime;
 
-        // 如果历史弹幕已加载
-        if (window.historyDanmakus && window.lastCheckedTime !== Math.floor(currentTime)) {
+        if (window.lastCheckedTime !== Math.floor(currentTime)) {
+            const forward = window.lastCheckedTime === undefined || Math.floor(currentTime) > window.lastCheckedTime;
             window.lastCheckedTime = Math.floor(currentTime);
 
-            // 检查是否有需要在当前时间点显示的弹幕
-            window.historyDanmakus.forEach(danmaku => {
+            // 当前分段及即将播放到的分段
+            const index = segmentOf(currentTime);
+            loadSegment(index, forward);
+            loadSegment(forward ? index + 1 : index - 1, forward);
+
+            // 检查是否有需要在当前时间点显示的弹幕（±0.5秒可能落在相邻分段）
+            const candidates = (historySegments[segmentOf(currentTime - 0.5)] || [])
+                .concat(segmentOf(currentTime + 0.5) !== segmentOf(currentTime - 0.5)
+                    ? (historySegments[segmentOf(currentTime + 0.5)] || []) : []);
+            candidates.forEach(danmaku => {
                 // 如果弹幕时间点在当前时间的±0.5秒内且尚未显示
                 if (Math.abs(danmaku.time - currentTime) <= 0.5 &&
                     (!window.displayedDanmakus || !window.displayedDanmakus.includes(danmaku.id))) {
@@ -0,0 +1,335 @@
+package com.example.dynamicrule.compiler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 规则字节码编译器
+ * 把 RuleParser 支持的脚本子集直接生成 RuleFunction 的实现类（使用 Spring 内置的 ASM），省去解释执行的指令分派和上下文查找；
+ * 运算本身委托给 RuleOps，沿用 QLExpress 的数值和比较语义。
+ *
+ * 每个生成类由独立的类加载器加载，规则被替换且不再被任何快照引用后，类和加载器一起被回收。
+ */
+@Slf4j
+public class RuleBytecodeCompiler {
+
+    private static final String PACKAGE = "com/example/dynamicrule/compiler/generated/";
+    private static final String OPS = Type.getInternalName(RuleOps.class);
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECT_DESC = "Ljava/lang/Object;";
+    private static final String BINARY_DESC = "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 编译规则脚本
+     *
+     * @return 规则函数；脚本超出支持的语法子集时返回null，由调用方使用解释执行
+     */
+    public RuleFunction compile(String ruleName, String script) {
+        RuleParser.Block program;
+        try {
+            program = RuleParser.parse(script);
+        } catch (RuleParser.UnsupportedSyntaxException e) {
+            log.info("规则 {} 使用解释执行: {}", ruleName, e.getMessage());
+            return null;
+        }
+
+        String className = PACKAGE + "Rule" + sequence.incrementAndGet() + "_" + sanitize(ruleName);
+        byte[] bytecode = new Generator(className).generate(program);
+        try {
+            Class<?> type = new RuleClassLoader(RuleFunction.class.getClassLoader())
+                    .define(className.replace('/', '.'), bytecode);
+            return (RuleFunction) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("规则 {} 字节码加载失败，使用解释执行: {}", ruleName, e.toString());
+            return null;
+        }
+    }
+
+    private static String sanitize(String ruleName) {
+        StringBuilder sb = new StringBuilder(ruleName.length());
+        for (int i = 0; i < ruleName.length() && sb.length() < 64; i++) {
+            char c = ruleName.charAt(i);
+            sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 一次性类加载器，只定义一个规则类
+     */
+    private static final class RuleClassLoader extends ClassLoader {
+
+        private RuleClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+    /**
+     * 单个规则类的代码生成，生成类结构：
+     * <pre>
+     * public final class RuleN_xxx implements RuleFunction {
+     *     private static final Object C0 = ...; // 数字字面量
+     *     public Object apply(Map params) { ... }
+     * }
+     * </pre>
+     */
+    private static final class Generator {
+
+        private final String className;
+        private final List<Object> constants = new ArrayList<>();
+        private MethodVisitor mv;
+
+        private Generator(String className) {
+            this.className = className;
+        }
+
+        private byte[] generate(RuleParser.Block program) {
+            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+                @Override
+                protected String getCommonSuperClass(String type1, String type2) {
+                    // 栈上的值都按Object处理，不需要加载类来计算公共父类
+                    return OBJECT;
+                }
+            };
+            cw.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+                    OBJECT, new String[]{Type.getInternalName(RuleFunction.class)});
+
+            MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+            init.visitCode();
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+            init.visitInsn(Opcodes.RETURN);
+            init.visitMaxs(0, 0);
+            init.visitEnd();
+
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "apply", "(Ljava/util/Map;)Ljava/lang/Object;",
+                    null, new String[]{"java/lang/Exception"});
+            mv.visitCode();
+            statement(program);
+            if (program.canFallThrough()) {
+                // 没有执行到return时结果为null
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                mv.visitInsn(Opcodes.ARETURN);
+            }
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            generateConstants(cw);
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        /**
+         * 数字字面量装箱一次后保存在静态字段中
+         */
+        private void generateConstants(ClassWriter cw) {
+            if (constants.isEmpty()) {
+                return;
+            }
+            MethodVisitor clinit = cw.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+            clinit.visitCode();
+            for (int i = 0; i < constants.size(); i++) {
+                Object value = constants.get(i);
+                cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+                        "C" + i, OBJECT_DESC, null, null).visitEnd();
+                String box = Type.getInternalName(value.getClass());
+                String primitive = Type.getType(primitiveOf(value)).getDescriptor();
+                clinit.visitLdcInsn(value);
+                clinit.visitMethodInsn(Opcodes.INVOKESTATIC, box, "valueOf",
+                        "(" + primitive + ")L" + box + ";", false);
+                clinit.visitFieldInsn(Opcodes.PUTSTATIC, className, "C" + i, OBJECT_DESC);
+            }
+            clinit.visitInsn(Opcodes.RETURN);
+            clinit.visitMaxs(0, 0);
+            clinit.visitEnd();
+        }
+
+        private static Class<?> primitiveOf(Object value) {
+            if (value instanceof Integer) {
+                return int.class;
+            }
+            if (value instanceof Long) {
+                return long.class;
+            }
+            if (value instanceof Float) {
+                return float.class;
+            }
+            return double.class;
+        }
+
+        private void statement(RuleParser.Stmt stmt) {
+            if (stmt instanceof RuleParser.Block) {
+                for (RuleParser.Stmt child : ((RuleParser.Block) stmt).statements) {
+                    statement(child);
+                }
+            } else if (stmt instanceof RuleParser.Return) {
+                expression(((RuleParser.Return) stmt).value);
+                mv.visitInsn(Opcodes.ARETURN);
+            } else if (stmt instanceof RuleParser.If) {
+                RuleParser.If ifStmt = (RuleParser.If) stmt;
+                Label otherwise = new Label();
+                Label end = new Label();
+                condition(ifStmt.condition, otherwise);
+                statement(ifStmt.then);
+                if (ifStmt.otherwise != null) {
+                    if (ifStmt.then.canFallThrough()) {
+                        mv.visitJumpInsn(Opcodes.GOTO, end);
+                    }
+                    mv.visitLabel(otherwise);
+                    statement(ifStmt.otherwise);
+                } else {
+                    mv.visitLabel(otherwise);
+                }
+                mv.visitLabel(end);
+            }
+        }
+
+        /**
+         * 计算条件，结果为false时跳转到target
+         */
+        private void condition(RuleParser.Expr expr, Label target) {
+            expression(expr);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "test", "(Ljava/lang/Object;)Z", false);
+            mv.visitJumpInsn(Opcodes.IFEQ, target);
+        }
+
+        private void expression(RuleParser.Expr expr) {
+            if (expr instanceof RuleParser.Literal) {
+                literal(((RuleParser.Literal) expr).value);
+            } else if (expr instanceof RuleParser.Variable) {
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitLdcInsn(((RuleParser.Variable) expr).name);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, "java/util/Map", "get",
+                        "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+            } else if (expr instanceof RuleParser.Not) {
+                expression(((RuleParser.Not) expr).operand);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "not", "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+            } else if (expr instanceof RuleParser.Call) {
+                call((RuleParser.Call) expr);
+            } else {
+                binary((RuleParser.Binary) expr);
+            }
+        }
+
+        private void literal(Object value) {
+            if (value == null) {
+                mv.visitInsn(Opcodes.ACONST_NULL);
+            } else if (value instanceof String) {
+                mv.visitLdcInsn(value);
+            } else if (value instanceof Boolean) {
+                mv.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/Boolean",
+                        (Boolean) value ? "TRUE" : "FALSE", "Ljava/lang/Boolean;");
+            } else {
+                int index = constants.indexOf(value);
+                if (index < 0) {
+                    index = constants.size();
+                    constants.add(value);
+                }
+                mv.visitFieldInsn(Opcodes.GETSTATIC, className, "C" + index, OBJECT_DESC);
+            }
+        }
+
+        private void binary(RuleParser.Binary expr) {
+            switch (expr.operator) {
+                case "&&":
+                case "||":
+                    logical(expr);
+                    return;
+                default:
+                    break;
+            }
+
+            if (isComparison(expr.operator)) {
+                mv.visitLdcInsn(expr.operator);
+            }
+            expression(expr.left);
+            expression(expr.right);
+            switch (expr.operator) {
+                case "+":
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "add", BINARY_DESC, false);
+                    break;
+                case "-":
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "subtract", BINARY_DESC, false);
+                    break;
+                case "*":
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "multiply", BINARY_DESC, false);
+                    break;
+                case "/":
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "divide", BINARY_DESC, false);
+                    break;
+                case "%":
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "modulo", BINARY_DESC, false);
+                    break;
+                default:
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "compare",
+                            "(Ljava/lang/String;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
+                    break;
+            }
+        }
+
+        private static boolean isComparison(String operator) {
+            switch (operator) {
+                case "==":
+                case "!=":
+                case ">":
+                case ">=":
+                case "<":
+                case "<=":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * && 和 || 短路求值，结果为Boolean
+         */
+        private void logical(RuleParser.Binary expr) {
+            boolean and = "&&".equals(expr.operator);
+            Label shortCircuit = new Label();
+            Label end = new Label();
+            int jump = and ? Opcodes.IFEQ : Opcodes.IFNE;
+
+            expression(expr.left);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "test", "(Ljava/lang/Object;)Z", false);
+            mv.visitJumpInsn(jump, shortCircuit);
+            expression(expr.right);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "test", "(Ljava/lang/Object;)Z", false);
+            mv.visitJumpInsn(jump, shortCircuit);
+            mv.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/Boolean", and ? "TRUE" : "FALSE", "Ljava/lang/Boolean;");
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(shortCircuit);
+            mv.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/Boolean", and ? "FALSE" : "TRUE", "Ljava/lang/Boolean;");
+            mv.visitLabel(end);
+        }
+
+        private void call(RuleParser.Call call) {
+            mv.visitLdcInsn(Type.getType(call.type));
+            mv.visitLdcInsn(call.method);
+            mv.visitLdcInsn(call.args.size());
+            mv.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT);
+            for (int i = 0; i < call.args.size(); i++) {
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitLdcInsn(i);
+                expression(call.args.get(i));
+                mv.visitInsn(Opcodes.AASTORE);
+            }
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, OPS, "invokeStatic",
+                    "(Ljava/lang/Class;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;", false);
+        }
+    }
+}
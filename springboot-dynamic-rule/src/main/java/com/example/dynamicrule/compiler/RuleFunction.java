@@ -0,0 +1,18 @@
+package com.example.dynamicrule.compiler;
+
+import java.util.Map;
+
+/**
+ * 编译为字节码的规则，由 RuleBytecodeCompiler 生成实现类
+ */
+@FunctionalInterface
+public interface RuleFunction {
+
+    /**
+     * 执行规则
+     *
+     * @param params 规则参数，脚本中的变量按名称从中读取
+     * @return 规则返回值，脚本未执行到return时为null
+     */
+    Object apply(Map<String, Object> params) throws Exception;
+}
@@ -0,0 +1,86 @@
+package com.example.dynamicrule.compiler;
+
+import com.ql.util.express.ExpressUtil;
+import com.ql.util.express.OperatorOfNumber;
+import com.ql.util.express.instruction.op.OperatorEqualsLessMore;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 生成的规则类调用的运算入口
+ * 数值运算、比较和静态方法的重载选择都直接复用 QLExpress 的实现，保证与解释执行的结果和类型一致
+ * （与引擎中 ExpressRunner 的默认配置一样使用非高精度模式）
+ */
+public final class RuleOps {
+
+    private RuleOps() {
+    }
+
+    public static Object add(Object left, Object right) throws Exception {
+        return OperatorOfNumber.add(left, right, false);
+    }
+
+    public static Object subtract(Object left, Object right) throws Exception {
+        return OperatorOfNumber.subtract(left, right, false);
+    }
+
+    public static Object multiply(Object left, Object right) throws Exception {
+        return OperatorOfNumber.multiply(left, right, false);
+    }
+
+    public static Object divide(Object left, Object right) throws Exception {
+        return OperatorOfNumber.divide(left, right, false);
+    }
+
+    public static Object modulo(Object left, Object right) throws Exception {
+        return OperatorOfNumber.modulo(left, right);
+    }
+
+    public static Object compare(String operator, Object left, Object right) throws Exception {
+        return OperatorEqualsLessMore.executeInner(operator, left, right) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    /**
+     * 条件判断以及 && || 的操作数：null 视为 false，非布尔值报错
+     */
+    public static boolean test(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new IllegalArgumentException("条件表达式的结果必须是布尔值: " + value);
+    }
+
+    /**
+     * 逻辑非，操作数必须是布尔值
+     */
+    public static Object not(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? Boolean.FALSE : Boolean.TRUE;
+        }
+        throw new IllegalArgumentException("!运算的操作数必须是布尔值: " + value);
+    }
+
+    /**
+     * 调用静态方法，按实参的运行时类型选择重载
+     */
+    public static Object invokeStatic(Class<?> type, String methodName, Object[] args) throws Exception {
+        Class<?>[] argTypes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            argTypes[i] = args[i] != null ? args[i].getClass() : null;
+        }
+        Method method = ExpressUtil.findMethodWithCache(type, methodName, argTypes, true, true);
+        if (method == null) {
+            throw new NoSuchMethodException(type.getName() + "." + methodName);
+        }
+        try {
+            return method.invoke(null, ExpressUtil.transferArray(args, method.getParameterTypes()));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+}
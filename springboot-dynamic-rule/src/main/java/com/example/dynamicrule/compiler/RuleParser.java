@@ -0,0 +1,495 @@
+package com.example.dynamicrule.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 规则脚本子集的语法分析
+ *
+ * 支持的语法：
+ * - 语句：if / else if / else、return、{} 代码块；或整个脚本只有一个表达式
+ * - 表达式：变量、数字/字符串/布尔/null 字面量、+ - * / %、== != > >= < <=、&& || !、括号、Math 的静态方法
+ *
+ * 其他语法（赋值、def、循环、自定义函数、对象方法调用、注释、转义字符等）抛出 UnsupportedSyntaxException，
+ * 由调用方回退到 QLExpress 解释执行
+ */
+public class RuleParser {
+
+    /**
+     * 在 QLExpress 中有特殊含义、不能按普通变量处理的标识符
+     */
+    private static final Set<String> RESERVED = new HashSet<>(Arrays.asList(
+            "and", "or", "not", "in", "like", "mod", "def", "new", "import", "function", "macro",
+            "for", "while", "break", "continue", "then", "exportDef", "exportAlias", "alias",
+            "class", "NewMap", "NewList", "operator", "this", "super"));
+
+    private static final Set<String> OPERATORS = new HashSet<>(Arrays.asList(
+            "==", "!=", ">=", "<=", "&&", "||", ">", "<", "!", "+", "-", "*", "/", "%",
+            "(", ")", "{", "}", ";", ",", "."));
+
+    private final List<Token> tokens;
+    private int position;
+
+    private RuleParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * 解析脚本
+     *
+     * @throws UnsupportedSyntaxException 脚本使用了子集之外的语法
+     */
+    public static Block parse(String script) throws UnsupportedSyntaxException {
+        RuleParser parser = new RuleParser(tokenize(script));
+        return parser.parseProgram();
+    }
+
+    // ---------------------------------------------------------------- 语句
+
+    private Block parseProgram() throws UnsupportedSyntaxException {
+        if (!isStatementStart()) {
+            // 只有一个表达式的脚本，值即结果
+            Expr expr = parseExpression();
+            accept(";");
+            expectEnd();
+            return new Block(List.of(new Return(expr)));
+        }
+        List<Stmt> statements = parseStatements();
+        expectEnd();
+        return new Block(statements);
+    }
+
+    private List<Stmt> parseStatements() throws UnsupportedSyntaxException {
+        List<Stmt> statements = new ArrayList<>();
+        while (!atEnd() && !peekIs("}")) {
+            if (!statements.isEmpty() && !statements.get(statements.size() - 1).canFallThrough()) {
+                throw new UnsupportedSyntaxException("return 之后还有语句");
+            }
+            statements.add(parseStatement());
+        }
+        return statements;
+    }
+
+    private Stmt parseStatement() throws UnsupportedSyntaxException {
+        if (accept("if")) {
+            expect("(");
+            Expr condition = parseExpression();
+            expect(")");
+            Stmt then = parseBody();
+            Stmt otherwise = null;
+            if (accept("else")) {
+                otherwise = peekIs("if") ? parseStatement() : parseBody();
+            }
+            return new If(condition, then, otherwise);
+        }
+        if (accept("return")) {
+            if (peekIs(";") || peekIs("}") || atEnd()) {
+                // QLExpress 不接受不带返回值的 return
+                throw new UnsupportedSyntaxException("return 缺少返回值");
+            }
+            Expr value = parseExpression();
+            accept(";");
+            return new Return(value);
+        }
+        if (peekIs("{")) {
+            return parseBody();
+        }
+        throw new UnsupportedSyntaxException("不支持的语句: " + peekText());
+    }
+
+    private Block parseBody() throws UnsupportedSyntaxException {
+        expect("{");
+        List<Stmt> statements = parseStatements();
+        expect("}");
+        return new Block(statements);
+    }
+
+    private boolean isStatementStart() {
+        return peekIs("if") || peekIs("return") || peekIs("{");
+    }
+
+    // ---------------------------------------------------------------- 表达式，按优先级从低到高
+
+    private Expr parseExpression() throws UnsupportedSyntaxException {
+        return parseOr();
+    }
+
+    private Expr parseOr() throws UnsupportedSyntaxException {
+        Expr left = parseAnd();
+        while (accept("||")) {
+            left = new Binary("||", left, parseAnd());
+        }
+        return left;
+    }
+
+    private Expr parseAnd() throws UnsupportedSyntaxException {
+        Expr left = parseEquality();
+        while (accept("&&")) {
+            left = new Binary("&&", left, parseEquality());
+        }
+        return left;
+    }
+
+    private Expr parseEquality() throws UnsupportedSyntaxException {
+        Expr left = parseRelational();
+        while (peekIs("==") || peekIs("!=")) {
+            String operator = next().text;
+            left = new Binary(operator, left, parseRelational());
+        }
+        return left;
+    }
+
+    private Expr parseRelational() throws UnsupportedSyntaxException {
+        Expr left = parseAdditive();
+        while (peekIs(">") || peekIs(">=") || peekIs("<") || peekIs("<=")) {
+            String operator = next().text;
+            left = new Binary(operator, left, parseAdditive());
+        }
+        return left;
+    }
+
+    private Expr parseAdditive() throws UnsupportedSyntaxException {
+        Expr left = parseMultiplicative();
+        while (peekIs("+") || peekIs("-")) {
+            String operator = next().text;
+            left = new Binary(operator, left, parseMultiplicative());
+        }
+        return left;
+    }
+
+    private Expr parseMultiplicative() throws UnsupportedSyntaxException {
+        Expr left = parseUnary();
+        while (peekIs("*") || peekIs("/") || peekIs("%")) {
+            String operator = next().text;
+            left = new Binary(operator, left, parseUnary());
+        }
+        return left;
+    }
+
+    private Expr parseUnary() throws UnsupportedSyntaxException {
+        if (accept("!")) {
+            if (peekIs("!")) {
+                // QLExpress 不支持连续的 !
+                throw new UnsupportedSyntaxException("不支持连续的 !");
+            }
+            return new Not(parseUnary());
+        }
+        return parsePrimary();
+    }
+
+    private Expr parsePrimary() throws UnsupportedSyntaxException {
+        if (atEnd()) {
+            throw new UnsupportedSyntaxException("表达式不完整");
+        }
+        Token token = next();
+        switch (token.type) {
+            case NUMBER:
+                return new Literal(parseNumber(token.text));
+            case STRING:
+                return new Literal(token.text);
+            case IDENTIFIER:
+                return parseIdentifier(token.text);
+            default:
+                if ("(".equals(token.text)) {
+                    Expr expr = parseExpression();
+                    expect(")");
+                    return expr;
+                }
+                throw new UnsupportedSyntaxException("不支持的表达式: " + token.text);
+        }
+    }
+
+    private Expr parseIdentifier(String name) throws UnsupportedSyntaxException {
+        switch (name) {
+            case "true":
+                return new Literal(Boolean.TRUE);
+            case "false":
+                return new Literal(Boolean.FALSE);
+            case "null":
+                return new Literal(null);
+            case "Math":
+                expect(".");
+                Token method = next();
+                if (method.type != TokenType.IDENTIFIER) {
+                    throw new UnsupportedSyntaxException("不支持的方法调用: Math." + method.text);
+                }
+                expect("(");
+                List<Expr> args = new ArrayList<>();
+                if (!accept(")")) {
+                    do {
+                        args.add(parseExpression());
+                    } while (accept(","));
+                    expect(")");
+                }
+                return new Call(Math.class, method.text, args);
+            default:
+                if (RESERVED.contains(name) || "if".equals(name) || "else".equals(name) || "return".equals(name)) {
+                    throw new UnsupportedSyntaxException("不支持的关键字: " + name);
+                }
+                if (peekIs("(") || peekIs(".")) {
+                    throw new UnsupportedSyntaxException("不支持的函数或属性访问: " + name);
+                }
+                return new Variable(name);
+        }
+    }
+
+    /**
+     * 与 QLExpress 的字面量类型保持一致：整数默认 Integer，超出范围为 Long；小数为 Double；支持 l/f/d 后缀
+     */
+    private static Object parseNumber(String text) throws UnsupportedSyntaxException {
+        char suffix = Character.toLowerCase(text.charAt(text.length() - 1));
+        String digits = Character.isLetter(suffix) ? text.substring(0, text.length() - 1) : text;
+        try {
+            if (suffix == 'l') {
+                return Long.valueOf(digits);
+            }
+            if (suffix == 'f') {
+                return Float.valueOf(digits);
+            }
+            if (suffix == 'd' || digits.indexOf('.') >= 0) {
+                return Double.valueOf(digits);
+            }
+            long value = Long.parseLong(digits);
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value;
+        } catch (NumberFormatException e) {
+            throw new UnsupportedSyntaxException("不支持的数字: " + text);
+        }
+    }
+
+    // ---------------------------------------------------------------- 词法
+
+    private static List<Token> tokenize(String script) throws UnsupportedSyntaxException {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = script.length();
+        while (i < length) {
+            char c = script.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < length && Character.isJavaIdentifierPart(script.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, script.substring(start, i)));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && (Character.isDigit(script.charAt(i)) || script.charAt(i) == '.')) {
+                    i++;
+                }
+                if (i < length && "lLfFdD".indexOf(script.charAt(i)) >= 0) {
+                    i++;
+                }
+                if (i < length && Character.isJavaIdentifierPart(script.charAt(i))) {
+                    throw new UnsupportedSyntaxException("不支持的数字: " + script.substring(start, i + 1));
+                }
+                String number = script.substring(start, i);
+                if (number.indexOf('.') != number.lastIndexOf('.') || number.endsWith(".")
+                        || (number.length() > 1 && number.charAt(0) == '0' && Character.isDigit(number.charAt(1)))) {
+                    throw new UnsupportedSyntaxException("不支持的数字: " + number);
+                }
+                tokens.add(new Token(TokenType.NUMBER, number));
+            } else if (c == '"' || c == '\'') {
+                int end = script.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new UnsupportedSyntaxException("字符串未结束");
+                }
+                String text = script.substring(i + 1, end);
+                if (text.indexOf('\\') >= 0) {
+                    throw new UnsupportedSyntaxException("不支持转义字符");
+                }
+                if (c == '\'' && text.length() == 1) {
+                    // QLExpress 中单引号包围的单个字符是 Character
+                    throw new UnsupportedSyntaxException("不支持字符字面量");
+                }
+                tokens.add(new Token(TokenType.STRING, text));
+                i = end + 1;
+            } else {
+                String two = i + 1 < length ? script.substring(i, i + 2) : null;
+                if ("//".equals(two) || "/*".equals(two)) {
+                    throw new UnsupportedSyntaxException("不支持注释");
+                }
+                if (two != null && OPERATORS.contains(two)) {
+                    tokens.add(new Token(TokenType.OPERATOR, two));
+                    i += 2;
+                } else if (OPERATORS.contains(String.valueOf(c))) {
+                    tokens.add(new Token(TokenType.OPERATOR, String.valueOf(c)));
+                    i++;
+                } else {
+                    throw new UnsupportedSyntaxException("不支持的字符: " + c);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private boolean atEnd() {
+        return position >= tokens.size();
+    }
+
+    private boolean peekIs(String text) {
+        if (atEnd()) {
+            return false;
+        }
+        Token token = tokens.get(position);
+        return token.type != TokenType.STRING && token.text.equals(text);
+    }
+
+    private String peekText() {
+        return atEnd() ? "<EOF>" : tokens.get(position).text;
+    }
+
+    private Token next() throws UnsupportedSyntaxException {
+        if (atEnd()) {
+            throw new UnsupportedSyntaxException("脚本不完整");
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean accept(String text) {
+        if (peekIs(text)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String text) throws UnsupportedSyntaxException {
+        if (!accept(text)) {
+            throw new UnsupportedSyntaxException("期望 " + text + "，实际为 " + peekText());
+        }
+    }
+
+    private void expectEnd() throws UnsupportedSyntaxException {
+        if (!atEnd()) {
+            throw new UnsupportedSyntaxException("不支持的语法: " + peekText());
+        }
+    }
+
+    private enum TokenType { IDENTIFIER, NUMBER, STRING, OPERATOR }
+
+    private static final class Token {
+        private final TokenType type;
+        private final String text;
+
+        private Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+
+    // ---------------------------------------------------------------- 语法树
+
+    public interface Stmt {
+        /**
+         * 执行完该语句后是否可能继续执行后续语句
+         */
+        boolean canFallThrough();
+    }
+
+    public interface Expr {
+    }
+
+    public static final class Block implements Stmt {
+        public final List<Stmt> statements;
+
+        Block(List<Stmt> statements) {
+            this.statements = statements;
+        }
+
+        @Override
+        public boolean canFallThrough() {
+            return statements.isEmpty() || statements.get(statements.size() - 1).canFallThrough();
+        }
+    }
+
+    public static final class If implements Stmt {
+        public final Expr condition;
+        public final Stmt then;
+        public final Stmt otherwise;
+
+        If(Expr condition, Stmt then, Stmt otherwise) {
+            this.condition = condition;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        public boolean canFallThrough() {
+            return otherwise == null || then.canFallThrough() || otherwise.canFallThrough();
+        }
+    }
+
+    public static final class Return implements Stmt {
+        public final Expr value;
+
+        Return(Expr value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean canFallThrough() {
+            return false;
+        }
+    }
+
+    public static final class Literal implements Expr {
+        public final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+    }
+
+    public static final class Variable implements Expr {
+        public final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+    }
+
+    public static final class Binary implements Expr {
+        public final String operator;
+        public final Expr left;
+        public final Expr right;
+
+        Binary(String operator, Expr left, Expr right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    public static final class Not implements Expr {
+        public final Expr operand;
+
+        Not(Expr operand) {
+            this.operand = operand;
+        }
+    }
+
+    public static final class Call implements Expr {
+        public final Class<?> type;
+        public final String method;
+        public final List<Expr> args;
+
+        Call(Class<?> type, String method, List<Expr> args) {
+            this.type = type;
+            this.method = method;
+            this.args = args;
+        }
+    }
+
+    /**
+     * 脚本使用了字节码后端不支持的语法
+     */
+    public static class UnsupportedSyntaxException extends Exception {
+        public UnsupportedSyntaxException(String message) {
+            super(message);
+        }
+    }
+}
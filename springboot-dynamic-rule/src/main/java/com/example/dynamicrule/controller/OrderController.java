@@ -8,6 +8,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -26,6 +30,45 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderProcessResult>> processOrders(@RequestBody List<Order> orders) {
+        try {
+            return ResponseEntity.ok(orderService.processOrders(orders));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    /**
+     * 压测：sequential 逐笔调用 processOrder，batch 走批量接口
+     */
+    @GetMapping("/benchmark")
+    public Map<String, Object> benchmark(@RequestParam(defaultValue = "batch") String mode,
+                                         @RequestParam(defaultValue = "10000") int orders) {
+        String[] levels = {"GOLD", "SILVER", "NORMAL"};
+        List<Order> samples = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            Order order = orderService.createSampleOrder(levels[i % levels.length], BigDecimal.valueOf(50 + i % 300));
+            order.setOrderId("BENCH-" + i);
+            samples.add(order);
+        }
+
+        long start = System.nanoTime();
+        if ("sequential".equalsIgnoreCase(mode)) {
+            samples.forEach(orderService::processOrder);
+        } else {
+            orderService.processOrders(samples);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("orders", orders);
+        result.put("elapsedMs", elapsed / 1_000_000);
+        result.put("ordersPerSecond", Math.round(orders / (elapsed / 1_000_000_000.0)));
+        return result;
+    }
+
     @PostMapping("/simulate")
     public ResponseEntity<OrderProcessResult> simulateOrder(
             @RequestParam String userLevel,
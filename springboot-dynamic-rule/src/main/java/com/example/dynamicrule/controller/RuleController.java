@@ -48,6 +48,11 @@ public class RuleController {
         }
     }
 
+    @GetMapping("/version")
+    public ResponseEntity<Long> getRuleVersion() {
+        return ResponseEntity.ok(dynamicRuleEngine.getRuleVersion());
+    }
+
     @GetMapping("/{ruleName}")
     public ResponseEntity<RuleScript> getRule(@PathVariable String ruleName) {
         RuleScript rule = dynamicRuleEngine.getRule(ruleName);
@@ -1,37 +1,64 @@
 package com.example.dynamicrule.service;
 
+import com.example.dynamicrule.compiler.RuleBytecodeCompiler;
+import com.example.dynamicrule.compiler.RuleFunction;
 import com.example.dynamicrule.entity.RuleExecuteResponse;
 import com.example.dynamicrule.entity.RuleScript;
-import com.ql.util.express.DefaultContext;
 import com.ql.util.express.ExpressRunner;
 import com.ql.util.express.InstructionSet;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 @Slf4j
 @Service
 public class DynamicRuleEngine {
 
-    // TODO 为方便demo演示，规则存于map, 实际项目使用需要存储在数据库或者其他数据存储组件中
-    private final Map<String, RuleScript> ruleCache = new ConcurrentHashMap<>();
+    /**
+     * 批量执行时每个任务至少处理的条目数，条目太少时不拆分
+     */
+    private static final int MIN_BATCH_CHUNK = 64;
+
+    // TODO 为方便demo演示，规则存于内存快照, 实际项目使用需要存储在数据库或者其他数据存储组件中
+    private volatile RuleSnapshot snapshot = RuleSnapshot.EMPTY;
     private final ExpressRunner expressRunner = new ExpressRunner();
+    private final RuleBytecodeCompiler bytecodeCompiler = new RuleBytecodeCompiler();
+
+    /**
+     * 是否把支持的规则脚本编译为字节码执行，不支持的脚本始终解释执行
+     */
+    @Value("${dynamic-rule.bytecode.enabled:true}")
+    private boolean bytecodeEnabled;
+    private final int batchParallelism = Runtime.getRuntime().availableProcessors();
+    private final AtomicInteger batchThreadIndex = new AtomicInteger();
+    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(batchParallelism, r -> {
+        Thread t = new Thread(r, "rule-batch-" + batchThreadIndex.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
 
     @PostConstruct
-    public void init() throws Exception {
+    public void init() {
         initDefaultRules();
-        ExpressRunner runner = new ExpressRunner();
+    }
 
-        /* 1. 预编译（可放在系统启动阶段） */
-        //String expr = "price * (1 - discount)";
-        //InstructionSet instructionSet = expressRunner.getInstructionSetFromLocalCache(expr);
+    @PreDestroy
+    public void destroy() {
+        batchExecutor.shutdownNow();
     }
 
     private void initDefaultRules() {
@@ -48,68 +75,139 @@ public class DynamicRuleEngine {
                 "积分奖励规则"));
     }
 
+    /**
+     * 规则在添加和更新时预编译为指令集，脚本有语法错误时直接拒绝；
+     * 启用字节码编译时，支持的脚本再生成字节码实现，执行时优先使用
+     */
+    private RuleSnapshot.CompiledRule compile(RuleScript ruleScript) {
+        InstructionSet instructionSet;
+        try {
+            instructionSet = expressRunner.parseInstructionSet(ruleScript.getScript());
+        } catch (Exception e) {
+            throw new RuntimeException("规则编译失败: " + ruleScript.getRuleName() + ", " + e.getMessage(), e);
+        }
+        RuleFunction function = bytecodeEnabled
+                ? bytecodeCompiler.compile(ruleScript.getRuleName(), ruleScript.getScript())
+                : null;
+        return new RuleSnapshot.CompiledRule(ruleScript, instructionSet, function);
+    }
+
     public void addRule(RuleScript ruleScript) {
         if (ruleScript.getCreateTime() == null) {
             ruleScript.setCreateTime(LocalDateTime.now());
         }
         ruleScript.setUpdateTime(LocalDateTime.now());
-        ruleCache.put(ruleScript.getRuleName(), ruleScript);
-        log.info("添加规则: {}", ruleScript.getRuleName());
+        RuleSnapshot.CompiledRule compiled = compile(ruleScript);
+        synchronized (this) {
+            snapshot = snapshot.withRule(compiled);
+        }
+        log.info("添加规则: {}, 版本: {}, 字节码: {}", ruleScript.getRuleName(), snapshot.getVersion(),
+                compiled.getFunction() != null);
     }
 
-    public void updateRule(String ruleName, RuleScript updatedRule) {
-        if (!ruleCache.containsKey(ruleName)) {
+    public synchronized void updateRule(String ruleName, RuleScript updatedRule) {
+        RuleSnapshot.CompiledRule existing = snapshot.getRule(ruleName);
+        if (existing == null) {
             throw new RuntimeException("规则不存在: " + ruleName);
         }
 
-        RuleScript existingRule = ruleCache.get(ruleName);
-        existingRule.setScript(updatedRule.getScript());
-        existingRule.setDescription(updatedRule.getDescription());
-        existingRule.setEnabled(updatedRule.isEnabled());
-        existingRule.setUpdateTime(LocalDateTime.now());
+        // 生成新的规则对象，已发出的快照保持不变
+        RuleScript existingRule = existing.getRuleScript();
+        RuleScript rule = new RuleScript(ruleName, updatedRule.getScript(), updatedRule.getDescription(),
+                updatedRule.isEnabled(), existingRule.getCreateTime(), LocalDateTime.now());
+        RuleSnapshot.CompiledRule compiled = compile(rule);
+        // 已拿到旧快照的会话继续使用旧的实现执行完，新会话使用新实现
+        snapshot = snapshot.withRule(compiled);
 
-        log.info("更新规则: {}", ruleName);
+        log.info("更新规则: {}, 版本: {}, 字节码: {}", ruleName, snapshot.getVersion(), compiled.getFunction() != null);
     }
 
-    public void deleteRule(String ruleName) {
-        if (ruleCache.remove(ruleName) != null) {
-            log.info("删除规则: {}", ruleName);
+    public synchronized void deleteRule(String ruleName) {
+        if (snapshot.getRule(ruleName) != null) {
+            snapshot = snapshot.withoutRule(ruleName);
+            log.info("删除规则: {}, 版本: {}", ruleName, snapshot.getVersion());
         } else {
             throw new RuntimeException("规则不存在: " + ruleName);
         }
     }
 
     public RuleScript getRule(String ruleName) {
-        return ruleCache.get(ruleName);
+        RuleSnapshot.CompiledRule rule = snapshot.getRule(ruleName);
+        return rule != null ? rule.getRuleScript() : null;
     }
 
     public List<RuleScript> getAllRules() {
-        return new ArrayList<>(ruleCache.values());
+        List<RuleScript> rules = new ArrayList<>();
+        for (RuleSnapshot.CompiledRule rule : snapshot.getRules()) {
+            rules.add(rule.getRuleScript());
+        }
+        return rules;
+    }
+
+    public long getRuleVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * 基于当前规则版本创建执行会话
+     */
+    public RuleSession newSession() {
+        return new RuleSession(expressRunner, snapshot);
     }
 
     public RuleExecuteResponse executeRule(String ruleName, Map<String, Object> params) {
-        try {
-            RuleScript rule = ruleCache.get(ruleName);
-            if (rule == null) {
-                return RuleExecuteResponse.error("规则不存在: " + ruleName);
-            }
+        RuleExecuteResponse response = newSession().execute(ruleName, params);
+        if (response.isSuccess()) {
+            log.info("执行规则: {}, 结果: {}", ruleName, response.getResult());
+        }
+        return response;
+    }
 
-            if (!rule.isEnabled()) {
-                return RuleExecuteResponse.error("规则已禁用: " + ruleName);
+    /**
+     * 批量执行规则链
+     * 条目按顺序切分后并行处理，每个任务复用一个会话，整批使用同一个规则版本；结果顺序与输入一致
+     *
+     * @param items     待处理条目
+     * @param evaluator 对单个条目执行规则链
+     */
+    public <T, R> List<R> executeBatch(List<T> items, BiFunction<RuleSession, T, R> evaluator) {
+        RuleSnapshot pinned = snapshot;
+        int size = items.size();
+        int tasks = Math.max(1, Math.min(batchParallelism, size / MIN_BATCH_CHUNK));
+        Object[] results = new Object[size];
+
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int from = (int) ((long) size * t / tasks);
+            int to = (int) ((long) size * (t + 1) / tasks);
+            Runnable chunk = () -> {
+                RuleSession session = new RuleSession(expressRunner, pinned);
+                for (int i = from; i < to; i++) {
+                    results[i] = evaluator.apply(session, items.get(i));
+                }
+            };
+            if (tasks == 1) {
+                chunk.run();
+            } else {
+                futures.add(batchExecutor.submit(chunk));
             }
+        }
 
-            DefaultContext<String, Object> context = new DefaultContext<>();
-            if (params != null) {
-                params.forEach(context::put);
+        try {
+            for (Future<?> future : futures) {
+                future.get();
             }
-
-            Object result = expressRunner.execute(rule.getScript(), context, null, true, false);
-            log.info("执行规则: {}, 结果: {}", ruleName, result);
-
-            return RuleExecuteResponse.success(result);
-        } catch (Exception e) {
-            log.error("执行规则失败: {}, 错误: {}", ruleName, e.getMessage(), e);
-            return RuleExecuteResponse.error("执行失败: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("批量执行被中断", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("批量执行失败: " + e.getCause().getMessage(), e.getCause());
         }
+
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
     }
-}
\ No newline at end of file
+}
@@ -10,9 +10,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Slf4j
 @Service
@@ -24,17 +22,39 @@ public class OrderService {
     public OrderProcessResult processOrder(Order order) {
         log.info("开始处理订单: {}", order.getOrderId());
 
+        OrderProcessResult result = evaluate(ruleEngine.newSession(), order);
+
+        log.info("订单处理完成: {} -> 原价: {}, 最终价格: {}, 获得积分: {}",
+                order.getOrderId(), order.getOriginalAmount(), result.getFinalAmount(), result.getPointsEarned());
+
+        return result;
+    }
+
+    /**
+     * 批量处理订单，订单之间并行执行规则链，结果顺序与输入一致
+     */
+    public List<OrderProcessResult> processOrders(List<Order> orders) {
+        long start = System.nanoTime();
+        List<OrderProcessResult> results = ruleEngine.executeBatch(orders, this::evaluate);
+        log.info("批量处理订单完成: {} 笔, 耗时: {} ms", orders.size(), (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    /**
+     * 对单个订单执行规则链：VIP折扣 -> 满减 -> 积分
+     */
+    private OrderProcessResult evaluate(RuleSession session, Order order) {
         List<OrderProcessResult.ProcessStep> steps = new ArrayList<>();
         BigDecimal currentAmount = order.getOriginalAmount();
 
         // 1. 应用VIP折扣规则
-        BigDecimal discountedAmount = applyVipDiscount(order, currentAmount, steps);
+        BigDecimal discountedAmount = applyVipDiscount(session, order, currentAmount, steps);
 
         // 2. 应用满减规则
-        BigDecimal finalAmount = applyFullReduction(order, discountedAmount, steps);
+        BigDecimal finalAmount = applyFullReduction(session, order, discountedAmount, steps);
 
         // 3. 计算积分奖励
-        Integer points = calculatePoints(finalAmount, order);
+        Integer points = calculatePoints(session, finalAmount, order);
 
         // 4. 创建处理结果
         OrderProcessResult result = new OrderProcessResult();
@@ -48,18 +68,15 @@ public class OrderService {
         result.setStatus("PROCESSED");
         result.setProcessSteps(steps);
 
-        log.info("订单处理完成: {} -> 原价: {}, 最终价格: {}, 获得积分: {}",
-                order.getOrderId(), order.getOriginalAmount(), finalAmount, points);
-
         return result;
     }
 
-    private BigDecimal applyVipDiscount(Order order, BigDecimal currentAmount, List<OrderProcessResult.ProcessStep> steps) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("userLevel", order.getUserLevel());
-        params.put("price", currentAmount);
-
-        RuleExecuteResponse response = ruleEngine.executeRule("vip_discount", params);
+    private BigDecimal applyVipDiscount(RuleSession session, Order order, BigDecimal currentAmount,
+                                        List<OrderProcessResult.ProcessStep> steps) {
+        RuleExecuteResponse response = session
+                .param("userLevel", order.getUserLevel())
+                .param("price", currentAmount)
+                .execute("vip_discount");
 
         if (response.isSuccess() && response.getResult() instanceof Number) {
             BigDecimal result = new BigDecimal(response.getResult().toString());
@@ -74,7 +91,7 @@ public class OrderService {
                 "vip_discount"
             ));
 
-            log.info("VIP折扣规则执行结果: {} -> {}", currentAmount, result);
+            log.debug("VIP折扣规则执行结果: {} -> {}", currentAmount, result);
             return result;
         }
 
@@ -92,12 +109,12 @@ public class OrderService {
         return currentAmount;
     }
 
-    private BigDecimal applyFullReduction(Order order, BigDecimal currentAmount, List<OrderProcessResult.ProcessStep> steps) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("totalAmount", currentAmount);
-        params.put("userLevel", order.getUserLevel());
-
-        RuleExecuteResponse response = ruleEngine.executeRule("full_reduction", params);
+    private BigDecimal applyFullReduction(RuleSession session, Order order, BigDecimal currentAmount,
+                                          List<OrderProcessResult.ProcessStep> steps) {
+        RuleExecuteResponse response = session
+                .param("totalAmount", currentAmount)
+                .param("userLevel", order.getUserLevel())
+                .execute("full_reduction");
 
         if (response.isSuccess() && response.getResult() instanceof Number) {
             BigDecimal result = new BigDecimal(response.getResult().toString());
@@ -119,7 +136,7 @@ public class OrderService {
                 "full_reduction"
             ));
 
-            log.info("满减规则执行结果: {} -> {}", currentAmount, result);
+            log.debug("满减规则执行结果: {} -> {}", currentAmount, result);
             return result;
         }
 
@@ -137,16 +154,15 @@ public class OrderService {
         return currentAmount;
     }
 
-    private Integer calculatePoints(BigDecimal finalAmount, Order order) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("totalAmount", finalAmount);
-        params.put("userLevel", order.getUserLevel());
-
-        RuleExecuteResponse response = ruleEngine.executeRule("points_reward", params);
+    private Integer calculatePoints(RuleSession session, BigDecimal finalAmount, Order order) {
+        RuleExecuteResponse response = session
+                .param("totalAmount", finalAmount)
+                .param("userLevel", order.getUserLevel())
+                .execute("points_reward");
 
         if (response.isSuccess() && response.getResult() instanceof Number) {
             Integer points = ((Number) response.getResult()).intValue();
-            log.info("积分奖励规则执行结果: {} -> {} 积分", finalAmount, points);
+            log.debug("积分奖励规则执行结果: {} -> {} 积分", finalAmount, points);
             return points;
         }
 
@@ -0,0 +1,70 @@
+package com.example.dynamicrule.service;
+
+import com.example.dynamicrule.compiler.RuleFunction;
+import com.example.dynamicrule.entity.RuleExecuteResponse;
+import com.ql.util.express.DefaultContext;
+import com.ql.util.express.ExpressRunner;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * 规则执行会话
+ * 绑定创建时的规则快照，并复用同一个上下文执行多条规则，每次执行后清空参数。
+ * 非线程安全，每个线程各自创建
+ */
+@Slf4j
+public class RuleSession {
+
+    private final ExpressRunner expressRunner;
+    private final RuleSnapshot snapshot;
+    private final DefaultContext<String, Object> context = new DefaultContext<>();
+
+    RuleSession(ExpressRunner expressRunner, RuleSnapshot snapshot) {
+        this.expressRunner = expressRunner;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 设置下一次执行的参数
+     */
+    public RuleSession param(String key, Object value) {
+        context.put(key, value);
+        return this;
+    }
+
+    public RuleExecuteResponse execute(String ruleName, Map<String, Object> params) {
+        if (params != null) {
+            context.putAll(params);
+        }
+        return execute(ruleName);
+    }
+
+    public RuleExecuteResponse execute(String ruleName) {
+        try {
+            RuleSnapshot.CompiledRule rule = snapshot.getRule(ruleName);
+            if (rule == null) {
+                return RuleExecuteResponse.error("规则不存在: " + ruleName);
+            }
+
+            if (!rule.isEnabled()) {
+                return RuleExecuteResponse.error("规则已禁用: " + ruleName);
+            }
+
+            RuleFunction function = rule.getFunction();
+            Object result = function != null
+                    ? function.apply(context)
+                    : expressRunner.execute(rule.getInstructionSet(), context, null, false, false);
+            return RuleExecuteResponse.success(result);
+        } catch (Exception e) {
+            log.error("执行规则失败: {}, 错误: {}", ruleName, e.getMessage(), e);
+            return RuleExecuteResponse.error("执行失败: " + e.getMessage());
+        } finally {
+            context.clear();
+        }
+    }
+
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.dynamicrule.service;
+
+import com.example.dynamicrule.compiler.RuleFunction;
+import com.example.dynamicrule.entity.RuleScript;
+import com.ql.util.express.InstructionSet;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 规则快照
+ * 不可变，保存某一版本下全部规则及其预编译的指令集（以及可选的字节码实现）；规则变更时生成新版本替换整个快照，
+ * 执行中的调用继续使用自己拿到的快照，一条规则链内的多条规则总是来自同一版本
+ */
+public final class RuleSnapshot {
+
+    static final RuleSnapshot EMPTY = new RuleSnapshot(0, Collections.emptyMap());
+
+    private final long version;
+    private final Map<String, CompiledRule> rules;
+
+    private RuleSnapshot(long version, Map<String, CompiledRule> rules) {
+        this.version = version;
+        this.rules = rules;
+    }
+
+    RuleSnapshot withRule(CompiledRule rule) {
+        Map<String, CompiledRule> copy = new HashMap<>(rules);
+        copy.put(rule.getRuleName(), rule);
+        return new RuleSnapshot(version + 1, Collections.unmodifiableMap(copy));
+    }
+
+    RuleSnapshot withoutRule(String ruleName) {
+        Map<String, CompiledRule> copy = new HashMap<>(rules);
+        copy.remove(ruleName);
+        return new RuleSnapshot(version + 1, Collections.unmodifiableMap(copy));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public CompiledRule getRule(String ruleName) {
+        return rules.get(ruleName);
+    }
+
+    public Collection<CompiledRule> getRules() {
+        return rules.values();
+    }
+
+    /**
+     * 编译后的规则
+     */
+    public static final class CompiledRule {
+
+        private final RuleScript ruleScript;
+        private final InstructionSet instructionSet;
+        private final RuleFunction function;
+        private final boolean enabled;
+
+        CompiledRule(RuleScript ruleScript, InstructionSet instructionSet, RuleFunction function) {
+            this.ruleScript = ruleScript;
+            this.instructionSet = instructionSet;
+            this.function = function;
+            this.enabled = ruleScript.isEnabled();
+        }
+
+        public String getRuleName() {
+            return ruleScript.getRuleName();
+        }
+
+        public RuleScript getRuleScript() {
+            return ruleScript;
+        }
+
+        public InstructionSet getInstructionSet() {
+            return instructionSet;
+        }
+
+        /**
+         * 字节码实现，脚本不在支持的语法子集内或未启用字节码编译时为null
+         */
+        public RuleFunction getFunction() {
+            return function;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+}
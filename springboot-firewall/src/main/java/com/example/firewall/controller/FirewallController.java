@@ -532,6 +532,19 @@ public class FirewallController {
         }
     }
     
+    /**
+     * 获取访问日志缓冲区指标
+     */
+    @GetMapping("/access-log-buffer")
+    public ResponseEntity<Map<String, Object>> getAccessLogBufferMetrics() {
+        try {
+            return ResponseEntity.ok(firewallService.getAccessLogBufferMetrics());
+        } catch (Exception e) {
+            log.error("获取访问日志缓冲区指标失败", e);
+            return ResponseEntity.internalServerError().body(createErrorResponse("获取访问日志缓冲区指标失败", e.getMessage()));
+        }
+    }
+    
     // ==================== 工具方法 ====================
     
     /**
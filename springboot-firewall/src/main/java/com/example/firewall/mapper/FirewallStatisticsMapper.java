@@ -207,7 +207,36 @@ public interface FirewallStatisticsMapper {
             "</foreach>" +
             "</script>")
     int batchInsert(List<FirewallStatistics> statisticsList);
-    
+
+    /**
+     * 批量累加统计数据（不存在则插入）
+     *
+     * 每行包含 statDate、apiPath、totalRequests、blockedRequests、responseTimeSum，
+     * 平均响应时间按加权方式合并。
+     *
+     * @param rows 增量统计数据
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "MERGE INTO firewall_statistics t USING (VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(CAST(#{item.statDate} AS DATE), CAST(#{item.apiPath} AS VARCHAR(200)), " +
+            "CAST(#{item.totalRequests} AS BIGINT), CAST(#{item.blockedRequests} AS BIGINT), " +
+            "CAST(#{item.responseTimeSum} AS BIGINT))" +
+            "</foreach>" +
+            ") s (stat_date, api_path, total_requests, blocked_requests, response_time_sum) " +
+            "ON t.stat_date = s.stat_date AND t.api_path = s.api_path " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "avg_response_time = (t.avg_response_time * t.total_requests + s.response_time_sum) / (t.total_requests + s.total_requests), " +
+            "total_requests = t.total_requests + s.total_requests, " +
+            "blocked_requests = t.blocked_requests + s.blocked_requests, " +
+            "updated_time = CURRENT_TIMESTAMP " +
+            "WHEN NOT MATCHED THEN INSERT (stat_date, api_path, total_requests, blocked_requests, avg_response_time) " +
+            "VALUES (s.stat_date, s.api_path, s.total_requests, s.blocked_requests, " +
+            "CAST(s.response_time_sum AS DECIMAL(20,2)) / s.total_requests)" +
+            "</script>")
+    int batchUpsert(List<Map<String, Object>> rows);
+
     /**
      * 根据日期获取总阻止请求数
      * 
@@ -6,11 +6,9 @@ import com.example.firewall.mapper.FirewallAccessLogMapper;
 import com.example.firewall.mapper.FirewallStatisticsMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -34,60 +32,31 @@ public class FirewallService {
     @Autowired
     private FirewallStatisticsMapper statisticsMapper;
     
+    @Autowired
+    private AccessLogBuffer accessLogBuffer;
+    
     /**
-     * 异步记录访问日志
+     * 记录访问日志
+     * 
+     * 只写入内存缓冲区，由 {@link AccessLogBuffer} 批量落库并聚合统计数据。
      * 
      * @param accessLog 访问日志
      */
-    @Async
     public void logAccessAsync(FirewallAccessLog accessLog) {
         try {
-            accessLogMapper.insert(accessLog);
-            
-            // 更新统计数据
-            updateStatistics(accessLog);
-            
+            accessLogBuffer.record(accessLog);
         } catch (Exception e) {
-            log.error("异步记录访问日志失败: {}", accessLog, e);
+            log.error("记录访问日志失败: {}", accessLog, e);
         }
     }
     
     /**
-     * 更新统计数据
+     * 获取访问日志缓冲区指标
      * 
-     * @param accessLog 访问日志
+     * @return 缓冲区指标
      */
-    private void updateStatistics(FirewallAccessLog accessLog) {
-        try {
-            LocalDate today = LocalDate.now();
-            String apiPath = accessLog.getApiPath();
-            
-            // 查询今日统计
-            FirewallStatistics stats = statisticsMapper.findByDateAndApiPath(today, apiPath);
-            
-            if (stats == null) {
-                // 创建新的统计记录
-                stats = new FirewallStatistics();
-                stats.setStatDate(today);
-                stats.setApiPath(apiPath);
-                stats.setTotalRequests(1L);
-                stats.setBlockedRequests(accessLog.isBlocked() ? 1L : 0L);
-                stats.setAvgResponseTime(BigDecimal.valueOf(accessLog.getResponseTime()));
-                stats.setCreatedTime(LocalDateTime.now());
-                stats.setUpdatedTime(LocalDateTime.now());
-                
-                statisticsMapper.insert(stats);
-            } else {
-                // 更新现有统计记录
-                stats.addRequest(accessLog.isBlocked(), accessLog.getResponseTime().longValue());
-                stats.setUpdatedTime(LocalDateTime.now());
-                
-                statisticsMapper.update(stats);
-            }
-            
-        } catch (Exception e) {
-            log.error("更新统计数据失败: {}", accessLog, e);
-        }
+    public Map<String, Object> getAccessLogBufferMetrics() {
+        return accessLogBuffer.getMetrics();
     }
     
     /**
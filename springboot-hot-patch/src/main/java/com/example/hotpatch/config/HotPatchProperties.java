@@ -23,6 +23,11 @@ public class HotPatchProperties {
      */
     private String path = "./patches";
     
+    /**
+     * 重定义字节码缓存目录，按内容寻址，重启后重新应用补丁时跳过字节码转换；为空时不缓存
+     */
+    private String cachePath = "./patches/.cache";
+    
     /**
      * 允许的补丁文件最大大小（字节）
      */
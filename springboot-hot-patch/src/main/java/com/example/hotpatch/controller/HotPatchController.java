@@ -2,6 +2,7 @@ package com.example.hotpatch.controller;
 
 import com.example.hotpatch.config.HotPatchProperties;
 import com.example.hotpatch.core.HotPatchLoader;
+import com.example.hotpatch.model.PatchBundleInfo;
 import com.example.hotpatch.model.PatchInfo;
 import com.example.hotpatch.model.PatchResult;
 import lombok.extern.slf4j.Slf4j;
@@ -59,6 +60,30 @@ public class HotPatchController {
         return ResponseEntity.ok(result);
     }
     
+    @PostMapping("/bundle/load")
+    public ResponseEntity<PatchResult> loadPatchBundle(
+            @RequestParam String bundleName,
+            @RequestParam String version) {
+    
+        log.info("请求加载补丁包: {}:{}", bundleName, version);
+        PatchResult result = patchLoader.loadPatchBundle(bundleName, version);
+        return ResponseEntity.ok(result);
+    }
+    
+    @GetMapping("/bundle/list")
+    public ResponseEntity<List<PatchBundleInfo>> listPatchBundles() {
+        return ResponseEntity.ok(patchLoader.getLoadedBundles());
+    }
+    
+    @PostMapping("/bundle/rollback")
+    public ResponseEntity<PatchResult> rollbackPatchBundle(
+            @RequestParam String bundleName) {
+    
+        log.info("请求回滚补丁包: {}", bundleName);
+        PatchResult result = patchLoader.rollbackPatchBundle(bundleName);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/status")
     public ResponseEntity<String> getStatus() {
         return ResponseEntity.ok("Hot Patch Loader is running");
@@ -0,0 +1,135 @@
+package com.example.hotpatch.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * 重定义字节码的磁盘缓存
+ * 以 原始字节码 + 分派方法集合 + 生成格式版本 的 SHA-256 为文件名保存生成的字节码，
+ * 输入相同则输出相同，重启后重新应用补丁直接读取缓存，不再做 ASM 转换
+ *
+ * 文件名为 {@code <输入摘要>-<字节码 SHA-256>.class}，读取时重新计算字节码摘要并与文件名比对，
+ * 被截断或篡改的文件直接删除，重新生成
+ *
+ * 缓存目录不可用时只记录日志，补丁照常生成字节码
+ */
+@Slf4j
+class BytecodeCache {
+
+    /**
+     * 分派入口的生成方式变化时递增，使旧缓存自然失效
+     */
+    private static final String FORMAT = "dispatch-entry-v1";
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+
+    private final Path directory;
+
+    /**
+     * @param directory 缓存目录，为 null 时不缓存
+     */
+    BytecodeCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param originalBytes 原始类字节码
+     * @param methodKeys    插入分派入口的方法（名称+描述符），需按固定顺序传入
+     */
+    static String digest(byte[] originalBytes, Collection<String> methodKeys) {
+        MessageDigest sha256 = sha256();
+        sha256.update(FORMAT.getBytes(StandardCharsets.UTF_8));
+        sha256.update(originalBytes);
+        for (String methodKey : methodKeys) {
+            sha256.update((byte) '\n');
+            sha256.update(methodKey.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * 读取缓存的字节码，不存在或校验不通过时返回 null，校验不通过的文件会被删除
+     */
+    byte[] load(String digest) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return null;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, digest + "-*.class")) {
+            for (Path file : files) {
+                byte[] bytes = readVerified(file, digest);
+                if (bytes != null) {
+                    return bytes;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("读取字节码缓存失败: {} - {}", directory, e.getMessage());
+        }
+        return null;
+    }
+
+    private byte[] readVerified(Path file, String digest) {
+        String name = file.getFileName().toString();
+        String expected = name.substring(digest.length() + 1, name.length() - ".class".length());
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length >= 4 && readMagic(bytes) == CLASS_MAGIC && expected.equals(contentDigest(bytes))) {
+                return bytes;
+            }
+            log.warn("字节码缓存文件校验失败，删除: {}", file);
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("读取字节码缓存失败: {} - {}", file, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 保存生成的字节码，先写临时文件再改名，读取方不会看到写了一半的文件
+     */
+    void store(String digest, byte[] bytes) {
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(digest + "-" + contentDigest(bytes) + ".class");
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, digest, ".tmp");
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("写入字节码缓存失败: {} - {}", file, e.getMessage());
+        }
+    }
+
+    private static String contentDigest(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static int readMagic(byte[] bytes) {
+        return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+    }
+}
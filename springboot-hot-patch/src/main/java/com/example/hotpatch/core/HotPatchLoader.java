@@ -4,8 +4,10 @@ import com.example.hotpatch.annotation.HotPatch;
 import com.example.hotpatch.annotation.PatchType;
 import com.example.hotpatch.config.HotPatchProperties;
 import com.example.hotpatch.instrumentation.InstrumentationHolder;
+import com.example.hotpatch.model.PatchBundleInfo;
 import com.example.hotpatch.model.PatchInfo;
 import com.example.hotpatch.model.PatchResult;
+import com.example.hotpatch.model.RedefineReport;
 import lombok.extern.slf4j.Slf4j;
 import org.objectweb.asm.*;
 import org.objectweb.asm.tree.*;
@@ -21,6 +23,7 @@ import org.springframework.util.StringUtils;
 import java.io.*;
 import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.Instrumentation;
+import java.lang.invoke.MethodType;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -41,15 +44,20 @@ public class HotPatchLoader {
     private final Map<String, Object> originalBeans = new ConcurrentHashMap<>();  // 保存原始Bean用于回滚
     private final Map<String, BeanDefinition> originalBeanDefinitions = new ConcurrentHashMap<>();  // 保存原始Bean定义
     private final Map<String, Class<?>> originalBeanTypes = new ConcurrentHashMap<>();  // 保存原始Bean类型
-    private final Map<String, byte[]> originalClassBytecode = new ConcurrentHashMap<>();  // 保存原始类字节码
-    private final Map<String, byte[]> originalMethodBytecode = new ConcurrentHashMap<>();  // 保存原始方法字节码
+    private final Map<String, Set<String>> dispatchedMethods = new ConcurrentHashMap<>();  // 已插入分派入口的方法，按类名索引
+    private final Map<String, String> methodOwners = new ConcurrentHashMap<>();  // 调用点当前归属的补丁或补丁包，按调用点键索引
     private final Map<String, PatchClassLoader> patchClassLoaders = new ConcurrentHashMap<>();  // 保存补丁类加载器用于真正卸载
+    private final Map<String, PatchBundleInfo> loadedBundles = new ConcurrentHashMap<>();
+    private final Map<String, PatchClassLoader> bundleClassLoaders = new ConcurrentHashMap<>();  // 保存补丁包类加载器用于卸载
+    private final BytecodeCache bytecodeCache;
     private final Instrumentation instrumentation;
     
     public HotPatchLoader(ConfigurableApplicationContext applicationContext, 
                          HotPatchProperties properties) {
         this.applicationContext = applicationContext;
         this.properties = properties;
+        this.bytecodeCache = new BytecodeCache(StringUtils.hasText(properties.getCachePath())
+            ? Paths.get(properties.getCachePath()) : null);
         // 获取 Instrumentation 实例
         this.instrumentation = InstrumentationHolder.getInstrumentation();
     }
@@ -107,18 +115,16 @@ public class HotPatchLoader {
             
             // 6. 根据补丁类型选择替换策略
             PatchType patchType = patchAnnotation.type();
+            RedefineReport report = null;
             switch (patchType) {
                 case SPRING_BEAN:
                     replaceSpringBean(patchClass, patchAnnotation);
                     break;
                 case JAVA_CLASS:
-                    replaceJavaClass(patchClass, patchAnnotation);
-                    break;
                 case STATIC_METHOD:
-                    replaceStaticMethod(patchClass, patchAnnotation);
-                    break;
                 case INSTANCE_METHOD:
-                    return PatchResult.failed("实例方法替换暂未实现，请使用动态代理方式");
+                    report = replaceMethods(patchOwner(patchName), patchClass, patchAnnotation);
+                    break;
                 default:
                     return PatchResult.failed("不支持的补丁类型: " + patchType);
             }
@@ -134,7 +140,7 @@ public class HotPatchLoader {
             }
             
             log.info("热补丁 {}:{} ({}) 加载成功", patchName, version, patchType);
-            return PatchResult.success("补丁加载成功");
+            return PatchResult.success("补丁加载成功", report);
             
         } catch (Exception e) {
             log.error("热补丁加载失败: {}", e.getMessage(), e);
@@ -165,10 +171,9 @@ public class HotPatchLoader {
                     rollbackSpringBean(patchInfo);
                     break;
                 case JAVA_CLASS:
-                    rollbackJavaClass(patchInfo);
-                    break;
                 case STATIC_METHOD:
-                    rollbackStaticMethod(patchInfo);
+                case INSTANCE_METHOD:
+                    rollbackMethods(patchInfo);
                     break;
                 default:
                     return PatchResult.failed("不支持的补丁类型回滚: " + patchInfo.getPatchType());
@@ -202,6 +207,139 @@ public class HotPatchLoader {
         }
     }
     
+    /**
+     * 加载补丁包 - 一个jar中的多个字节码补丁一起生效
+     * 所有需要重定义的类在一次 redefineClasses 中完成，任何补丁失败时整个补丁包都不生效
+     * @param bundleName 补丁包名称，对应文件 bundleName-version.jar
+     * @param version 版本号
+     */
+    public PatchResult loadPatchBundle(String bundleName, String version) {
+        if (!properties.isEnabled()) {
+            return PatchResult.failed("热补丁功能未启用");
+        }
+        
+        PatchBundleInfo existingBundle = loadedBundles.get(bundleName);
+        if (existingBundle != null) {
+            return PatchResult.failed("补丁包 " + bundleName + " 已加载版本 " + existingBundle.getVersion() + "，请先回滚后再加载");
+        }
+        
+        PatchClassLoader bundleClassLoader = null;
+        try {
+            // 1. 验证补丁包文件并创建专用的类加载器
+            File bundleFile = validatePatchFile(bundleName, version);
+            bundleClassLoader = createPatchClassLoader(bundleFile);
+            
+            // 2. 加载包内全部补丁类并解析替换目标，任何补丁不合法都不改动JVM
+            List<Class<?>> patchClasses = loadBundlePatchClasses(bundleClassLoader, bundleFile);
+            if (patchClasses.isEmpty()) {
+                throw new IllegalArgumentException("补丁包中没有带 @HotPatch 注解的类");
+            }
+            List<PatchTarget> targets = new ArrayList<>(patchClasses.size());
+            for (Class<?> patchClass : patchClasses) {
+                HotPatch annotation = patchClass.getAnnotation(HotPatch.class);
+                if (annotation.type() == PatchType.SPRING_BEAN) {
+                    throw new IllegalArgumentException("补丁包只支持字节码补丁，Spring Bean补丁请单独加载: " + patchClass.getName());
+                }
+                targets.add(resolvePatchTarget(patchClass, annotation));
+            }
+            
+            // 3. 一次应用全部补丁
+            RedefineReport report = applyPatchTargets(bundleOwner(bundleName), targets);
+            
+            long loadTime = System.currentTimeMillis();
+            List<PatchInfo> patches = new ArrayList<>(patchClasses.size());
+            for (Class<?> patchClass : patchClasses) {
+                patches.add(new PatchInfo(bundleName, version, patchClass,
+                    patchClass.getAnnotation(HotPatch.class).type(), loadTime));
+            }
+            loadedBundles.put(bundleName, new PatchBundleInfo(bundleName, version, patches, loadTime, report));
+            bundleClassLoaders.put(bundleName, bundleClassLoader);
+            
+            log.info("补丁包 {}:{} 加载成功，包含 {} 个补丁", bundleName, version, patches.size());
+            return PatchResult.success("补丁包加载成功", report);
+            
+        } catch (Exception e) {
+            log.error("补丁包加载失败: {}", e.getMessage(), e);
+            closeQuietly(bundleClassLoader);
+            return PatchResult.failed("补丁包加载失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取已加载的补丁包列表
+     */
+    public List<PatchBundleInfo> getLoadedBundles() {
+        return loadedBundles.values().stream().toList();
+    }
+    
+    /**
+     * 回滚补丁包 - 包内全部补丁一起断开，不再重定义类
+     */
+    public PatchResult rollbackPatchBundle(String bundleName) {
+        PatchBundleInfo bundleInfo = loadedBundles.get(bundleName);
+        if (bundleInfo == null) {
+            return PatchResult.failed("补丁包不存在: " + bundleName);
+        }
+        
+        try {
+            List<PatchTarget> targets = new ArrayList<>(bundleInfo.getPatches().size());
+            for (PatchInfo patchInfo : bundleInfo.getPatches()) {
+                HotPatch annotation = patchInfo.getPatchClass().getAnnotation(HotPatch.class);
+                targets.add(resolvePatchTarget(patchInfo.getPatchClass(), annotation));
+            }
+            unlinkPatchTargets(bundleOwner(bundleName), targets);
+            
+            loadedBundles.remove(bundleName);
+            closeQuietly(bundleClassLoaders.remove(bundleName));
+            
+            log.info("✅ 补丁包 {} 回滚成功，共 {} 个补丁", bundleName, targets.size());
+            return PatchResult.success("补丁包回滚成功");
+            
+        } catch (Exception e) {
+            log.error("补丁包回滚失败: {}", e.getMessage(), e);
+            return PatchResult.failed("补丁包回滚失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 加载补丁包jar中全部带 @HotPatch 注解的类，按类名排序
+     */
+    private List<Class<?>> loadBundlePatchClasses(PatchClassLoader classLoader, File bundleFile)
+            throws IOException, ClassNotFoundException {
+        List<String> classNames = new ArrayList<>();
+        try (java.util.jar.JarFile jarFile = new java.util.jar.JarFile(bundleFile)) {
+            Enumeration<java.util.jar.JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if (entryName.endsWith(".class") && !entryName.endsWith("module-info.class")) {
+                    classNames.add(entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.'));
+                }
+            }
+        }
+        Collections.sort(classNames);
+        
+        List<Class<?>> patchClasses = new ArrayList<>();
+        for (String className : classNames) {
+            Class<?> clazz = classLoader.loadClass(className);
+            if (clazz.isAnnotationPresent(HotPatch.class)) {
+                patchClasses.add(clazz);
+            }
+        }
+        return patchClasses;
+    }
+    
+    private void closeQuietly(PatchClassLoader classLoader) {
+        if (classLoader == null) {
+            return;
+        }
+        try {
+            classLoader.clearPatchClasses();
+            classLoader.close();
+        } catch (Exception e) {
+            log.warn("清理补丁类加载器时出现异常: {}", e.getMessage());
+        }
+    }
+    
     private File validatePatchFile(String patchName, String version) throws IOException {
         // 构建补丁文件路径
         String fileName = String.format("%s-%s.jar", patchName, version);
@@ -401,85 +539,254 @@ public class HotPatchLoader {
     }
     
     /**
-     * 替换普通Java类 - 使用方法委托的简化方式，支持回滚
+     * 字节码补丁的替换目标：补丁类、原始类和需要分派到补丁的方法（名称+描述符）
      */
-    private void replaceJavaClass(Class<?> patchClass, HotPatch annotation) {
+    private record PatchTarget(Class<?> patchClass, Class<?> originalClass, Set<String> methodKeys) {
+    }
+    
+    /**
+     * 替换Java类或方法 - 原始方法改为分派到补丁实现，支持回滚
+     */
+    private RedefineReport replaceMethods(String owner, Class<?> patchClass, HotPatch annotation) {
         try {
-            String originalClassName = annotation.originalClass();
+            PatchTarget target = resolvePatchTarget(patchClass, annotation);
+            RedefineReport report = applyPatchTargets(owner, List.of(target));
+            log.info("✅ 已替换: {} -> {} (方法: {})", target.originalClass().getName(), patchClass.getName(), target.methodKeys());
+            return report;
+        } catch (Exception e) {
+            throw new RuntimeException("替换方法失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 解析字节码补丁的替换目标
+     * JAVA_CLASS 替换补丁类中与原始类同名同描述符的全部方法，STATIC_METHOD/INSTANCE_METHOD 只替换 methodName 指定的方法
+     */
+    private PatchTarget resolvePatchTarget(Class<?> patchClass, HotPatch annotation) throws ClassNotFoundException {
+        String originalClassName = annotation.originalClass();
+        String methodName = null;
+        
+        if (annotation.type() == PatchType.JAVA_CLASS) {
             if (!StringUtils.hasText(originalClassName)) {
                 // 如果没有指定原始类名，则根据补丁类名推断
                 originalClassName = patchClass.getName().replace("Patch", "");
             }
-            
-            // 获取原始类
-            Class<?> originalClass = Class.forName(originalClassName);
-            
-            // 保存原始类的字节码用于回滚
-            if (!originalClassBytecode.containsKey(originalClassName)) {
-                byte[] originalBytes = getClassBytes(originalClass);
-                originalClassBytecode.put(originalClassName, originalBytes);
-                log.info("已保存原始类字节码用于回滚: {} ({} bytes)", originalClassName, originalBytes.length);
-            }
-            
-            // 使用简化的方法委托替换
-            byte[] modifiedClassBytes = createDelegatingClass(originalClass, patchClass);
-            
-            // 创建类定义用于重定义
-            ClassDefinition classDefinition = new ClassDefinition(originalClass, modifiedClassBytes);
-            
-            // 使用Instrumentation重定义类
-            if (instrumentation != null && instrumentation.isRedefineClassesSupported()) {
-                instrumentation.redefineClasses(classDefinition);
-                log.info("✅ 已替换Java类: {} -> {} ({} bytes)", originalClassName, patchClass.getName(), modifiedClassBytes.length);
-            } else {
-                throw new UnsupportedOperationException("当前JVM不支持类重定义");
+        } else {
+            methodName = annotation.methodName();
+            if (!StringUtils.hasText(originalClassName) || !StringUtils.hasText(methodName)) {
+                throw new IllegalArgumentException("方法替换需要指定原始类名和方法名: " + patchClass.getName());
             }
-            
-        } catch (Exception e) {
-            throw new RuntimeException("替换Java类失败: " + e.getMessage(), e);
         }
+        
+        // 获取原始类
+        Class<?> originalClass = Class.forName(originalClassName);
+        
+        Set<String> methodKeys = getDispatchableMethods(originalClass, patchClass, methodName);
+        if (methodKeys.isEmpty()) {
+            throw new IllegalArgumentException("补丁类中没有与原始类签名一致的方法: "
+                + patchClass.getName() + " -> " + originalClassName);
+        }
+        return new PatchTarget(patchClass, originalClass, methodKeys);
     }
     
     /**
-     * 替换静态方法 - 通过ASM字节码操作，支持回滚
+     * 应用一组字节码补丁 - 先占用全部调用点，方法已被其他补丁或补丁包替换时不做任何改动；
+     * 应用失败时释放本次占用的调用点
+     *
+     * @param owner 补丁或补丁包标识，见 {@link #patchOwner} / {@link #bundleOwner}
      */
-    private void replaceStaticMethod(Class<?> patchClass, HotPatch annotation) {
+    private RedefineReport applyPatchTargets(String owner, List<PatchTarget> targets) throws Exception {
+        claimMethods(owner, targets);
         try {
-            String originalClassName = annotation.originalClass();
-            String methodName = annotation.methodName();
-            
-            if (!StringUtils.hasText(originalClassName) || !StringUtils.hasText(methodName)) {
-                throw new IllegalArgumentException("静态方法替换需要指定原始类名和方法名");
+            return redefineAndLink(targets);
+        } catch (Exception e) {
+            releaseMethods(owner, targets);
+            throw e;
+        }
+    }
+    
+    /**
+     * 占用补丁要链接的调用点，任一调用点属于其他补丁或补丁包时释放已占用的部分并失败
+     */
+    private void claimMethods(String owner, List<PatchTarget> targets) {
+        for (PatchTarget target : targets) {
+            for (String methodKey : target.methodKeys()) {
+                String key = PatchDispatcher.key(target.originalClass().getName(), methodKey);
+                String current = methodOwners.putIfAbsent(key, owner);
+                if (current != null && !current.equals(owner)) {
+                    releaseMethods(owner, targets);
+                    throw new IllegalStateException("方法 " + key + " 已被 " + current + " 替换，请先回滚");
+                }
             }
-            
-            // 获取原始类
-            Class<?> originalClass = Class.forName(originalClassName);
-            
-            // 保存原始类的字节码用于回滚
-            String methodKey = originalClassName + "." + methodName;
-            if (!originalMethodBytecode.containsKey(methodKey)) {
-                byte[] originalBytes = getClassBytes(originalClass);
-                originalMethodBytecode.put(methodKey, originalBytes);
-                log.info("已保存原始方法字节码用于回滚: {} ({} bytes)", methodKey, originalBytes.length);
+        }
+    }
+    
+    private void releaseMethods(String owner, List<PatchTarget> targets) {
+        for (PatchTarget target : targets) {
+            for (String methodKey : target.methodKeys()) {
+                methodOwners.remove(PatchDispatcher.key(target.originalClass().getName(), methodKey), owner);
             }
+        }
+    }
+    
+    private static String patchOwner(String patchName) {
+        return "补丁 " + patchName;
+    }
+    
+    private static String bundleOwner(String bundleName) {
+        return "补丁包 " + bundleName;
+    }
+    
+    /**
+     * 重定义并链接一组字节码补丁 - 需要新增分派入口的类在一次 redefineClasses 中全部重定义，只进入一次安全点；
+     * 已有分派入口的方法只重新链接调用点。任何一步失败都恢复本次改动前的调用点，补丁要么全部生效要么全部不生效
+     */
+    private RedefineReport redefineAndLink(List<PatchTarget> targets) throws Exception {
+        long start = System.nanoTime();
+        
+        // 1. 登记调用点，并按原始类合并本次需要新增分派入口的方法
+        Map<Class<?>, Set<String>> pending = new LinkedHashMap<>();
+        for (PatchTarget target : targets) {
+            String originalClassName = target.originalClass().getName();
+            Set<String> dispatched = dispatchedMethods.getOrDefault(originalClassName, Collections.emptySet());
+            for (String methodKey : target.methodKeys()) {
+                // 调用点先于类重定义登记，新方法体首次执行时即可引导到已登记的调用点
+                PatchDispatcher.register(PatchDispatcher.key(originalClassName, methodKey),
+                    dispatchType(target.originalClass(), methodKey));
+                if (!dispatched.contains(methodKey)) {
+                    pending.computeIfAbsent(target.originalClass(), k -> new TreeSet<>()).add(methodKey);
+                }
+            }
+        }
+        
+        // 2. 生成重定义字节码，输入相同的类直接取缓存，分派入口总是基于原始字节码生成
+        List<ClassDefinition> definitions = new ArrayList<>(pending.size());
+        int cacheHits = 0;
+        for (Map.Entry<Class<?>, Set<String>> entry : pending.entrySet()) {
+            Class<?> originalClass = entry.getKey();
+            Set<String> instrumented = new TreeSet<>(dispatchedMethods.getOrDefault(originalClass.getName(), Collections.emptySet()));
+            instrumented.addAll(entry.getValue());
             
-            // 使用ASM修改字节码，将原方法的调用重定向到补丁方法
-            byte[] modifiedBytes = modifyClassBytecode(originalClass, methodName, patchClass);
-            
-            // 重定义类
-            ClassDefinition classDefinition = new ClassDefinition(originalClass, modifiedBytes);
-            if (instrumentation != null && instrumentation.isRedefineClassesSupported()) {
-                instrumentation.redefineClasses(classDefinition);
-                log.info("✅ 已替换静态方法: {}.{} -> {}", originalClassName, methodName, patchClass.getName());
+            byte[] originalBytes = getClassBytes(originalClass);
+            String digest = BytecodeCache.digest(originalBytes, instrumented);
+            byte[] modifiedBytes = bytecodeCache.load(digest);
+            if (modifiedBytes != null) {
+                cacheHits++;
+                log.debug("字节码缓存命中: {} {}", originalClass.getName(), digest);
             } else {
+                modifiedBytes = createDispatchingClass(originalClass.getName(), originalBytes, instrumented);
+                bytecodeCache.store(digest, modifiedBytes);
+            }
+            definitions.add(new ClassDefinition(originalClass, modifiedBytes));
+        }
+        
+        // 3. 一次重定义全部类，JVM 保证多个类的重定义要么全部成功要么全部不生效
+        long pauseNanos = 0;
+        if (!definitions.isEmpty()) {
+            if (instrumentation == null || !instrumentation.isRedefineClassesSupported()) {
                 throw new UnsupportedOperationException("当前JVM不支持类重定义");
             }
-            
+            long redefineStart = System.nanoTime();
+            instrumentation.redefineClasses(definitions.toArray(new ClassDefinition[0]));
+            pauseNanos = System.nanoTime() - redefineStart;
+            pending.forEach((originalClass, methodKeys) -> dispatchedMethods
+                .computeIfAbsent(originalClass.getName(), k -> ConcurrentHashMap.newKeySet())
+                .addAll(methodKeys));
+        }
+        
+        // 4. 链接调用点，失败时恢复链接前的目标，已插入的分派入口在守卫关闭时执行原方法体
+        Map<String, PatchDispatcher.Targets> previous = new LinkedHashMap<>();
+        try {
+            for (PatchTarget target : targets) {
+                linkPatch(target, previous);
+            }
         } catch (Exception e) {
-            throw new RuntimeException("替换静态方法失败: " + e.getMessage(), e);
+            previous.forEach(PatchDispatcher::restore);
+            throw e;
+        }
+        
+        RedefineReport report = new RedefineReport(targets.size(), definitions.size(), cacheHits,
+            pauseNanos / 1_000_000.0, (System.nanoTime() - start) / 1_000_000.0);
+        log.info("补丁应用完成: {} 个补丁, 重定义 {} 个类 (缓存命中 {}), 安全点停顿 {} ms, 总耗时 {} ms",
+            report.getPatchCount(), report.getRedefinedClasses(), report.getCacheHits(),
+            String.format("%.3f", report.getSafepointPauseMillis()), String.format("%.3f", report.getTotalMillis()));
+        return report;
+    }
+    
+    /**
+     * 把补丁的方法链接到补丁实现，每个补丁一个实例，补丁的实例方法都绑定在该实例上
+     *
+     * @param previous 记录链接前的调用点目标，同一方法只记录第一次
+     */
+    private void linkPatch(PatchTarget target, Map<String, PatchDispatcher.Targets> previous) throws Exception {
+        Map<String, java.lang.reflect.Method> patchMethods = getPatchMethods(target.patchClass());
+        Object patchInstance = null;
+        for (String methodKey : target.methodKeys()) {
+            java.lang.reflect.Method patchMethod = patchMethods.get(methodKey);
+            if (patchInstance == null && !java.lang.reflect.Modifier.isStatic(patchMethod.getModifiers())) {
+                java.lang.reflect.Constructor<?> constructor = target.patchClass().getDeclaredConstructor();
+                constructor.setAccessible(true);
+                patchInstance = constructor.newInstance();
+            }
+            String key = PatchDispatcher.key(target.originalClass().getName(), methodKey);
+            previous.putIfAbsent(key, PatchDispatcher.targets(key));
+            PatchDispatcher.link(key, dispatchType(target.originalClass(), methodKey), patchMethod, patchInstance);
         }
     }
     
+    /**
+     * 断开一组补丁的调用点，方法回到原方法体执行，不再重定义类
+     * 先校验全部补丁都已插入分派入口再断开，校验失败时不做任何改动；只断开归属 owner 的调用点
+     */
+    private void unlinkPatchTargets(String owner, List<PatchTarget> targets) {
+        for (PatchTarget target : targets) {
+            Set<String> dispatched = dispatchedMethods.getOrDefault(target.originalClass().getName(), Collections.emptySet());
+            if (!dispatched.containsAll(target.methodKeys())) {
+                throw new IllegalStateException("没有找到已插入分派入口的方法，无法回滚: " + target.originalClass().getName());
+            }
+        }
+        for (PatchTarget target : targets) {
+            for (String methodKey : target.methodKeys()) {
+                String key = PatchDispatcher.key(target.originalClass().getName(), methodKey);
+                if (methodOwners.remove(key, owner)) {
+                    PatchDispatcher.unlink(key);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 原始类与补丁类共有的可替换方法（名称+描述符），抽象方法和本地方法没有方法体，不参与替换
+     *
+     * @param methodName 只取该名称的方法，为 null 时取全部
+     */
+    private Set<String> getDispatchableMethods(Class<?> originalClass, Class<?> patchClass, String methodName) {
+        Set<String> patchMethods = getPatchMethods(patchClass).keySet();
+        Set<String> methods = new TreeSet<>();
+        for (java.lang.reflect.Method method : originalClass.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (java.lang.reflect.Modifier.isAbstract(modifiers) || java.lang.reflect.Modifier.isNative(modifiers)) {
+                continue;
+            }
+            if (methodName != null && !methodName.equals(method.getName())) {
+                continue;
+            }
+            String methodKey = method.getName() + getMethodDescriptor(method);
+            if (patchMethods.contains(methodKey)) {
+                methods.add(methodKey);
+            }
+        }
+        return methods;
+    }
+    
+    /**
+     * 分派调用点的类型：原方法的参数和返回值，不含 this
+     */
+    private MethodType dispatchType(Class<?> originalClass, String methodKey) {
+        return MethodType.fromMethodDescriptorString(methodKey.substring(methodKey.indexOf('(')),
+            originalClass.getClassLoader());
+    }
+    
     /**
      * 获取类的字节码
      */
@@ -504,109 +811,49 @@ public class HotPatchLoader {
     }
     
     /**
-     * 使用ASM修改类字节码
-     */
-    private byte[] modifyClassBytecode(Class<?> originalClass, String methodName, Class<?> patchClass) {
-        try {
-            ClassReader classReader = new ClassReader(getClassBytes(originalClass));
-            ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-            
-            ClassVisitor classVisitor = new ClassVisitor(Opcodes.ASM9, classWriter) {
-                @Override
-                public MethodVisitor visitMethod(int access, String name, String descriptor, 
-                        String signature, String[] exceptions) {
-                    MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
-                    
-                    if (methodName.equals(name)) {
-                        // 返回一个修改方法体的MethodVisitor
-                        return new MethodVisitor(Opcodes.ASM9, mv) {
-                            @Override
-                            public void visitCode() {
-                                super.visitCode();
-                                // 清空原方法体，调用补丁方法
-                                redirectToPatchMethod(mv, patchClass, methodName, descriptor);
-                            }
-                        };
-                    }
-                    return mv;
-                }
-            };
-            
-            classReader.accept(classVisitor, 0);
-            return classWriter.toByteArray();
-            
-        } catch (Exception e) {
-            throw new RuntimeException("修改字节码失败: " + e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * 创建委托类 - 将原始类的方法重定向到补丁类
+     * 生成带分派入口的类 - 指定方法的原方法体保留，入口处按调用点状态决定是否转到补丁
      */
-    private byte[] createDelegatingClass(Class<?> originalClass, Class<?> patchClass) {
+    private byte[] createDispatchingClass(String className, byte[] originalBytes, Set<String> methodKeys) {
         try {
-            byte[] originalBytes = getClassBytes(originalClass);
             ClassReader classReader = new ClassReader(originalBytes);
             ClassWriter classWriter = new ClassWriter(classReader, ClassWriter.COMPUTE_FRAMES);
             
-            // 获取补丁类的方法列表
-            Set<String> patchMethods = getPatchMethods(patchClass);
-            log.info("补丁类 {} 中的方法: {}", patchClass.getSimpleName(), patchMethods);
-            
-            if (patchMethods.isEmpty()) {
-                log.warn("补丁类中没有找到任何方法，返回原始字节码");
-                return originalBytes;
-            }
-            
             ClassVisitor classVisitor = new ClassVisitor(Opcodes.ASM9, classWriter) {
                 @Override
                 public MethodVisitor visitMethod(int access, String name, String descriptor, 
                         String signature, String[] exceptions) {
-                    
+                    MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
                     String methodKey = name + descriptor;
-                    
-                    // 处理补丁类中存在的所有方法（静态方法和实例方法）
-                    if (patchMethods.contains(methodKey)) {
+                    if (methodKeys.contains(methodKey)) {
                         boolean isStatic = (access & Opcodes.ACC_STATIC) != 0;
-                        log.info("替换方法: {} (静态: {})", methodKey, isStatic);
-                        
-                        MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
-                        if (isStatic) {
-                            return new StaticMethodReplacer(mv, patchClass, name, descriptor);
-                        } else {
-                            return new InstanceMethodReplacer(mv, patchClass, name, descriptor);
-                        }
+                        log.debug("插入分派入口: {} (静态: {})", methodKey, isStatic);
+                        return new DispatchEntryAdapter(mv, isStatic, PatchDispatcher.key(className, methodKey), descriptor);
                     }
-                    
-                    // 保留其他方法不变
-                    return super.visitMethod(access, name, descriptor, signature, exceptions);
+                    return mv;
                 }
             };
             
             classReader.accept(classVisitor, ClassReader.EXPAND_FRAMES);
-            byte[] result = classWriter.toByteArray();
-            
-            log.info("成功生成委托类字节码: {} -> {} bytes", originalClass.getSimpleName(), result.length);
-            return result;
+            return classWriter.toByteArray();
             
         } catch (Exception e) {
-            log.error("创建委托类失败", e);
-            throw new RuntimeException("创建委托类失败: " + e.getMessage(), e);
+            log.error("生成分派类失败", e);
+            throw new RuntimeException("生成分派类失败: " + e.getMessage(), e);
         }
     }
     
     /**
-     * 获取补丁类的方法列表
+     * 获取补丁类的方法，按 名称+描述符 索引
      */
-    private Set<String> getPatchMethods(Class<?> patchClass) {
-        Set<String> methods = new HashSet<>();
+    private Map<String, java.lang.reflect.Method> getPatchMethods(Class<?> patchClass) {
+        Map<String, java.lang.reflect.Method> methods = new HashMap<>();
         
         java.lang.reflect.Method[] declaredMethods = patchClass.getDeclaredMethods();
         for (java.lang.reflect.Method method : declaredMethods) {
-            // 跳过构造函数和特殊方法
-            if (!method.getName().equals("<init>") && !method.getName().equals("<clinit>")) {
+            // 跳过编译器生成的方法
+            if (!method.isSynthetic() && !method.isBridge()) {
                 String descriptor = getMethodDescriptor(method);
-                methods.add(method.getName() + descriptor);
+                methods.put(method.getName() + descriptor, method);
             }
         }
         
@@ -655,256 +902,45 @@ public class HotPatchLoader {
     }
     
     /**
-     * 实例方法替换器 - 支持实例方法替换
+     * 分派入口 - 在方法入口插入守卫调用点，补丁生效时把参数交给分派调用点并直接返回，
+     * 否则继续执行原方法体。补丁方法与原方法签名一致，实例方法的 this 不传给补丁
      */
-    private static class InstanceMethodReplacer extends MethodVisitor {
-        private final Class<?> patchClass;
-        private final String methodName;
-        private final String descriptor;
-        private boolean codeVisited = false;
-        
-        public InstanceMethodReplacer(MethodVisitor mv, Class<?> patchClass, 
-                                    String methodName, String descriptor) {
-            super(Opcodes.ASM9, mv);
-            this.patchClass = patchClass;
-            this.methodName = methodName;
-            this.descriptor = descriptor;
-        }
-        
-        @Override
-        public void visitCode() {
-            if (!codeVisited) {
-                super.visitCode();
-                generateDelegateCall();
-                codeVisited = true;
-            }
-        }
-        
-        private void generateDelegateCall() {
-            try {
-                // 解析方法描述符
-                Type methodType = Type.getMethodType(descriptor);
-                Type[] argumentTypes = methodType.getArgumentTypes();
-                Type returnType = methodType.getReturnType();
-                
-                String patchClassName = patchClass.getName().replace('.', '/');
-                
-                // 创建补丁类实例
-                super.visitTypeInsn(Opcodes.NEW, patchClassName);
-                super.visitInsn(Opcodes.DUP);
-                super.visitMethodInsn(Opcodes.INVOKESPECIAL, patchClassName, "<init>", "()V", false);
-                
-                // 加载所有参数（跳过this参数，从索引1开始）
-                int localIndex = 1; // 跳过this
-                for (Type argType : argumentTypes) {
-                    super.visitVarInsn(argType.getOpcode(Opcodes.ILOAD), localIndex);
-                    localIndex += argType.getSize();
-                }
-                
-                // 调用补丁类的实例方法
-                super.visitMethodInsn(Opcodes.INVOKEVIRTUAL, 
-                    patchClassName,
-                    methodName, 
-                    descriptor, 
-                    false);
-                
-                // 返回结果
-                super.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
-                
-                // 计算栈和局部变量大小
-                int maxStack = Math.max(argumentTypes.length + 3, 3); // +3 for new, dup, instance
-                int maxLocals = localIndex;
-                super.visitMaxs(maxStack, maxLocals);
-                super.visitEnd();
-                
-            } catch (Exception e) {
-                throw new RuntimeException("生成实例方法委托调用失败: " + e.getMessage(), e);
-            }
-        }
-        
-        // 忽略原始方法的所有其他指令
-        @Override
-        public void visitInsn(int opcode) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitVarInsn(int opcode, int var) {
-            // 忽略
-        }
+    private static class DispatchEntryAdapter extends MethodVisitor {
+        private static final Handle BOOTSTRAP = new Handle(Opcodes.H_INVOKESTATIC,
+            Type.getInternalName(PatchDispatcher.class), PatchDispatcher.BOOTSTRAP_NAME,
+            PatchDispatcher.BOOTSTRAP_DESCRIPTOR, false);
         
-        @Override
-        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitTypeInsn(int opcode, String type) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitJumpInsn(int opcode, Label label) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitLdcInsn(Object value) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitIincInsn(int var, int increment) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitLabel(Label label) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitMaxs(int maxStack, int maxLocals) {
-            // 已在generateDelegateCall中处理
-        }
-        
-        @Override
-        public void visitEnd() {
-            // 已在generateDelegateCall中处理
-        }
-    }
-    
-    /**
-     * 静态方法替换器 - 更安全的实现
-     */
-    private static class StaticMethodReplacer extends MethodVisitor {
-        private final Class<?> patchClass;
-        private final String methodName;
+        private final boolean isStatic;
+        private final String key;
         private final String descriptor;
-        private boolean codeVisited = false;
         
-        public StaticMethodReplacer(MethodVisitor mv, Class<?> patchClass, 
-                                  String methodName, String descriptor) {
+        public DispatchEntryAdapter(MethodVisitor mv, boolean isStatic, String key, String descriptor) {
             super(Opcodes.ASM9, mv);
-            this.patchClass = patchClass;
-            this.methodName = methodName;
+            this.isStatic = isStatic;
+            this.key = key;
             this.descriptor = descriptor;
         }
         
         @Override
         public void visitCode() {
-            if (!codeVisited) {
-                super.visitCode();
-                generateDelegateCall();
-                codeVisited = true;
-            }
-        }
-        
-        private void generateDelegateCall() {
-            try {
-                // 解析方法描述符
-                Type methodType = Type.getMethodType(descriptor);
-                Type[] argumentTypes = methodType.getArgumentTypes();
-                Type returnType = methodType.getReturnType();
-                
-                // 加载所有参数到栈上
-                int localIndex = 0;
-                for (Type argType : argumentTypes) {
-                    super.visitVarInsn(argType.getOpcode(Opcodes.ILOAD), localIndex);
-                    localIndex += argType.getSize();
-                }
-                
-                // 调用补丁类的静态方法
-                String patchClassName = patchClass.getName().replace('.', '/');
-                super.visitMethodInsn(Opcodes.INVOKESTATIC, 
-                    patchClassName,
-                    methodName, 
-                    descriptor, 
-                    false);
-                
-                // 返回结果
-                super.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
-                
-                // 计算栈和局部变量大小
-                int maxStack = Math.max(argumentTypes.length, 1);
-                int maxLocals = localIndex;
-                super.visitMaxs(maxStack, maxLocals);
-                super.visitEnd();
-                
-            } catch (Exception e) {
-                throw new RuntimeException("生成委托调用失败: " + e.getMessage(), e);
+            super.visitCode();
+            Type methodType = Type.getMethodType(descriptor);
+            Label originalBody = new Label();
+            
+            super.visitInvokeDynamicInsn(PatchDispatcher.GUARD, PatchDispatcher.GUARD_DESCRIPTOR, BOOTSTRAP, key);
+            super.visitJumpInsn(Opcodes.IFEQ, originalBody);
+            
+            // 加载所有参数，实例方法跳过this
+            int localIndex = isStatic ? 0 : 1;
+            for (Type argType : methodType.getArgumentTypes()) {
+                super.visitVarInsn(argType.getOpcode(Opcodes.ILOAD), localIndex);
+                localIndex += argType.getSize();
             }
+            super.visitInvokeDynamicInsn(PatchDispatcher.DISPATCH, descriptor, BOOTSTRAP, key);
+            super.visitInsn(methodType.getReturnType().getOpcode(Opcodes.IRETURN));
+            
+            super.visitLabel(originalBody);
         }
-        
-        // 忽略原始方法的所有其他指令
-        @Override
-        public void visitInsn(int opcode) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitVarInsn(int opcode, int var) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitTypeInsn(int opcode, String type) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitJumpInsn(int opcode, Label label) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitLdcInsn(Object value) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitIincInsn(int var, int increment) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitLabel(Label label) {
-            // 忽略
-        }
-        
-        @Override
-        public void visitMaxs(int maxStack, int maxLocals) {
-            // 已在generateDelegateCall中处理
-        }
-        
-        @Override
-        public void visitEnd() {
-            // 已在generateDelegateCall中处理
-        }
-    }
-    
-    private void redirectToPatchMethod(MethodVisitor mv, Class<?> patchClass, 
-            String methodName, String descriptor) {
-        // 生成调用补丁方法的字节码（简化版本）
-        mv.visitMethodInsn(Opcodes.INVOKESTATIC, 
-            patchClass.getName().replace('.', '/'),
-            methodName, descriptor, false);
-        mv.visitInsn(Opcodes.ARETURN); // 或其他适当的返回指令
     }
     
     private boolean isValidPatchFile(File file) {
@@ -1185,117 +1221,16 @@ public class HotPatchLoader {
     }
     
     /**
-     * Java类回滚实现 - 使用保存的原始字节码恢复类定义
+     * 字节码补丁回滚实现 - 断开补丁调用点，方法回到原方法体，不再重定义类
      */
-    private void rollbackJavaClass(PatchInfo patchInfo) {
+    private void rollbackMethods(PatchInfo patchInfo) {
         try {
             HotPatch annotation = patchInfo.getPatchClass().getAnnotation(HotPatch.class);
-            String originalClassName = annotation.originalClass();
-            
-            if (!StringUtils.hasText(originalClassName)) {
-                // 如果没有指定原始类名，则根据补丁类名推断
-                originalClassName = patchInfo.getPatchClass().getName().replace("Patch", "");
-            }
-            
-            // 检查是否有保存的原始字节码
-            byte[] originalBytes = originalClassBytecode.get(originalClassName);
-            if (originalBytes == null) {
-                throw new IllegalStateException("没有找到原始类的字节码缓存，无法回滚: " + originalClassName);
-            }
-            
-            // 获取原始类
-            Class<?> originalClass = Class.forName(originalClassName);
-            
-            // 使用原始字节码重定义类
-            ClassDefinition classDefinition = new ClassDefinition(originalClass, originalBytes);
-            
-            if (instrumentation != null && instrumentation.isRedefineClassesSupported()) {
-                instrumentation.redefineClasses(classDefinition);
-                log.info("✅ 已使用原始字节码恢复Java类: {} ({} bytes)", originalClassName, originalBytes.length);
-                
-                // 清理缓存
-                originalClassBytecode.remove(originalClassName);
-                
-                // 验证类恢复是否成功
-                try {
-                    // 尝试创建类的实例来验证
-                    Object instance = originalClass.getDeclaredConstructor().newInstance();
-                    log.info("✅ 类恢复验证成功: {} -> {}", originalClassName, instance.getClass().getName());
-                } catch (Exception e) {
-                    log.debug("类恢复验证失败（可能正常，如果类没有无参构造器）: {}", e.getMessage());
-                }
-                
-            } else {
-                throw new UnsupportedOperationException("当前JVM不支持类重定义，无法回滚");
-            }
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Java类回滚失败: " + e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * 静态方法回滚实现 - 使用保存的原始字节码恢复方法定义
-     */
-    private void rollbackStaticMethod(PatchInfo patchInfo) {
-        try {
-            HotPatch annotation = patchInfo.getPatchClass().getAnnotation(HotPatch.class);
-            String originalClassName = annotation.originalClass();
-            String methodName = annotation.methodName();
-            
-            if (!StringUtils.hasText(originalClassName) || !StringUtils.hasText(methodName)) {
-                throw new IllegalArgumentException("静态方法回滚需要指定原始类名和方法名");
-            }
-            
-            // 构建方法键
-            String methodKey = originalClassName + "." + methodName;
-            
-            // 检查是否有保存的原始字节码
-            byte[] originalBytes = originalMethodBytecode.get(methodKey);
-            if (originalBytes == null) {
-                throw new IllegalStateException("没有找到原始方法的字节码缓存，无法回滚: " + methodKey);
-            }
-            
-            // 获取原始类
-            Class<?> originalClass = Class.forName(originalClassName);
-            
-            // 使用原始字节码重定义类（恢复原始方法）
-            ClassDefinition classDefinition = new ClassDefinition(originalClass, originalBytes);
-            
-            if (instrumentation != null && instrumentation.isRedefineClassesSupported()) {
-                instrumentation.redefineClasses(classDefinition);
-                log.info("✅ 已使用原始字节码恢复静态方法: {} ({} bytes)", methodKey, originalBytes.length);
-                
-                // 清理缓存
-                originalMethodBytecode.remove(methodKey);
-                
-                // 验证方法恢复是否成功
-                try {
-                    // 尝试反射获取方法来验证
-                    java.lang.reflect.Method[] methods = originalClass.getDeclaredMethods();
-                    boolean methodFound = false;
-                    for (java.lang.reflect.Method method : methods) {
-                        if (method.getName().equals(methodName)) {
-                            methodFound = true;
-                            log.info("✅ 方法恢复验证成功: {}.{} -> 方法存在且可访问", originalClassName, methodName);
-                            break;
-                        }
-                    }
-                    
-                    if (!methodFound) {
-                        log.warn("⚠️ 方法恢复验证：未找到方法 {}.{}", originalClassName, methodName);
-                    }
-                    
-                } catch (Exception e) {
-                    log.debug("方法恢复验证失败: {}", e.getMessage());
-                }
-                
-            } else {
-                throw new UnsupportedOperationException("当前JVM不支持类重定义，无法回滚");
-            }
-            
+            PatchTarget target = resolvePatchTarget(patchInfo.getPatchClass(), annotation);
+            unlinkPatchTargets(patchOwner(patchInfo.getName()), List.of(target));
+            log.info("✅ 已恢复: {} (方法: {})", target.originalClass().getName(), target.methodKeys());
         } catch (Exception e) {
-            throw new RuntimeException("静态方法回滚失败: " + e.getMessage(), e);
+            throw new RuntimeException("方法回滚失败: " + e.getMessage(), e);
         }
     }
     
@@ -0,0 +1,168 @@
+package com.example.hotpatch.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 补丁方法分派器
+ * 被替换的方法入口处插入两个 invokedynamic 调用点：守卫调用点返回补丁是否生效，
+ * 分派调用点调用补丁实现，未生效时继续执行原方法体。两个调用点都是 MutableCallSite，
+ * 加载、切换、回滚补丁只重新链接调用点目标，不需要再次 redefineClasses
+ *
+ * 补丁的实例方法绑定在每个补丁的单例上，调用时不再创建补丁对象；
+ * 守卫目标是常量句柄，JIT 会把它折叠为常量，重新链接时由 JVM 负责反优化
+ */
+@Slf4j
+public final class PatchDispatcher {
+
+    static final String GUARD = "active";
+    static final String DISPATCH = "dispatch";
+    static final String BOOTSTRAP_NAME = "bootstrap";
+    static final String BOOTSTRAP_DESCRIPTOR = MethodType.methodType(CallSite.class,
+            MethodHandles.Lookup.class, String.class, MethodType.class, String.class).toMethodDescriptorString();
+    static final String GUARD_DESCRIPTOR = "()Z";
+
+    private static final MethodHandle ACTIVE = MethodHandles.constant(boolean.class, true);
+    private static final MethodHandle INACTIVE = MethodHandles.constant(boolean.class, false);
+
+    /**
+     * 调用点按 类名.方法名描述符 登记，类被重新定义后新方法体的调用点引导时取回同一组调用点
+     * 每个方法只有一组调用点，同一时刻只能链接一个补丁，归属由 HotPatchLoader 登记
+     */
+    private static final Map<String, Sites> SITES = new ConcurrentHashMap<>();
+
+    private PatchDispatcher() {
+    }
+
+    /**
+     * invokedynamic 引导方法，由被替换方法中的调用点在首次执行时调用
+     *
+     * @param caller 原始类的查找上下文
+     * @param name   调用点名称，{@link #GUARD} 或 {@link #DISPATCH}
+     * @param type   调用点类型
+     * @param key    方法键
+     */
+    public static CallSite bootstrap(MethodHandles.Lookup caller, String name, MethodType type, String key) {
+        if (GUARD.equals(name)) {
+            return sites(key, null).guard;
+        }
+        return sites(key, type).dispatch;
+    }
+
+    /**
+     * @param className 原始类名
+     * @param methodKey 方法名+描述符
+     */
+    static String key(String className, String methodKey) {
+        return className + "." + methodKey;
+    }
+
+    /**
+     * 把方法链接到补丁实现
+     *
+     * @param key           方法键
+     * @param type          原方法的调用类型（不含 this）
+     * @param patchMethod   补丁方法
+     * @param patchInstance 补丁单例，补丁方法为静态方法时为 null
+     */
+    static void link(String key, MethodType type, Method patchMethod, Object patchInstance)
+            throws IllegalAccessException {
+        patchMethod.setAccessible(true);
+        MethodHandle target = MethodHandles.lookup().unreflect(patchMethod);
+        if (!Modifier.isStatic(patchMethod.getModifiers())) {
+            target = target.bindTo(patchInstance);
+        }
+        Sites sites = sites(key, type);
+        // 先切换分派目标再打开守卫，守卫生效时分派目标一定已就绪
+        sites.dispatch.setTarget(target.asType(sites.dispatch.type()));
+        sites.guard.setTarget(ACTIVE);
+        MutableCallSite.syncAll(new MutableCallSite[]{sites.dispatch, sites.guard});
+        log.debug("已链接补丁调用点: {} -> {}", key, patchMethod);
+    }
+
+    /**
+     * 断开补丁，方法回到原方法体执行，同时释放对补丁类的引用
+     */
+    static void unlink(String key) {
+        Sites sites = SITES.get(key);
+        if (sites == null) {
+            return;
+        }
+        sites.guard.setTarget(INACTIVE);
+        sites.dispatch.setTarget(unlinked(key, sites.dispatch.type()));
+        MutableCallSite.syncAll(new MutableCallSite[]{sites.guard, sites.dispatch});
+        log.debug("已断开补丁调用点: {}", key);
+    }
+
+    /**
+     * 调用点当前的目标，用于一组补丁链接失败时恢复
+     */
+    static Targets targets(String key) {
+        Sites sites = SITES.get(key);
+        return sites == null ? null : new Targets(sites.guard.getTarget(), sites.dispatch.getTarget());
+    }
+
+    /**
+     * 恢复调用点目标，先恢复分派目标再恢复守卫
+     */
+    static void restore(String key, Targets targets) {
+        Sites sites = SITES.get(key);
+        if (sites == null || targets == null) {
+            return;
+        }
+        sites.dispatch.setTarget(targets.dispatch());
+        sites.guard.setTarget(targets.guard());
+        MutableCallSite.syncAll(new MutableCallSite[]{sites.dispatch, sites.guard});
+    }
+
+    static boolean isLinked(String key) {
+        Sites sites = SITES.get(key);
+        return sites != null && sites.guard.getTarget() == ACTIVE;
+    }
+
+    private static Sites sites(String key, MethodType type) {
+        Sites sites = SITES.get(key);
+        if (sites != null) {
+            return sites;
+        }
+        if (type == null) {
+            // 守卫调用点不带分派类型，调用点必须在重定义类之前经 register 登记
+            throw new IllegalStateException("补丁调用点尚未登记: " + key);
+        }
+        return SITES.computeIfAbsent(key, k -> new Sites(k, type));
+    }
+
+    /**
+     * 预先登记调用点，保证守卫调用点引导时能找到对应的分派调用点
+     */
+    static void register(String key, MethodType type) {
+        sites(key, type);
+    }
+
+    private static MethodHandle unlinked(String key, MethodType type) {
+        MethodHandle thrower = MethodHandles.throwException(type.returnType(), IllegalStateException.class);
+        thrower = MethodHandles.insertArguments(thrower, 0, new IllegalStateException("补丁未链接: " + key));
+        return MethodHandles.dropArguments(thrower, 0, type.parameterList());
+    }
+
+    record Targets(MethodHandle guard, MethodHandle dispatch) {
+    }
+
+    private static final class Sites {
+        private final MutableCallSite guard = new MutableCallSite(INACTIVE);
+        private final MutableCallSite dispatch;
+
+        Sites(String key, MethodType type) {
+            this.dispatch = new MutableCallSite(unlinked(key, type));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.hotpatch.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 补丁包信息类 - 一个补丁包内的补丁一起生效、一起回滚
+ */
+@Data
+@AllArgsConstructor
+public class PatchBundleInfo {
+    private String name;
+    private String version;
+    private List<PatchInfo> patches;
+    private long loadTime;
+    private RedefineReport report;
+}
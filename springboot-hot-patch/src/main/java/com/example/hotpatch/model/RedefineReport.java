@@ -0,0 +1,37 @@
+package com.example.hotpatch.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 一次补丁应用的类重定义报告
+ */
+@Data
+@AllArgsConstructor
+public class RedefineReport {
+    /**
+     * 应用的补丁类数量
+     */
+    private int patchCount;
+
+    /**
+     * 本次重定义的类数量，方法已有分派入口时只重新链接调用点，不计入
+     */
+    private int redefinedClasses;
+
+    /**
+     * 从字节码缓存直接取得、无需 ASM 转换的类数量
+     */
+    private int cacheHits;
+
+    /**
+     * redefineClasses 调用耗时（毫秒）。所有类在同一个安全点内重定义，
+     * 该值包含到达安全点的等待，是本次应用停顿的上界
+     */
+    private double safepointPauseMillis;
+
+    /**
+     * 整个应用过程的耗时（毫秒），含字节码读取、转换和调用点链接
+     */
+    private double totalMillis;
+}
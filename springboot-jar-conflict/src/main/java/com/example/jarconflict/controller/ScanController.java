@@ -133,7 +133,7 @@ public class ScanController {
         ScanResult.ScanSummary summary = new ScanResult.ScanSummary();
         summary.setTotalJars(jars.size());
         summary.setTotalClasses(jars.stream()
-            .mapToInt(jar -> jar.getClasses() != null ? jar.getClasses().size() : 0)
+            .mapToInt(JarInfo::getClassCount)
             .sum());
         summary.setConflictCount(conflicts.size());
         
@@ -1,9 +1,12 @@
 package com.example.jarconflict.detector;
 
+import com.example.jarconflict.index.ClassNameTable;
+import com.example.jarconflict.index.JarClassIndex;
 import com.example.jarconflict.model.ConflictInfo;
 import com.example.jarconflict.model.JarInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -13,6 +16,9 @@ import java.util.stream.Collectors;
 public class ConflictDetector {
     private static final Logger logger = LoggerFactory.getLogger(ConflictDetector.class);
 
+    @Autowired
+    private ClassNameTable classNameTable;
+
     public List<ConflictInfo> detectConflicts(List<JarInfo> jars) {
         logger.info("Starting conflict detection for {} jars", jars.size());
         
@@ -28,28 +34,56 @@ public class ConflictDetector {
 
     private List<ConflictInfo> detectClassDuplicates(List<JarInfo> jars) {
         logger.debug("Detecting class duplicates...");
-        Map<String, List<JarInfo>> classToJarsMap = new HashMap<>();
         
+        // 每个JAR的类名编号已升序排列，多路归并时同一编号连续出现在多个JAR中即为重复类
+        PriorityQueue<ClassCursor> heap = new PriorityQueue<>(Math.max(1, jars.size()),
+            Comparator.comparingInt(ClassCursor::currentId));
         for (JarInfo jar : jars) {
-            if (jar.getClasses() != null) {
-                for (String className : jar.getClasses()) {
-                    classToJarsMap.computeIfAbsent(className, k -> new ArrayList<>()).add(jar);
-                }
+            JarClassIndex index = classIndexOf(jar);
+            if (index != null && index.size() > 0) {
+                heap.add(new ClassCursor(jar, index));
             }
         }
         
-        return classToJarsMap.entrySet().stream()
-            .filter(entry -> entry.getValue().size() > 1)
-            .map(entry -> {
-                ConflictInfo conflict = new ConflictInfo(
-                    entry.getKey(), 
-                    entry.getValue(), 
-                    ConflictInfo.ConflictType.CLASS_DUPLICATE
-                );
-                conflict.setSeverity(calculateClassConflictSeverity(entry.getKey(), entry.getValue()));
-                return conflict;
-            })
-            .collect(Collectors.toList());
+        List<ConflictInfo> conflicts = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            ClassCursor first = heap.poll();
+            int classId = first.currentId();
+            List<JarInfo> owners = null;
+            
+            while (!heap.isEmpty() && heap.peek().currentId() == classId) {
+                ClassCursor next = heap.poll();
+                if (owners == null) {
+                    owners = new ArrayList<>();
+                    owners.add(first.jar);
+                }
+                owners.add(next.jar);
+                if (next.advance()) {
+                    heap.add(next);
+                }
+            }
+            if (first.advance()) {
+                heap.add(first);
+            }
+            
+            if (owners != null) {
+                String className = classNameTable.name(classId);
+                ConflictInfo conflict = new ConflictInfo(className, owners, ConflictInfo.ConflictType.CLASS_DUPLICATE);
+                conflict.setSeverity(calculateClassConflictSeverity(className, owners));
+                conflicts.add(conflict);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 扫描得到的JAR已带有类名索引；手工构造（如测试数据）的JAR按类名列表登记
+     */
+    private JarClassIndex classIndexOf(JarInfo jar) {
+        if (jar.getClassIndex() == null && jar.getClasses() != null) {
+            jar.setClassIndex(JarClassIndex.of(classNameTable, classNameTable.intern(jar.getClasses())));
+        }
+        return jar.getClassIndex();
     }
 
     private List<ConflictInfo> detectVersionConflicts(List<JarInfo> jars) {
@@ -192,10 +226,29 @@ public class ConflictDetector {
     }
 
     private String generateJarSignature(JarInfo jar) {
-        if (jar.getClasses() == null || jar.getClasses().isEmpty()) {
+        if (jar.getClassCount() == 0) {
             return jar.getName() + ":" + jar.getVersion();
         }
         
-        return jar.getName() + ":" + jar.getClasses().size();
+        return jar.getName() + ":" + jar.getClassCount();
+    }
+
+    private static final class ClassCursor {
+        private final JarInfo jar;
+        private final JarClassIndex index;
+        private int position;
+
+        ClassCursor(JarInfo jar, JarClassIndex index) {
+            this.jar = jar;
+            this.index = index;
+        }
+
+        int currentId() {
+            return index.classIdAt(position);
+        }
+
+        boolean advance() {
+            return ++position < index.size();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.example.jarconflict.index;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 类名字符串表
+ * 所有JAR中的类名只保存一份，按UTF-8字节连续存放在一个数组中，以int编号引用；
+ * 可以直接从ZIP中央目录的条目名（com/foo/Bar.class）登记，不生成中间字符串
+ */
+@Component
+public class ClassNameTable {
+    private static final int CLASS_SUFFIX_LENGTH = ".class".length();
+
+    private byte[] arena = new byte[1 << 16];
+    private int arenaSize;
+
+    private int[] starts = new int[1024];
+    private int[] lengths = new int[1024];
+    private int[] hashes = new int[1024];
+    private int size;
+
+    // 开放寻址，存放编号+1，0表示空槽
+    private int[] slots = new int[2048];
+
+    /**
+     * 批量登记中央目录中的 .class 条目名，'/' 转为 '.' 并去掉 .class 后缀
+     *
+     * @param source  中央目录数据
+     * @param offsets 条目名在 source 中的偏移
+     * @param lengths 条目名字节数（包含 .class 后缀）
+     * @param count   条目数
+     * @return 各条目的类名编号
+     */
+    public synchronized int[] internEntries(ByteBuffer source, int[] offsets, int[] lengths, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = intern(source, offsets[i], lengths[i] - CLASS_SUFFIX_LENGTH);
+        }
+        return ids;
+    }
+
+    /**
+     * 登记类名
+     */
+    public synchronized int[] intern(List<String> classNames) {
+        int[] ids = new int[classNames.size()];
+        for (int i = 0; i < ids.length; i++) {
+            byte[] bytes = classNames.get(i).getBytes(StandardCharsets.UTF_8);
+            ids[i] = intern(ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+        return ids;
+    }
+
+    public synchronized String name(int id) {
+        return new String(arena, starts[id], lengths[id], StandardCharsets.UTF_8);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int intern(ByteBuffer source, int offset, int length) {
+        int hash = hash(source, offset, length);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                int id = add(source, offset, length, hash);
+                slots[slot] = id + 1;
+                if (size * 2 > slots.length) {
+                    rehash();
+                }
+                return id;
+            }
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(id, source, offset, length)) {
+                return id;
+            }
+        }
+    }
+
+    private int add(ByteBuffer source, int offset, int length, int hash) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            arena[arenaSize + i] = toDot(source.get(offset + i));
+        }
+        starts[size] = arenaSize;
+        lengths[size] = length;
+        hashes[size] = hash;
+        arenaSize += length;
+        return size++;
+    }
+
+    private boolean matches(int id, ByteBuffer source, int offset, int length) {
+        if (lengths[id] != length) {
+            return false;
+        }
+        int start = starts[id];
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != toDot(source.get(offset + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        int mask = grown.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id + 1;
+        }
+        slots = grown;
+    }
+
+    private static int hash(ByteBuffer source, int offset, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + toDot(source.get(offset + i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static byte toDot(byte b) {
+        return b == '/' ? (byte) '.' : b;
+    }
+}
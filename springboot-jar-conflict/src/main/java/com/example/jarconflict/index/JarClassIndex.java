@@ -0,0 +1,56 @@
+package com.example.jarconflict.index;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 单个JAR包含的类，保存为升序去重的类名编号数组
+ * 多个JAR之间按编号做多路归并即可找出重复类，不需要以类名为键的大Map
+ */
+public final class JarClassIndex {
+    private final ClassNameTable table;
+    private final int[] classIds;
+
+    private JarClassIndex(ClassNameTable table, int[] classIds) {
+        this.table = table;
+        this.classIds = classIds;
+    }
+
+    public static JarClassIndex of(ClassNameTable table, int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return new JarClassIndex(table, unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique));
+    }
+
+    public int size() {
+        return classIds.length;
+    }
+
+    public int classIdAt(int index) {
+        return classIds[index];
+    }
+
+    /**
+     * 类名列表视图，按需从字符串表解码
+     */
+    public List<String> getClassNames() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return table.name(classIds[index]);
+            }
+
+            @Override
+            public int size() {
+                return classIds.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.jarconflict.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个JAR的扫描结果缓存
+ * 以路径为键，文件大小、修改时间和中央目录CRC全部一致时复用，跳过类名登记和清单解析
+ */
+@Component
+public class JarIndexCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public Entry get(String path, long size, long lastModified, long crc) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.size == size && entry.lastModified == lastModified && entry.crc == crc) {
+            return entry;
+        }
+        return null;
+    }
+
+    public void put(String path, Entry entry) {
+        entries.put(path, entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final long crc;
+        private final String version;
+        private final JarClassIndex classIndex;
+
+        public Entry(long size, long lastModified, long crc, String version, JarClassIndex classIndex) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.crc = crc;
+            this.version = version;
+            this.classIndex = classIndex;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public JarClassIndex getClassIndex() {
+            return classIndex;
+        }
+    }
+}
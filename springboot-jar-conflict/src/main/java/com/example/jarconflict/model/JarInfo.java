@@ -1,5 +1,8 @@
 package com.example.jarconflict.model;
 
+import com.example.jarconflict.index.JarClassIndex;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 
 public class JarInfo {
@@ -8,6 +11,7 @@ public class JarInfo {
     private String version;
     private String size;
     private List<String> classes;
+    private JarClassIndex classIndex;
     
     public JarInfo() {}
     
@@ -51,10 +55,31 @@ public class JarInfo {
     }
 
     public List<String> getClasses() {
+        if (classes == null && classIndex != null) {
+            return classIndex.getClassNames();
+        }
         return classes;
     }
 
     public void setClasses(List<String> classes) {
         this.classes = classes;
+        this.classIndex = null;
+    }
+
+    @JsonIgnore
+    public JarClassIndex getClassIndex() {
+        return classIndex;
+    }
+
+    public void setClassIndex(JarClassIndex classIndex) {
+        this.classIndex = classIndex;
+    }
+
+    @JsonIgnore
+    public int getClassCount() {
+        if (classIndex != null) {
+            return classIndex.size();
+        }
+        return classes != null ? classes.size() : 0;
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.example.jarconflict.scanner;
 
+import com.example.jarconflict.index.ClassNameTable;
+import com.example.jarconflict.index.JarClassIndex;
+import com.example.jarconflict.index.JarIndexCache;
 import com.example.jarconflict.model.JarInfo;
 import com.example.jarconflict.utils.ClassLoaderAdapter;
 import org.slf4j.Logger;
@@ -8,19 +11,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.jar.JarFile;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Manifest;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Component
 public class JarScanner {
     private static final Logger logger = LoggerFactory.getLogger(JarScanner.class);
+    private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+    private static final String MAVEN_DIRECTORY = "META-INF/maven/";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
 
     @Autowired
     private ClassLoaderAdapter classLoaderAdapter;
@@ -31,42 +47,77 @@ public class JarScanner {
     @Value("${scanner.include-system-jars:false}")
     private boolean includeSystemJars;
 
+    @Value("${scanner.threads:0}")
+    private int threads;
+
+    @Autowired
+    private ClassNameTable classNameTable;
+
+    @Autowired
+    private JarIndexCache jarIndexCache;
+
+    private volatile List<Pattern> compiledExcludePatterns;
+
     public List<JarInfo> scanJars() {
         logger.info("Starting jar scanning...");
-        List<JarInfo> jars = new ArrayList<>();
         List<URL> urls = classLoaderAdapter.getClasspathUrls();
         
         logger.info("Found {} URLs in classpath", urls.size());
 
+        List<URL> targets = new ArrayList<>();
         for (URL url : urls) {
-            try {
-                String path = url.getPath();
-                
-                if (shouldExclude(path)) {
-                    continue;
-                }
+            String path = url.getPath();
+            if (shouldExclude(path)) {
+                continue;
+            }
+            if (path.endsWith(".jar") || path.endsWith("/classes/") || path.contains("target/classes")) {
+                targets.add(url);
+            }
+        }
 
-                if (path.endsWith(".jar")) {
-                    JarInfo jarInfo = scanJarFile(url);
-                    if (jarInfo != null) {
-                        jars.add(jarInfo);
-                    }
-                } else if (path.endsWith("/classes/") || path.contains("target/classes")) {
-                    JarInfo jarInfo = scanClassesDirectory(url);
-                    if (jarInfo != null) {
-                        jars.add(jarInfo);
-                    }
+        // 各JAR互不依赖，并行读取中央目录；结果按类路径顺序返回
+        int poolSize = Math.max(1, Math.min(targets.size(), threads > 0 ? threads : Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "jar-scanner-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<JarInfo> jars = new ArrayList<>();
+        AtomicInteger cacheHits = new AtomicInteger();
+        try {
+            List<CompletableFuture<JarInfo>> futures = new ArrayList<>(targets.size());
+            for (URL url : targets) {
+                futures.add(CompletableFuture.supplyAsync(() -> scanUrl(url, cacheHits), executor));
+            }
+            for (CompletableFuture<JarInfo> future : futures) {
+                JarInfo jarInfo = future.join();
+                if (jarInfo != null) {
+                    jars.add(jarInfo);
                 }
-            } catch (Exception e) {
-                logger.warn("Failed to scan URL: {}", url, e);
             }
+        } finally {
+            executor.shutdown();
         }
 
-        logger.info("Completed jar scanning, found {} jars", jars.size());
+        logger.info("Completed jar scanning, found {} jars ({} from cache, {} distinct classes)",
+            jars.size(), cacheHits.get(), classNameTable.size());
         return jars;
     }
 
-    private JarInfo scanJarFile(URL url) {
+    private JarInfo scanUrl(URL url, AtomicInteger cacheHits) {
+        try {
+            String path = url.getPath();
+            if (path.endsWith(".jar")) {
+                return scanJarFile(url, cacheHits);
+            }
+            return scanClassesDirectory(url);
+        } catch (Exception e) {
+            logger.warn("Failed to scan URL: {}", url, e);
+            return null;
+        }
+    }
+
+    private JarInfo scanJarFile(URL url, AtomicInteger cacheHits) {
         try {
             String path = url.getPath();
             File jarFile = new File(path);
@@ -75,26 +126,50 @@ public class JarScanner {
                 return null;
             }
 
-            try (JarFile jar = new JarFile(jarFile)) {
+            BasicFileAttributes attributes = Files.readAttributes(jarFile.toPath(), BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+
+            try (FileChannel channel = FileChannel.open(jarFile.toPath(), StandardOpenOption.READ)) {
+                ZipCentralDirectory directory = ZipCentralDirectory.read(channel);
+
                 JarInfo jarInfo = new JarInfo();
                 jarInfo.setPath(path);
                 jarInfo.setName(extractJarName(jarFile.getName()));
-                jarInfo.setVersion(extractVersion(jar));
-                jarInfo.setSize(formatSize(jarFile.length()));
-                
-                List<String> classes = new ArrayList<>();
-                jar.stream()
-                    .filter(entry -> entry.getName().endsWith(".class"))
-                    .filter(entry -> !entry.getName().contains("$"))
-                    .forEach(entry -> {
-                        String className = entry.getName()
-                            .replace("/", ".")
-                            .replace(".class", "");
-                        classes.add(className);
-                    });
-                
-                jarInfo.setClasses(classes);
-                logger.debug("Scanned jar: {} with {} classes", jarInfo.getName(), classes.size());
+                jarInfo.setSize(formatSize(attributes.size()));
+
+                JarIndexCache.Entry cached = jarIndexCache.get(path, attributes.size(), lastModified, directory.getCrc());
+                if (cached != null) {
+                    cacheHits.incrementAndGet();
+                    jarInfo.setVersion(cached.getVersion());
+                    jarInfo.setClassIndex(cached.getClassIndex());
+                    return jarInfo;
+                }
+
+                ClassEntries classes = new ClassEntries();
+                int[] manifestEntry = {-1};
+                boolean[] mavenDirectory = {false};
+                directory.forEach((entry, nameOffset, nameLength) -> {
+                    if (directory.nameEndsWith(nameOffset, nameLength, ".class")) {
+                        if (!directory.nameContains(nameOffset, nameLength, '$')) {
+                            classes.add(nameOffset, nameLength);
+                        }
+                    } else if (nameLength == MANIFEST_NAME.length()
+                            && directory.nameStartsWith(nameOffset, nameLength, MANIFEST_NAME)) {
+                        manifestEntry[0] = entry;
+                    } else if (nameLength == MAVEN_DIRECTORY.length()
+                            && directory.nameStartsWith(nameOffset, nameLength, MAVEN_DIRECTORY)) {
+                        mavenDirectory[0] = true;
+                    }
+                });
+
+                int[] ids = classNameTable.internEntries(directory.getDirectory(), classes.offsets, classes.lengths, classes.count);
+                JarClassIndex classIndex = JarClassIndex.of(classNameTable, ids);
+                String version = extractVersion(directory, manifestEntry[0], mavenDirectory[0], path);
+
+                jarInfo.setVersion(version);
+                jarInfo.setClassIndex(classIndex);
+                jarIndexCache.put(path, new JarIndexCache.Entry(attributes.size(), lastModified, directory.getCrc(), version, classIndex));
+                logger.debug("Scanned jar: {} with {} classes", jarInfo.getName(), classIndex.size());
                 return jarInfo;
             }
         } catch (IOException e) {
@@ -120,7 +195,7 @@ public class JarScanner {
             
             List<String> classes = new ArrayList<>();
             scanClassesInDirectory(classesDir, "", classes);
-            jarInfo.setClasses(classes);
+            jarInfo.setClassIndex(JarClassIndex.of(classNameTable, classNameTable.intern(classes)));
             
             logger.debug("Scanned classes directory with {} classes", classes.size());
             return jarInfo;
@@ -153,8 +228,13 @@ public class JarScanner {
             return true;
         }
 
-        return excludePatterns.stream()
-            .anyMatch(pattern -> Pattern.compile(pattern.replace("*", ".*")).matcher(path).matches());
+        if (compiledExcludePatterns == null) {
+            compiledExcludePatterns = excludePatterns.stream()
+                .map(pattern -> Pattern.compile(pattern.replace("*", ".*")))
+                .collect(Collectors.toList());
+        }
+        return compiledExcludePatterns.stream()
+            .anyMatch(pattern -> pattern.matcher(path).matches());
     }
 
     private boolean isSystemJar(String path) {
@@ -179,10 +259,10 @@ public class JarScanner {
         return fileName;
     }
 
-    private String extractVersion(JarFile jar) {
+    private String extractVersion(ZipCentralDirectory directory, int manifestEntry, boolean mavenDirectory, String path) {
         try {
-            Manifest manifest = jar.getManifest();
-            if (manifest != null) {
+            if (manifestEntry >= 0) {
+                Manifest manifest = new Manifest(new ByteArrayInputStream(directory.readEntry(manifestEntry)));
                 String version = manifest.getMainAttributes().getValue("Implementation-Version");
                 if (version != null) {
                     return version;
@@ -193,12 +273,11 @@ public class JarScanner {
                 }
             }
             
-            var pomProperties = jar.getEntry("META-INF/maven");
-            if (pomProperties != null) {
+            if (mavenDirectory) {
                 return "maven";
             }
             
-            return extractVersionFromFileName(jar.getName());
+            return extractVersionFromFileName(path);
         } catch (Exception e) {
             return "unknown";
         }
@@ -240,4 +319,23 @@ public class JarScanner {
         }
         return size;
     }
-}
\ No newline at end of file
+
+    /**
+     * 中央目录中 .class 条目名的位置
+     */
+    private static final class ClassEntries {
+        int[] offsets = new int[256];
+        int[] lengths = new int[256];
+        int count;
+
+        void add(int offset, int length) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            offsets[count] = offset;
+            lengths[count] = length;
+            count++;
+        }
+    }
+}
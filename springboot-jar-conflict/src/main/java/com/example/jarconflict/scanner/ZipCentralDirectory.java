@@ -0,0 +1,231 @@
+package com.example.jarconflict.scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * ZIP中央目录读取器
+ * 只读取文件末尾的目录记录和中央目录，不解压条目，也不为每个条目创建 ZipEntry；
+ * 支持ZIP64和带前置内容的可执行JAR
+ */
+final class ZipCentralDirectory {
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int CEN_HEADER_LENGTH = 46;
+    private static final int LOC_HEADER_LENGTH = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private final FileChannel channel;
+    private final ByteBuffer directory;
+    private final long baseOffset;
+    private final long crc;
+
+    private ZipCentralDirectory(FileChannel channel, ByteBuffer directory, long baseOffset) {
+        this.channel = channel;
+        this.directory = directory;
+        this.baseOffset = baseOffset;
+        CRC32 checksum = new CRC32();
+        checksum.update(directory.duplicate());
+        this.crc = checksum.getValue();
+    }
+
+    static ZipCentralDirectory read(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        int tailLength = (int) Math.min(fileSize, EOCD_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = readFully(channel, fileSize - tailLength, tailLength);
+
+        int eocd = -1;
+        for (int i = tailLength - EOCD_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipException("End of central directory not found");
+        }
+
+        long eocdPosition = fileSize - tailLength + eocd;
+        long directorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        long directoryEnd = eocdPosition;
+
+        if (directoryOffset == 0xFFFFFFFFL || directorySize == 0xFFFFFFFFL) {
+            if (eocd < 20 || tail.getInt(eocd - 20) != ZIP64_LOCATOR_SIGNATURE) {
+                throw new ZipException("ZIP64 locator not found");
+            }
+            long zip64Position = tail.getLong(eocd - 20 + 8);
+            ByteBuffer zip64 = readFully(channel, zip64Position, 56);
+            if (zip64.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+                throw new ZipException("Invalid ZIP64 end of central directory");
+            }
+            directorySize = zip64.getLong(40);
+            directoryOffset = zip64.getLong(48);
+            directoryEnd = zip64Position;
+        }
+
+        if (directorySize > Integer.MAX_VALUE || directorySize > directoryEnd) {
+            throw new ZipException("Invalid central directory size: " + directorySize);
+        }
+        // 可执行JAR前面可能拼接了启动脚本，记录的偏移相对ZIP起始位置
+        long directoryStart = directoryEnd - directorySize;
+        ByteBuffer directory = readFully(channel, directoryStart, (int) directorySize);
+        return new ZipCentralDirectory(channel, directory, directoryStart - directoryOffset);
+    }
+
+    long getCrc() {
+        return crc;
+    }
+
+    ByteBuffer getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 遍历中央目录条目
+     */
+    void forEach(EntryVisitor visitor) throws ZipException {
+        int pos = 0;
+        int limit = directory.limit();
+        while (pos + CEN_HEADER_LENGTH <= limit) {
+            if (directory.getInt(pos) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory header at " + pos);
+            }
+            int nameLength = Short.toUnsignedInt(directory.getShort(pos + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(pos + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(pos + 32));
+            if (pos + CEN_HEADER_LENGTH + nameLength > limit) {
+                throw new ZipException("Truncated central directory entry at " + pos);
+            }
+            visitor.visit(pos, pos + CEN_HEADER_LENGTH, nameLength);
+            pos += CEN_HEADER_LENGTH + nameLength + extraLength + commentLength;
+        }
+    }
+
+    /**
+     * 读取单个条目的内容，用于清单等小文件
+     *
+     * @param entry 条目在中央目录中的偏移
+     */
+    byte[] readEntry(int entry) throws IOException {
+        int method = Short.toUnsignedInt(directory.getShort(entry + 10));
+        long compressedSize = Integer.toUnsignedLong(directory.getInt(entry + 20));
+        long uncompressedSize = Integer.toUnsignedLong(directory.getInt(entry + 24));
+        long localOffset = Integer.toUnsignedLong(directory.getInt(entry + 42));
+        if (compressedSize == 0xFFFFFFFFL || uncompressedSize == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL
+                || uncompressedSize > Integer.MAX_VALUE) {
+            throw new ZipException("Entry too large to read");
+        }
+
+        ByteBuffer local = readFully(channel, baseOffset + localOffset, LOC_HEADER_LENGTH);
+        if (local.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local header");
+        }
+        long dataOffset = baseOffset + localOffset + LOC_HEADER_LENGTH
+            + Short.toUnsignedInt(local.getShort(26)) + Short.toUnsignedInt(local.getShort(28));
+        ByteBuffer data = readFully(channel, dataOffset, (int) compressedSize);
+
+        if (method == 0) {
+            return toArray(data);
+        }
+        if (method != 8) {
+            throw new ZipException("Unsupported compression method: " + method);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] content = new byte[(int) uncompressedSize];
+            int read = 0;
+            while (read < content.length && !inflater.finished()) {
+                int n = inflater.inflate(content, read, content.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            return read == content.length ? content : Arrays.copyOf(content, read);
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflate data: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 判断 directory 中 [offset, offset + length) 的条目名是否以指定ASCII字符串结尾
+     */
+    boolean nameEndsWith(int offset, int length, String suffix) {
+        int n = suffix.length();
+        if (length < n) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (directory.get(offset + length - n + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean nameStartsWith(int offset, int length, String prefix) {
+        int n = prefix.length();
+        if (length < n) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (directory.get(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean nameContains(int offset, int length, char c) {
+        for (int i = 0; i < length; i++) {
+            if (directory.get(offset + i) == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        if (position < 0 || position + length > channel.size()) {
+            throw new ZipException("Offset out of range: " + position);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ZipException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        /**
+         * @param entry      条目在中央目录中的偏移
+         * @param nameOffset 条目名偏移
+         * @param nameLength 条目名字节数
+         */
+        void visit(int entry, int nameOffset, int nameLength) throws ZipException;
+    }
+}
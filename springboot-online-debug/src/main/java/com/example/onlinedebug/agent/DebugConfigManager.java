@@ -1,5 +1,10 @@
 package com.example.onlinedebug.agent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.Set;
@@ -8,6 +13,11 @@ import java.util.concurrent.CopyOnWriteArraySet;
 /**
  * 调试配置管理器
  * 管理哪些方法需要被调试
+ *
+ * 规则匹配不在方法调用时进行：每个被增强的方法在字节码增强时登记并获得一个编号，
+ * 编号作为常量写入增强代码；规则变化时对全部已登记方法重新匹配，生成新的开关数组整体替换。
+ * 增强代码只需按编号读取一次开关数组。
+ * 挂有 {@link DebugProbe} 的方法同样打开开关，是否输出日志由单独的日志开关决定
  */
 public class DebugConfigManager {
     
@@ -26,6 +36,29 @@ public class DebugConfigManager {
     // 全局调试开关（谨慎使用，性能影响巨大）
     private static volatile boolean globalDebugEnabled = false;
     
+    // 已增强方法的登记表，下标即方法编号
+    private static final List<RegisteredMethod> registeredMethods = new ArrayList<>();
+    
+    // 方法签名（类名.方法名描述符）到编号的映射，类被重新转换时沿用原编号
+    private static final Map<String, Integer> methodIds = new HashMap<>();
+    
+    // 已增强的类
+    private static final Set<String> instrumentedClasses = ConcurrentHashMap.newKeySet();
+    
+    // 按方法编号索引的调试开关（需要输出日志或挂有探针），只整体替换、不原地修改；容量按倍数扩展，超出已登记数量的部分恒为 false
+    private static volatile boolean[] methodFlags = new boolean[0];
+    
+    // 按方法编号索引的日志开关
+    private static volatile boolean[] loggingFlags = new boolean[0];
+    
+    // 按方法编号索引的探针，没有探针的方法为空数组
+    private static volatile DebugProbe[][] methodProbes = new DebugProbe[0][];
+    
+    // 按方法编号索引的登记信息，与开关数组一起整体替换，增强代码无锁读取
+    private static volatile RegisteredMethod[] methodInfos = new RegisteredMethod[0];
+    
+    private static final DebugProbe[] NO_PROBES = new DebugProbe[0];
+    
     // 静态初始化块 - 设置默认的调试规则
     static {
         // 清除任何可能存在的旧规则
@@ -64,10 +97,15 @@ public class DebugConfigManager {
             }
         }
         
+        // 如果有探针挂在这个类的方法上，就需要增强
+        if (DebugProbeManager.hasProbeForClass(className)) {
+            return true;
+        }
+        
         // 默认不增强未配置的类
         return false;
     }
-
+    
     /**
      * 判断是否应该调试指定方法
      * 
@@ -120,6 +158,7 @@ public class DebugConfigManager {
      */
     public static void addMethodDebug(String fullMethodName) {
         exactMethods.add(fullMethodName);
+        refreshFlags();
     }
     
     /**
@@ -127,6 +166,7 @@ public class DebugConfigManager {
      */
     public static void removeMethodDebug(String fullMethodName) {
         exactMethods.remove(fullMethodName);
+        refreshFlags();
     }
     
     /**
@@ -136,6 +176,7 @@ public class DebugConfigManager {
      */
     public static void addPatternDebug(String pattern) {
         patternMethods.add(Pattern.compile(pattern));
+        refreshFlags();
     }
     
     /**
@@ -143,6 +184,7 @@ public class DebugConfigManager {
      */
     public static void removePatternDebug(String pattern) {
         patternMethods.removeIf(p -> p.pattern().equals(pattern));
+        refreshFlags();
     }
     
     /**
@@ -152,6 +194,7 @@ public class DebugConfigManager {
      */
     public static void addClassDebug(String className) {
         debugClasses.add(className);
+        refreshFlags();
     }
     
     /**
@@ -159,6 +202,7 @@ public class DebugConfigManager {
      */
     public static void removeClassDebug(String className) {
         debugClasses.remove(className);
+        refreshFlags();
     }
     
     /**
@@ -168,6 +212,7 @@ public class DebugConfigManager {
      */
     public static void addPackageDebug(String packageName) {
         debugPackages.add(packageName);
+        refreshFlags();
     }
     
     /**
@@ -175,6 +220,7 @@ public class DebugConfigManager {
      */
     public static void removePackageDebug(String packageName) {
         debugPackages.remove(packageName);
+        refreshFlags();
     }
     
     /**
@@ -183,6 +229,7 @@ public class DebugConfigManager {
      */
     public static void setGlobalDebug(boolean enabled) {
         globalDebugEnabled = enabled;
+        refreshFlags();
     }
     
     /**
@@ -194,6 +241,127 @@ public class DebugConfigManager {
         debugClasses.clear();
         debugPackages.clear();
         globalDebugEnabled = false;
+        refreshFlags();
+    }
+    
+    /**
+     * 登记被增强的方法（在字节码增强时调用）
+     *
+     * @param className  完整类名
+     * @param methodName 方法名
+     * @param descriptor 方法描述符，用于区分重载方法
+     * @return 方法编号，同一方法重复登记返回原编号
+     */
+    public static synchronized int registerMethod(String className, String methodName, String descriptor) {
+        Integer existing = methodIds.get(className + "." + methodName + descriptor);
+        if (existing != null) {
+            return existing;
+        }
+    
+        int id = registeredMethods.size();
+        String fullMethodName = className + "." + methodName;
+        registeredMethods.add(new RegisteredMethod(fullMethodName, descriptor.endsWith(")V")));
+        methodIds.put(className + "." + methodName + descriptor, id);
+        instrumentedClasses.add(className);
+    
+        int capacity = id < methodFlags.length ? methodFlags.length : Math.max(64, methodFlags.length * 2);
+        boolean[] logging = Arrays.copyOf(loggingFlags, capacity);
+        DebugProbe[][] probes = Arrays.copyOf(methodProbes, capacity);
+        boolean[] flags = Arrays.copyOf(methodFlags, capacity);
+        RegisteredMethod[] infos = Arrays.copyOf(methodInfos, capacity);
+        infos[id] = registeredMethods.get(id);
+        logging[id] = shouldDebug(fullMethodName);
+        probes[id] = DebugProbeManager.findProbes(fullMethodName).toArray(NO_PROBES);
+        flags[id] = logging[id] || probes[id].length > 0;
+        publish(infos, logging, probes, flags);
+        return id;
+    }
+    
+    /**
+     * 判断指定编号的方法当前是否需要调试（在被增强方法的每次调用中执行）
+     */
+    public static boolean isEnabled(int methodId) {
+        boolean[] flags = methodFlags;
+        return methodId < flags.length && flags[methodId];
+    }
+    
+    /**
+     * 判断指定编号的方法是否需要输出调试日志
+     */
+    public static boolean isLogging(int methodId) {
+        boolean[] flags = loggingFlags;
+        return methodId < flags.length && flags[methodId];
+    }
+    
+    /**
+     * 获取挂在指定编号方法上的探针
+     */
+    public static DebugProbe[] getProbes(int methodId) {
+        DebugProbe[][] probes = methodProbes;
+        DebugProbe[] result = methodId < probes.length ? probes[methodId] : null;
+        return result != null ? result : NO_PROBES;
+    }
+    
+    /**
+     * 获取方法编号对应的完整方法名，格式为 "类名.方法名"（在增强代码的日志路径中执行，不加锁）
+     */
+    public static String getMethodName(int methodId) {
+        return methodInfos[methodId].fullMethodName();
+    }
+    
+    /**
+     * 方法返回值是否为 void（在被增强方法的每次退出中执行，不加锁）
+     */
+    public static boolean isVoidMethod(int methodId) {
+        return methodInfos[methodId].returnsVoid();
+    }
+    
+    /**
+     * 判断类是否已经被增强，已增强的类在规则变化时只需更新开关，无需重新转换
+     */
+    public static boolean isInstrumented(String className) {
+        return instrumentedClasses.contains(className);
+    }
+    
+    /**
+     * 已增强方法数和当前开启调试的方法数
+     */
+    public static synchronized int[] getMethodCounts() {
+        boolean[] flags = methodFlags;
+        int enabled = 0;
+        for (int i = 0; i < registeredMethods.size(); i++) {
+            if (flags[i]) {
+                enabled++;
+            }
+        }
+        return new int[]{registeredMethods.size(), enabled};
+    }
+    
+    /**
+     * 规则或探针变化后对全部已登记方法重新匹配，整体替换开关数组
+     */
+    static synchronized void refreshFlags() {
+        int capacity = methodFlags.length;
+        boolean[] logging = new boolean[capacity];
+        DebugProbe[][] probes = new DebugProbe[capacity][];
+        boolean[] flags = new boolean[capacity];
+        for (int i = 0; i < registeredMethods.size(); i++) {
+            String fullMethodName = registeredMethods.get(i).fullMethodName();
+            logging[i] = shouldDebug(fullMethodName);
+            probes[i] = DebugProbeManager.findProbes(fullMethodName).toArray(NO_PROBES);
+            flags[i] = logging[i] || probes[i].length > 0;
+        }
+        publish(methodInfos, logging, probes, flags);
+    }
+    
+    /**
+     * 总开关最后替换，读到总开关打开时登记信息、日志开关和探针数组已是新值
+     */
+    private static void publish(RegisteredMethod[] infos, boolean[] logging, DebugProbe[][] probes, boolean[] flags) {
+        methodInfos = infos;
+        loggingFlags = logging;
+        methodProbes = probes;
+        methodFlags = flags;
     }
     
     /**
@@ -209,6 +377,12 @@ public class DebugConfigManager {
         );
     }
     
+    /**
+     * 已登记的方法
+     */
+    private record RegisteredMethod(String fullMethodName, boolean returnsVoid) {
+    }
+    
     /**
      * 调试配置状态信息
      */
@@ -0,0 +1,71 @@
+package com.example.onlinedebug.agent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 调试输出缓冲区
+ * 被调试方法所在的业务线程只把输出放入有界队列，由后台线程批量写日志，
+ * 业务线程不等待控制台 IO；队列满时丢弃新输出并计数，不阻塞业务线程
+ */
+public final class DebugOutputBuffer {
+    
+    private static final Logger logger = LoggerFactory.getLogger("online-debug");
+    
+    private static final int CAPACITY = 8192;
+    private static final int DRAIN_BATCH = 256;
+    
+    private static final BlockingQueue<String> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    
+    static {
+        Thread writer = new Thread(DebugOutputBuffer::drain, "online-debug-output");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    private DebugOutputBuffer() {
+    }
+    
+    /**
+     * 提交一条输出，队列满时丢弃
+     */
+    public static void publish(String line) {
+        if (!queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * 因队列满被丢弃的输出条数
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    private static void drain() {
+        List<String> batch = new ArrayList<>(DRAIN_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (String line : batch) {
+                    logger.info(line);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // 输出失败不影响后续输出
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.onlinedebug.agent;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 调试探针
+ * 挂在某个方法上，方法每次返回时依次检查：是否过期、采样、条件表达式、限流，全部通过才保存快照。
+ * 条件表达式在创建探针时解析，执行一定次数后由 SpEL 编译为字节码
+ */
+public final class DebugProbe {
+    
+    // 条件表达式只允许读取属性和调用实例方法，不允许引用类型、构造对象
+    private static final EvaluationContext EVALUATION_CONTEXT =
+        SimpleEvaluationContext.forReadOnlyDataBinding().withInstanceMethods().build();
+    
+    private final String id;
+    private final String target;
+    private final String conditionText;
+    private final Expression condition;
+    private final double sampleRate;
+    private final int maxPerSecond;
+    private final long createTime;
+    private final long expireTime;
+    private final SnapshotRingBuffer snapshots;
+    
+    // 高 32 位为当前秒，低 32 位为该秒内已保存的快照数
+    private final AtomicLong rateWindow = new AtomicLong();
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong sampledOutCount = new AtomicLong();
+    private final AtomicLong conditionMissCount = new AtomicLong();
+    private final AtomicLong conditionErrorCount = new AtomicLong();
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+    
+    /**
+     * @param id            探针编号
+     * @param target        完整方法名，格式为 "类名.方法名"，同名重载方法都会命中
+     * @param conditionText 条件表达式原文，为空表示不限制
+     * @param condition     已解析的条件表达式，为空表示不限制
+     * @param sampleRate    采样率，取值 (0, 1]
+     * @param maxPerSecond  每秒最多保存的快照数，0 表示不限制
+     * @param ttlMillis     有效期（毫秒），0 表示不过期
+     * @param capacity      快照缓冲区容量
+     */
+    public DebugProbe(String id, String target, String conditionText, Expression condition,
+                      double sampleRate, int maxPerSecond, long ttlMillis, int capacity) {
+        this.id = id;
+        this.target = target;
+        this.conditionText = conditionText;
+        this.condition = condition;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.createTime = System.currentTimeMillis();
+        this.expireTime = ttlMillis > 0 ? createTime + ttlMillis : Long.MAX_VALUE;
+        this.snapshots = new SnapshotRingBuffer(capacity);
+    }
+    
+    /**
+     * 被探测方法返回时调用（在业务线程中执行）
+     */
+    public void onReturn(Object[] args, Object returnValue, Throwable throwable, boolean returnsVoid, long durationNanos) {
+        hitCount.incrementAndGet();
+    
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOutCount.incrementAndGet();
+            return;
+        }
+    
+        double durationMillis = durationNanos / 1_000_000.0;
+        if (condition != null && !matches(args, returnValue, throwable, durationMillis)) {
+            return;
+        }
+    
+        if (maxPerSecond > 0 && !tryAcquire(System.currentTimeMillis() / 1000)) {
+            rateLimitedCount.incrementAndGet();
+            return;
+        }
+    
+        List<String> argValues = new ArrayList<>(args == null ? 0 : args.length);
+        if (args != null) {
+            for (Object arg : args) {
+                argValues.add(UniversalDebugAdvice.safeToString(arg));
+            }
+        }
+        String returnText = throwable == null && !returnsVoid ? UniversalDebugAdvice.safeToString(returnValue) : null;
+        String exceptionText = throwable == null ? null
+            : throwable.getClass().getName() + ": " + throwable.getMessage();
+    
+        snapshots.publish(new ProbeSnapshot(
+            snapshots.claim(),
+            System.currentTimeMillis(),
+            Thread.currentThread().getName(),
+            argValues,
+            returnText,
+            exceptionText,
+            durationMillis));
+    }
+    
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired(long now) {
+        return now >= expireTime;
+    }
+    
+    private boolean matches(Object[] args, Object returnValue, Throwable throwable, double durationMillis) {
+        try {
+            Boolean result = condition.getValue(EVALUATION_CONTEXT,
+                new ProbeContext(args, returnValue, throwable, durationMillis), Boolean.class);
+            if (Boolean.TRUE.equals(result)) {
+                return true;
+            }
+            conditionMissCount.incrementAndGet();
+        } catch (Exception e) {
+            conditionErrorCount.incrementAndGet();
+        }
+        return false;
+    }
+    
+    private boolean tryAcquire(long second) {
+        while (true) {
+            long state = rateWindow.get();
+            if (state >>> 32 != second) {
+                if (rateWindow.compareAndSet(state, second << 32 | 1)) {
+                    return true;
+                }
+            } else if ((int) state >= maxPerSecond) {
+                return false;
+            } else if (rateWindow.compareAndSet(state, state + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public String getId() { return id; }
+    public String getTarget() { return target; }
+    public SnapshotRingBuffer getSnapshots() { return snapshots; }
+    
+    /**
+     * 探针配置和计数
+     */
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("target", target);
+        status.put("condition", conditionText);
+        status.put("sampleRate", sampleRate);
+        status.put("maxPerSecond", maxPerSecond);
+        status.put("createTime", createTime);
+        status.put("expireTime", expireTime == Long.MAX_VALUE ? null : expireTime);
+        status.put("capacity", snapshots.getCapacity());
+        status.put("hitCount", hitCount.get());
+        status.put("capturedCount", snapshots.getNextSequence());
+        status.put("sampledOutCount", sampledOutCount.get());
+        status.put("conditionMissCount", conditionMissCount.get());
+        status.put("conditionErrorCount", conditionErrorCount.get());
+        status.put("rateLimitedCount", rateLimitedCount.get());
+        return status;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.onlinedebug.agent;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 调试探针管理器
+ * 探针按方法名挂载，增删后通知 {@link DebugConfigManager} 重新生成按方法编号索引的探针数组
+ */
+public class DebugProbeManager {
+    
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int MAX_CAPACITY = 4096;
+    
+    // 解释执行一定次数后编译为字节码，无法编译的表达式继续解释执行
+    private static final SpelExpressionParser parser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, DebugProbeManager.class.getClassLoader()));
+    
+    private static final Map<String, DebugProbe> probes = new ConcurrentHashMap<>();
+    
+    private static final AtomicLong probeIdGenerator = new AtomicLong();
+    
+    /**
+     * 添加探针
+     *
+     * @param target       完整方法名，格式为 "类名.方法名"
+     * @param condition    条件表达式，为空表示不限制
+     * @param sampleRate   采样率，取值 (0, 1]
+     * @param maxPerSecond 每秒最多保存的快照数，0 表示不限制
+     * @param ttlSeconds   有效期（秒），0 表示不过期
+     * @param capacity     快照缓冲区容量，0 表示使用默认值
+     * @return 新建的探针
+     */
+    public static DebugProbe addProbe(String target, String condition, double sampleRate,
+                                      int maxPerSecond, long ttlSeconds, int capacity) {
+        if (target == null || target.lastIndexOf('.') <= 0) {
+            throw new IllegalArgumentException("Probe target must be in format ClassName.methodName: " + target);
+        }
+        if (!(sampleRate > 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("Sample rate must be in (0, 1]: " + sampleRate);
+        }
+        if (maxPerSecond < 0 || ttlSeconds < 0 || capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid probe limits");
+        }
+    
+        Expression expression = null;
+        String conditionText = condition == null || condition.isBlank() ? null : condition.trim();
+        if (conditionText != null) {
+            try {
+                expression = parser.parseExpression(conditionText);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Invalid probe condition: " + e.getMessage(), e);
+            }
+        }
+    
+        DebugProbe probe = new DebugProbe(
+            "probe-" + probeIdGenerator.incrementAndGet(),
+            target,
+            conditionText,
+            expression,
+            sampleRate,
+            maxPerSecond,
+            ttlSeconds * 1000,
+            capacity == 0 ? DEFAULT_CAPACITY : capacity);
+        probes.put(probe.getId(), probe);
+        DebugConfigManager.refreshFlags();
+        return probe;
+    }
+    
+    /**
+     * 移除探针，快照随之丢弃
+     */
+    public static boolean removeProbe(String probeId) {
+        boolean removed = probes.remove(probeId) != null;
+        if (removed) {
+            DebugConfigManager.refreshFlags();
+        }
+        return removed;
+    }
+    
+    /**
+     * 获取探针，已过期的探针在此时移除
+     */
+    public static DebugProbe getProbe(String probeId) {
+        removeExpired();
+        return probes.get(probeId);
+    }
+    
+    /**
+     * 获取全部探针，已过期的探针在此时移除
+     */
+    public static Collection<DebugProbe> getProbes() {
+        removeExpired();
+        return new ArrayList<>(probes.values());
+    }
+    
+    /**
+     * 判断是否有探针挂在该类的方法上
+     */
+    public static boolean hasProbeForClass(String className) {
+        for (DebugProbe probe : probes.values()) {
+            if (probe.getTarget().startsWith(className + ".")
+                && probe.getTarget().lastIndexOf('.') == className.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 获取挂在指定方法上的未过期探针
+     */
+    static List<DebugProbe> findProbes(String fullMethodName) {
+        long now = System.currentTimeMillis();
+        List<DebugProbe> result = new ArrayList<>();
+        for (DebugProbe probe : probes.values()) {
+            if (probe.getTarget().equals(fullMethodName) && !probe.isExpired(now)) {
+                result.add(probe);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 移除已过期的探针（在被探测方法中发现过期探针时也会调用）
+     */
+    static void removeExpired() {
+        long now = System.currentTimeMillis();
+        if (probes.values().removeIf(probe -> probe.isExpired(now))) {
+            DebugConfigManager.refreshFlags();
+        }
+    }
+}
@@ -24,6 +24,12 @@ public class DynamicRetransformManager {
             return;
         }
         
+        // 已增强的类在规则变化时由开关数组生效，不需要重新转换
+        if (DebugConfigManager.isInstrumented(className)) {
+            System.out.println("[DEBUG-AGENT] Class already instrumented, rule flags updated: " + className);
+            return;
+        }
+        
         try {
             // 查找已加载的类
             Class<?> targetClass = findLoadedClass(className);
@@ -0,0 +1,15 @@
+package com.example.onlinedebug.agent;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在 Advice 方法参数上，绑定被增强方法在 {@link DebugConfigManager} 中的编号
+ * 编号在字节码增强时分配，以常量形式写入增强代码
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface MethodId {
+}
@@ -2,6 +2,8 @@ package com.example.onlinedebug.agent;
 
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.method.ParameterDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
@@ -90,7 +92,9 @@ public class OnlineDebugAgent {
                         net.bytebuddy.utility.JavaModule module,
                         java.security.ProtectionDomain protectionDomain) {
                     return builder
-                        .visit(Advice.to(UniversalDebugAdvice.class)
+                        .visit(Advice.withCustomMapping()
+                            .bind(new MethodIdFactory())
+                            .to(UniversalDebugAdvice.class)
                             .on(ElementMatchers.any()
                                 .and(ElementMatchers.not(ElementMatchers.isConstructor()))
                                 .and(ElementMatchers.not(ElementMatchers.isStatic()))
@@ -138,6 +142,31 @@ public class OnlineDebugAgent {
             .installOn(inst);
     }
     
+    /**
+     * {@link MethodId} 参数绑定：增强每个方法时登记方法并把编号作为常量写入增强代码
+     */
+    private static class MethodIdFactory implements Advice.OffsetMapping.Factory<MethodId> {
+        
+        @Override
+        public Class<MethodId> getAnnotationType() {
+            return MethodId.class;
+        }
+        
+        @Override
+        public Advice.OffsetMapping make(ParameterDescription.InDefinedShape target,
+                                         AnnotationDescription.Loadable<MethodId> annotation,
+                                         AdviceType adviceType) {
+            if (target.getType().represents(int.class)) {
+                return (instrumentedType, instrumentedMethod, assigner, argumentHandler, sort) ->
+                    Advice.OffsetMapping.Target.ForStackManipulation.of(DebugConfigManager.registerMethod(
+                        instrumentedType.getName(),
+                        instrumentedMethod.getInternalName(),
+                        instrumentedMethod.getDescriptor()));
+            }
+            throw new IllegalStateException("@MethodId must be bound to an int parameter: " + target);
+        }
+    }
+    
     /**
      * 获取Instrumentation实例，供其他组件使用
      */
@@ -0,0 +1,26 @@
+package com.example.onlinedebug.agent;
+
+/**
+ * 探针条件表达式的求值根对象
+ * 表达式中可使用 args、returnValue、throwable、durationMillis，
+ * 例如 {@code args[0] == 1001 && durationMillis > 50}
+ */
+public final class ProbeContext {
+    
+    private final Object[] args;
+    private final Object returnValue;
+    private final Throwable throwable;
+    private final double durationMillis;
+    
+    public ProbeContext(Object[] args, Object returnValue, Throwable throwable, double durationMillis) {
+        this.args = args;
+        this.returnValue = returnValue;
+        this.throwable = throwable;
+        this.durationMillis = durationMillis;
+    }
+    
+    public Object[] getArgs() { return args; }
+    public Object getReturnValue() { return returnValue; }
+    public Throwable getThrowable() { return throwable; }
+    public double getDurationMillis() { return durationMillis; }
+}
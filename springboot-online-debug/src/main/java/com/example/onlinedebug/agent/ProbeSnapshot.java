@@ -0,0 +1,24 @@
+package com.example.onlinedebug.agent;
+
+import java.util.List;
+
+/**
+ * 探针快照
+ * 命中时把参数、返回值和异常转换成字符串保存，不持有业务对象的引用
+ *
+ * @param sequence       快照在所属探针内的序号，从 0 递增
+ * @param timestamp      捕获时间（毫秒）
+ * @param threadName     执行线程
+ * @param args           参数
+ * @param returnValue    返回值，void 方法或抛出异常时为 null
+ * @param exception      异常信息，正常返回时为 null
+ * @param durationMillis 方法耗时（毫秒）
+ */
+public record ProbeSnapshot(long sequence,
+                            long timestamp,
+                            String threadName,
+                            List<String> args,
+                            String returnValue,
+                            String exception,
+                            double durationMillis) {
+}
@@ -0,0 +1,92 @@
+package com.example.onlinedebug.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 探针快照环形缓冲区
+ * 写入方通过递增序号抢占槽位，不加锁；缓冲区写满后覆盖最旧的快照，槽位只会被更大的序号覆盖。
+ * 读取方按序号分页，槽位中快照的序号与期望序号不一致时说明已被覆盖或尚未写完，直接跳过
+ */
+public final class SnapshotRingBuffer {
+    
+    private final AtomicReferenceArray<ProbeSnapshot> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    
+    /**
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    public SnapshotRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+    
+    /**
+     * 分配下一个快照序号
+     */
+    public long claim() {
+        return nextSequence.getAndIncrement();
+    }
+    
+    /**
+     * 写入已分配序号的快照
+     * 写入方被套圈时槽位中可能已是更新的快照，此时丢弃本次写入，不覆盖较新的数据
+     */
+    public void publish(ProbeSnapshot snapshot) {
+        int index = (int) (snapshot.sequence() & mask);
+        while (true) {
+            ProbeSnapshot current = slots.get(index);
+            if (current != null && current.sequence() > snapshot.sequence()) {
+                return;
+            }
+            if (slots.compareAndSet(index, current, snapshot)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 从指定序号开始读取快照，已被覆盖的部分从当前最旧的快照开始
+     *
+     * @param fromSequence 起始序号
+     * @param limit        最多返回条数
+     */
+    public List<ProbeSnapshot> read(long fromSequence, int limit) {
+        long end = nextSequence.get();
+        long start = Math.max(fromSequence, oldestSequence(end));
+        List<ProbeSnapshot> result = new ArrayList<>(Math.min(limit, slots.length()));
+        for (long seq = start; seq < end && result.size() < limit; seq++) {
+            ProbeSnapshot snapshot = slots.get((int) (seq & mask));
+            if (snapshot != null && snapshot.sequence() == seq) {
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 下一个将要写入的序号，即已写入的快照总数
+     */
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+    
+    /**
+     * 缓冲区中仍保留的最旧快照序号
+     */
+    public long getOldestSequence() {
+        return oldestSequence(nextSequence.get());
+    }
+    
+    public int getCapacity() {
+        return slots.length();
+    }
+    
+    private long oldestSequence(long end) {
+        return Math.max(0, end - slots.length());
+    }
+}
@@ -3,122 +3,162 @@ package com.example.onlinedebug.agent;
 import net.bytebuddy.asm.Advice;
 import net.bytebuddy.implementation.bytecode.assign.Assigner;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
-
 /**
  * 通用调试拦截器
  * 在方法执行前后注入调试逻辑
+ *
+ * 增强代码内联到每个被增强的方法中，未开启调试时只按方法编号读取一次开关数组；
+ * 参数数组和返回值装箱只在读取参数时生成，因此只出现在开启调试的分支里。
+ * 进入时的参数数组通过增强代码的局部变量传给退出逻辑，供探针在方法返回时求值条件和保存快照
  */
 public class UniversalDebugAdvice {
     
+    /**
+     * 未开启调试时 onEnter 的返回值
+     */
+    public static final long NOT_TRACED = Long.MIN_VALUE;
+    
     /**
      * 方法进入时执行
      */
     @Advice.OnMethodEnter
-    public static long onEnter(@Advice.Origin Method method, 
-                              @Advice.AllArguments Object[] args) {
-        
-        try {
-            String className = method.getDeclaringClass().getName();
-            String methodName = method.getName();
-            String fullMethodName = className + "." + methodName;
-            
-            // 检查是否需要调试这个方法（恢复正常的动态逻辑）
-            if (DebugConfigManager.shouldDebug(fullMethodName)) {
-                long startTime = System.currentTimeMillis();
-                
-                StringBuilder logMessage = new StringBuilder();
-                logMessage.append("[DEBUG-INJECT] ")
-                          .append(fullMethodName)
-                          .append("() called");
-                
-                // 添加参数信息
-                if (args != null && args.length > 0) {
-                    try {
-                        logMessage.append(" with args: ");
-                        for (int i = 0; i < args.length; i++) {
-                            if (i > 0) logMessage.append(", ");
-                            if (args[i] == null) {
-                                logMessage.append("null");
-                            } else {
-                                String argStr = safeToString(args[i]);
-                                logMessage.append(args[i].getClass().getSimpleName())
-                                          .append("@")
-                                          .append(argStr);
-                            }
-                        }
-                    } catch (Exception e) {
-                        logMessage.append(" [failed to serialize args: ").append(e.getMessage()).append("]");
-                    }
-                }
-                
-                System.out.println(logMessage.toString());
-                return startTime;
-            }
-            
-        } catch (Exception e) {
-            System.err.println("[DEBUG-ADVICE] Error in onEnter: " + e.getMessage());
-            e.printStackTrace();
+    public static long onEnter(@MethodId int methodId,
+                              @Advice.AllArguments Object[] args,
+                              @Advice.Local("debugArgs") Object[] debugArgs) {
+        if (!DebugConfigManager.isEnabled(methodId)) {
+            return NOT_TRACED;
         }
-        
-        return 0; // 不调试时返回0
+        // 每次读取 @AllArguments 都会在增强代码中新建一个参数数组，只读取一次
+        debugArgs = args;
+        return recordEnter(methodId, debugArgs);
     }
     
     /**
      * 方法退出时执行
      */
     @Advice.OnMethodExit(onThrowable = Throwable.class)
-    public static void onExit(@Advice.Origin Method method,
+    public static void onExit(@MethodId int methodId,
                              @Advice.Enter long startTime,
                              @Advice.Return(typing = Assigner.Typing.DYNAMIC) Object returnValue,
-                             @Advice.Thrown Throwable throwable) {
-        
+                             @Advice.Thrown Throwable throwable,
+                             @Advice.Local("debugArgs") Object[] debugArgs) {
         // 只有在进入时记录了开始时间的情况下才处理退出逻辑
-        if (startTime > 0) {
-            try {
-                String className = method.getDeclaringClass().getName();
-                String methodName = method.getName();
-                String fullMethodName = className + "." + methodName;
-                
-                long duration = System.currentTimeMillis() - startTime;
-                
-                StringBuilder logMessage = new StringBuilder();
-                logMessage.append("[DEBUG-INJECT] ")
-                          .append(fullMethodName)
-                          .append("() completed in ")
-                          .append(duration)
-                          .append("ms");
-                
-                // 处理返回值
-                if (throwable != null) {
-                    logMessage.append(" with exception: ")
-                              .append(throwable.getClass().getSimpleName())
-                              .append(": ")
-                              .append(throwable.getMessage());
-                } else if (!"void".equals(method.getReturnType().getName())) {
-                    try {
-                        if (returnValue == null) {
-                            logMessage.append(" returning: null");
+        if (startTime != NOT_TRACED) {
+            recordExit(methodId, startTime, debugArgs, returnValue, throwable);
+        }
+    }
+    
+    /**
+     * 输出方法调用信息，返回开始时间
+     * 改为 public static 以供 ByteBuddy 生成的代码访问
+     */
+    public static long recordEnter(int methodId, Object[] args) {
+        long startTime = System.nanoTime();
+        if (!DebugConfigManager.isLogging(methodId)) {
+            return startTime;
+        }
+        try {
+            StringBuilder logMessage = new StringBuilder();
+            logMessage.append("[DEBUG-INJECT] ")
+                      .append(DebugConfigManager.getMethodName(methodId))
+                      .append("() called");
+    
+            // 添加参数信息
+            if (args != null && args.length > 0) {
+                try {
+                    logMessage.append(" with args: ");
+                    for (int i = 0; i < args.length; i++) {
+                        if (i > 0) logMessage.append(", ");
+                        if (args[i] == null) {
+                            logMessage.append("null");
                         } else {
-                            String returnStr = safeToString(returnValue);
-                            logMessage.append(" returning: ")
-                                      .append(returnValue.getClass().getSimpleName())
+                            String argStr = safeToString(args[i]);
+                            logMessage.append(args[i].getClass().getSimpleName())
                                       .append("@")
-                                      .append(returnStr);
+                                      .append(argStr);
                         }
-                    } catch (Exception e) {
-                        logMessage.append(" [failed to serialize return value: ").append(e.getMessage()).append("]");
                     }
+                } catch (Exception e) {
+                    logMessage.append(" [failed to serialize args: ").append(e.getMessage()).append("]");
+                }
+            }
+    
+            DebugOutputBuffer.publish(logMessage.toString());
+        } catch (Exception e) {
+            System.err.println("[DEBUG-ADVICE] Error in onEnter: " + e.getMessage());
+        }
+        return startTime;
+    }
+    
+    /**
+     * 输出方法返回信息并交给挂在该方法上的探针
+     * 改为 public static 以供 ByteBuddy 生成的代码访问
+     */
+    public static void recordExit(int methodId, long startTime, Object[] args, Object returnValue, Throwable throwable) {
+        long durationNanos = System.nanoTime() - startTime;
+        if (DebugConfigManager.isLogging(methodId)) {
+            logExit(methodId, durationNanos, returnValue, throwable);
+        }
+        
+        DebugProbe[] probes = DebugConfigManager.getProbes(methodId);
+        if (probes.length > 0) {
+            long now = System.currentTimeMillis();
+            boolean returnsVoid = DebugConfigManager.isVoidMethod(methodId);
+            for (DebugProbe probe : probes) {
+                try {
+                    if (probe.isExpired(now)) {
+                        DebugProbeManager.removeExpired();
+                    } else {
+                        probe.onReturn(args, returnValue, throwable, returnsVoid, durationNanos);
+                    }
+                } catch (Exception e) {
+                    // 静默处理异常，避免影响正常业务
                 }
-                
-                System.out.println(logMessage.toString());
-            } catch (Exception e) {
-                // 静默处理异常，避免影响正常业务
             }
         }
     }
     
+    private static void logExit(int methodId, long durationNanos, Object returnValue, Throwable throwable) {
+        try {
+            long durationMicros = durationNanos / 1000;
+    
+            StringBuilder logMessage = new StringBuilder();
+            logMessage.append("[DEBUG-INJECT] ")
+                      .append(DebugConfigManager.getMethodName(methodId))
+                      .append("() completed in ")
+                      .append(durationMicros / 1000)
+                      .append('.')
+                      .append(String.format("%03d", durationMicros % 1000))
+                      .append("ms");
+    
+            // 处理返回值
+            if (throwable != null) {
+                logMessage.append(" with exception: ")
+                          .append(throwable.getClass().getSimpleName())
+                          .append(": ")
+                          .append(throwable.getMessage());
+            } else if (!DebugConfigManager.isVoidMethod(methodId)) {
+                try {
+                    if (returnValue == null) {
+                        logMessage.append(" returning: null");
+                    } else {
+                        String returnStr = safeToString(returnValue);
+                        logMessage.append(" returning: ")
+                                  .append(returnValue.getClass().getSimpleName())
+                                  .append("@")
+                                  .append(returnStr);
+                    }
+                } catch (Exception e) {
+                    logMessage.append(" [failed to serialize return value: ").append(e.getMessage()).append("]");
+                }
+            }
+    
+            DebugOutputBuffer.publish(logMessage.toString());
+        } catch (Exception e) {
+            // 静默处理异常，避免影响正常业务
+        }
+    }
+    
     /**
      * 安全的toString方法，避免递归和过长输出
      * 改为 public static 以供 ByteBuddy 生成的代码访问
@@ -127,7 +167,7 @@ public class UniversalDebugAdvice {
         if (obj == null) {
             return "null";
         }
-        
+    
         try {
             String str = obj.toString();
             if (str.length() > 100) {
@@ -138,4 +178,4 @@ public class UniversalDebugAdvice {
             return obj.getClass().getSimpleName() + "@" + System.identityHashCode(obj);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,18 @@
 package com.example.onlinedebug.controller;
 
 import com.example.onlinedebug.agent.DebugConfigManager;
+import com.example.onlinedebug.agent.DebugOutputBuffer;
+import com.example.onlinedebug.agent.DebugProbe;
+import com.example.onlinedebug.agent.DebugProbeManager;
+import com.example.onlinedebug.agent.ProbeSnapshot;
+import com.example.onlinedebug.agent.SnapshotRingBuffer;
 import com.example.onlinedebug.service.OnlineDebugService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +34,7 @@ public class OnlineDebugController {
     public ResponseEntity<Map<String, Object>> getStatus() {
         try {
             DebugConfigManager.DebugConfigStatus status = DebugConfigManager.getStatus();
+            int[] methodCounts = DebugConfigManager.getMethodCounts();
             
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
@@ -37,7 +44,10 @@ public class OnlineDebugController {
                 "classCount", status.getClassCount(),
                 "packageCount", status.getPackageCount(),
                 "globalEnabled", status.isGlobalEnabled(),
-                "totalRuleCount", status.getTotalRuleCount()
+                "totalRuleCount", status.getTotalRuleCount(),
+                "instrumentedMethodCount", methodCounts[0],
+                "enabledMethodCount", methodCounts[1],
+                "droppedOutputCount", DebugOutputBuffer.getDroppedCount()
             ));
             
             return ResponseEntity.ok(result);
@@ -292,6 +302,121 @@ public class OnlineDebugController {
         }
     }
     
+    /**
+     * 添加调试探针
+     */
+    @PostMapping("/probe")
+    public ResponseEntity<Map<String, Object>> addProbe(@RequestBody ProbeRequest request) {
+        try {
+            DebugProbe probe = DebugProbeManager.addProbe(
+                request.getTarget(),
+                request.getCondition(),
+                request.getSampleRate(),
+                request.getMaxPerSecond(),
+                request.getTtlSeconds(),
+                request.getCapacity());
+            
+            // 探针所在的类尚未增强时重新转换
+            String className = extractClassName(request.getTarget());
+            if (className != null) {
+                com.example.onlinedebug.agent.DynamicRetransformManager.retransformClass(className);
+            }
+            
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Probe added: " + probe.getId(),
+                "data", probe.toStatus()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    /**
+     * 获取全部调试探针
+     */
+    @GetMapping("/probes")
+    public ResponseEntity<Map<String, Object>> getProbes() {
+        try {
+            List<Map<String, Object>> probes = DebugProbeManager.getProbes().stream()
+                .map(DebugProbe::toStatus)
+                .toList();
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", probes
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    /**
+     * 移除调试探针
+     */
+    @DeleteMapping("/probe/{probeId}")
+    public ResponseEntity<Map<String, Object>> removeProbe(@PathVariable String probeId) {
+        try {
+            boolean removed = DebugProbeManager.removeProbe(probeId);
+            return ResponseEntity.ok(Map.of(
+                "success", removed,
+                "message", removed ? "Probe removed: " + probeId : "Probe not found: " + probeId
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    /**
+     * 分页读取探针快照
+     * 以 nextSequence 作为下一页的 from；from 早于 oldestSequence 的快照已被覆盖
+     */
+    @GetMapping("/probe/{probeId}/snapshots")
+    public ResponseEntity<Map<String, Object>> getProbeSnapshots(@PathVariable String probeId,
+                                                                 @RequestParam(defaultValue = "0") long from,
+                                                                 @RequestParam(defaultValue = "50") int limit) {
+        try {
+            DebugProbe probe = DebugProbeManager.getProbe(probeId);
+            if (probe == null) {
+                return ResponseEntity.ok(Map.of(
+                    "success", false,
+                    "message", "Probe not found or expired: " + probeId
+                ));
+            }
+            
+            SnapshotRingBuffer buffer = probe.getSnapshots();
+            long oldestSequence = buffer.getOldestSequence();
+            List<ProbeSnapshot> snapshots =
+                buffer.read(from, Math.max(1, Math.min(limit, buffer.getCapacity())));
+            long nextSequence = snapshots.isEmpty()
+                ? Math.max(from, oldestSequence)
+                : snapshots.get(snapshots.size() - 1).sequence() + 1;
+            
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", Map.of(
+                    "snapshots", snapshots,
+                    "oldestSequence", oldestSequence,
+                    "nextSequence", nextSequence,
+                    "latestSequence", buffer.getNextSequence()
+                )
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
     /**
      * 从完整方法名中提取类名
      */
@@ -313,6 +438,31 @@ public class OnlineDebugController {
         public void setTarget(String target) { this.target = target; }
     }
     
+    /**
+     * 调试探针请求对象
+     */
+    public static class ProbeRequest {
+        private String target;
+        private String condition;
+        private double sampleRate = 1.0;
+        private int maxPerSecond = 10;
+        private long ttlSeconds = 600;
+        private int capacity = DebugProbeManager.DEFAULT_CAPACITY;
+        
+        public String getTarget() { return target; }
+        public void setTarget(String target) { this.target = target; }
+        public String getCondition() { return condition; }
+        public void setCondition(String condition) { this.condition = condition; }
+        public double getSampleRate() { return sampleRate; }
+        public void setSampleRate(double sampleRate) { this.sampleRate = sampleRate; }
+        public int getMaxPerSecond() { return maxPerSecond; }
+        public void setMaxPerSecond(int maxPerSecond) { this.maxPerSecond = maxPerSecond; }
+        public long getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+    }
+    
     /**
      * 全局调试请求对象
      */
@@ -0,0 +1,54 @@
+package com.example.pipeline.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 管道配置
+ */
+@Configuration
+public class PipelineConfig {
+
+    /**
+     * DAG 管道节点执行器
+     * 有界队列，队列满时拒绝提交，由管道按节点失败处理
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pipelineExecutor(
+            @Value("${pipeline.executor.threads:32}") int threads,
+            @Value("${pipeline.executor.queue-capacity:512}") int queueCapacity) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "pipeline-node-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 微批执行器，每个线程同步执行一批数据的管道，等待期间不占用节点执行线程
+     * 队列满时拒绝提交，整批请求按失败返回
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pipelineBatchExecutor(
+            @Value("${pipeline.batch-executor.threads:8}") int threads,
+            @Value("${pipeline.batch-executor.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "pipeline-batch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
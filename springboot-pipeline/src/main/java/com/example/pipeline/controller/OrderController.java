@@ -2,6 +2,7 @@ package com.example.pipeline.controller;
 
 import com.example.pipeline.model.OrderRequest;
 import com.example.pipeline.model.OrderResponse;
+import com.example.pipeline.pipeline.PipelineMetrics;
 import com.example.pipeline.service.OrderService;
 import com.example.pipeline.nodes.AsyncRiskCheckNode;
 import com.example.pipeline.nodes.BusinessValidateNode;
@@ -11,6 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 订单控制器
  */
@@ -35,6 +38,19 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 批量创建订单
+     * 参数校验由管道的参数校验节点逐条完成，单条校验失败只影响该订单
+     *
+     * @param requests 订单请求列表
+     * @return 与请求顺序一致的订单响应
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderResponse>> createOrders(@RequestBody List<OrderRequest> requests) {
+        log.info("收到批量订单创建请求: count={}", requests.size());
+        return ResponseEntity.ok(orderService.createOrders(requests));
+    }
+
     /**
      * 查询风控检查结果
      *
@@ -56,6 +72,25 @@ public class OrderController {
         ));
     }
 
+    /**
+     * 查询订单创建管道各节点的耗时和失败统计
+     *
+     * @return 管道指标快照
+     */
+    @GetMapping("/pipeline/metrics")
+    public ResponseEntity<PipelineMetrics.Snapshot> getPipelineMetrics() {
+        return ResponseEntity.ok(orderService.getPipelineMetrics());
+    }
+
+    /**
+     * 清空订单创建管道的执行指标
+     */
+    @DeleteMapping("/pipeline/metrics")
+    public ResponseEntity<String> resetPipelineMetrics() {
+        orderService.resetPipelineMetrics();
+        return ResponseEntity.ok("管道指标已清空");
+    }
+
     /**
      * 重置用户订单计数（测试接口）
      *
@@ -2,6 +2,7 @@ package com.example.pipeline.nodes;
 
 import com.example.pipeline.model.Order;
 import com.example.pipeline.model.OrderRequest;
+import com.example.pipeline.pipeline.AttributeKey;
 import com.example.pipeline.pipeline.PipelineContext;
 import com.example.pipeline.pipeline.PipelineNode;
 import lombok.extern.slf4j.Slf4j;
@@ -13,18 +14,23 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class AbstractOrderNode implements PipelineNode<OrderRequest> {
 
+    /**
+     * 创建订单节点生成的订单
+     */
+    public static final AttributeKey<Order> ORDER = AttributeKey.of("ORDER", Order.class);
+
     /**
      * 从上下文中获取订单
      */
     protected Order getOrder(PipelineContext<OrderRequest> context) {
-        return context.getAttribute("ORDER");
+        return context.get(ORDER);
     }
 
     /**
      * 将订单放入上下文
      */
     protected void setOrder(PipelineContext<OrderRequest> context, Order order) {
-        context.setAttribute("ORDER", order);
+        context.set(ORDER, order);
     }
 
     /**
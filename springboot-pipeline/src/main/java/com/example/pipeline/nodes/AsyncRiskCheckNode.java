@@ -2,6 +2,7 @@ package com.example.pipeline.nodes;
 
 import com.example.pipeline.model.Order;
 import com.example.pipeline.model.OrderRequest;
+import com.example.pipeline.pipeline.AttributeKey;
 import com.example.pipeline.pipeline.FailureStrategy;
 import com.example.pipeline.pipeline.PipelineContext;
 import com.example.pipeline.pipeline.PipelineException;
@@ -10,17 +11,22 @@ import org.springframework.stereotype.Component;
 
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 异步风控检查节点
- * 异步执行风控检查，不阻塞主流程
+ * 在 DAG 管道中与日志、通知节点并行执行，管道等待其完成，耗时由节点超时约束
  */
 @Slf4j
 @Component
 public class AsyncRiskCheckNode extends AbstractOrderNode {
 
+    /**
+     * 本次风控检查结果
+     */
+    public static final AttributeKey<RiskCheckResult> RISK_CHECK_RESULT =
+            AttributeKey.of("RISK_CHECK_RESULT", RiskCheckResult.class);
+
     // 模拟风控黑名单用户
     private static final Set<Long> RISK_USERS = Set.of(777L);
 
@@ -46,46 +52,34 @@ public class AsyncRiskCheckNode extends AbstractOrderNode {
             return;
         }
 
-        try {
-            // 异步执行风控检查
-            final Long orderId = order.getId();
-            CompletableFuture.runAsync(() -> performRiskCheck(order))
-                    .exceptionally(e -> {
-                        log.error("风控检查异步执行失败: orderId={}", orderId, e);
-                        return null;
-                    });
-
-            log.info("风控检查已提交异步执行: orderId={}", order.getId());
-
-        } catch (Exception e) {
-            log.error("风控检查提交失败", e);
-            throw new PipelineException(getName(), "风控检查提交失败: " + e.getMessage(), e);
-        }
+        RiskCheckResult result = performRiskCheck(order);
+        context.set(RISK_CHECK_RESULT, result);
     }
 
-    private void performRiskCheck(Order order) {
+    private RiskCheckResult performRiskCheck(Order order) throws PipelineException {
         try {
             // 模拟风控检查耗时
             Thread.sleep(500 + random.nextInt(1000));
+        } catch (InterruptedException e) {
+            // 节点超时后执行线程会被中断
+            Thread.currentThread().interrupt();
+            throw new PipelineException(getName(), "风控检查被中断: orderId=" + order.getId(), e);
+        }
 
-            Long userId = order.getUserId();
-
-            // 检查是否命中风控规则
-            RiskCheckResult result = checkRiskRules(order);
+        Long userId = order.getUserId();
 
-            RISK_RESULT_CACHE.put(order.getId(), result);
+        // 检查是否命中风控规则
+        RiskCheckResult result = checkRiskRules(order);
 
-            if (result.isRisky()) {
-                log.warn("风控检查发现异常: orderId={}, userId={}, riskReason={}",
-                        order.getId(), userId, result.getReason());
-            } else {
-                log.info("风控检查通过: orderId={}, userId={}", order.getId(), userId);
-            }
+        RISK_RESULT_CACHE.put(order.getId(), result);
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("风控检查被中断: orderId={}", order.getId(), e);
+        if (result.isRisky()) {
+            log.warn("风控检查发现异常: orderId={}, userId={}, riskReason={}",
+                    order.getId(), userId, result.getReason());
+        } else {
+            log.info("风控检查通过: orderId={}, userId={}", order.getId(), userId);
         }
+        return result;
     }
 
     private RiskCheckResult checkRiskRules(Order order) {
@@ -1,23 +1,46 @@
 package com.example.pipeline.nodes;
 
 import com.example.pipeline.model.OrderRequest;
+import com.example.pipeline.pipeline.AttributeKey;
+import com.example.pipeline.pipeline.BatchPipelineNode;
+import com.example.pipeline.pipeline.BatchResult;
 import com.example.pipeline.pipeline.PipelineContext;
 import com.example.pipeline.pipeline.PipelineException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 业务校验节点
  * 检查业务规则是否满足
+ * 校验通过时为该订单预占用户订单数，订单最终未创建时由 {@link #releaseIfNotCreated} 归还，
+ * 同一批内同一用户的多条订单逐条预占，不会一起绕过上限。
+ * 预占与归还通过上下文上的 {@link QuotaState} 原子切换：管道超时先结束时状态已是 RELEASED，
+ * 仍在执行的校验随后发现无法登记预占，自行撤销计数
  */
 @Slf4j
 @Component
-public class BusinessValidateNode extends AbstractOrderNode {
+public class BusinessValidateNode extends AbstractOrderNode implements BatchPipelineNode<OrderRequest> {
 
-    // 模拟用户订单计数
+    /**
+     * 用户订单数的预占状态
+     */
+    public enum QuotaState {
+        /** 已预占，订单未创建时需要归还 */
+        RESERVED,
+        /** 管道已结束，不再接受预占 */
+        RELEASED
+    }
+
+    /**
+     * 本次下单的预占状态，未预占时为 null
+     */
+    public static final AttributeKey<QuotaState> ORDER_QUOTA = AttributeKey.of("ORDER_QUOTA", QuotaState.class);
+
+    // 模拟用户订单计数，包含已创建和已预占的订单
     public static final ConcurrentHashMap<Long, AtomicInteger> USER_ORDER_COUNT = new ConcurrentHashMap<>();
 
     // 每个用户最大订单数量
@@ -28,15 +51,6 @@ public class BusinessValidateNode extends AbstractOrderNode {
         OrderRequest request = getRequest(context);
         Long userId = request.getUserId();
 
-        // 检查用户订单数量限制
-        AtomicInteger count = USER_ORDER_COUNT.computeIfAbsent(userId, k -> new AtomicInteger(0));
-        int currentCount = count.get();
-
-        if (currentCount >= MAX_ORDERS_PER_USER) {
-            throw new PipelineException(getName(),
-                    String.format("用户订单数量已达上限 (%d/%d)", currentCount, MAX_ORDERS_PER_USER));
-        }
-
         // 检查商品库存（模拟）
         if (request.getProductId() == 1001) {
             throw new PipelineException(getName(), "商品已售罄");
@@ -47,8 +61,53 @@ public class BusinessValidateNode extends AbstractOrderNode {
             throw new PipelineException(getName(), "收货地址格式不正确");
         }
 
+        // 最后预占用户订单数，其他校验失败时不需要归还
+        AtomicInteger count = USER_ORDER_COUNT.computeIfAbsent(userId, k -> new AtomicInteger(0));
+        int previousCount = count.getAndUpdate(c -> c < MAX_ORDERS_PER_USER ? c + 1 : c);
+        if (previousCount >= MAX_ORDERS_PER_USER) {
+            throw new PipelineException(getName(),
+                    String.format("用户订单数量已达上限 (%d/%d)", previousCount, MAX_ORDERS_PER_USER));
+        }
+        if (!context.compareAndSet(ORDER_QUOTA, null, QuotaState.RESERVED)) {
+            // 管道已超时结束并构建了响应，没有人会再归还这次预占
+            count.decrementAndGet();
+            log.warn("管道已结束，撤销订单数预占: userId={}", userId);
+            return;
+        }
+
         log.info("业务校验通过: userId={}, productId={}, currentOrderCount={}",
-                userId, request.getProductId(), currentCount);
+                userId, request.getProductId(), previousCount + 1);
+    }
+
+    /**
+     * 逐条校验并预占，超出上限的订单单独记为失败
+     */
+    @Override
+    public void executeBatch(List<PipelineContext<OrderRequest>> contexts, BatchResult result) {
+        for (int i = 0; i < contexts.size(); i++) {
+            try {
+                execute(contexts.get(i));
+            } catch (PipelineException e) {
+                result.fail(i, e);
+            }
+        }
+    }
+
+    /**
+     * 管道结束后订单未创建（后续节点失败或中断）时归还预占的订单数
+     */
+    public static void releaseIfNotCreated(PipelineContext<OrderRequest> context) {
+        if (context.get(ORDER) != null) {
+            return;
+        }
+        // 同时阻止仍在执行的校验再登记预占
+        if (context.getAndSet(ORDER_QUOTA, QuotaState.RELEASED) != QuotaState.RESERVED) {
+            return;
+        }
+        AtomicInteger count = USER_ORDER_COUNT.get(context.getData().getUserId());
+        if (count != null) {
+            count.decrementAndGet();
+        }
     }
 
     /**
@@ -2,6 +2,8 @@ package com.example.pipeline.nodes;
 
 import com.example.pipeline.model.Order;
 import com.example.pipeline.model.OrderRequest;
+import com.example.pipeline.pipeline.BatchPipelineNode;
+import com.example.pipeline.pipeline.BatchResult;
 import com.example.pipeline.pipeline.PipelineContext;
 import com.example.pipeline.pipeline.PipelineException;
 import lombok.extern.slf4j.Slf4j;
@@ -9,16 +11,17 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 创建订单节点
  * 核心业务节点，创建订单记录
+ * 批量执行时一次分配整批订单ID；用户订单数已在业务校验时逐条预占，这里不再计数
  */
 @Slf4j
 @Component
-public class CreateOrderNode extends AbstractOrderNode {
+public class CreateOrderNode extends AbstractOrderNode implements BatchPipelineNode<OrderRequest> {
 
     // 模拟订单ID生成器
     private static final AtomicLong ORDER_ID_GENERATOR = new AtomicLong(1000);
@@ -28,8 +31,33 @@ public class CreateOrderNode extends AbstractOrderNode {
         OrderRequest request = getRequest(context);
 
         // 构建订单对象
-        Order order = Order.builder()
-                .id(ORDER_ID_GENERATOR.incrementAndGet())
+        Order order = buildOrder(request, ORDER_ID_GENERATOR.incrementAndGet(), LocalDateTime.now());
+
+        // 将订单放入上下文
+        setOrder(context, order);
+
+        log.info("订单创建成功: orderId={}, orderNo={}, userId={}, amount={}",
+                order.getId(), order.getOrderNo(), order.getUserId(), order.getTotalAmount());
+    }
+
+    @Override
+    public void executeBatch(List<PipelineContext<OrderRequest>> contexts, BatchResult result) {
+        // 一次分配整批ID，ID连续
+        long firstId = ORDER_ID_GENERATOR.getAndAdd(contexts.size()) + 1;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < contexts.size(); i++) {
+            PipelineContext<OrderRequest> context = contexts.get(i);
+            setOrder(context, buildOrder(getRequest(context), firstId + i, now));
+        }
+
+        log.info("批量创建订单成功: count={}, orderIds={}-{}",
+                contexts.size(), firstId, firstId + contexts.size() - 1);
+    }
+
+    private Order buildOrder(OrderRequest request, long orderId, LocalDateTime now) {
+        return Order.builder()
+                .id(orderId)
                 .orderNo(Order.generateOrderNo())
                 .userId(request.getUserId())
                 .productId(request.getProductId())
@@ -41,19 +69,8 @@ public class CreateOrderNode extends AbstractOrderNode {
                 .remark(request.getRemark())
                 .source(request.getSource())
                 .status(Order.OrderStatus.PENDING)
-                .createTime(LocalDateTime.now())
-                .updateTime(LocalDateTime.now())
+                .createTime(now)
+                .updateTime(now)
                 .build();
-
-        // 将订单放入上下文
-        setOrder(context, order);
-
-        // 更新用户订单计数
-        BusinessValidateNode.USER_ORDER_COUNT
-                .computeIfAbsent(request.getUserId(), k -> new AtomicInteger(0))
-                .incrementAndGet();
-
-        log.info("订单创建成功: orderId={}, orderNo={}, userId={}, amount={}",
-                order.getId(), order.getOrderNo(), order.getUserId(), order.getTotalAmount());
     }
 }
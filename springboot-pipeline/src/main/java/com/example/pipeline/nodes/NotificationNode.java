@@ -2,19 +2,26 @@ package com.example.pipeline.nodes;
 
 import com.example.pipeline.model.Order;
 import com.example.pipeline.model.OrderRequest;
+import com.example.pipeline.pipeline.BatchPipelineNode;
+import com.example.pipeline.pipeline.BatchResult;
 import com.example.pipeline.pipeline.FailureStrategy;
 import com.example.pipeline.pipeline.PipelineContext;
 import com.example.pipeline.pipeline.PipelineException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * 通知节点
  * 发送订单创建通知（失败不影响主流程）
+ * 批量执行时每个渠道对整批订单只调用一次批量发送
  */
 @Slf4j
 @Component
-public class NotificationNode extends AbstractOrderNode {
+public class NotificationNode extends AbstractOrderNode implements BatchPipelineNode<OrderRequest> {
 
     @Override
     public void execute(PipelineContext<OrderRequest> context) throws PipelineException {
@@ -43,6 +50,50 @@ public class NotificationNode extends AbstractOrderNode {
         }
     }
 
+    @Override
+    public void executeBatch(List<PipelineContext<OrderRequest>> contexts, BatchResult result) throws PipelineException {
+        List<Order> orders = new ArrayList<>(contexts.size());
+        for (PipelineContext<OrderRequest> context : contexts) {
+            Order order = getOrder(context);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        if (orders.isEmpty()) {
+            log.warn("订单不存在，跳过通知发送");
+            return;
+        }
+
+        try {
+            sendSmsNotifications(orders);
+            sendEmailNotifications(orders);
+            sendPushNotifications(orders);
+
+            log.info("订单通知批量发送成功: count={}", orders.size());
+
+        } catch (Exception e) {
+            // 批量接口整批失败，按 CONTINUE 策略记录到每个订单
+            log.error("通知批量发送失败", e);
+            throw new PipelineException(getName(), "通知发送失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void sendSmsNotifications(List<Order> orders) {
+        log.info("【订单提醒】批量发送短信 {} 条，订单号: {}", orders.size(), joinOrderNos(orders));
+    }
+
+    private void sendEmailNotifications(List<Order> orders) {
+        log.info("批量发送邮件 {} 封: 订单 {} 创建成功", orders.size(), joinOrderNos(orders));
+    }
+
+    private void sendPushNotifications(List<Order> orders) {
+        log.info("批量推送通知 {} 条: 订单 {} 创建成功", orders.size(), joinOrderNos(orders));
+    }
+
+    private String joinOrderNos(List<Order> orders) {
+        return orders.stream().map(Order::getOrderNo).collect(Collectors.joining(","));
+    }
+
     private void sendSmsNotification(Order order) {
         log.info("【订单提醒】您已成功创建订单，订单号: {}，金额: {}元",
                 order.getOrderNo(), order.getTotalAmount());
@@ -2,19 +2,24 @@ package com.example.pipeline.nodes;
 
 import com.example.pipeline.model.Order;
 import com.example.pipeline.model.OrderRequest;
+import com.example.pipeline.pipeline.BatchPipelineNode;
+import com.example.pipeline.pipeline.BatchResult;
 import com.example.pipeline.pipeline.FailureStrategy;
 import com.example.pipeline.pipeline.PipelineContext;
 import com.example.pipeline.pipeline.PipelineException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * 操作日志节点
  * 记录订单创建日志（失败不影响主流程）
+ * 批量执行时整批订单合并为一条日志输出
  */
 @Slf4j
 @Component
-public class OperateLogNode extends AbstractOrderNode {
+public class OperateLogNode extends AbstractOrderNode implements BatchPipelineNode<OrderRequest> {
 
     @Override
     public void execute(PipelineContext<OrderRequest> context) throws PipelineException {
@@ -48,6 +53,41 @@ public class OperateLogNode extends AbstractOrderNode {
         }
     }
 
+    @Override
+    public void executeBatch(List<PipelineContext<OrderRequest>> contexts, BatchResult result) {
+        StringBuilder sb = new StringBuilder("=== 操作日志（批量） ===");
+        int logged = 0;
+        for (int i = 0; i < contexts.size(); i++) {
+            Order order = getOrder(contexts.get(i));
+            if (order == null) {
+                continue;
+            }
+            try {
+                sb.append(System.lineSeparator())
+                        .append("操作类型: CREATE")
+                        .append(", 订单ID: ").append(order.getId())
+                        .append(", 订单号: ").append(order.getOrderNo())
+                        .append(", 用户ID: ").append(order.getUserId())
+                        .append(", 商品: ").append(order.getProductName()).append(" (ID: ").append(order.getProductId()).append(")")
+                        .append(", 数量: ").append(order.getQuantity())
+                        .append(", 单价: ").append(order.getUnitPrice())
+                        .append(", 总金额: ").append(order.getTotalAmount())
+                        .append(", 收货地址: ").append(order.getAddress())
+                        .append(", 订单来源: ").append(order.getSource())
+                        .append(", 创建时间: ").append(order.getCreateTime());
+                logged++;
+            } catch (Exception e) {
+                // 单条日志格式化失败只影响该订单
+                result.fail(i, new PipelineException(getName(), "日志记录失败: " + e.getMessage(), e));
+            }
+        }
+        if (logged > 0) {
+            log.info("{}", sb);
+        } else {
+            log.warn("订单不存在，跳过日志记录");
+        }
+    }
+
     @Override
     public FailureStrategy getFailureStrategy() {
         return FailureStrategy.CONTINUE;
@@ -0,0 +1,86 @@
+package com.example.pipeline.pipeline;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类型化的上下文属性键
+ * 键在使用前通过 {@link #of(String, Class)} 注册，注册时分配固定的槽位下标，
+ * 上下文按下标读写数组槽位，不做字符串哈希查找，读取时也不需要强制类型转换
+ *
+ * 一般声明为节点类的静态常量，保证在管道执行前完成注册
+ *
+ * @param <V> 属性值类型
+ */
+public final class AttributeKey<V> {
+
+    private static final Map<String, AttributeKey<?>> REGISTRY = new ConcurrentHashMap<>();
+
+    /**
+     * 已分配的槽位数量，新建的上下文按此数量分配槽位数组
+     */
+    private static volatile int slotCount;
+
+    private final String name;
+    private final Class<V> type;
+    private final int index;
+
+    private AttributeKey(String name, Class<V> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * 注册属性键，同名同类型重复注册返回同一个键
+     *
+     * @param name 属性名，与字符串形式的 getAttribute/setAttribute 共用同一个槽位
+     * @param type 属性值类型
+     * @return 属性键
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <V> AttributeKey<V> of(String name, Class<V> type) {
+        AttributeKey<?> existing = REGISTRY.get(name);
+        if (existing != null) {
+            if (existing.type != type) {
+                throw new IllegalArgumentException("Attribute key [" + name + "] already registered with type "
+                        + existing.type.getName());
+            }
+            return (AttributeKey<V>) existing;
+        }
+        AttributeKey<V> key = new AttributeKey<>(name, type, slotCount);
+        REGISTRY.put(name, key);
+        slotCount = key.index + 1;
+        return key;
+    }
+
+    /**
+     * 按名称查找已注册的键
+     *
+     * @return 未注册时返回 null
+     */
+    static AttributeKey<?> find(String name) {
+        return REGISTRY.get(name);
+    }
+
+    static int slotCount() {
+        return slotCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<V> getType() {
+        return type;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return name + "<" + type.getSimpleName() + ">";
+    }
+}
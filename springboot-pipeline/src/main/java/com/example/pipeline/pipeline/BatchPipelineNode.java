@@ -0,0 +1,41 @@
+package com.example.pipeline.pipeline;
+
+import java.util.List;
+
+/**
+ * 支持批量执行的管道节点
+ * 在 executeBatch 模式下一次处理整批数据，未实现该接口的节点逐条执行
+ *
+ * 单条失败通过 {@link BatchResult#fail(int, Throwable)} 标记，只影响该条数据；
+ * executeBatch 抛出异常表示整批失败，批内每条数据都按节点失败处理。
+ * 失败策略对每条数据分别生效，STOP 只中断失败数据所在的上下文
+ *
+ * @param <T> 上下文数据类型
+ */
+public interface BatchPipelineNode<T> extends PipelineNode<T> {
+
+    /**
+     * 批量执行节点逻辑
+     *
+     * @param contexts 本批尚未中断的上下文，顺序与 result 的下标一致
+     * @param result   单条失败登记
+     * @throws PipelineException 整批执行失败
+     */
+    void executeBatch(List<PipelineContext<T>> contexts, BatchResult result) throws PipelineException;
+
+    /**
+     * 单条执行，默认按只有一条数据的批次执行
+     */
+    @Override
+    default void execute(PipelineContext<T> context) throws PipelineException {
+        BatchResult result = new BatchResult(1);
+        executeBatch(List.of(context), result);
+        Throwable failure = result.getFailure(0);
+        if (failure instanceof PipelineException pipelineException) {
+            throw pipelineException;
+        }
+        if (failure != null) {
+            throw new PipelineException(getName(), failure.getMessage(), failure);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.pipeline.pipeline;
+
+import java.util.Arrays;
+
+/**
+ * 批量节点的单条执行结果
+ * 由执行批次的线程独占写入，管道在节点结束后读取并逐条应用失败策略
+ */
+public final class BatchResult {
+
+    private final Throwable[] failures;
+
+    /**
+     * 每条数据的耗时（纳秒），批量节点整批共用同一耗时
+     */
+    private final long[] nanos;
+
+    BatchResult(int size) {
+        this.failures = new Throwable[size];
+        this.nanos = new long[size];
+    }
+
+    /**
+     * 标记第 index 条数据执行失败
+     *
+     * @param index 数据在本批中的下标
+     * @param cause 失败原因
+     */
+    public void fail(int index, Throwable cause) {
+        failures[index] = cause;
+    }
+
+    public int size() {
+        return failures.length;
+    }
+
+    Throwable getFailure(int index) {
+        return failures[index];
+    }
+
+    /**
+     * 整批失败，尚未单独标记的数据都记为该异常
+     */
+    void failAll(Throwable cause) {
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] == null) {
+                failures[i] = cause;
+            }
+        }
+    }
+
+    long getNanos(int index) {
+        return nanos[index];
+    }
+
+    void setAllNanos(long value) {
+        Arrays.fill(nanos, value);
+    }
+}
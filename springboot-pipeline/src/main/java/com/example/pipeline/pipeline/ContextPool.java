@@ -0,0 +1,54 @@
+package com.example.pipeline.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 上下文对象池
+ * 编译模式下复用上下文及其内部容器，池空时新建，池满时丢弃归还的上下文
+ *
+ * @param <T> 数据类型
+ */
+class ContextPool<T> {
+
+    private final ArrayBlockingQueue<PipelineContext<T>> idle;
+
+    ContextPool(int capacity) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    PipelineContext<T> acquire(T data) {
+        PipelineContext<T> context = idle.poll();
+        if (context == null) {
+            return new PipelineContext<>(data);
+        }
+        context.reuse(data);
+        return context;
+    }
+
+    List<PipelineContext<T>> acquireAll(List<T> items) {
+        List<PipelineContext<T>> contexts = new ArrayList<>(items.size());
+        for (T item : items) {
+            contexts.add(acquire(item));
+        }
+        return contexts;
+    }
+
+    void releaseAll(List<PipelineContext<T>> contexts) {
+        for (PipelineContext<T> context : contexts) {
+            release(context);
+        }
+    }
+
+    /**
+     * 归还上下文，仍可能被节点线程访问的上下文（节点超时）不再复用
+     */
+    void release(PipelineContext<T> context) {
+        if (!context.isRecyclable()) {
+            return;
+        }
+        context.clear();
+        idle.offer(context);
+    }
+}
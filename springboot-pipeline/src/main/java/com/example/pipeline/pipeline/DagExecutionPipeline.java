@@ -0,0 +1,319 @@
+package com.example.pipeline.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * DAG 并行执行管道
+ * 节点在其全部依赖完成后提交到执行器，互不依赖的节点并发执行，所有节点结束后 execute 才返回
+ *
+ * 失败策略与顺序管道一致：STOP 中断管道，尚未开始的节点全部跳过，已在执行的节点继续到结束；
+ * CONTINUE / SKIP 只记录失败，下游节点照常执行。超时按节点失败处理，并中断执行节点的线程；
+ * 超时从节点开始执行时计时，在线程池队列中的等待不计入。
+ *
+ * 节点耗时从节点在执行线程上开始运行时计算，超时的节点按从提交到超时的时间计入失败耗时。
+ *
+ * 批量执行时每个节点在依赖节点处理完整批数据后开始：批量节点对整批数据提交一个任务，超时作用于整批；
+ * 普通节点为每条数据分别提交任务，与单条执行相同。
+ *
+ * @param <T> 数据类型
+ */
+@Slf4j
+public class DagExecutionPipeline<T> implements Pipeline<T> {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    /**
+     * 按拓扑序排列的节点
+     */
+    private final List<PipelineNode<T>> nodes;
+
+    /**
+     * dependencies[i] 为 nodes[i] 依赖的节点下标，均小于 i
+     */
+    private final int[][] dependencies;
+
+    /**
+     * 每个节点的超时时间（毫秒），0 表示不限制
+     */
+    private final long[] timeouts;
+
+    private final Executor executor;
+    private final String name;
+    private final PipelineMetrics metrics;
+
+    /**
+     * 编译模式下的上下文池，非编译模式为 null
+     */
+    private final ContextPool<T> contextPool;
+
+    DagExecutionPipeline(List<PipelineNode<T>> nodes, int[][] dependencies, long[] timeouts,
+                         Executor executor, String name, ContextPool<T> contextPool) {
+        this.nodes = nodes;
+        this.dependencies = dependencies;
+        this.timeouts = timeouts;
+        this.executor = executor;
+        this.name = name;
+        this.metrics = new PipelineMetrics(name, nodes);
+        this.contextPool = contextPool;
+    }
+
+    @Override
+    public PipelineContext<T> execute(T data) {
+        PipelineContext<T> context = new PipelineContext<>(data);
+        run(context);
+        return context;
+    }
+
+    @Override
+    public <R> R execute(T data, Function<PipelineContext<T>, R> handler) {
+        if (contextPool == null) {
+            return handler.apply(execute(data));
+        }
+        PipelineContext<T> context = contextPool.acquire(data);
+        try {
+            run(context);
+            return handler.apply(context);
+        } finally {
+            contextPool.release(context);
+        }
+    }
+
+    @Override
+    public List<PipelineContext<T>> executeBatch(List<T> items) {
+        List<PipelineContext<T>> contexts = ExecutionPipeline.newContexts(items);
+        runBatch(contexts);
+        return contexts;
+    }
+
+    @Override
+    public <R> List<R> executeBatch(List<T> items, Function<PipelineContext<T>, R> handler) {
+        if (contextPool == null) {
+            return executeBatch(items).stream().map(handler).toList();
+        }
+        List<PipelineContext<T>> contexts = contextPool.acquireAll(items);
+        try {
+            runBatch(contexts);
+            return contexts.stream().map(handler).toList();
+        } finally {
+            contextPool.releaseAll(contexts);
+        }
+    }
+
+    @Override
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void run(PipelineContext<T> context) {
+        log.info("Pipeline [{}] started with {} nodes (DAG)", name, nodes.size());
+        long start = System.nanoTime();
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[nodes.size()];
+
+        for (int i = 0; i < futures.length; i++) {
+            int index = i;
+            futures[i] = joinDependencies(futures, dependencies[i])
+                    .thenCompose(ignored -> runNode(index, context));
+        }
+
+        // 节点 Future 总是正常完成，失败已在 runNode 中记录到上下文
+        CompletableFuture.allOf(futures).join();
+
+        metrics.recordPipeline(System.nanoTime() - start);
+        if (context.isInterrupted()) {
+            log.info("Pipeline [{}] interrupted: {}", name, context.getInterruptReason());
+        }
+        log.info("Pipeline [{}] completed. Executed: {}, Failures: {}",
+                name, context.getExecutedNodes().size(), context.getFailures().size());
+    }
+
+    private void runBatch(List<PipelineContext<T>> contexts) {
+        log.info("Pipeline [{}] started batch of {} with {} nodes (DAG)", name, contexts.size(), nodes.size());
+        long start = System.nanoTime();
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[nodes.size()];
+        for (int i = 0; i < futures.length; i++) {
+            int index = i;
+            futures[i] = joinDependencies(futures, dependencies[i])
+                    .thenCompose(ignored -> nodes.get(index) instanceof BatchPipelineNode
+                            ? runBatchNode(index, contexts)
+                            : runNodeForEach(index, contexts));
+        }
+
+        CompletableFuture.allOf(futures).join();
+
+        metrics.recordPipeline(System.nanoTime() - start, contexts.size());
+        log.info("Pipeline [{}] completed batch of {}. Interrupted: {}",
+                name, contexts.size(), contexts.size() - ExecutionPipeline.activeContexts(contexts).size());
+    }
+
+    private CompletableFuture<?> joinDependencies(CompletableFuture<?>[] futures, int[] deps) {
+        if (deps.length == 0) {
+            return DONE;
+        }
+        if (deps.length == 1) {
+            return futures[deps[0]];
+        }
+        CompletableFuture<?>[] upstream = new CompletableFuture<?>[deps.length];
+        for (int i = 0; i < deps.length; i++) {
+            upstream[i] = futures[deps[i]];
+        }
+        return CompletableFuture.allOf(upstream);
+    }
+
+    /**
+     * 普通节点逐条提交，全部数据处理完后完成
+     */
+    private CompletableFuture<Void> runNodeForEach(int index, List<PipelineContext<T>> contexts) {
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>(contexts.size());
+        for (PipelineContext<T> context : contexts) {
+            outcomes.add(runNode(index, context));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * 批量节点对本批尚未中断的数据提交一个任务，返回的 Future 在整批成功、失败或超时后正常完成
+     */
+    private CompletableFuture<Void> runBatchNode(int index, List<PipelineContext<T>> contexts) {
+        BatchPipelineNode<T> node = (BatchPipelineNode<T>) nodes.get(index);
+        String nodeName = node.getName();
+
+        List<PipelineContext<T>> active = ExecutionPipeline.activeContexts(contexts);
+        if (active.isEmpty()) {
+            log.debug("Batch node [{}] skipped, all items interrupted", nodeName);
+            return DONE;
+        }
+
+        PipelineMetrics.NodeMetrics nodeMetrics = metrics.node(index);
+        long submitted = System.nanoTime();
+        long timeout = timeouts[index];
+        CompletableFuture<BatchResult> outcome = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            log.debug("Executing batch node: {} ({} items)", nodeName, active.size());
+            // 超时从开始执行时计时，批任务在线程池队列中的等待不计入
+            if (timeout > 0) {
+                outcome.orTimeout(timeout, TimeUnit.MILLISECONDS);
+            }
+            try {
+                outcome.complete(ExecutionPipeline.executeBatchNode(node, active));
+            } catch (Throwable e) {
+                outcome.completeExceptionally(e);
+            }
+        }, null);
+
+        try {
+            executor.execute(task);
+        } catch (Exception e) {
+            log.error("Batch node [{}] submission rejected", nodeName, e);
+            for (PipelineContext<T> context : active) {
+                nodeMetrics.recordRejection();
+                ExecutionPipeline.handleFailure(node, context, "Node [" + nodeName + "] rejected: " + e.getMessage(), e);
+            }
+            return DONE;
+        }
+
+        return outcome.handle((result, e) -> {
+            if (e == null) {
+                ExecutionPipeline.applyBatchResult(node, active, result, nodeMetrics);
+                return null;
+            }
+            long elapsed = System.nanoTime() - submitted;
+            String reason;
+            if (e instanceof TimeoutException) {
+                task.cancel(true);
+                log.error("Batch node [{}] timed out after {}ms", nodeName, timeout);
+                reason = "Node [" + nodeName + "] timed out after " + timeout + "ms";
+            } else {
+                log.error("Batch node [{}] execution failed", nodeName, e);
+                reason = e.getMessage();
+            }
+            for (PipelineContext<T> context : active) {
+                if (e instanceof TimeoutException) {
+                    // 执行线程可能仍在访问上下文，上下文不再归还到池中
+                    context.markNotRecyclable();
+                    nodeMetrics.recordTimeout(elapsed);
+                } else {
+                    nodeMetrics.recordFailure(elapsed);
+                }
+                ExecutionPipeline.handleFailure(node, context, reason, e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 提交节点执行，返回的 Future 在节点成功、失败或超时后正常完成
+     */
+    private CompletableFuture<Void> runNode(int index, PipelineContext<T> context) {
+        PipelineNode<T> node = nodes.get(index);
+        String nodeName = node.getName();
+
+        if (context.isInterrupted()) {
+            log.debug("Node [{}] skipped, pipeline interrupted", nodeName);
+            return DONE;
+        }
+
+        PipelineMetrics.NodeMetrics nodeMetrics = metrics.node(index);
+        long submitted = System.nanoTime();
+        // started[0] 在执行线程上写入，节点完成时经由 outcome 对回调可见
+        long[] started = {submitted};
+        long timeout = timeouts[index];
+        CompletableFuture<Void> outcome = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            log.debug("Executing node: {}", nodeName);
+            started[0] = System.nanoTime();
+            // 超时从开始执行时计时，排队等待不计入
+            if (timeout > 0) {
+                outcome.orTimeout(timeout, TimeUnit.MILLISECONDS);
+            }
+            try {
+                node.execute(context);
+                outcome.complete(null);
+            } catch (Throwable e) {
+                outcome.completeExceptionally(e);
+            }
+        }, null);
+
+        try {
+            executor.execute(task);
+        } catch (Exception e) {
+            nodeMetrics.recordRejection();
+            log.error("Node [{}] submission rejected", nodeName, e);
+            ExecutionPipeline.handleFailure(node, context, "Node [" + nodeName + "] rejected: " + e.getMessage(), e);
+            return DONE;
+        }
+
+        // 超时与节点完成竞争同一个 Future，结果只会被处理一次
+        return outcome.handle((ignored, e) -> {
+            long now = System.nanoTime();
+            if (e == null) {
+                nodeMetrics.recordSuccess(now - started[0]);
+                context.markNodeExecuted(nodeName);
+                log.debug("Node [{}] executed successfully", nodeName);
+            } else if (e instanceof TimeoutException) {
+                // 执行线程可能仍在访问上下文，上下文不再归还到池中
+                context.markNotRecyclable();
+                task.cancel(true);
+                nodeMetrics.recordTimeout(now - submitted);
+                log.error("Node [{}] timed out after {}ms", nodeName, timeout);
+                ExecutionPipeline.handleFailure(node, context,
+                        "Node [" + nodeName + "] timed out after " + timeout + "ms", e);
+            } else {
+                nodeMetrics.recordFailure(now - started[0]);
+                log.error("Node [{}] execution failed", nodeName, e);
+                ExecutionPipeline.handleFailure(node, context, e.getMessage(), e);
+            }
+            return null;
+        });
+    }
+}
@@ -2,7 +2,9 @@ package com.example.pipeline.pipeline;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 执行管道实现
@@ -14,56 +16,206 @@ public class ExecutionPipeline<T> implements Pipeline<T> {
 
     private final List<PipelineNode<T>> nodes;
     private final String name;
+    private final PipelineMetrics metrics;
 
-    ExecutionPipeline(List<PipelineNode<T>> nodes, String name) {
+    /**
+     * 编译模式下的上下文池，非编译模式为 null
+     */
+    private final ContextPool<T> contextPool;
+
+    ExecutionPipeline(List<PipelineNode<T>> nodes, String name, ContextPool<T> contextPool) {
         this.nodes = nodes;
         this.name = name;
+        this.metrics = new PipelineMetrics(name, nodes);
+        this.contextPool = contextPool;
     }
 
     @Override
     public PipelineContext<T> execute(T data) {
-        log.info("Pipeline [{}] started with {} nodes", name, nodes.size());
-
         PipelineContext<T> context = new PipelineContext<>(data);
+        run(context);
+        return context;
+    }
+
+    @Override
+    public <R> R execute(T data, Function<PipelineContext<T>, R> handler) {
+        if (contextPool == null) {
+            return handler.apply(execute(data));
+        }
+        PipelineContext<T> context = contextPool.acquire(data);
+        try {
+            run(context);
+            return handler.apply(context);
+        } finally {
+            contextPool.release(context);
+        }
+    }
+
+    @Override
+    public List<PipelineContext<T>> executeBatch(List<T> items) {
+        List<PipelineContext<T>> contexts = newContexts(items);
+        runBatch(contexts);
+        return contexts;
+    }
 
-        for (PipelineNode<T> node : nodes) {
+    @Override
+    public <R> List<R> executeBatch(List<T> items, Function<PipelineContext<T>, R> handler) {
+        if (contextPool == null) {
+            return executeBatch(items).stream().map(handler).toList();
+        }
+        List<PipelineContext<T>> contexts = contextPool.acquireAll(items);
+        try {
+            runBatch(contexts);
+            return contexts.stream().map(handler).toList();
+        } finally {
+            contextPool.releaseAll(contexts);
+        }
+    }
+
+    @Override
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void run(PipelineContext<T> context) {
+        log.info("Pipeline [{}] started with {} nodes", name, nodes.size());
+        long start = System.nanoTime();
+
+        for (int i = 0; i < nodes.size(); i++) {
             if (context.isInterrupted()) {
                 log.info("Pipeline [{}] interrupted: {}", name, context.getInterruptReason());
                 break;
             }
 
-            executeNode(node, context);
+            executeNode(i, context);
         }
 
+        metrics.recordPipeline(System.nanoTime() - start);
         log.info("Pipeline [{}] completed. Executed: {}, Failures: {}",
                 name, context.getExecutedNodes().size(), context.getFailures().size());
+    }
 
-        return context;
+    /**
+     * 逐个节点处理整批数据，批量节点执行一次，普通节点逐条执行
+     */
+    private void runBatch(List<PipelineContext<T>> contexts) {
+        log.info("Pipeline [{}] started batch of {} with {} nodes", name, contexts.size(), nodes.size());
+        long start = System.nanoTime();
+
+        for (int i = 0; i < nodes.size(); i++) {
+            List<PipelineContext<T>> active = activeContexts(contexts);
+            if (active.isEmpty()) {
+                log.info("Pipeline [{}] interrupted for all {} items", name, contexts.size());
+                break;
+            }
+
+            PipelineNode<T> node = nodes.get(i);
+            if (node instanceof BatchPipelineNode<T> batchNode) {
+                log.debug("Executing batch node: {} ({} items)", node.getName(), active.size());
+                applyBatchResult(batchNode, active, executeBatchNode(batchNode, active), metrics.node(i));
+            } else {
+                for (PipelineContext<T> context : active) {
+                    executeNode(i, context);
+                }
+            }
+        }
+
+        metrics.recordPipeline(System.nanoTime() - start, contexts.size());
+        log.info("Pipeline [{}] completed batch of {}. Interrupted: {}",
+                name, contexts.size(), contexts.size() - activeContexts(contexts).size());
     }
 
-    private void executeNode(PipelineNode<T> node, PipelineContext<T> context) {
+    private void executeNode(int index, PipelineContext<T> context) {
+        PipelineNode<T> node = nodes.get(index);
         String nodeName = node.getName();
         log.debug("Executing node: {}", nodeName);
 
+        long start = System.nanoTime();
         try {
             node.execute(context);
+            metrics.node(index).recordSuccess(System.nanoTime() - start);
             context.markNodeExecuted(nodeName);
             log.debug("Node [{}] executed successfully", nodeName);
         } catch (Exception e) {
+            metrics.node(index).recordFailure(System.nanoTime() - start);
             log.error("Node [{}] execution failed", nodeName, e);
+            handleFailure(node, context, e.getMessage(), e);
+        }
+    }
+
+    static <T> List<PipelineContext<T>> newContexts(List<T> items) {
+        List<PipelineContext<T>> contexts = new ArrayList<>(items.size());
+        for (T item : items) {
+            contexts.add(new PipelineContext<>(item));
+        }
+        return contexts;
+    }
+
+    /**
+     * 本批中尚未被中断的上下文
+     */
+    static <T> List<PipelineContext<T>> activeContexts(List<PipelineContext<T>> contexts) {
+        List<PipelineContext<T>> active = new ArrayList<>(contexts.size());
+        for (PipelineContext<T> context : contexts) {
+            if (!context.isInterrupted()) {
+                active.add(context);
+            }
+        }
+        return active;
+    }
 
-            FailureStrategy strategy = node.getFailureStrategy();
-            context.recordFailure(nodeName, e.getMessage(), e);
-
-            switch (strategy) {
-                case STOP:
-                    context.interrupt("Node [" + nodeName + "] failed with STOP strategy");
-                    break;
-                case CONTINUE:
-                case SKIP:
-                    // 继续执行下一个节点
-                    break;
+    /**
+     * 在当前线程执行批量节点，整批失败时每条数据都记为该异常
+     */
+    static <T> BatchResult executeBatchNode(BatchPipelineNode<T> node, List<PipelineContext<T>> contexts) {
+        BatchResult result = new BatchResult(contexts.size());
+        long start = System.nanoTime();
+        try {
+            node.executeBatch(contexts, result);
+        } catch (Exception e) {
+            log.error("Batch node [{}] failed for all {} items", node.getName(), contexts.size(), e);
+            result.failAll(e);
+        }
+        result.setAllNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * 逐条记录批量节点的执行结果，失败的数据分别应用节点的失败策略
+     */
+    static <T> void applyBatchResult(PipelineNode<T> node, List<PipelineContext<T>> contexts, BatchResult result,
+                                     PipelineMetrics.NodeMetrics nodeMetrics) {
+        String nodeName = node.getName();
+        for (int i = 0; i < contexts.size(); i++) {
+            PipelineContext<T> context = contexts.get(i);
+            Throwable failure = result.getFailure(i);
+            if (failure == null) {
+                nodeMetrics.recordSuccess(result.getNanos(i));
+                context.markNodeExecuted(nodeName);
+            } else {
+                nodeMetrics.recordFailure(result.getNanos(i));
+                log.error("Node [{}] execution failed for batch item {}: {}", nodeName, i, failure.getMessage());
+                handleFailure(node, context, failure.getMessage(), failure);
             }
         }
     }
+
+    /**
+     * 记录节点失败并应用其失败策略
+     */
+    static <T> void handleFailure(PipelineNode<T> node, PipelineContext<T> context, String reason, Throwable cause) {
+        String nodeName = node.getName();
+        FailureStrategy strategy = node.getFailureStrategy();
+        context.recordFailure(nodeName, reason, cause);
+
+        switch (strategy) {
+            case STOP:
+                context.interrupt("Node [" + nodeName + "] failed with STOP strategy");
+                break;
+            case CONTINUE:
+            case SKIP:
+                // 继续执行下一个节点
+                break;
+        }
+    }
 }
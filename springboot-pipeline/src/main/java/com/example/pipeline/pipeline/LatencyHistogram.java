@@ -0,0 +1,139 @@
+package com.example.pipeline.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁耗时直方图（微秒）
+ * 对数-线性分桶：16 微秒以内每微秒一个桶，之后每个 2 的幂区间再等分为 8 个桶，
+ * 相对误差不超过 12.5%，桶数固定，记录只做一次原子自增
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_LIMIT = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 最大可区分到 2^40 微秒（约 12 天），更大的值计入最后一个桶
+     */
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * 记录多次相同的耗时，批量执行时整批数据共用一次计时
+     *
+     * @param nanos 耗时（纳秒）
+     * @param times 次数
+     */
+    public void record(long nanos, int times) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets.addAndGet(bucketOf(micros), times);
+        sum.add(micros * times);
+        max.accumulate(micros);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * 生成快照，各桶分别读取，与并发记录之间只保证近似一致
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        List<Bucket> nonEmpty = new ArrayList<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] > 0) {
+                nonEmpty.add(new Bucket(upperBound(i), counts[i]));
+            }
+        }
+        long maxMicros = max.get();
+        return new Snapshot(
+                total,
+                total == 0 ? 0 : (double) sum.sum() / total,
+                percentile(counts, total, 0.50, maxMicros),
+                percentile(counts, total, 0.90, maxMicros),
+                percentile(counts, total, 0.99, maxMicros),
+                maxMicros,
+                nonEmpty);
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long maxMicros) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 桶内最大值（含）
+     */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) * width) + width - 1;
+    }
+
+    /**
+     * 直方图快照，时间单位均为微秒
+     */
+    public record Snapshot(long count, double meanMicros, long p50Micros, long p90Micros, long p99Micros,
+                           long maxMicros, List<Bucket> buckets) {
+    }
+
+    /**
+     * 非空桶：耗时不超过 upperMicros 的次数（不累计）
+     */
+    public record Bucket(long upperMicros, long count) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pipeline.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 微批前端
+ * 并发的调用方各自提交单条数据，分发线程把一个时间窗口内到达的数据合并为一批，
+ * 交给批量执行器调用管道的 executeBatch，再按提交顺序把各条结果交还给调用方
+ *
+ * 窗口从一批的第一条数据到达时开始计时，攒满 maxBatchSize 条立即发出；
+ * 空闲时单条数据最多多等待一个窗口。队列满时提交方阻塞，形成背压
+ *
+ * @param <T> 数据类型
+ * @param <R> 结果类型
+ */
+@Slf4j
+public class MicroBatcher<T, R> {
+
+    private final String name;
+    private final Pipeline<T> pipeline;
+    private final Function<PipelineContext<T>, R> handler;
+    private final BlockingQueue<Pending<T, R>> queue;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Executor batchExecutor;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    /**
+     * @param name          名称，用于分发线程名和日志
+     * @param pipeline      执行的管道
+     * @param handler       逐条处理结果上下文，在上下文回收前调用
+     * @param maxBatchSize  每批最多条数
+     * @param window        攒批窗口
+     * @param queueCapacity 等待攒批的最大条数
+     * @param batchExecutor 执行批次的执行器，不能与管道的节点执行器相同，否则批次会占满节点线程
+     */
+    public MicroBatcher(String name, Pipeline<T> pipeline, Function<PipelineContext<T>, R> handler,
+                        int maxBatchSize, Duration window, int queueCapacity, Executor batchExecutor) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        }
+        this.name = name;
+        this.pipeline = pipeline;
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.batchExecutor = batchExecutor;
+        this.dispatcher = new Thread(this::dispatch, name + "-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * 提交一条数据
+     *
+     * @param item 数据
+     * @return 所在批次执行完成后完成的结果
+     */
+    public CompletableFuture<R> submit(T item) {
+        if (!running) {
+            throw new IllegalStateException("MicroBatcher [" + name + "] is shut down");
+        }
+        Pending<T, R> pending = new Pending<>(item);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MicroBatcher [" + name + "] interrupted while waiting for queue", e);
+        }
+        return pending.future;
+    }
+
+    private void dispatch() {
+        while (running || !queue.isEmpty()) {
+            List<Pending<T, R>> batch = new ArrayList<>();
+            try {
+                Pending<T, R> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    // 先取走已经到达的数据，不够一批再等到窗口结束
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 停止时立即发出已攒的数据，并继续处理队列中剩余的数据
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                submitBatch(batch);
+            }
+        }
+    }
+
+    private void submitBatch(List<Pending<T, R>> batch) {
+        try {
+            batchExecutor.execute(() -> runBatch(batch));
+        } catch (Exception e) {
+            log.error("MicroBatcher [{}] batch of {} rejected", name, batch.size(), e);
+            for (Pending<T, R> pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void runBatch(List<Pending<T, R>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T, R> pending : batch) {
+            items.add(pending.item);
+        }
+        try {
+            List<R> results = pipeline.executeBatch(items, handler);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            log.error("MicroBatcher [{}] batch of {} failed", name, batch.size(), e);
+            for (Pending<T, R> pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 停止接收新数据，已提交的数据全部发出后返回
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static class Pending<T, R> {
+        private final T item;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        Pending(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.pipeline.pipeline;
 
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * 管道接口
  *
@@ -15,6 +18,46 @@ public interface Pipeline<T> {
      */
     PipelineContext<T> execute(T data);
 
+    /**
+     * 执行管道并在回调中处理结果上下文
+     * 编译模式下上下文来自对象池，回调返回后即被回收，回调之外不能再持有上下文或其中的容器
+     *
+     * @param data    输入数据
+     * @param handler 结果处理回调
+     * @param <R>     处理结果类型
+     * @return 回调的返回值
+     */
+    default <R> R execute(T data, Function<PipelineContext<T>, R> handler) {
+        return handler.apply(execute(data));
+    }
+
+    /**
+     * 批量执行管道
+     * 实现了 {@link BatchPipelineNode} 的节点对整批数据执行一次，其余节点逐条执行；
+     * 失败策略按条生效，某条数据被 STOP 中断后不再参与后续节点，其余数据继续执行
+     *
+     * @param items 输入数据
+     * @return 与输入顺序一致的执行结果上下文
+     */
+    List<PipelineContext<T>> executeBatch(List<T> items);
+
+    /**
+     * 批量执行管道并逐条处理结果上下文，上下文的有效范围与 {@link #execute(Object, Function)} 相同
+     *
+     * @param items   输入数据
+     * @param handler 结果处理回调
+     * @param <R>     处理结果类型
+     * @return 与输入顺序一致的回调返回值
+     */
+    <R> List<R> executeBatch(List<T> items, Function<PipelineContext<T>, R> handler);
+
+    /**
+     * 获取管道执行指标
+     *
+     * @return 管道及各节点的耗时、失败统计
+     */
+    PipelineMetrics getMetrics();
+
     /**
      * 创建管道构建器
      *
@@ -1,21 +1,36 @@
 package com.example.pipeline.pipeline;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * 管道构建器
  * 使用 Builder 模式构建管道
  *
+ * 默认按添加顺序串行执行；设置执行器后按声明的依赖构建 DAG 并行执行，
+ * 此时未声明依赖的节点视为入口节点，与其他入口节点并发执行
+ *
+ * build 构建的管道每次执行新建上下文；compile 构建的管道在 execute(data, handler) 中复用池化的上下文，
+ * 节点间通过预先注册的 {@link AttributeKey} 槽位传递数据
+ *
  * @param <T> 数据类型
  */
 public class PipelineBuilder<T> {
 
     private final List<PipelineNode<T>> nodes;
+    private final Map<PipelineNode<T>, List<PipelineNode<T>>> dependencies;
+    private final Map<PipelineNode<T>, Long> timeouts;
     private String name = "DefaultPipeline";
+    private Executor executor;
 
     public PipelineBuilder() {
         this.nodes = new ArrayList<>();
+        this.dependencies = new IdentityHashMap<>();
+        this.timeouts = new IdentityHashMap<>();
     }
 
     /**
@@ -29,6 +44,43 @@ public class PipelineBuilder<T> {
         return this;
     }
 
+    /**
+     * 添加节点并声明依赖，仅在 DAG 模式下生效
+     *
+     * @param node      节点
+     * @param dependsOn 依赖的节点，全部完成后才执行该节点
+     * @return this
+     */
+    @SafeVarargs
+    public final PipelineBuilder<T> add(PipelineNode<T> node, PipelineNode<T>... dependsOn) {
+        this.nodes.add(node);
+        this.dependencies.computeIfAbsent(node, k -> new ArrayList<>()).addAll(List.of(dependsOn));
+        return this;
+    }
+
+    /**
+     * 设置节点超时时间，覆盖节点自身的 getTimeoutMillis，仅在 DAG 模式下生效
+     *
+     * @param node    节点
+     * @param timeout 超时时间
+     * @return this
+     */
+    public PipelineBuilder<T> timeout(PipelineNode<T> node, Duration timeout) {
+        this.timeouts.put(node, timeout.toMillis());
+        return this;
+    }
+
+    /**
+     * 设置执行器，启用 DAG 并行模式
+     *
+     * @param executor 节点执行器
+     * @return this
+     */
+    public PipelineBuilder<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
     /**
      * 添加多个节点
      *
@@ -71,9 +123,81 @@ public class PipelineBuilder<T> {
      * @return 管道实例
      */
     public Pipeline<T> build() {
+        return build(null);
+    }
+
+    /**
+     * 以编译模式构建管道
+     * 上下文在 execute(data, handler) 返回后重置并归还到池中，供后续执行复用
+     *
+     * @param contextPoolSize 上下文池容量，一般不小于管道的并发执行数
+     * @return 管道实例
+     */
+    public Pipeline<T> compile(int contextPoolSize) {
+        if (contextPoolSize <= 0) {
+            throw new IllegalArgumentException("Context pool size must be positive: " + contextPoolSize);
+        }
+        return build(new ContextPool<>(contextPoolSize));
+    }
+
+    private Pipeline<T> build(ContextPool<T> contextPool) {
         if (nodes.isEmpty()) {
             throw new IllegalStateException("Pipeline must have at least one node");
         }
-        return new ExecutionPipeline<>(nodes, name);
+        if (executor == null) {
+            return new ExecutionPipeline<>(List.copyOf(nodes), name, contextPool);
+        }
+        return buildDag(contextPool);
+    }
+
+    /**
+     * 按依赖做拓扑排序，校验依赖节点已添加且不存在环
+     */
+    private Pipeline<T> buildDag(ContextPool<T> contextPool) {
+        Map<PipelineNode<T>, Integer> positions = new IdentityHashMap<>();
+        for (PipelineNode<T> node : nodes) {
+            if (positions.put(node, positions.size()) != null) {
+                throw new IllegalStateException("Duplicate node: " + node.getName());
+            }
+        }
+        for (Map.Entry<PipelineNode<T>, List<PipelineNode<T>>> entry : dependencies.entrySet()) {
+            for (PipelineNode<T> dependency : entry.getValue()) {
+                if (!positions.containsKey(dependency)) {
+                    throw new IllegalStateException("Node [" + entry.getKey().getName()
+                            + "] depends on [" + dependency.getName() + "] which is not in the pipeline");
+                }
+            }
+        }
+
+        // Kahn 算法：依赖全部排定后才排定节点，入口节点保持添加顺序
+        List<PipelineNode<T>> sorted = new ArrayList<>(nodes.size());
+        Map<PipelineNode<T>, Integer> sortedIndex = new IdentityHashMap<>();
+        while (sorted.size() < nodes.size()) {
+            boolean progressed = false;
+            for (PipelineNode<T> node : nodes) {
+                if (!sortedIndex.containsKey(node)
+                        && sortedIndex.keySet().containsAll(dependencies.getOrDefault(node, List.of()))) {
+                    sortedIndex.put(node, sorted.size());
+                    sorted.add(node);
+                    progressed = true;
+                }
+            }
+            if (!progressed) {
+                throw new IllegalStateException("Pipeline [" + name + "] has a dependency cycle");
+            }
+        }
+
+        int[][] dependencyIndexes = new int[sorted.size()][];
+        long[] timeoutMillis = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            PipelineNode<T> node = sorted.get(i);
+            dependencyIndexes[i] = dependencies.getOrDefault(node, List.of()).stream()
+                    .mapToInt(sortedIndex::get)
+                    .distinct()
+                    .toArray();
+            timeoutMillis[i] = timeouts.getOrDefault(node, node.getTimeoutMillis());
+        }
+        return new DagExecutionPipeline<>(List.copyOf(sorted), dependencyIndexes, timeoutMillis, executor, name,
+                contextPool);
     }
 }
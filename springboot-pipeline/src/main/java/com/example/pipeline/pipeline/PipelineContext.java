@@ -1,15 +1,24 @@
 package com.example.pipeline.pipeline;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 管道上下文
  * 用于在节点之间传递数据和状态
+ * DAG 并行模式下多个节点会同时读写上下文，各字段分别使用并发容器，不依赖全局锁
+ *
+ * 已注册 {@link AttributeKey} 的属性存放在按下标访问的槽位数组中，其余属性存放在扩展属性 Map 中；
+ * 编译模式下上下文由管道池化复用，只在 execute 的回调内有效
  *
  * @param <T> 主要数据类型
  */
@@ -19,17 +28,17 @@ public class PipelineContext<T> {
     /**
      * 主要业务数据
      */
-    private final T data;
+    private T data;
 
     /**
      * 是否中断管道执行
      */
-    private boolean interrupted;
+    private volatile boolean interrupted;
 
     /**
-     * 中断原因
+     * 中断原因，并发中断时保留第一个
      */
-    private String interruptReason;
+    private final AtomicReference<String> interruptReason = new AtomicReference<>();
 
     /**
      * 执行过的节点列表
@@ -46,20 +55,73 @@ public class PipelineContext<T> {
      */
     private final Map<String, Object> attributes;
 
+    /**
+     * 类型化属性槽位，下标由 AttributeKey 注册时分配
+     */
+    @Getter(AccessLevel.NONE)
+    private AtomicReferenceArray<Object> slots;
+
+    /**
+     * 是否可以归还到上下文池，节点超时后执行线程可能仍持有上下文，不再复用
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile boolean recyclable = true;
+
     public PipelineContext(T data) {
         this.data = data;
-        this.executedNodes = new ArrayList<>();
-        this.failures = new ArrayList<>();
-        this.attributes = new HashMap<>();
+        // 每个节点完成时追加一次，同步列表追加不复制数组，池化复用时保留容量
+        this.executedNodes = Collections.synchronizedList(new ArrayList<>());
+        this.failures = new CopyOnWriteArrayList<>();
+        this.attributes = new ConcurrentHashMap<>();
+        this.slots = new AtomicReferenceArray<>(AttributeKey.slotCount());
+    }
+
+    /**
+     * 复用前绑定新的数据，创建之后注册的键需要扩容槽位
+     */
+    void reuse(T data) {
+        this.data = data;
+        if (slots.length() < AttributeKey.slotCount()) {
+            slots = new AtomicReferenceArray<>(AttributeKey.slotCount());
+        }
+    }
+
+    /**
+     * 归还前清空全部状态
+     */
+    void clear() {
+        this.data = null;
         this.interrupted = false;
+        this.interruptReason.set(null);
+        this.executedNodes.clear();
+        this.failures.clear();
+        this.attributes.clear();
+        for (int i = 0; i < slots.length(); i++) {
+            slots.lazySet(i, null);
+        }
+    }
+
+    boolean isRecyclable() {
+        return recyclable;
+    }
+
+    void markNotRecyclable() {
+        this.recyclable = false;
     }
 
     /**
      * 中断管道执行
      */
     public void interrupt(String reason) {
+        this.interruptReason.compareAndSet(null, reason);
         this.interrupted = true;
-        this.interruptReason = reason;
+    }
+
+    /**
+     * 获取中断原因
+     */
+    public String getInterruptReason() {
+        return interruptReason.get();
     }
 
     /**
@@ -77,10 +139,60 @@ public class PipelineContext<T> {
     }
 
     /**
-     * 设置扩展属性
+     * 设置类型化属性，value 为 null 时移除该属性
      */
+    public <V> void set(AttributeKey<V> key, V value) {
+        slots.set(slotIndex(key), value);
+    }
+
+    /**
+     * 当前值为 expect 时原子地设置为 update，按引用比较
+     *
+     * @return 是否设置成功
+     */
+    public <V> boolean compareAndSet(AttributeKey<V> key, V expect, V update) {
+        return slots.compareAndSet(slotIndex(key), expect, update);
+    }
+
+    /**
+     * 原子地设置类型化属性并返回旧值
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getAndSet(AttributeKey<V> key, V value) {
+        return (V) slots.getAndSet(slotIndex(key), value);
+    }
+
+    private int slotIndex(AttributeKey<?> key) {
+        int index = key.getIndex();
+        if (index >= slots.length()) {
+            throw new IllegalStateException("Attribute key " + key + " registered after context creation");
+        }
+        return index;
+    }
+
+    /**
+     * 获取类型化属性
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(AttributeKey<V> key) {
+        int index = key.getIndex();
+        return index < slots.length() ? (V) slots.get(index) : null;
+    }
+
+    /**
+     * 设置扩展属性，value 为 null 时移除该属性
+     * 已注册为 AttributeKey 的名称写入对应槽位，并校验值类型
+     */
+    @SuppressWarnings("unchecked")
     public void setAttribute(String key, Object value) {
-        this.attributes.put(key, value);
+        AttributeKey<Object> slot = (AttributeKey<Object>) AttributeKey.find(key);
+        if (slot != null) {
+            set(slot, slot.getType().cast(value));
+        } else if (value == null) {
+            this.attributes.remove(key);
+        } else {
+            this.attributes.put(key, value);
+        }
     }
 
     /**
@@ -88,15 +200,19 @@ public class PipelineContext<T> {
      */
     @SuppressWarnings("unchecked")
     public <V> V getAttribute(String key) {
+        AttributeKey<?> slot = AttributeKey.find(key);
+        if (slot != null) {
+            return (V) get(slot);
+        }
         return (V) this.attributes.get(key);
     }
 
     /**
      * 获取扩展属性，支持默认值
      */
-    @SuppressWarnings("unchecked")
     public <V> V getAttribute(String key, V defaultValue) {
-        return (V) this.attributes.getOrDefault(key, defaultValue);
+        V value = getAttribute(key);
+        return value != null ? value : defaultValue;
     }
 
     /**
@@ -0,0 +1,129 @@
+package com.example.pipeline.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 管道执行指标
+ * 每个节点分别统计成功耗时直方图、失败耗时直方图和超时次数，另统计整条管道的耗时，
+ * 用于定位哪个节点主导了管道延迟。节点按管道内的下标记录，不做名称查找
+ */
+public class PipelineMetrics {
+
+    private final String pipelineName;
+    private final NodeMetrics[] nodes;
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    PipelineMetrics(String pipelineName, List<? extends PipelineNode<?>> pipelineNodes) {
+        this.pipelineName = pipelineName;
+        this.nodes = new NodeMetrics[pipelineNodes.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            PipelineNode<?> node = pipelineNodes.get(i);
+            nodes[i] = new NodeMetrics(node.getName(), node.getFailureStrategy());
+        }
+    }
+
+    NodeMetrics node(int index) {
+        return nodes[index];
+    }
+
+    void recordPipeline(long nanos) {
+        total.record(nanos);
+    }
+
+    void recordPipeline(long nanos, int items) {
+        total.record(nanos, items);
+    }
+
+    /**
+     * 清空全部统计
+     */
+    public void reset() {
+        total.reset();
+        for (NodeMetrics node : nodes) {
+            node.reset();
+        }
+    }
+
+    /**
+     * 生成快照，节点按执行顺序排列
+     */
+    public Snapshot snapshot() {
+        List<NodeSnapshot> nodeSnapshots = new ArrayList<>(nodes.length);
+        for (NodeMetrics node : nodes) {
+            nodeSnapshots.add(node.snapshot());
+        }
+        return new Snapshot(pipelineName, total.snapshot(), nodeSnapshots);
+    }
+
+    /**
+     * 单个节点的指标
+     */
+    static class NodeMetrics {
+        private final String name;
+        private final FailureStrategy failureStrategy;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram failureLatency = new LatencyHistogram();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+
+        NodeMetrics(String name, FailureStrategy failureStrategy) {
+            this.name = name;
+            this.failureStrategy = failureStrategy;
+        }
+
+        void recordSuccess(long nanos) {
+            latency.record(nanos);
+        }
+
+        void recordFailure(long nanos) {
+            failureLatency.record(nanos);
+        }
+
+        void recordTimeout(long nanos) {
+            timeouts.increment();
+            failureLatency.record(nanos);
+        }
+
+        void recordRejection() {
+            rejections.increment();
+        }
+
+        void reset() {
+            latency.reset();
+            failureLatency.reset();
+            timeouts.reset();
+            rejections.reset();
+        }
+
+        NodeSnapshot snapshot() {
+            return new NodeSnapshot(name, failureStrategy, latency.snapshot(), failureLatency.snapshot(),
+                    timeouts.sum(), rejections.sum());
+        }
+    }
+
+    /**
+     * 管道指标快照
+     *
+     * @param pipeline 管道名称
+     * @param total    整条管道的耗时
+     * @param nodes    各节点指标
+     */
+    public record Snapshot(String pipeline, LatencyHistogram.Snapshot total, List<NodeSnapshot> nodes) {
+    }
+
+    /**
+     * 节点指标快照
+     *
+     * @param node            节点名称
+     * @param failureStrategy 失败策略
+     * @param latency         成功执行的耗时
+     * @param failures        失败（含超时）的耗时，超时按超时时刻计
+     * @param timeouts        超时次数
+     * @param rejections      被执行器拒绝的次数，不计入耗时
+     */
+    public record NodeSnapshot(String node, FailureStrategy failureStrategy, LatencyHistogram.Snapshot latency,
+                               LatencyHistogram.Snapshot failures, long timeouts, long rejections) {
+    }
+}
@@ -33,4 +33,14 @@ public interface PipelineNode<T> {
     default FailureStrategy getFailureStrategy() {
         return FailureStrategy.STOP;
     }
+
+    /**
+     * 获取节点超时时间（毫秒），仅在 DAG 并行模式下生效
+     * 超时按节点执行失败处理，适用其失败策略
+     *
+     * @return 超时时间，0 表示不限制
+     */
+    default long getTimeoutMillis() {
+        return 0;
+    }
 }
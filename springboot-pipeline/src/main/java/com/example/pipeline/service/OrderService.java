@@ -4,12 +4,20 @@ import com.example.pipeline.model.Order;
 import com.example.pipeline.model.OrderRequest;
 import com.example.pipeline.model.OrderResponse;
 import com.example.pipeline.nodes.*;
+import com.example.pipeline.pipeline.MicroBatcher;
 import com.example.pipeline.pipeline.Pipeline;
 import com.example.pipeline.pipeline.PipelineContext;
+import com.example.pipeline.pipeline.PipelineMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 订单服务
@@ -27,6 +35,16 @@ public class OrderService {
     private final NotificationNode notificationNode;
     private final AsyncRiskCheckNode asyncRiskCheckNode;
 
+    /**
+     * 订单创建管道，节点均为无状态单例，编译一次后复用，上下文池化
+     */
+    private final Pipeline<OrderRequest> orderPipeline;
+
+    /**
+     * 单条下单请求的微批前端，未开启时为 null
+     */
+    private final MicroBatcher<OrderRequest, OrderResponse> orderBatcher;
+
     public OrderService(
             ParamValidateNode paramValidateNode,
             PermissionCheckNode permissionCheckNode,
@@ -34,7 +52,15 @@ public class OrderService {
             CreateOrderNode createOrderNode,
             OperateLogNode operateLogNode,
             NotificationNode notificationNode,
-            AsyncRiskCheckNode asyncRiskCheckNode) {
+            AsyncRiskCheckNode asyncRiskCheckNode,
+            @Qualifier("pipelineExecutor") ExecutorService pipelineExecutor,
+            @Qualifier("pipelineBatchExecutor") ExecutorService pipelineBatchExecutor,
+            @Value("${pipeline.order.risk-check-timeout-ms:2000}") long riskCheckTimeoutMs,
+            @Value("${pipeline.order.context-pool-size:256}") int contextPoolSize,
+            @Value("${pipeline.order.micro-batch.enabled:false}") boolean microBatchEnabled,
+            @Value("${pipeline.order.micro-batch.max-size:64}") int microBatchMaxSize,
+            @Value("${pipeline.order.micro-batch.window-ms:5}") long microBatchWindowMs,
+            @Value("${pipeline.order.micro-batch.queue-capacity:4096}") int microBatchQueueCapacity) {
         this.paramValidateNode = paramValidateNode;
         this.permissionCheckNode = permissionCheckNode;
         this.businessValidateNode = businessValidateNode;
@@ -42,6 +68,27 @@ public class OrderService {
         this.operateLogNode = operateLogNode;
         this.notificationNode = notificationNode;
         this.asyncRiskCheckNode = asyncRiskCheckNode;
+
+        // 构建订单创建管道（DAG）：
+        // 参数校验 -> 权限校验 / 业务校验（并行） -> 创建订单 -> 日志 / 通知 / 风控（并行）
+        this.orderPipeline = Pipeline.<OrderRequest>builder()
+                .name("OrderCreationPipeline")
+                .executor(pipelineExecutor)
+                .add(paramValidateNode)                                            // 1. 参数校验
+                .add(permissionCheckNode, paramValidateNode)                       // 2. 权限校验
+                .add(businessValidateNode, paramValidateNode)                      // 3. 业务校验
+                .add(createOrderNode, permissionCheckNode, businessValidateNode)   // 4. 创建订单
+                .add(operateLogNode, createOrderNode)                              // 5. 记录日志
+                .add(notificationNode, createOrderNode)                            // 6. 发送通知
+                .add(asyncRiskCheckNode, createOrderNode)                          // 7. 风控检查
+                .timeout(asyncRiskCheckNode, Duration.ofMillis(riskCheckTimeoutMs))
+                .compile(contextPoolSize);
+
+        // 并发的单条下单请求在窗口内合并为一批执行
+        this.orderBatcher = microBatchEnabled
+                ? new MicroBatcher<>("order", orderPipeline, this::buildResponse, microBatchMaxSize,
+                        Duration.ofMillis(microBatchWindowMs), microBatchQueueCapacity, pipelineBatchExecutor)
+                : null;
     }
 
     /**
@@ -54,37 +101,64 @@ public class OrderService {
     public OrderResponse createOrder(OrderRequest request) {
         log.info("开始创建订单: userId={}, productId={}", request.getUserId(), request.getProductId());
 
-        // 构建订单创建管道
-        Pipeline<OrderRequest> pipeline = Pipeline.<OrderRequest>builder()
-                .name("OrderCreationPipeline")
-                .add(paramValidateNode)       // 1. 参数校验
-                .add(permissionCheckNode)     // 2. 权限校验
-                .add(businessValidateNode)    // 3. 业务校验
-                .add(createOrderNode)         // 4. 创建订单
-                .add(operateLogNode)          // 5. 记录日志
-                .add(notificationNode)        // 6. 发送通知
-                .add(asyncRiskCheckNode)      // 7. 风控检查（异步）
-                .build();
+        if (orderBatcher == null) {
+            // 执行管道，上下文回收前构建响应
+            return orderPipeline.execute(request, this::buildResponse);
+        }
+        try {
+            return orderBatcher.submit(request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
 
-        // 执行管道
-        PipelineContext<OrderRequest> context = pipeline.execute(request);
+    /**
+     * 批量创建订单
+     * 整批数据一起执行管道，每条订单单独返回结果，单条失败不影响其他订单
+     *
+     * @param requests 订单请求列表
+     * @return 与请求顺序一致的订单响应
+     */
+    public List<OrderResponse> createOrders(List<OrderRequest> requests) {
+        log.info("开始批量创建订单: count={}", requests.size());
+        return orderPipeline.executeBatch(requests, this::buildResponse);
+    }
 
-        // 构建响应
-        return buildResponse(context);
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (orderBatcher != null) {
+            orderBatcher.shutdown();
+        }
     }
 
     /**
      * 获取订单详情（从管道上下文中获取）
      */
     public Order getOrderFromContext(PipelineContext<OrderRequest> context) {
-        return context.getAttribute("ORDER");
+        return context.get(AbstractOrderNode.ORDER);
+    }
+
+    /**
+     * 获取订单创建管道的执行指标
+     */
+    public PipelineMetrics.Snapshot getPipelineMetrics() {
+        return orderPipeline.getMetrics().snapshot();
+    }
+
+    /**
+     * 清空订单创建管道的执行指标
+     */
+    public void resetPipelineMetrics() {
+        orderPipeline.getMetrics().reset();
     }
 
     /**
      * 构建响应对象
      */
     private OrderResponse buildResponse(PipelineContext<OrderRequest> context) {
-        Order order = context.getAttribute("ORDER");
+        // 管道已结束，订单未创建时归还业务校验预占的订单数
+        BusinessValidateNode.releaseIfNotCreated(context);
+        Order order = context.get(AbstractOrderNode.ORDER);
 
         // 转换失败信息
         List<OrderResponse.FailureInfo> failureInfos = context.getFailures().stream()
@@ -101,7 +175,8 @@ public class OrderService {
                 .order(order)
                 .success(success)
                 .errorMessage(success ? null : getErrorMessage(context))
-                .executedNodes(context.getExecutedNodes())
+                // 上下文会被复用，复制节点列表
+                .executedNodes(List.copyOf(context.getExecutedNodes()))
                 .failures(failureInfos)
                 .build();
     }
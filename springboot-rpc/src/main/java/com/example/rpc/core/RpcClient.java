@@ -1,58 +1,270 @@
 package com.example.rpc.core;
 
+import com.example.rpc.core.transport.HttpRpcTransport;
+import com.example.rpc.core.transport.NettyRpcTransport;
+import com.example.rpc.core.transport.RpcTransport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 // RpcClient.java
 @Component
 public class RpcClient {
     private static final Logger logger = LoggerFactory.getLogger(RpcClient.class);
-    
+
     @Autowired
     private RestTemplate restTemplate;
-    
+
     @Value("${rpc.server.url:http://localhost:8080}")
     private String serverUrl;
-    
+
+    /**
+     * 传输方式：http（JSON）或 netty（二进制长连接）
+     */
+    @Value("${rpc.transport:http}")
+    private String transportType;
+
+    /**
+     * 服务端节点列表，逗号分隔
+     */
+    @Value("${rpc.netty.client.addresses:localhost:9090}")
+    private List<String> nettyAddresses;
+
+    @Value("${rpc.netty.client.connections:2}")
+    private int nettyConnections;
+
+    @Value("${rpc.netty.client.connect-timeout:3000}")
+    private int nettyConnectTimeout;
+
+    @Value("${rpc.netty.client.batch-window-micros:0}")
+    private long batchWindowMicros;
+
+    @Value("${rpc.netty.client.batch-max-size:64}")
+    private int batchMaxSize;
+
+    @Value("${rpc.netty.client.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${rpc.netty.client.ejection-millis:5000}")
+    private long ejectionMillis;
+
+    @Value("${rpc.client.async-threads:16}")
+    private int asyncThreads;
+
+    /**
+     * 幂等调用合并：方法、参数和超时相同的在途调用共享同一个Future
+     */
+    private final Map<CallKey, CompletableFuture<RpcResponse>> inflightCalls = new ConcurrentHashMap<>();
+
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    private HttpRpcTransport httpTransport;
+
+    /**
+     * HTTP传输没有原生异步能力，异步调用在该有界线程池中执行
+     */
+    private ExecutorService httpAsyncExecutor;
+
+    private volatile NettyRpcTransport nettyTransport;
+
+    @PostConstruct
+    public void init() {
+        httpTransport = new HttpRpcTransport(restTemplate, serverUrl);
+        AtomicInteger threadIndex = new AtomicInteger();
+        httpAsyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1024),
+            r -> {
+                Thread thread = new Thread(r, "rpc-client-async-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        logger.info("RPC客户端传输方式: {}", transportType);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        httpAsyncExecutor.shutdown();
+        if (nettyTransport != null) {
+            nettyTransport.close();
+        }
+    }
+
     /**
      * 发送RPC请求
      */
     public RpcResponse sendRequest(RpcRequest request, long timeout) {
+        return sendRequest(request, timeout, "netty".equalsIgnoreCase(transportType) ? nettyTransport() : httpTransport);
+    }
+
+    /**
+     * 异步发送RPC请求，失败时Future正常完成并携带错误响应
+     */
+    public CompletableFuture<RpcResponse> sendRequestAsync(RpcRequest request, long timeout) {
+        if ("netty".equalsIgnoreCase(transportType)) {
+            return nettyTransport().sendAsync(request, timeout)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    RpcResponse errorResponse = new RpcResponse(request.getRequestId());
+                    errorResponse.setError(cause instanceof TimeoutException
+                        ? cause.getMessage() : "网络请求失败: " + cause.getMessage());
+                    return errorResponse;
+                });
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> sendRequest(request, timeout, httpTransport), httpAsyncExecutor)
+                .completeOnTimeout(timeoutResponse(request, timeout), timeout, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            RpcResponse errorResponse = new RpcResponse(request.getRequestId());
+            errorResponse.setError("客户端异步队列已满");
+            return CompletableFuture.completedFuture(errorResponse);
+        }
+    }
+
+    /**
+     * 发送幂等请求：与在途的相同调用合并，只发出一次远程请求
+     * 每个调用方拿到响应的独立副本，requestId 是自己的请求ID
+     */
+    public CompletableFuture<RpcResponse> sendCoalesced(RpcRequest request, long timeout) {
+        CallKey key = new CallKey(request, timeout);
+        CompletableFuture<RpcResponse> created = new CompletableFuture<>();
+        CompletableFuture<RpcResponse> shared = inflightCalls.putIfAbsent(key, created);
+        if (shared != null) {
+            coalescedCalls.increment();
+            return shared.thenApply(response -> copyFor(request, response));
+        }
+        sendRequestAsync(request, timeout).whenComplete((response, error) -> {
+            // 先移除再完成，完成之后到达的调用会重新发起请求
+            inflightCalls.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(response);
+            }
+        });
+        return created.thenApply(response -> copyFor(request, response));
+    }
+
+    private static RpcResponse copyFor(RpcRequest request, RpcResponse response) {
+        RpcResponse copy = new RpcResponse(request.getRequestId());
+        copy.setResult(response.getResult());
+        copy.setError(response.getError());
+        copy.setSuccess(response.isSuccess());
+        return copy;
+    }
+
+    /**
+     * 被合并掉的调用次数
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    private RpcResponse timeoutResponse(RpcRequest request, long timeout) {
+        RpcResponse response = new RpcResponse(request.getRequestId());
+        response.setError("RPC调用超时: " + timeout + "ms");
+        return response;
+    }
+
+    /**
+     * 使用指定传输方式发送RPC请求
+     */
+    public RpcResponse sendRequest(RpcRequest request, long timeout, RpcTransport transport) {
         try {
             logger.debug("发送RPC请求: {}.{}", request.getClassName(), request.getMethodName());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<RpcRequest> entity = new HttpEntity<>(request, headers);
-            
-            // 发送HTTP POST请求
-            ResponseEntity<RpcResponse> responseEntity = restTemplate.postForEntity(
-                serverUrl + "/rpc/invoke", 
-                entity, 
-                RpcResponse.class
-            );
-            
-            RpcResponse response = responseEntity.getBody();
-            logger.debug("收到RPC响应: requestId={}, success={}", 
+
+            RpcResponse response = transport.send(request, timeout);
+            logger.debug("收到RPC响应: requestId={}, success={}",
                 response.getRequestId(), response.isSuccess());
-            
+
             return response;
-            
+
         } catch (Exception e) {
             logger.error("RPC请求发送失败", e);
-            
+
             RpcResponse errorResponse = new RpcResponse(request.getRequestId());
             errorResponse.setError("网络请求失败: " + e.getMessage());
             return errorResponse;
         }
     }
-}
\ No newline at end of file
+
+    public HttpRpcTransport httpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * Netty传输按需创建，只用HTTP时不启动IO线程
+     */
+    public NettyRpcTransport nettyTransport() {
+        NettyRpcTransport transport = nettyTransport;
+        if (transport == null) {
+            synchronized (this) {
+                transport = nettyTransport;
+                if (transport == null) {
+                    transport = new NettyRpcTransport(nettyAddresses,
+                        new NettyRpcTransport.Options(nettyConnections, nettyConnectTimeout)
+                            .batch(batchWindowMicros, batchMaxSize)
+                            .ejection(failureThreshold, ejectionMillis));
+                    nettyTransport = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * 调用合并键：方法ID + 参数 + 超时，超时不同的调用不合并，各自按自己的超时失败
+     */
+    private static final class CallKey {
+        private final long methodId;
+        private final Object[] parameters;
+        private final long timeout;
+        private final int hash;
+
+        CallKey(RpcRequest request, long timeout) {
+            this.methodId = request.getMethodId() != null ? request.getMethodId()
+                : RpcMethod.idOf(RpcMethod.signatureOf(request.getClassName(), request.getVersion(),
+                    request.getMethodName(), request.getParameterTypes()));
+            this.parameters = request.getParameters();
+            this.timeout = timeout;
+            this.hash = 31 * (31 * Long.hashCode(methodId) + Long.hashCode(timeout)) + Arrays.deepHashCode(parameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CallKey)) {
+                return false;
+            }
+            CallKey other = (CallKey) o;
+            return methodId == other.methodId && timeout == other.timeout
+                && Arrays.deepEquals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -8,6 +8,9 @@ import org.springframework.stereotype.Component;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class RpcClientProxy {
@@ -37,6 +40,9 @@ public class RpcClientProxy {
         private final long timeout;
         private final RpcClient rpcClient;
         
+        // 方法元数据缓存：参数类型、方法ID只在首次调用时计算
+        private final Map<Method, MethodMeta> methodCache = new ConcurrentHashMap<>();
+        
         public RpcInvocationHandler(Class<?> interfaceClass, String version, long timeout, RpcClient rpcClient) {
             this.interfaceClass = interfaceClass;
             this.version = version;
@@ -51,12 +57,27 @@ public class RpcClientProxy {
                 return method.invoke(this, args);
             }
             
+            MethodMeta meta = methodCache.computeIfAbsent(method, MethodMeta::new);
+            
             // 构建RPC请求
-            RpcRequest request = buildRpcRequest(method, args);
+            RpcRequest request = buildRpcRequest(method, meta, args);
+            
+            // 返回CompletableFuture的方法走异步调用，不阻塞调用线程
+            if (meta.async) {
+                CompletableFuture<RpcResponse> future = meta.idempotent
+                    ? rpcClient.sendCoalesced(request, timeout) : rpcClient.sendRequestAsync(request, timeout);
+                return future.thenApply(response -> {
+                    if (response.isSuccess()) {
+                        return response.getResult();
+                    }
+                    throw new RuntimeException("RPC调用失败: " + response.getError());
+                });
+            }
             
             try {
                 // 发送远程调用请求
-                RpcResponse response = rpcClient.sendRequest(request, timeout);
+                RpcResponse response = meta.idempotent
+                    ? rpcClient.sendCoalesced(request, timeout).join() : rpcClient.sendRequest(request, timeout);
                 
                 if (response.isSuccess()) {
                     return response.getResult();
@@ -72,14 +93,33 @@ public class RpcClientProxy {
         /**
          * 构建RPC请求对象
          */
-        private RpcRequest buildRpcRequest(Method method, Object[] args) {
+        private RpcRequest buildRpcRequest(Method method, MethodMeta meta, Object[] args) {
             RpcRequest request = new RpcRequest();
             request.setClassName(interfaceClass.getName());
             request.setMethodName(method.getName());
-            request.setParameterTypes(method.getParameterTypes());
+            request.setParameterTypes(meta.parameterTypes);
             request.setParameters(args);
             request.setVersion(version);
+            request.setMethodId(meta.methodId);
             return request;
         }
+        
+        /**
+         * 方法元数据
+         */
+        private class MethodMeta {
+            private final Class<?>[] parameterTypes;
+            private final long methodId;
+            private final boolean async;
+            private final boolean idempotent;
+            
+            MethodMeta(Method method) {
+                this.parameterTypes = method.getParameterTypes();
+                this.methodId = RpcMethod.idOf(RpcMethod.signatureOf(
+                    interfaceClass.getName(), version, method.getName(), parameterTypes));
+                this.async = CompletableFuture.class.isAssignableFrom(method.getReturnType());
+                this.idempotent = method.isAnnotationPresent(RpcIdempotent.class);
+            }
+        }
     }
 }
\ No newline at end of file
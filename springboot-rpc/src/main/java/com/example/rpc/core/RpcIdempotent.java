@@ -0,0 +1,16 @@
+package com.example.rpc.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记幂等的服务方法
+ *
+ * 客户端会把方法和参数都相同的并发在途调用合并为一次远程请求，所有调用方共享同一个返回值对象。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RpcIdempotent {
+}
@@ -0,0 +1,126 @@
+package com.example.rpc.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 服务方法表项
+ *
+ * 在服务注册时生成：预先绑定服务实例的MethodHandle、每个参数的类型转换器，
+ * 以及客户端和服务端都能独立算出的紧凑方法ID，调用时不再需要getMethod和反射。
+ */
+public class RpcMethod {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long methodId;
+    private final String signature;
+    private final MethodHandle handle;
+    private final Function<Object, Object>[] converters;
+    private final boolean async;
+
+    @SuppressWarnings("unchecked")
+    RpcMethod(Class<?> serviceInterface, String version, Method method, Object serviceImpl) throws IllegalAccessException {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        this.signature = signatureOf(serviceInterface.getName(), version, method.getName(), parameterTypes);
+        this.methodId = idOf(signature);
+        this.async = CompletableFuture.class.isAssignableFrom(method.getReturnType());
+        this.handle = MethodHandles.publicLookup().unreflect(method)
+            .bindTo(serviceImpl)
+            .asSpreader(Object[].class, parameterTypes.length)
+            .asType(MethodType.methodType(Object.class, Object[].class));
+        this.converters = new Function[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            converters[i] = converterFor(parameterTypes[i]);
+        }
+    }
+
+    public long getMethodId() { return methodId; }
+
+    public String getSignature() { return signature; }
+
+    public boolean isAsync() { return async; }
+
+    /**
+     * 调用服务方法，参数按预先计算的转换器处理
+     */
+    public Object invoke(Object[] args) throws Throwable {
+        Object[] actual = args == null ? new Object[0] : args;
+        if (actual.length != converters.length) {
+            throw new IllegalArgumentException("参数个数不匹配: " + signature);
+        }
+        for (int i = 0; i < actual.length; i++) {
+            Function<Object, Object> converter = converters[i];
+            if (converter != null && actual[i] != null) {
+                actual[i] = converter.apply(actual[i]);
+            }
+        }
+        return handle.invokeExact(actual);
+    }
+
+    /**
+     * 方法签名：接口名:版本#方法名(参数类型,...)
+     */
+    public static String signatureOf(String className, String version, String methodName, Class<?>[] parameterTypes) {
+        StringBuilder sb = new StringBuilder(128)
+            .append(className).append(':').append(version).append('#').append(methodName).append('(');
+        if (parameterTypes != null) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(parameterTypes[i].getName());
+            }
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * 由签名计算64位方法ID（FNV-1a），客户端和服务端算法一致，无需握手同步
+     */
+    public static long idOf(String signature) {
+        long hash = FNV_OFFSET;
+        for (byte b : signature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 基本类型/包装类型参数的转换器（JSON传输会把Long变成Integer等），其余类型不转换
+     */
+    private static Function<Object, Object> converterFor(Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return v -> v instanceof Integer ? v : ((Number) v).intValue();
+        }
+        if (type == long.class || type == Long.class) {
+            return v -> v instanceof Long ? v : ((Number) v).longValue();
+        }
+        if (type == double.class || type == Double.class) {
+            return v -> v instanceof Double ? v : ((Number) v).doubleValue();
+        }
+        if (type == float.class || type == Float.class) {
+            return v -> v instanceof Float ? v : ((Number) v).floatValue();
+        }
+        if (type == short.class || type == Short.class) {
+            return v -> v instanceof Short ? v : ((Number) v).shortValue();
+        }
+        if (type == byte.class || type == Byte.class) {
+            return v -> v instanceof Byte ? v : ((Number) v).byteValue();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return v -> v instanceof Boolean ? v : Boolean.parseBoolean(v.toString());
+        }
+        if (type == char.class || type == Character.class) {
+            return v -> v instanceof Character ? v : v.toString().charAt(0);
+        }
+        return null;
+    }
+}
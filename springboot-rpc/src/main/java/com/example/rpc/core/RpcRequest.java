@@ -9,12 +9,17 @@ public class RpcRequest {
     private Class<?>[] parameterTypes;
     private Object[] parameters;
     private String version;
+    private Long methodId;
     
     // 构造函数
     public RpcRequest() {
         this.requestId = UUID.randomUUID().toString();
     }
     
+    public RpcRequest(String requestId) {
+        this.requestId = requestId;
+    }
+    
     // getter/setter方法
     public String getRequestId() { return requestId; }
     public void setRequestId(String requestId) { this.requestId = requestId; }
@@ -33,4 +38,7 @@ public class RpcRequest {
     
     public String getVersion() { return version; }
     public void setVersion(String version) { this.version = version; }
+    
+    public Long getMethodId() { return methodId; }
+    public void setMethodId(Long methodId) { this.methodId = methodId; }
 }
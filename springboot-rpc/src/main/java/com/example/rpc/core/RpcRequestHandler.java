@@ -1,106 +1,136 @@
 package com.example.rpc.core;
 
-import cn.hutool.core.util.ClassUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
-import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/rpc")
 public class RpcRequestHandler {
     private static final Logger logger = LoggerFactory.getLogger(RpcRequestHandler.class);
-    
+
     @Autowired
     private ServiceRegistry serviceRegistry;
-    
+
+    @Value("${rpc.server.executor.threads:64}")
+    private int executorThreads;
+
+    @Value("${rpc.server.executor.queue-capacity:1024}")
+    private int executorQueueCapacity;
+
+    /**
+     * 业务执行线程池（有界），HTTP和Netty两种入口共用，调用期间不占用Tomcat/IO线程
+     */
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(executorThreads, executorThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(executorQueueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "rpc-worker-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
     /**
      * 处理RPC调用请求
      */
     @PostMapping("/invoke")
-    public RpcResponse handleRpcRequest(@RequestBody RpcRequest request) {
-        RpcResponse response = new RpcResponse(request.getRequestId());
-        
-        try {
-            logger.debug("处理RPC请求: {}.{}", request.getClassName(), request.getMethodName());
-            
-            // 查找服务实例
-            Object serviceInstance = serviceRegistry.getService(request.getClassName(), request.getVersion());
-            if (serviceInstance == null) {
-                response.setError("服务未找到: " + request.getClassName());
-                return response;
-            }
-            
-            // 通过反射调用方法
-            Class<?> serviceClass = serviceInstance.getClass();
-            Method method = serviceClass.getMethod(request.getMethodName(), request.getParameterTypes());
-
-            Object[] parameters = request.getParameters();
-            Class<?>[] paramTypes = method.getParameterTypes();
-            for (int i = 0; i < parameters.length; i++) {
-                if (parameters[i] != null && ClassUtil.isBasicType(paramTypes[i])) {
-                    // 处理基本类型转换（如客户端传的是包装类型，服务端是基本类型）
-                    parameters[i] = convertType(paramTypes[i], parameters[i]);
-                }
-            }
-
-            Object result = method.invoke(serviceInstance, parameters);
-            response.setResult(result);
-            logger.debug("RPC调用成功: {}.{}", request.getClassName(), request.getMethodName());
-            
-        } catch (Exception e) {
-            logger.error("RPC调用处理异常", e);
-            response.setError("方法调用异常: " + e.getMessage());
-        }
-        
-        return response;
+    public CompletableFuture<RpcResponse> handleRpcRequest(@RequestBody RpcRequest request) {
+        return invoke(request);
     }
 
     /**
-     * 类型转换处理（支持基本类型和包装类互转）
+     * 异步执行RPC调用
+     *
+     * 方法查找在调用线程完成，业务方法在执行线程池中运行；
+     * 返回CompletableFuture的服务方法不会阻塞执行线程，完成后再回写结果。
      */
-    private Object convertType(Class<?> targetType, Object value) {
-        // 处理null值
-        if (value == null) return null;
+    public CompletableFuture<RpcResponse> invoke(RpcRequest request) {
+        RpcMethod method = lookup(request);
+        if (method == null) {
+            return CompletableFuture.completedFuture(errorResponse(request,
+                request.getClassName() != null ? "服务未找到: " + request.getClassName() : "方法未找到: " + request.getMethodId()));
+        }
 
-        // 类型匹配时直接返回
-        if (targetType.isInstance(value)) {
-            return value;
+        CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> execute(method, request, future));
+        } catch (RejectedExecutionException e) {
+            future.complete(errorResponse(request, "服务端繁忙，请稍后重试"));
         }
+        return future;
+    }
 
-        // 处理数字类型转换
-        if (value instanceof Number) {
-            Number number = (Number) value;
-            if (targetType == int.class || targetType == Integer.class) return number.intValue();
-            if (targetType == long.class || targetType == Long.class) return number.longValue();
-            if (targetType == double.class || targetType == Double.class) return number.doubleValue();
-            if (targetType == float.class || targetType == Float.class) return number.floatValue();
-            if (targetType == byte.class || targetType == Byte.class) return number.byteValue();
-            if (targetType == short.class || targetType == Short.class) return number.shortValue();
+    private void execute(RpcMethod method, RpcRequest request, CompletableFuture<RpcResponse> future) {
+        Object result;
+        try {
+            result = method.invoke(request.getParameters());
+        } catch (Throwable e) {
+            logger.error("RPC调用处理异常: {}", method.getSignature(), e);
+            future.complete(errorResponse(request, "方法调用异常: " + e.getMessage()));
+            return;
         }
 
-        // 处理布尔类型转换
-        if (targetType == boolean.class || targetType == Boolean.class) {
-            if (value instanceof Boolean) return value;
-            return Boolean.parseBoolean(value.toString());
+        if (method.isAsync() && result != null) {
+            ((CompletableFuture<?>) result).whenComplete((value, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    logger.error("RPC异步调用异常: {}", method.getSignature(), cause);
+                    future.complete(errorResponse(request, "方法调用异常: " + cause.getMessage()));
+                } else {
+                    future.complete(successResponse(request, value));
+                }
+            });
+        } else {
+            future.complete(successResponse(request, result));
         }
+    }
 
-        // 处理字符类型转换
-        if (targetType == char.class || targetType == Character.class) {
-            String str = value.toString();
-            if (!str.isEmpty()) return str.charAt(0);
+    private RpcMethod lookup(RpcRequest request) {
+        Long methodId = request.getMethodId();
+        if (methodId == null) {
+            // 兼容未携带方法ID的旧客户端
+            methodId = RpcMethod.idOf(RpcMethod.signatureOf(request.getClassName(), request.getVersion(),
+                request.getMethodName(), request.getParameterTypes()));
         }
+        return serviceRegistry.getMethod(methodId);
+    }
 
-        throw new IllegalArgumentException(String.format(
-                "类型转换失败: %s -> %s",
-                value.getClass().getSimpleName(),
-                targetType.getSimpleName()
-        ));
+    private RpcResponse successResponse(RpcRequest request, Object result) {
+        RpcResponse response = new RpcResponse(request.getRequestId());
+        response.setResult(result);
+        return response;
     }
-    
+
+    private RpcResponse errorResponse(RpcRequest request, String error) {
+        RpcResponse response = new RpcResponse(request.getRequestId());
+        response.setError(error);
+        return response;
+    }
+
     /**
      * 查询已注册的服务列表
      */
@@ -108,4 +138,4 @@ public class RpcRequestHandler {
     public Set<String> getRegisteredServices() {
         return serviceRegistry.getAllServices();
     }
-}
\ No newline at end of file
+}
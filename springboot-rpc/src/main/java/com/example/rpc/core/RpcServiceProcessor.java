@@ -8,6 +8,11 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class RpcServiceProcessor implements BeanPostProcessor, ApplicationContextAware {
     private static final Logger logger = LoggerFactory.getLogger(RpcServiceProcessor.class);
@@ -50,6 +55,19 @@ public class RpcServiceProcessor implements BeanPostProcessor, ApplicationContex
             }
         }
         
-        serviceRegistry.registerService(interfaceClass, rpcService.version(), serviceBean);
+        // 注册时生成方法表，调用时按方法ID直接分派
+        List<RpcMethod> methods = new ArrayList<>();
+        for (Method method : interfaceClass.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            try {
+                methods.add(new RpcMethod(interfaceClass, rpcService.version(), method, serviceBean));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("无法访问服务方法: " + method, e);
+            }
+        }
+        
+        serviceRegistry.registerService(interfaceClass, rpcService.version(), serviceBean, methods);
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,13 +17,37 @@ public class ServiceRegistry {
     // 服务实例注册表：接口名 -> 服务实现实例
     private final Map<String, Object> serviceMap = new ConcurrentHashMap<>();
     
+    // 方法表：方法ID -> 预绑定的服务方法
+    private final Map<Long, RpcMethod> methodTable = new ConcurrentHashMap<>();
+    
     /**
      * 注册服务实例
      */
     public void registerService(Class<?> serviceInterface, String version, Object serviceImpl) {
+        registerService(serviceInterface, version, serviceImpl, List.of());
+    }
+    
+    /**
+     * 注册服务实例及其方法表
+     */
+    public void registerService(Class<?> serviceInterface, String version, Object serviceImpl, List<RpcMethod> methods) {
         String serviceName = generateServiceName(serviceInterface, version);
+        for (RpcMethod method : methods) {
+            RpcMethod existing = methodTable.get(method.getMethodId());
+            if (existing != null && !existing.getSignature().equals(method.getSignature())) {
+                throw new IllegalStateException("方法ID冲突: " + existing.getSignature() + " / " + method.getSignature());
+            }
+            methodTable.put(method.getMethodId(), method);
+        }
         serviceMap.put(serviceName, serviceImpl);
-        logger.info("注册服务成功: {} -> {}", serviceName, serviceImpl.getClass().getName());
+        logger.info("注册服务成功: {} -> {}, 方法数: {}", serviceName, serviceImpl.getClass().getName(), methods.size());
+    }
+    
+    /**
+     * 按方法ID查找服务方法
+     */
+    public RpcMethod getMethod(long methodId) {
+        return methodTable.get(methodId);
     }
     
     /**
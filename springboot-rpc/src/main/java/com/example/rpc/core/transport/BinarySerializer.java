@@ -0,0 +1,311 @@
+package com.example.rpc.core.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 紧凑二进制序列化器
+ *
+ * 每个值以 1 字节类型标签开头，基本类型和包装类型按原类型编码，
+ * 服务端拿到的就是 Long/Integer 等真实类型，不再需要 JSON 之后的类型修补。
+ * 其余对象要求实现 Serializable，走 JDK 序列化兜底。
+ *
+ * 读取的都是对端发来的字节：长度和元素个数在分配前按剩余字节数校验，嵌套层数有上限；
+ * JDK 序列化兜底只接受白名单内的类型。
+ */
+public final class BinarySerializer {
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte SHORT = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte CHAR = 8;
+    private static final byte STRING = 9;
+    private static final byte LIST = 10;
+    private static final byte SET = 11;
+    private static final byte MAP = 12;
+    private static final byte BYTES = 13;
+    private static final byte OBJECT_ARRAY = 14;
+    private static final byte SERIALIZABLE = 15;
+
+    /**
+     * 集合、数组嵌套的最大层数
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * JDK 反序列化白名单：RPC 包下的 DTO 和常用的 JDK 值类型，其余一律拒绝，
+     * 同时限制对象图的深度、引用数、数组长度和字节数
+     */
+    private static final ObjectInputFilter SERIAL_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=16;maxrefs=10000;maxarray=65536;maxbytes=4194304;"
+            + "java.lang.String;java.lang.Number;java.lang.Boolean;java.lang.Byte;java.lang.Short;"
+            + "java.lang.Integer;java.lang.Long;java.lang.Float;java.lang.Double;java.lang.Character;java.lang.Enum;"
+            + "java.math.BigInteger;java.math.BigDecimal;java.time.*;"
+            + "java.util.ArrayList;java.util.LinkedList;java.util.HashMap;java.util.LinkedHashMap;java.util.TreeMap;"
+            + "java.util.HashSet;java.util.LinkedHashSet;java.util.TreeSet;java.util.Date;java.util.UUID;"
+            + "java.util.CollSer;java.util.ImmutableCollections$*;java.util.Collections$Unmodifiable*;"
+            + "com.example.rpc.**;!*");
+
+    private BinarySerializer() {
+    }
+
+    /**
+     * 写入任意值
+     */
+    public static void writeValue(ByteBuf buf, Object value) {
+        if (value == null) {
+            buf.writeByte(NULL);
+        } else if (value instanceof String) {
+            buf.writeByte(STRING);
+            writeString(buf, (String) value);
+        } else if (value instanceof Integer) {
+            buf.writeByte(INT);
+            writeVarLong(buf, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            buf.writeByte(LONG);
+            writeVarLong(buf, zigZag((Long) value));
+        } else if (value instanceof Boolean) {
+            buf.writeByte(BOOLEAN);
+            buf.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            buf.writeByte(DOUBLE);
+            buf.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            buf.writeByte(FLOAT);
+            buf.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            buf.writeByte(SHORT);
+            buf.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            buf.writeByte(BYTE);
+            buf.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            buf.writeByte(CHAR);
+            buf.writeChar((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            buf.writeByte(BYTES);
+            writeVarInt(buf, bytes.length);
+            buf.writeBytes(bytes);
+        } else if (value instanceof List) {
+            buf.writeByte(LIST);
+            writeCollection(buf, (List<?>) value);
+        } else if (value instanceof Set) {
+            buf.writeByte(SET);
+            writeCollection(buf, (Set<?>) value);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            buf.writeByte(MAP);
+            writeVarInt(buf, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(buf, entry.getKey());
+                writeValue(buf, entry.getValue());
+            }
+        } else if (value instanceof Object[] && value.getClass() == Object[].class) {
+            Object[] array = (Object[]) value;
+            buf.writeByte(OBJECT_ARRAY);
+            writeVarInt(buf, array.length);
+            for (Object element : array) {
+                writeValue(buf, element);
+            }
+        } else if (value instanceof Serializable) {
+            buf.writeByte(SERIALIZABLE);
+            writeSerializable(buf, value);
+        } else {
+            throw new IllegalArgumentException("不支持序列化的类型: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * 读取任意值
+     */
+    public static Object readValue(ByteBuf buf) {
+        return readValue(buf, 0);
+    }
+
+    private static Object readValue(ByteBuf buf, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("嵌套层数超过 " + MAX_DEPTH);
+        }
+        byte tag = buf.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(buf);
+            case INT:
+                return (int) unZigZag(readVarLong(buf));
+            case LONG:
+                return unZigZag(readVarLong(buf));
+            case BOOLEAN:
+                return buf.readBoolean();
+            case DOUBLE:
+                return buf.readDouble();
+            case FLOAT:
+                return buf.readFloat();
+            case SHORT:
+                return buf.readShort();
+            case BYTE:
+                return buf.readByte();
+            case CHAR:
+                return buf.readChar();
+            case BYTES: {
+                byte[] bytes = new byte[readLength(buf)];
+                buf.readBytes(bytes);
+                return bytes;
+            }
+            case LIST: {
+                int size = readLength(buf);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buf, depth + 1));
+                }
+                return list;
+            }
+            case SET: {
+                int size = readLength(buf);
+                Set<Object> set = new LinkedHashSet<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    set.add(readValue(buf, depth + 1));
+                }
+                return set;
+            }
+            case MAP: {
+                int size = readLength(buf);
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(buf, depth + 1), readValue(buf, depth + 1));
+                }
+                return map;
+            }
+            case OBJECT_ARRAY: {
+                Object[] array = new Object[readLength(buf)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readValue(buf, depth + 1);
+                }
+                return array;
+            }
+            case SERIALIZABLE:
+                return readSerializable(buf);
+            default:
+                throw new IllegalArgumentException("未知的类型标签: " + tag);
+        }
+    }
+
+    public static void writeString(ByteBuf buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buf, bytes.length);
+        buf.writeBytes(bytes);
+    }
+
+    public static String readString(ByteBuf buf) {
+        int length = readLength(buf);
+        String value = buf.toString(buf.readerIndex(), length, StandardCharsets.UTF_8);
+        buf.skipBytes(length);
+        return value;
+    }
+
+    /**
+     * 读取长度或元素个数
+     * 每个字节或元素至少占 1 字节，超过剩余字节数的必然是伪造的，直接拒绝而不是按其分配内存
+     */
+    public static int readLength(ByteBuf buf) {
+        int length = readVarInt(buf);
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new IllegalArgumentException("非法的长度: " + length + "，剩余 " + buf.readableBytes() + " 字节");
+        }
+        return length;
+    }
+
+    public static void writeVarInt(ByteBuf buf, int value) {
+        writeVarLong(buf, value & 0xFFFFFFFFL);
+    }
+
+    public static int readVarInt(ByteBuf buf) {
+        return (int) readVarLong(buf);
+    }
+
+    private static void writeVarLong(ByteBuf buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuf buf) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buf.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("VarLong 格式错误");
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeCollection(ByteBuf buf, Collection<?> collection) {
+        writeVarInt(buf, collection.size());
+        for (Object element : collection) {
+            writeValue(buf, element);
+        }
+    }
+
+    private static void writeSerializable(ByteBuf buf, Object value) {
+        int lengthIndex = buf.writerIndex();
+        buf.writeInt(0);
+        try (ObjectOutputStream out = new ObjectOutputStream(new ByteBufOutputStream(buf))) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("对象序列化失败: " + value.getClass().getName(), e);
+        }
+        buf.setInt(lengthIndex, buf.writerIndex() - lengthIndex - 4);
+    }
+
+    private static Object readSerializable(ByteBuf buf) {
+        int length = buf.readInt();
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new IllegalArgumentException("非法的长度: " + length + "，剩余 " + buf.readableBytes() + " 字节");
+        }
+        ByteBuf slice = buf.readSlice(length);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteBufInputStream(slice))) {
+            in.setObjectInputFilter(SERIAL_FILTER);
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("对象反序列化失败", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP + JSON 传输（原有实现）
+ *
+ * 超时由RestTemplate的连接/读超时统一控制，单次调用的timeout参数不生效。
+ */
+public class HttpRpcTransport implements RpcTransport {
+
+    private final RestTemplate restTemplate;
+    private final String serverUrl;
+
+    public HttpRpcTransport(RestTemplate restTemplate, String serverUrl) {
+        this.restTemplate = restTemplate;
+        this.serverUrl = serverUrl;
+    }
+
+    @Override
+    public RpcResponse send(RpcRequest request, long timeout) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<RpcRequest> entity = new HttpEntity<>(request, headers);
+
+        // 发送HTTP POST请求
+        ResponseEntity<RpcResponse> responseEntity = restTemplate.postForEntity(
+            serverUrl + "/rpc/invoke",
+            entity,
+            RpcResponse.class
+        );
+        return responseEntity.getBody();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单条持久连接
+ *
+ * 请求按自增requestId登记到pending表，响应到达后按id完成对应的Future，
+ * 因此多个在途调用可以共享同一条连接。
+ * 开启批量窗口后，窗口内到达的请求合并为一个批量帧写出。
+ */
+public class NettyRpcConnection extends SimpleChannelInboundHandler<RpcFrame> {
+
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final Map<Long, CompletableFuture<RpcResponse>> pending = new ConcurrentHashMap<>();
+    private final long batchWindowMicros;
+    private final int batchMaxSize;
+    private final Queue<RpcFrame> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile Channel channel;
+
+    public NettyRpcConnection() {
+        this(0, 1);
+    }
+
+    /**
+     * @param batchWindowMicros 批量窗口（微秒），0表示不合并
+     * @param batchMaxSize      单个批量帧最多包含的请求数
+     */
+    public NettyRpcConnection(long batchWindowMicros, int batchMaxSize) {
+        this.batchWindowMicros = batchWindowMicros;
+        this.batchMaxSize = Math.max(1, batchMaxSize);
+    }
+
+    void bind(Channel channel) {
+        this.channel = channel;
+    }
+
+    public boolean isActive() {
+        Channel ch = channel;
+        return ch != null && ch.isActive();
+    }
+
+    /**
+     * 当前在途请求数
+     */
+    public int inflight() {
+        return pending.size();
+    }
+
+    /**
+     * 异步发送请求，超时后Future以TimeoutException结束
+     */
+    public CompletableFuture<RpcResponse> send(RpcRequest request, long timeout) {
+        CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+        Channel ch = channel;
+        if (ch == null || !ch.isActive()) {
+            future.completeExceptionally(new IOException("连接不可用"));
+            return future;
+        }
+
+        long requestId = idGenerator.incrementAndGet();
+        pending.put(requestId, future);
+
+        ScheduledFuture<?> timeoutTask = ch.eventLoop().schedule(() -> {
+            if (pending.remove(requestId) != null) {
+                future.completeExceptionally(new TimeoutException("RPC调用超时: " + timeout + "ms"));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((r, e) -> timeoutTask.cancel(false));
+
+        RpcFrame frame = new RpcFrame(RpcFrame.TYPE_REQUEST, requestId, request);
+        if (batchWindowMicros <= 0 || batchMaxSize <= 1) {
+            write(ch, frame, List.of(requestId));
+            return future;
+        }
+
+        outbound.offer(frame);
+        if (flushScheduled.compareAndSet(false, true)) {
+            ch.eventLoop().schedule(() -> flushOutbound(ch), batchWindowMicros, TimeUnit.MICROSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * 把窗口内积攒的请求写出：单个请求走普通帧，多个请求合并为批量帧
+     */
+    private void flushOutbound(Channel ch) {
+        flushScheduled.set(false);
+        List<RpcFrame> batch = new ArrayList<>(batchMaxSize);
+        RpcFrame frame;
+        while ((frame = outbound.poll()) != null) {
+            batch.add(frame);
+            if (batch.size() == batchMaxSize) {
+                writeBatch(ch, batch);
+                batch = new ArrayList<>(batchMaxSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(ch, batch);
+        }
+    }
+
+    private void writeBatch(Channel ch, List<RpcFrame> batch) {
+        List<Long> requestIds = new ArrayList<>(batch.size());
+        for (RpcFrame item : batch) {
+            requestIds.add(item.getRequestId());
+        }
+        if (batch.size() == 1) {
+            write(ch, batch.get(0), requestIds);
+        } else {
+            write(ch, new RpcFrame(RpcFrame.TYPE_BATCH_REQUEST, 0, batch), requestIds);
+        }
+    }
+
+    private void write(Channel ch, RpcFrame frame, List<Long> requestIds) {
+        ch.writeAndFlush(frame).addListener(f -> {
+            if (!f.isSuccess()) {
+                for (Long requestId : requestIds) {
+                    CompletableFuture<RpcResponse> future = pending.remove(requestId);
+                    if (future != null) {
+                        future.completeExceptionally(f.cause());
+                    }
+                }
+            }
+        });
+    }
+
+    public void close() {
+        Channel ch = channel;
+        if (ch != null) {
+            ch.close();
+        }
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, RpcFrame frame) {
+        CompletableFuture<RpcResponse> future = pending.remove(frame.getRequestId());
+        if (future != null) {
+            future.complete((RpcResponse) frame.getBody());
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        IOException closed = new IOException("连接已关闭");
+        pending.keySet().forEach(id -> {
+            CompletableFuture<RpcResponse> future = pending.remove(id);
+            if (future != null) {
+                future.completeExceptionally(closed);
+            }
+        });
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.close();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单个服务端节点
+ *
+ * 维护到该节点的固定数量持久连接和健康状态：连续网络失败达到阈值后摘除一段时间，
+ * 摘除时长随连续摘除次数递增；到期后重新参与选择，首个请求成功即恢复，失败则立即再次摘除。
+ *
+ * 连接异步建立：每个槽位保存一个连接 Future，同一槽位并发的请求共用一次建连，
+ * 建连失败或连接断开后由下一个请求替换，不阻塞其他槽位和调用线程。
+ */
+public class NettyRpcEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(NettyRpcEndpoint.class);
+
+    private final String address;
+    private final String host;
+    private final int port;
+    private final Bootstrap bootstrap;
+    private final AtomicReferenceArray<CompletableFuture<NettyRpcConnection>> connections;
+    private final AtomicInteger next = new AtomicInteger();
+    private final long batchWindowMicros;
+    private final int batchMaxSize;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final int failureThreshold;
+    private final long baseEjectionNanos;
+    private volatile int ejectionCount;
+    private volatile long ejectedUntil;
+
+    public NettyRpcEndpoint(String address, Bootstrap bootstrap, int connectionCount,
+                            long batchWindowMicros, int batchMaxSize,
+                            int failureThreshold, long baseEjectionMillis) {
+        int idx = address.lastIndexOf(':');
+        this.address = address;
+        this.host = address.substring(0, idx);
+        this.port = Integer.parseInt(address.substring(idx + 1));
+        this.bootstrap = bootstrap;
+        this.connections = new AtomicReferenceArray<>(Math.max(1, connectionCount));
+        this.batchWindowMicros = batchWindowMicros;
+        this.batchMaxSize = batchMaxSize;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseEjectionNanos = TimeUnit.MILLISECONDS.toNanos(baseEjectionMillis);
+    }
+
+    public String getAddress() { return address; }
+
+    /**
+     * 当前未完成的请求数，用于最少在途请求选择
+     */
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * 是否处于可用状态（未被摘除或摘除已到期）
+     */
+    public boolean isAvailable(long now) {
+        return ejectedUntil - now <= 0;
+    }
+
+    long ejectedUntil() {
+        return ejectedUntil;
+    }
+
+    /**
+     * 异步发送请求并记录健康状态，只有网络异常和超时计为失败，业务错误不影响节点健康
+     * 超时从调用开始计时，建连的时间也计入，连接建立后只用剩余的时间等待响应
+     */
+    public CompletableFuture<RpcResponse> send(RpcRequest request, long timeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        outstanding.incrementAndGet();
+        CompletableFuture<NettyRpcConnection> connection = acquire();
+        if (!connection.isDone()) {
+            // 建连 Future 由同一槽位的请求共享，只在副本上设置本次调用的超时
+            CompletableFuture<NettyRpcConnection> bounded = connection.copy();
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS)
+                .execute(() -> bounded.completeExceptionally(timeoutException(timeout)));
+            connection = bounded;
+        }
+        return connection.thenCompose(conn -> {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            return remaining > 0 ? conn.send(request, remaining)
+                : CompletableFuture.<RpcResponse>failedFuture(timeoutException(timeout));
+        }).whenComplete((response, error) -> {
+            outstanding.decrementAndGet();
+            if (error != null) {
+                onFailure(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                onSuccess();
+            }
+        });
+    }
+
+    private static TimeoutException timeoutException(long timeout) {
+        return new TimeoutException("RPC调用超时: " + timeout + "ms");
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (ejectionCount > 0) {
+            ejectionCount = 0;
+            logger.info("RPC节点恢复: {}", address);
+        }
+    }
+
+    private void onFailure(Throwable error) {
+        long now = System.nanoTime();
+        if (!isAvailable(now)) {
+            // 摘除期间陆续返回的失败（如在途请求超时）不再延长摘除时间
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            // 保留阈值-1的失败计数，摘除到期后的首个失败会立即再次摘除
+            consecutiveFailures.set(failureThreshold - 1);
+            int count = Math.min(ejectionCount + 1, 10);
+            ejectionCount = count;
+            ejectedUntil = now + baseEjectionNanos * count;
+            logger.warn("RPC节点连续失败，摘除 {}ms: {}, 原因: {}",
+                TimeUnit.NANOSECONDS.toMillis(baseEjectionNanos * count), address, error.getMessage());
+        }
+    }
+
+    /**
+     * 取槽位上的连接，正在建连时返回同一个 Future；没有可用连接时 CAS 占位后发起建连
+     */
+    private CompletableFuture<NettyRpcConnection> acquire() {
+        int slot = Math.floorMod(next.getAndIncrement(), connections.length());
+        while (true) {
+            CompletableFuture<NettyRpcConnection> current = connections.get(slot);
+            if (current != null && (!current.isDone() || isActive(current))) {
+                return current;
+            }
+            CompletableFuture<NettyRpcConnection> connecting = new CompletableFuture<>();
+            if (connections.compareAndSet(slot, current, connecting)) {
+                connect(connecting);
+                return connecting;
+            }
+        }
+    }
+
+    private static boolean isActive(CompletableFuture<NettyRpcConnection> future) {
+        NettyRpcConnection connection = future.getNow(null);
+        return connection != null && connection.isActive();
+    }
+
+    private void connect(CompletableFuture<NettyRpcConnection> connecting) {
+        NettyRpcConnection connection = new NettyRpcConnection(batchWindowMicros, batchMaxSize);
+        bootstrap.clone()
+            .handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    ch.pipeline()
+                        .addLast(new LengthFieldBasedFrameDecoder(RpcFrameCodec.MAX_FRAME_LENGTH, 0, 4, 0, 4))
+                        .addLast(new RpcFrameCodec())
+                        .addLast(connection);
+                }
+            })
+            .connect(host, port)
+            .addListener((ChannelFuture future) -> {
+                if (future.isSuccess()) {
+                    connection.bind(future.channel());
+                    logger.info("建立RPC连接: {}", address);
+                    connecting.complete(connection);
+                } else {
+                    connecting.completeExceptionally(future.cause());
+                }
+            });
+    }
+
+    /**
+     * 节点状态
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("address", address);
+        status.put("outstanding", outstanding.get());
+        status.put("available", isAvailable(System.nanoTime()));
+        status.put("ejectionCount", ejectionCount);
+        return status;
+    }
+
+    public void close() {
+        for (int i = 0; i < connections.length(); i++) {
+            CompletableFuture<NettyRpcConnection> connection = connections.get(i);
+            if (connection != null) {
+                // 仍在建连的连接在建立后关闭
+                connection.thenAccept(NettyRpcConnection::close);
+            }
+        }
+    }
+}
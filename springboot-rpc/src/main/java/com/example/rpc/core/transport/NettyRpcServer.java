@@ -0,0 +1,137 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcRequestHandler;
+import com.example.rpc.core.RpcResponse;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * 基于Netty的二进制RPC服务端
+ *
+ * IO线程只负责编解码，业务方法交给RpcRequestHandler的有界线程池执行，避免慢调用阻塞同一连接上的其他请求。
+ * 需要显式设置 rpc.netty.server.enabled=true 才会监听端口。
+ */
+@Component
+@ConditionalOnProperty(name = "rpc.netty.server.enabled", havingValue = "true")
+public class NettyRpcServer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(NettyRpcServer.class);
+
+    @Autowired
+    private RpcRequestHandler rpcRequestHandler;
+
+    @Value("${rpc.netty.server.port:9090}")
+    private int port;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup ioGroup;
+    private Channel serverChannel;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        bossGroup = new NioEventLoopGroup(1);
+        ioGroup = new NioEventLoopGroup();
+        RequestDispatcher dispatcher = new RequestDispatcher();
+
+        ServerBootstrap bootstrap = new ServerBootstrap()
+            .group(bossGroup, ioGroup)
+            .channel(NioServerSocketChannel.class)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childOption(ChannelOption.SO_KEEPALIVE, true)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    ch.pipeline()
+                        .addLast(new LengthFieldBasedFrameDecoder(RpcFrameCodec.MAX_FRAME_LENGTH, 0, 4, 0, 4))
+                        .addLast(new RpcFrameCodec())
+                        .addLast(dispatcher);
+                }
+            });
+
+        try {
+            serverChannel = bootstrap.bind(port).sync().channel();
+            running = true;
+            logger.info("Netty RPC服务端启动成功，端口: {}", port);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Netty RPC服务端启动被中断", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+        }
+        if (ioGroup != null) {
+            ioGroup.shutdownGracefully();
+        }
+        logger.info("Netty RPC服务端已停止");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 请求分发处理器，所有连接共享
+     */
+    @ChannelHandler.Sharable
+    private class RequestDispatcher extends SimpleChannelInboundHandler<RpcFrame> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, RpcFrame frame) {
+            if (frame.getType() != RpcFrame.TYPE_REQUEST) {
+                return;
+            }
+            long requestId = frame.getRequestId();
+            RpcRequest request = (RpcRequest) frame.getBody();
+            rpcRequestHandler.invoke(request).thenAccept(response -> writeResponse(ctx, requestId, response));
+        }
+
+        private void writeResponse(ChannelHandlerContext ctx, long requestId, RpcResponse response) {
+            ctx.writeAndFlush(new RpcFrame(RpcFrame.TYPE_RESPONSE, requestId, response)).addListener(future -> {
+                // 返回值无法编码时回写错误，避免客户端只能等到超时
+                if (!future.isSuccess() && ctx.channel().isActive()) {
+                    logger.error("RPC响应编码失败: requestId={}", requestId, future.cause());
+                    writeError(ctx, requestId, "响应序列化失败: " + future.cause().getMessage());
+                }
+            });
+        }
+
+        private void writeError(ChannelHandlerContext ctx, long requestId, String error) {
+            RpcResponse response = new RpcResponse();
+            response.setError(error);
+            ctx.writeAndFlush(new RpcFrame(RpcFrame.TYPE_RESPONSE, requestId, response));
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            logger.error("RPC连接异常，关闭连接: {}", ctx.channel().remoteAddress(), cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 基于Netty的二进制传输
+ *
+ * 支持多个服务端节点，按P2C（随机取两个可用节点，选在途请求较少者）做负载均衡，
+ * 被摘除的节点不参与选择；全部节点都被摘除时选择最早到期的节点兜底。
+ */
+public class NettyRpcTransport implements RpcTransport, AutoCloseable {
+
+    private final List<NettyRpcEndpoint> endpoints;
+    private final EventLoopGroup group;
+
+    public NettyRpcTransport(List<String> addresses, Options options) {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个RPC服务端地址");
+        }
+        this.group = new NioEventLoopGroup(Math.min(addresses.size() * Math.max(1, options.connections),
+            Runtime.getRuntime().availableProcessors()));
+        Bootstrap bootstrap = new Bootstrap()
+            .group(group)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, options.connectTimeoutMillis);
+        List<NettyRpcEndpoint> list = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            list.add(new NettyRpcEndpoint(address.trim(), bootstrap, options.connections,
+                options.batchWindowMicros, options.batchMaxSize,
+                options.failureThreshold, options.ejectionMillis));
+        }
+        this.endpoints = List.copyOf(list);
+    }
+
+    @Override
+    public RpcResponse send(RpcRequest request, long timeout) {
+        try {
+            return sendAsync(request, timeout).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return errorResponse(request, "RPC调用被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                return errorResponse(request, cause.getMessage());
+            }
+            return errorResponse(request, "网络请求失败: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * 异步发送请求
+     */
+    public CompletableFuture<RpcResponse> sendAsync(RpcRequest request, long timeout) {
+        return select().send(request, timeout).thenApply(response -> {
+            response.setRequestId(request.getRequestId());
+            return response;
+        });
+    }
+
+    /**
+     * P2C选择节点
+     */
+    NettyRpcEndpoint select() {
+        int size = endpoints.size();
+        if (size == 1) {
+            return endpoints.get(0);
+        }
+
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(size);
+        int b = random.nextInt(size - 1);
+        if (b >= a) {
+            b++;
+        }
+        NettyRpcEndpoint first = endpoints.get(a);
+        NettyRpcEndpoint second = endpoints.get(b);
+        boolean firstAvailable = first.isAvailable(now);
+        boolean secondAvailable = second.isAvailable(now);
+        if (firstAvailable && secondAvailable) {
+            return second.outstanding() < first.outstanding() ? second : first;
+        }
+        if (firstAvailable) {
+            return first;
+        }
+        if (secondAvailable) {
+            return second;
+        }
+
+        // 两个候选都被摘除时，顺序查找其他可用节点，仍没有则选最早到期的节点
+        NettyRpcEndpoint earliest = first;
+        for (int i = 0; i < size; i++) {
+            NettyRpcEndpoint endpoint = endpoints.get((a + i) % size);
+            if (endpoint.isAvailable(now)) {
+                return endpoint;
+            }
+            if (endpoint.ejectedUntil() - earliest.ejectedUntil() < 0) {
+                earliest = endpoint;
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * 各节点状态
+     */
+    public List<Map<String, Object>> status() {
+        List<Map<String, Object>> status = new ArrayList<>(endpoints.size());
+        for (NettyRpcEndpoint endpoint : endpoints) {
+            status.add(endpoint.status());
+        }
+        return status;
+    }
+
+    private RpcResponse errorResponse(RpcRequest request, String error) {
+        RpcResponse response = new RpcResponse(request.getRequestId());
+        response.setError(error);
+        return response;
+    }
+
+    @Override
+    public void close() {
+        for (NettyRpcEndpoint endpoint : endpoints) {
+            endpoint.close();
+        }
+        group.shutdownGracefully();
+    }
+
+    /**
+     * 传输参数
+     */
+    public static class Options {
+        private final int connections;
+        private final int connectTimeoutMillis;
+        private long batchWindowMicros;
+        private int batchMaxSize = 1;
+        private int failureThreshold = 3;
+        private long ejectionMillis = 5000;
+
+        public Options(int connections, int connectTimeoutMillis) {
+            this.connections = connections;
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public Options batch(long windowMicros, int maxSize) {
+            this.batchWindowMicros = windowMicros;
+            this.batchMaxSize = maxSize;
+            return this;
+        }
+
+        public Options ejection(int failureThreshold, long ejectionMillis) {
+            this.failureThreshold = failureThreshold;
+            this.ejectionMillis = ejectionMillis;
+            return this;
+        }
+    }
+}
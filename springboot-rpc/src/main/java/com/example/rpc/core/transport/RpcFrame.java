@@ -0,0 +1,35 @@
+package com.example.rpc.core.transport;
+
+/**
+ * 二进制传输帧
+ *
+ * 帧格式：length(4) | magic(1) | type(1) | requestId(8) | body
+ * 同一连接上的多个在途调用依靠 requestId 区分，响应可以乱序返回。
+ */
+public class RpcFrame {
+
+    public static final byte MAGIC = (byte) 0xB1;
+
+    public static final byte TYPE_REQUEST = 1;
+    public static final byte TYPE_RESPONSE = 2;
+    /**
+     * 批量请求帧：body为多个请求帧，服务端拆开后逐个处理、逐个响应
+     */
+    public static final byte TYPE_BATCH_REQUEST = 3;
+
+    private final byte type;
+    private final long requestId;
+    private final Object body;
+
+    public RpcFrame(byte type, long requestId, Object body) {
+        this.type = type;
+        this.requestId = requestId;
+        this.body = body;
+    }
+
+    public byte getType() { return type; }
+
+    public long getRequestId() { return requestId; }
+
+    public Object getBody() { return body; }
+}
@@ -0,0 +1,175 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二进制帧编解码器
+ *
+ * 需要配合 LengthFieldBasedFrameDecoder 使用，解码时拿到的已经是一个完整帧（不含长度字段）。
+ */
+public class RpcFrameCodec extends ByteToMessageCodec<RpcFrame> {
+
+    /**
+     * 最大帧长度
+     */
+    public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private static final byte STATUS_OK = 0;
+    private static final byte STATUS_ERROR = 1;
+
+    /**
+     * 请求体格式：携带方法ID时只传ID和参数，否则传完整的类名/方法名/参数类型
+     */
+    private static final byte REQUEST_BY_ID = 1;
+    private static final byte REQUEST_BY_NAME = 2;
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+        "boolean", boolean.class, "byte", byte.class, "short", short.class, "int", int.class,
+        "long", long.class, "float", float.class, "double", double.class, "char", char.class
+    );
+
+    private static final Map<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, RpcFrame frame, ByteBuf out) {
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        out.writeByte(RpcFrame.MAGIC);
+        out.writeByte(frame.getType());
+        out.writeLong(frame.getRequestId());
+        if (frame.getType() == RpcFrame.TYPE_REQUEST) {
+            writeRequest(out, (RpcRequest) frame.getBody());
+        } else if (frame.getType() == RpcFrame.TYPE_BATCH_REQUEST) {
+            @SuppressWarnings("unchecked")
+            List<RpcFrame> frames = (List<RpcFrame>) frame.getBody();
+            BinarySerializer.writeVarInt(out, frames.size());
+            for (RpcFrame item : frames) {
+                out.writeLong(item.getRequestId());
+                writeRequest(out, (RpcRequest) item.getBody());
+            }
+        } else {
+            writeResponse(out, (RpcResponse) frame.getBody());
+        }
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        if (in.readByte() != RpcFrame.MAGIC) {
+            throw new CorruptedFrameException("非法的RPC帧");
+        }
+        byte type = in.readByte();
+        long requestId = in.readLong();
+        if (type == RpcFrame.TYPE_BATCH_REQUEST) {
+            // 批量帧直接拆成多个普通请求帧交给后续处理器
+            int count = BinarySerializer.readLength(in);
+            for (int i = 0; i < count; i++) {
+                long itemId = in.readLong();
+                out.add(new RpcFrame(RpcFrame.TYPE_REQUEST, itemId, readRequest(in)));
+            }
+            return;
+        }
+        Object body = type == RpcFrame.TYPE_REQUEST ? readRequest(in) : readResponse(in);
+        out.add(new RpcFrame(type, requestId, body));
+    }
+
+    private void writeRequest(ByteBuf out, RpcRequest request) {
+        Object[] parameters = request.getParameters();
+        if (request.getMethodId() != null) {
+            out.writeByte(REQUEST_BY_ID);
+            out.writeLong(request.getMethodId());
+            int count = parameters == null ? 0 : parameters.length;
+            BinarySerializer.writeVarInt(out, count);
+            for (int i = 0; i < count; i++) {
+                BinarySerializer.writeValue(out, parameters[i]);
+            }
+            return;
+        }
+
+        out.writeByte(REQUEST_BY_NAME);
+        BinarySerializer.writeString(out, request.getClassName());
+        BinarySerializer.writeString(out, request.getMethodName());
+        BinarySerializer.writeString(out, request.getVersion());
+        Class<?>[] parameterTypes = request.getParameterTypes();
+        int count = parameterTypes == null ? 0 : parameterTypes.length;
+        BinarySerializer.writeVarInt(out, count);
+        for (int i = 0; i < count; i++) {
+            BinarySerializer.writeString(out, parameterTypes[i].getName());
+        }
+        for (int i = 0; i < count; i++) {
+            BinarySerializer.writeValue(out, parameters[i]);
+        }
+    }
+
+    private RpcRequest readRequest(ByteBuf in) {
+        RpcRequest request = new RpcRequest(null);
+        if (in.readByte() == REQUEST_BY_ID) {
+            request.setMethodId(in.readLong());
+            Object[] parameters = new Object[BinarySerializer.readLength(in)];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = BinarySerializer.readValue(in);
+            }
+            request.setParameters(parameters);
+            return request;
+        }
+
+        request.setClassName(BinarySerializer.readString(in));
+        request.setMethodName(BinarySerializer.readString(in));
+        request.setVersion(BinarySerializer.readString(in));
+        int count = BinarySerializer.readLength(in);
+        Class<?>[] parameterTypes = new Class<?>[count];
+        Object[] parameters = new Object[count];
+        for (int i = 0; i < count; i++) {
+            parameterTypes[i] = resolveClass(BinarySerializer.readString(in));
+        }
+        for (int i = 0; i < count; i++) {
+            parameters[i] = BinarySerializer.readValue(in);
+        }
+        request.setParameterTypes(parameterTypes);
+        request.setParameters(parameters);
+        return request;
+    }
+
+    private void writeResponse(ByteBuf out, RpcResponse response) {
+        if (response.isSuccess()) {
+            out.writeByte(STATUS_OK);
+            BinarySerializer.writeValue(out, response.getResult());
+        } else {
+            out.writeByte(STATUS_ERROR);
+            BinarySerializer.writeString(out, String.valueOf(response.getError()));
+        }
+    }
+
+    private RpcResponse readResponse(ByteBuf in) {
+        RpcResponse response = new RpcResponse();
+        if (in.readByte() == STATUS_OK) {
+            response.setResult(BinarySerializer.readValue(in));
+        } else {
+            response.setError(BinarySerializer.readString(in));
+        }
+        return response;
+    }
+
+    private static Class<?> resolveClass(String name) {
+        Class<?> primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+        return CLASS_CACHE.computeIfAbsent(name, n -> {
+            try {
+                return Class.forName(n, false, RpcFrameCodec.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("参数类型不存在: " + n, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rpc.core.transport;
+
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+
+/**
+ * RPC传输层
+ */
+public interface RpcTransport {
+
+    /**
+     * 发送请求并等待响应，超过timeout毫秒返回失败响应
+     */
+    RpcResponse send(RpcRequest request, long timeout);
+}
@@ -0,0 +1,125 @@
+package com.example.rpc.demo;
+
+import com.example.rpc.core.RpcClient;
+import com.example.rpc.core.RpcMethod;
+import com.example.rpc.core.RpcReference;
+import com.example.rpc.core.RpcRequest;
+import com.example.rpc.core.RpcResponse;
+import com.example.rpc.core.transport.RpcTransport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 传输层压测：对比 HTTP+JSON 与 Netty 二进制传输的吞吐和延迟
+ */
+@RestController
+@RequestMapping("/benchmark")
+public class BenchmarkController {
+
+    private static final long GET_USER_NAME_ID = RpcMethod.idOf(
+        RpcMethod.signatureOf(UserService.class.getName(), "1.0", "getUserName", new Class<?>[]{Long.class}));
+
+    @Autowired
+    private RpcClient rpcClient;
+
+    @RpcReference
+    private UserService userService;
+
+    @GetMapping
+    public Map<String, Object> run(@RequestParam(defaultValue = "netty") String transport,
+                                   @RequestParam(defaultValue = "10000") int calls,
+                                   @RequestParam(defaultValue = "16") int concurrency) throws InterruptedException {
+        // proxy：经由@RpcReference代理调用，包含负载均衡、批量和幂等合并
+        boolean viaProxy = "proxy".equalsIgnoreCase(transport);
+        RpcTransport target = "http".equalsIgnoreCase(transport) ? rpcClient.httpTransport() : rpcClient.nettyTransport();
+        long coalescedBefore = rpcClient.getCoalescedCalls();
+
+        // 预热
+        for (int i = 0; i < 200; i++) {
+            call(viaProxy, target, i);
+        }
+
+        long[] latencies = new long[calls];
+        AtomicInteger index = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(concurrency);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < concurrency; t++) {
+            executor.execute(() -> {
+                try {
+                    int i;
+                    while ((i = index.getAndIncrement()) < calls) {
+                        long begin = System.nanoTime();
+                        if (!call(viaProxy, target, i)) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transport", transport);
+        result.put("calls", calls);
+        result.put("concurrency", concurrency);
+        result.put("failures", failures.get());
+        result.put("callsPerSecond", Math.round(calls / (elapsed / 1_000_000_000.0)));
+        result.put("p50Micros", latencies[calls / 2] / 1000);
+        result.put("p99Micros", latencies[(int) (calls * 0.99)] / 1000);
+        result.put("coalescedCalls", rpcClient.getCoalescedCalls() - coalescedBefore);
+        return result;
+    }
+
+    /**
+     * Netty节点状态
+     */
+    @GetMapping("/endpoints")
+    public List<Map<String, Object>> endpoints() {
+        return rpcClient.nettyTransport().status();
+    }
+
+    private boolean call(boolean viaProxy, RpcTransport target, int i) {
+        if (viaProxy) {
+            try {
+                userService.getUserName((long) (i % 3 + 1));
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+        RpcResponse response = rpcClient.sendRequest(newRequest(i), 5000, target);
+        return response.isSuccess();
+    }
+
+    private RpcRequest newRequest(int i) {
+        RpcRequest request = new RpcRequest();
+        request.setClassName(UserService.class.getName());
+        request.setMethodName("getUserName");
+        request.setParameterTypes(new Class<?>[]{Long.class});
+        request.setParameters(new Object[]{(long) (i % 3 + 1)});
+        request.setVersion("1.0");
+        request.setMethodId(GET_USER_NAME_ID);
+        return request;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.rpc.core.RpcReference;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/user")
@@ -17,6 +18,11 @@ public class UserController {
         return userService.getUserName(userId);
     }
     
+    @GetMapping("/{userId}/async")
+    public CompletableFuture<String> getUserAsync(@PathVariable Long userId) {
+        return userService.getUserNameAsync(userId);
+    }
+    
     @PostMapping("/{userId}")
     public boolean updateUser(@PathVariable Long userId, @RequestParam String name) {
         return userService.updateUser(userId, name);
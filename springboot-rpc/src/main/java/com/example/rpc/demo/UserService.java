@@ -1,9 +1,15 @@
 package com.example.rpc.demo;
 
+import com.example.rpc.core.RpcIdempotent;
+
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
+    @RpcIdempotent
     String getUserName(Long userId);
     boolean updateUser(Long userId, String name);
+    @RpcIdempotent
     List<String> getUserList();
+    CompletableFuture<String> getUserNameAsync(Long userId);
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.example.rpc.core.RpcService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 @RpcService(UserService.class)
@@ -37,4 +38,9 @@ public class UserServiceImpl implements UserService {
     public List<String> getUserList() {
         return new ArrayList<>(userDatabase.values());
     }
-}
\ No newline at end of file
+    
+    @Override
+    public CompletableFuture<String> getUserNameAsync(Long userId) {
+        return CompletableFuture.supplyAsync(() -> getUserName(userId));
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.controller;
 
-import com.example.scheduler.CronRepository;
+import com.example.scheduler.AdvancedTaskScheduler;
+import com.example.scheduler.CronDefinitionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -12,13 +14,16 @@ import java.util.Map;
 public class SchedulerController {
     
     @Autowired
-    private CronRepository cronRepository;
+    private CronDefinitionCache cronDefinitionCache;
+
+    @Autowired
+    private AdvancedTaskScheduler advancedTaskScheduler;
     
     @GetMapping("/cron/{taskName}")
     public Map<String, String> getCron(@PathVariable String taskName) {
         Map<String, String> result = new HashMap<>();
         result.put("taskName", taskName);
-        result.put("cron", cronRepository.getCronByTaskName(taskName));
+        result.put("cron", cronDefinitionCache.getCron(taskName));
         return result;
     }
     
@@ -26,7 +31,7 @@ public class SchedulerController {
     public Map<String, String> updateCron(
             @PathVariable String taskName, 
             @RequestParam("cron") String cron) {
-        cronRepository.updateCron(taskName, cron);
+        cronDefinitionCache.update(taskName, cron);
         
         Map<String, String> result = new HashMap<>();
         result.put("taskName", taskName);
@@ -34,4 +39,9 @@ public class SchedulerController {
         result.put("message", "Cron expression updated successfully");
         return result;
     }
-}
\ No newline at end of file
+
+    @GetMapping("/tasks")
+    public List<Map<String, Object>> getTasks() {
+        return advancedTaskScheduler.getAllTasks();
+    }
+}
@@ -1,130 +1,159 @@
 package com.example.scheduler;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class AdvancedTaskScheduler {
-    
+
+    // 只负责按时间分发，任务本身在工作线程池中执行
     @Autowired
     private TaskScheduler taskScheduler;
-    
+
+    @Autowired
+    @Qualifier("taskWorkerExecutor")
+    private TaskExecutor taskWorkerExecutor;
+
     @Autowired
-    private CronRepository cronRepository;
-    
+    private CronDefinitionCache cronDefinitionCache;
+
+    @Autowired
+    private TaskLeaseManager taskLeaseManager;
+
     // 维护所有调度任务
     private final Map<String, ScheduledTask> scheduledTasks = new ConcurrentHashMap<>();
-    
+
     @Data
-    @AllArgsConstructor
     private static class ScheduledTask {
-        private String taskName;
+        private final String taskName;
         private String cron;
-        private Runnable runnable;
+        private final Runnable runnable;
+        private final TaskOptions options;
         private ScheduledFuture<?> future;
         private boolean running;
+        // 最近一次由触发器计算出的执行时间，即当前这次分发对应的计划时间
+        private volatile Instant nextFireTime;
+        private final AtomicBoolean executing = new AtomicBoolean();
+        private final AtomicLong executions = new AtomicLong();
+        private final AtomicLong overlapSkips = new AtomicLong();
+        private final AtomicLong misfires = new AtomicLong();
+        private volatile long lastDurationMs;
     }
-    
+
     /**
      * 注册一个新的定时任务
      */
     public void registerTask(String taskName, Runnable runnable) {
-        // 判断任务是否已存在
-        if (scheduledTasks.containsKey(taskName)) {
-            throw new IllegalArgumentException("Task with name " + taskName + " already exists");
-        }
-        String cron = cronRepository.getCronByTaskName(taskName);
-        ScheduledFuture<?> future = taskScheduler.schedule(
-            runnable,
-            triggerContext -> {
-                // 动态获取最新的cron表达式
-                String currentCron = cronRepository.getCronByTaskName(taskName);
-                return new CronTrigger(currentCron).nextExecution(triggerContext);
+        registerTask(taskName, runnable, TaskOptions.defaults());
+    }
+
+    /**
+     * 注册一个新的定时任务，并指定重叠执行和错过触发的处理方式
+     */
+    public void registerTask(String taskName, Runnable runnable, TaskOptions options) {
+        ScheduledTask task = new ScheduledTask(taskName, runnable, options);
+        synchronized (task) {
+            // 判断任务是否已存在
+            if (scheduledTasks.putIfAbsent(taskName, task) != null) {
+                throw new IllegalArgumentException("Task with name " + taskName + " already exists");
             }
-        );
-        
-        scheduledTasks.put(taskName, new ScheduledTask(taskName, cron, runnable, future, true));
+            taskLeaseManager.track(taskName);
+            task.setCron(cronDefinitionCache.getCron(taskName));
+            task.setFuture(schedule(task));
+            task.setRunning(true);
+        }
     }
-    
+
     /**
      * 更新任务的Cron表达式
      */
     public void updateTaskCron(String taskName, String cron) {
-        // 更新数据库/配置中心中的cron表达式
-        cronRepository.updateCron(taskName, cron);
-        
-        // 重新调度任务
-        ScheduledTask task = scheduledTasks.get(taskName);
-        if (task != null) {
-            // 取消现有任务
-            task.getFuture().cancel(false);
-            
-            // 创建新任务
-            ScheduledFuture<?> future = taskScheduler.schedule(
-                task.getRunnable(),
-                triggerContext -> {
-                    return new CronTrigger(cron).nextExecution(triggerContext);
-                }
-            );
-            
-            // 更新任务信息
-            task.setCron(cron);
-            task.setFuture(future);
+        // 更新数据库/配置中心中的cron表达式，缓存变化后通过 CronChangedEvent 重新调度
+        cronDefinitionCache.update(taskName, cron);
+    }
+
+    /**
+     * cron变化（本实例修改或轮询到其他实例的修改）后按新的cron重新调度
+     */
+    @EventListener
+    public void onCronChanged(CronChangedEvent event) {
+        ScheduledTask task = scheduledTasks.get(event.getTaskName());
+        if (task == null) {
+            return;
+        }
+        synchronized (task) {
+            task.setCron(event.getCron());
+            if (task.isRunning()) {
+                // 取消现有任务，按新的cron创建
+                task.getFuture().cancel(false);
+                task.setFuture(schedule(task));
+            }
         }
     }
-    
+
     /**
      * 暂停任务
      */
     public void pauseTask(String taskName) {
         ScheduledTask task = scheduledTasks.get(taskName);
-        if (task != null && task.isRunning()) {
-            task.getFuture().cancel(false);
-            task.setRunning(false);
+        if (task != null) {
+            synchronized (task) {
+                if (task.isRunning()) {
+                    task.getFuture().cancel(false);
+                    task.setRunning(false);
+                }
+            }
         }
     }
-    
+
     /**
      * 恢复任务
      */
     public void resumeTask(String taskName) {
         ScheduledTask task = scheduledTasks.get(taskName);
-        if (task != null && !task.isRunning()) {
-            ScheduledFuture<?> future = taskScheduler.schedule(
-                task.getRunnable(),
-                triggerContext -> {
-                    String currentCron = cronRepository.getCronByTaskName(taskName);
-                    return new CronTrigger(currentCron).nextExecution(triggerContext);
+        if (task != null) {
+            synchronized (task) {
+                if (!task.isRunning()) {
+                    task.setFuture(schedule(task));
+                    task.setRunning(true);
                 }
-            );
-            
-            task.setFuture(future);
-            task.setRunning(true);
+            }
         }
     }
-    
+
     /**
      * 删除任务
      */
     public void removeTask(String taskName) {
-        ScheduledTask task = scheduledTasks.get(taskName);
+        ScheduledTask task = scheduledTasks.remove(taskName);
         if (task != null) {
-            task.getFuture().cancel(false);
-            scheduledTasks.remove(taskName);
+            synchronized (task) {
+                task.getFuture().cancel(false);
+                task.setRunning(false);
+            }
+            taskLeaseManager.untrack(taskName);
         }
     }
-    
+
     /**
      * 获取所有任务信息
      */
@@ -135,8 +164,81 @@ public class AdvancedTaskScheduler {
                 map.put("taskName", task.getTaskName());
                 map.put("cron", task.getCron());
                 map.put("running", task.isRunning());
+                map.put("owned", taskLeaseManager.isOwner(task.getTaskName()));
+                map.put("nextFireTime", task.getNextFireTime());
+                map.put("executing", task.getExecuting().get());
+                map.put("executions", task.getExecutions().get());
+                map.put("overlapSkips", task.getOverlapSkips().get());
+                map.put("misfires", task.getMisfires().get());
+                map.put("lastDurationMs", task.getLastDurationMs());
                 return map;
             })
             .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private ScheduledFuture<?> schedule(ScheduledTask task) {
+        return taskScheduler.schedule(
+            () -> dispatch(task),
+            triggerContext -> {
+                // 读取缓存中已解析好的cron，不访问存储
+                Instant next = cronDefinitionCache.get(task.getTaskName()).getTrigger().nextExecution(triggerContext);
+                task.setNextFireTime(next);
+                return next;
+            }
+        );
+    }
+
+    /**
+     * 在调度线程上执行：检查分片归属和重叠执行后提交到工作线程池
+     */
+    private void dispatch(ScheduledTask task) {
+        if (!taskLeaseManager.isOwner(task.getTaskName())) {
+            return;
+        }
+        boolean exclusive = !task.getOptions().isAllowOverlap();
+        if (exclusive && !task.getExecuting().compareAndSet(false, true)) {
+            task.getOverlapSkips().incrementAndGet();
+            log.debug("Task {} is still running, skip this fire", task.getTaskName());
+            return;
+        }
+        Instant scheduledTime = task.getNextFireTime();
+        try {
+            taskWorkerExecutor.execute(() -> execute(task, scheduledTime, exclusive));
+        } catch (TaskRejectedException e) {
+            if (exclusive) {
+                task.getExecuting().set(false);
+            }
+            task.getMisfires().incrementAndGet();
+            log.warn("Task {} rejected by worker pool, skip this fire", task.getTaskName());
+        }
+    }
+
+    private void execute(ScheduledTask task, Instant scheduledTime, boolean exclusive) {
+        try {
+            if (scheduledTime != null) {
+                Duration delay = Duration.between(scheduledTime, Instant.now());
+                if (delay.compareTo(task.getOptions().getMisfireThreshold()) > 0) {
+                    task.getMisfires().incrementAndGet();
+                    if (task.getOptions().getMisfirePolicy() == TaskOptions.MisfirePolicy.SKIP) {
+                        log.warn("Task {} misfired by {}ms, skip", task.getTaskName(), delay.toMillis());
+                        return;
+                    }
+                    log.warn("Task {} misfired by {}ms, fire now", task.getTaskName(), delay.toMillis());
+                }
+            }
+            long start = System.nanoTime();
+            try {
+                task.getRunnable().run();
+            } finally {
+                task.setLastDurationMs((System.nanoTime() - start) / 1_000_000);
+                task.getExecutions().incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.error("Task {} failed", task.getTaskName(), e);
+        } finally {
+            if (exclusive) {
+                task.getExecuting().set(false);
+            }
+        }
+    }
+}
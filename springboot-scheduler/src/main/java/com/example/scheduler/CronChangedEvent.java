@@ -0,0 +1,16 @@
+package com.example.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 缓存中的cron表达式发生变化时发布
+ */
+@Getter
+@AllArgsConstructor
+public class CronChangedEvent {
+
+    private final String taskName;
+    private final String cron;
+    private final long version;
+}
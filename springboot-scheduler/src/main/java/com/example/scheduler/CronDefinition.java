@@ -0,0 +1,26 @@
+package com.example.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * 任务的cron定义
+ * version 在每次修改时递增，用于判断缓存是否需要更新；不存在的任务返回默认cron，version 为 0
+ */
+@Data
+@AllArgsConstructor
+public class CronDefinition {
+
+    public static final String DEFAULT_CRON = "0 0/1 * * * ?";
+
+    private String taskName;
+    private String cron;
+    private long version;
+    private Instant updatedAt;
+
+    public static CronDefinition defaultOf(String taskName) {
+        return new CronDefinition(taskName, DEFAULT_CRON, 0, Instant.EPOCH);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.scheduler;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * cron表达式缓存
+ * 触发器每次计算下次执行时间时只读缓存，不再查询存储、也不再重新解析cron表达式；
+ * 缓存通过定时轮询（一次批量查询拉取最近修改过的定义）或主动推送（refresh/update）更新，
+ * 按版本号判断是否变化，变化时发布 CronChangedEvent
+ */
+@Slf4j
+@Component
+public class CronDefinitionCache {
+
+    // 轮询窗口向前重叠一段时间，避免漏掉提交较晚的修改，重复拉到的行按版本号过滤
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(1);
+
+    @Autowired
+    private Map<String, CronSource> cronSources;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${scheduler.cron.source:cronRepository}")
+    private String sourceName;
+
+    private CronSource cronSource;
+
+    private final Map<String, CachedCron> cache = new ConcurrentHashMap<>();
+
+    // 已拉取到的最新修改时间
+    private volatile Instant watermark = Instant.EPOCH;
+
+    /**
+     * 缓存项，CronTrigger 内部持有解析好的 CronExpression，不可变，可在多个线程间共享
+     */
+    @Getter
+    public static class CachedCron {
+        private final String cron;
+        private final long version;
+        private final CronTrigger trigger;
+
+        CachedCron(String cron, long version) {
+            this.cron = cron;
+            this.version = version;
+            this.trigger = new CronTrigger(cron);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cronSource = cronSources.get(sourceName);
+        if (cronSource == null) {
+            throw new IllegalStateException("Unknown cron source: " + sourceName + ", available: " + cronSources.keySet());
+        }
+        refreshChanges();
+    }
+
+    public CachedCron get(String taskName) {
+        return cache.computeIfAbsent(taskName, name -> toCached(cronSource.findByTaskName(name)));
+    }
+
+    public String getCron(String taskName) {
+        return get(taskName).getCron();
+    }
+
+    /**
+     * 读取缓存中最新cron的触发器，cron变化后下一次计算即生效
+     */
+    public Trigger trigger(String taskName) {
+        return triggerContext -> get(taskName).getTrigger().nextExecution(triggerContext);
+    }
+
+    /**
+     * 修改cron并立即刷新本实例的缓存
+     */
+    public void update(String taskName, String cron) {
+        cronSource.updateCron(taskName, cron);
+        refresh(taskName);
+    }
+
+    /**
+     * 推送入口：收到某个任务cron已变化的通知时调用
+     */
+    public void refresh(String taskName) {
+        apply(cronSource.findByTaskName(taskName));
+    }
+
+    /**
+     * 轮询变更，一次查询拉取上次之后修改过的全部定义
+     */
+    @Scheduled(fixedDelayString = "${scheduler.cron.refresh-interval:5000}")
+    public void refreshChanges() {
+        List<CronDefinition> changes = cronSource.findChangedSince(watermark.minus(POLL_OVERLAP));
+        Instant latest = watermark;
+        for (CronDefinition definition : changes) {
+            apply(definition);
+            if (definition.getUpdatedAt().isAfter(latest)) {
+                latest = definition.getUpdatedAt();
+            }
+        }
+        watermark = latest;
+    }
+
+    private void apply(CronDefinition definition) {
+        CachedCron[] replaced = new CachedCron[1];
+        CachedCron current = cache.compute(definition.getTaskName(), (name, cached) -> {
+            if (cached != null && cached.getVersion() >= definition.getVersion()) {
+                return cached;
+            }
+            try {
+                replaced[0] = cached;
+                return toCached(definition);
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid cron expression for task {}: {}, keep {}", name, definition.getCron(),
+                    cached != null ? cached.getCron() : null);
+                return cached;
+            }
+        });
+        CachedCron previous = replaced[0];
+        if (previous != null && current != previous && !previous.getCron().equals(current.getCron())) {
+            log.info("Cron of task {} changed: {} -> {} (version {})", definition.getTaskName(),
+                previous.getCron(), current.getCron(), current.getVersion());
+            eventPublisher.publishEvent(new CronChangedEvent(definition.getTaskName(), current.getCron(), current.getVersion()));
+        }
+    }
+
+    private CachedCron toCached(CronDefinition definition) {
+        return new CachedCron(definition.getCron(), definition.getVersion());
+    }
+}
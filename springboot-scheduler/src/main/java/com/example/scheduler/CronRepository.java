@@ -3,31 +3,55 @@ package com.example.scheduler;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Repository
-public class CronRepository {
+public class CronRepository implements CronSource {
     
     // 这里可以连接数据库或配置中心，本例使用内存存储简化演示
-    private final Map<String, String> cronMap = new ConcurrentHashMap<>();
+    private final Map<String, CronDefinition> cronMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong versionSequence = new AtomicLong();
     
     public CronRepository() {
         // 设置初始值
-        cronMap.put("sampleTask", "0/10 * * * * ?");  // 默认每分钟执行一次
+        put("sampleTask", "0/10 * * * * ?");  // 默认每分钟执行一次
     }
     
     public String getCronByTaskName(String taskName) {
-        return cronMap.getOrDefault(taskName, "0 0/1 * * * ?");
+        return findByTaskName(taskName).getCron();
+    }
+
+    @Override
+    public CronDefinition findByTaskName(String taskName) {
+        CronDefinition definition = cronMap.get(taskName);
+        return definition != null ? definition : CronDefinition.defaultOf(taskName);
+    }
+
+    @Override
+    public List<CronDefinition> findChangedSince(Instant since) {
+        return cronMap.values().stream()
+            .filter(definition -> !definition.getUpdatedAt().isBefore(since))
+            .collect(Collectors.toList());
     }
     
+    @Override
     public void updateCron(String taskName, String cron) {
         // 验证cron表达式的有效性
         try {
             new CronTrigger(cron);
-            cronMap.put(taskName, cron);
+            put(taskName, cron);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid cron expression: " + cron, e);
         }
     }
-}
\ No newline at end of file
+
+    private void put(String taskName, String cron) {
+        cronMap.put(taskName, new CronDefinition(taskName, cron, versionSequence.incrementAndGet(), Instant.now()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.scheduler;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * cron表达式的存储，由 CronDefinitionCache 缓存后供调度使用
+ */
+public interface CronSource {
+
+    /**
+     * 查询单个任务的cron定义，不存在时返回默认定义
+     */
+    CronDefinition findByTaskName(String taskName);
+
+    /**
+     * 批量查询 since 之后修改过的cron定义
+     */
+    List<CronDefinition> findChangedSince(Instant since);
+
+    void updateCron(String taskName, String cron);
+}
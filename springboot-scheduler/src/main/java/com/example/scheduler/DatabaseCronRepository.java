@@ -3,27 +3,55 @@ package com.example.scheduler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
 @Repository
-public class DatabaseCronRepository {
+public class DatabaseCronRepository implements CronSource {
+
+    private static final RowMapper<CronDefinition> ROW_MAPPER = (rs, rowNum) -> new CronDefinition(
+        rs.getString("task_name"),
+        rs.getString("cron"),
+        rs.getLong("version"),
+        rs.getTimestamp("updated_at").toInstant()
+    );
     
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
     public String getCronByTaskName(String taskName) {
+        return findByTaskName(taskName).getCron();
+    }
+
+    @Override
+    public CronDefinition findByTaskName(String taskName) {
         try {
             return jdbcTemplate.queryForObject(
-                "SELECT cron FROM scheduled_tasks WHERE task_name = ?",
-                String.class,
+                "SELECT task_name, cron, version, updated_at FROM scheduled_tasks WHERE task_name = ?",
+                ROW_MAPPER,
                 taskName
             );
         } catch (EmptyResultDataAccessException e) {
-            return "0 0/1 * * * ?";  // 默认值
+            return CronDefinition.defaultOf(taskName);  // 默认值
         }
     }
+
+    @Override
+    public List<CronDefinition> findChangedSince(Instant since) {
+        // 走 updated_at 索引，只返回最近修改过的行
+        return jdbcTemplate.query(
+            "SELECT task_name, cron, version, updated_at FROM scheduled_tasks WHERE updated_at >= ?",
+            ROW_MAPPER,
+            Timestamp.from(since)
+        );
+    }
     
+    @Override
     public void updateCron(String taskName, String cron) {
         // 验证cron表达式
         try {
@@ -32,18 +60,18 @@ public class DatabaseCronRepository {
             throw new IllegalArgumentException("Invalid cron expression: " + cron, e);
         }
         
-        // 更新数据库
+        // 更新数据库，同时递增版本号
         int updated = jdbcTemplate.update(
-            "UPDATE scheduled_tasks SET cron = ? WHERE task_name = ?",
+            "UPDATE scheduled_tasks SET cron = ?, version = version + 1 WHERE task_name = ?",
             cron, taskName
         );
         
         if (updated == 0) {
             // 如果记录不存在，则插入
             jdbcTemplate.update(
-                "INSERT INTO scheduled_tasks (task_name, cron) VALUES (?, ?)",
+                "INSERT INTO scheduled_tasks (task_name, cron, version) VALUES (?, ?, 1)",
                 taskName, cron
             );
         }
     }
-}
\ No newline at end of file
+}
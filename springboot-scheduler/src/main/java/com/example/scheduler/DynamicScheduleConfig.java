@@ -1,14 +1,15 @@
 package com.example.scheduler;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
-import org.springframework.scheduling.support.CronTrigger;
 
 import java.util.Date;
 
@@ -17,28 +18,26 @@ import java.util.Date;
 public class DynamicScheduleConfig implements SchedulingConfigurer {
     
     @Autowired
-    private CronRepository cronRepository;  // 用于存储和获取Cron表达式
+    private CronDefinitionCache cronDefinitionCache;  // 缓存的Cron表达式，变更时自动刷新
+
+    @Value("${scheduler.worker.pool-size:20}")
+    private int workerPoolSize;
+
+    @Value("${scheduler.worker.queue-capacity:1000}")
+    private int workerQueueCapacity;
     
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
         taskRegistrar.setScheduler(taskScheduler());
         
-        // 从数据库或配置中心获取初始Cron表达式
-        String initialCron = cronRepository.getCronByTaskName("sampleTask");
-        
         // 添加可动态修改的定时任务
         taskRegistrar.addTriggerTask(
             // 定时任务的执行逻辑
             () -> {
                 System.out.println("动态定时任务执行，时间：" + new Date());
             },
-            // 定时任务触发器，可根据需要返回下次执行时间
-            triggerContext -> {
-                // 每次任务触发时，重新获取Cron表达式
-                String cron = cronRepository.getCronByTaskName("sampleTask");
-                CronTrigger trigger = new CronTrigger(cron);
-                return trigger.nextExecution(triggerContext);
-            }
+            // 定时任务触发器，每次触发时从缓存读取最新的Cron表达式，不再查询存储和重复解析
+            cronDefinitionCache.trigger("sampleTask")
         );
     }
     
@@ -50,4 +49,20 @@ public class DynamicScheduleConfig implements SchedulingConfigurer {
         scheduler.initialize();
         return scheduler;
     }
-}
\ No newline at end of file
+
+    /**
+     * 执行任务的工作线程池，调度线程只负责按时间分发，长任务不会占满调度线程
+     */
+    @Bean
+    public ThreadPoolTaskExecutor taskWorkerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerPoolSize);
+        executor.setMaxPoolSize(workerPoolSize);
+        executor.setQueueCapacity(workerQueueCapacity);
+        executor.setThreadNamePrefix("task-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.scheduler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多实例分片执行
+ * 各实例定期写心跳，按存活实例列表用 rendezvous hash 计算每个任务归属的实例，
+ * 再通过 task_leases 表批量申请/续约自己负责的任务的租约、释放不再负责的任务；
+ * 只有持有未过期租约的实例执行任务，实例上下线时任务在旧租约过期或被释放后转移，不会被两个实例同时执行。
+ * 未开启时所有任务都在本实例执行
+ */
+@Slf4j
+@Component
+public class TaskLeaseManager {
+
+    // 单条 SQL 中 IN 列表的最大长度
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${scheduler.partition.enabled:false}")
+    private boolean enabled;
+
+    @Value("${scheduler.partition.lease-seconds:30}")
+    private int leaseSeconds;
+
+    @Value("${scheduler.partition.instance-id:}")
+    private String instanceId;
+
+    // 本实例注册的任务
+    private final Set<String> tasks = ConcurrentHashMap.newKeySet();
+
+    // 本实例持有租约的任务，每次续约后整体替换
+    private volatile Set<String> ownedTasks = Collections.emptySet();
+
+    // 本地时钟下租约的到期时间（System.nanoTime），从续约开始前计算，比数据库中的到期时间略早
+    private volatile long ownedUntil;
+
+    public void track(String taskName) {
+        tasks.add(taskName);
+    }
+
+    public void untrack(String taskName) {
+        tasks.remove(taskName);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getInstanceId() {
+        if (instanceId == null || instanceId.isEmpty()) {
+            instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        return instanceId;
+    }
+
+    /**
+     * 当前实例是否应执行该任务
+     */
+    public boolean isOwner(String taskName) {
+        if (!enabled) {
+            return true;
+        }
+        return System.nanoTime() - ownedUntil < 0 && ownedTasks.contains(taskName);
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.partition.renew-interval:10000}")
+    public void renew() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        String self = getInstanceId();
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO scheduler_instances (instance_id, heartbeat_at) VALUES (?, NOW(3)) "
+                    + "ON DUPLICATE KEY UPDATE heartbeat_at = NOW(3)",
+                self
+            );
+            List<String> instances = jdbcTemplate.queryForList(
+                "SELECT instance_id FROM scheduler_instances WHERE heartbeat_at > DATE_SUB(NOW(3), INTERVAL ? SECOND)",
+                String.class,
+                leaseSeconds
+            );
+            if (!instances.contains(self)) {
+                instances.add(self);
+            }
+
+            List<String> wanted = new ArrayList<>();
+            List<String> released = new ArrayList<>();
+            for (String task : tasks) {
+                (self.equals(ownerOf(task, instances)) ? wanted : released).add(task);
+            }
+
+            for (List<String> batch : partition(wanted)) {
+                String in = placeholders(batch.size());
+                // 补齐缺失的租约行
+                jdbcTemplate.update(
+                    "INSERT IGNORE INTO task_leases (task_name, owner, lease_until) VALUES "
+                        + String.join(", ", Collections.nCopies(batch.size(), "(?, NULL, NOW(3))")),
+                    batch.toArray()
+                );
+                // 申请或续约：租约属于自己、无人持有或已过期
+                List<Object> args = new ArrayList<>();
+                args.add(self);
+                args.add(leaseSeconds);
+                args.addAll(batch);
+                args.add(self);
+                jdbcTemplate.update(
+                    "UPDATE task_leases SET owner = ?, lease_until = DATE_ADD(NOW(3), INTERVAL ? SECOND) "
+                        + "WHERE task_name IN (" + in + ") AND (owner = ? OR owner IS NULL OR lease_until < NOW(3))",
+                    args.toArray()
+                );
+            }
+            for (List<String> batch : partition(released)) {
+                List<Object> args = new ArrayList<>();
+                args.add(self);
+                args.addAll(batch);
+                jdbcTemplate.update(
+                    "UPDATE task_leases SET owner = NULL WHERE owner = ? AND task_name IN (" + placeholders(batch.size()) + ")",
+                    args.toArray()
+                );
+            }
+
+            Set<String> owned = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT task_name FROM task_leases WHERE owner = ? AND lease_until > NOW(3)",
+                String.class,
+                self
+            ));
+            owned.retainAll(tasks);
+            ownedTasks = owned;
+            ownedUntil = startedAt + TimeUnit.SECONDS.toNanos(leaseSeconds);
+            log.debug("Instance {} owns {}/{} tasks, {} live instances", self, owned.size(), tasks.size(), instances.size());
+        } catch (Exception e) {
+            // 续约失败时不清空，已持有的租约到期后自然停止执行
+            log.warn("Failed to renew task leases: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (!enabled) {
+            return;
+        }
+        ownedTasks = Collections.emptySet();
+        try {
+            jdbcTemplate.update("UPDATE task_leases SET owner = NULL WHERE owner = ?", getInstanceId());
+            jdbcTemplate.update("DELETE FROM scheduler_instances WHERE instance_id = ?", getInstanceId());
+        } catch (Exception e) {
+            log.warn("Failed to release task leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * rendezvous hash：每个任务归属于与它组合后哈希值最大的实例，实例增减时只有少量任务转移
+     */
+    static String ownerOf(String taskName, List<String> instances) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String instance : instances) {
+            long score = mix(instance.hashCode() * 31L + taskName.hashCode());
+            if (owner == null || score > best || (score == best && instance.compareTo(owner) < 0)) {
+                owner = instance;
+                best = score;
+            }
+        }
+        return owner;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static List<List<String>> partition(List<String> names) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < names.size(); i += BATCH_SIZE) {
+            batches.add(names.subList(i, Math.min(names.size(), i + BATCH_SIZE)));
+        }
+        return batches;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
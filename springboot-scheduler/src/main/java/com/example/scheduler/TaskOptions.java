@@ -0,0 +1,37 @@
+package com.example.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * 单个任务的执行选项
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskOptions {
+
+    /**
+     * 错过触发时间（调度或工作线程繁忙导致延迟超过阈值）时的处理方式
+     */
+    public enum MisfirePolicy {
+        /** 立即补执行一次，多次错过只补一次 */
+        FIRE_NOW,
+        /** 放弃本次执行，等待下一次触发 */
+        SKIP
+    }
+
+    // 上一次执行未结束时是否允许再次执行，默认跳过本次
+    private boolean allowOverlap = false;
+
+    private MisfirePolicy misfirePolicy = MisfirePolicy.FIRE_NOW;
+
+    private Duration misfireThreshold = Duration.ofSeconds(5);
+
+    public static TaskOptions defaults() {
+        return new TaskOptions();
+    }
+}
@@ -3,6 +3,21 @@ CREATE TABLE scheduled_tasks (
     task_name VARCHAR(100) NOT NULL UNIQUE,
     cron VARCHAR(100) NOT NULL,
     description VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-);
\ No newline at end of file
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_updated_at (updated_at)
+);
+
+-- 多实例分片执行：实例心跳
+CREATE TABLE scheduler_instances (
+    instance_id VARCHAR(64) PRIMARY KEY,
+    heartbeat_at TIMESTAMP(3) NOT NULL
+);
+
+-- 多实例分片执行：任务租约，只有持有未过期租约的实例执行该任务
+CREATE TABLE task_leases (
+    task_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(64),
+    lease_until TIMESTAMP(3) NOT NULL
+);
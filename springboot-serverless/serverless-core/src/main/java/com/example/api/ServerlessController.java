@@ -2,6 +2,9 @@ package com.example.api;
 
 import com.example.core.ExecutionEngine;
 import com.example.core.FunctionManager;
+import com.example.core.InvocationScheduler;
+import com.example.executor.ClassLoaderPool;
+import com.example.executor.FunctionInstancePool;
 import com.example.model.ExecutionResult;
 import com.example.model.FunctionMetrics;
 import com.example.trigger.HttpTrigger;
@@ -35,6 +38,15 @@ public class ServerlessController {
     @Autowired
     private TimerTrigger timerTrigger;
     
+    @Autowired
+    private FunctionInstancePool instancePool;
+    
+    @Autowired
+    private ClassLoaderPool classLoaderPool;
+    
+    @Autowired
+    private InvocationScheduler invocationScheduler;
+    
     /**
      * 调用函数
      */
@@ -51,6 +63,7 @@ public class ServerlessController {
         response.put("functionName", result.getFunctionName());
         response.put("success", result.isSuccess());
         response.put("executionTime", result.getExecutionTime());
+        response.put("queueWaitTime", result.getQueueWaitTime());
 
         if (result.isSuccess()) {
             response.put("result", result.getResult());
@@ -77,6 +90,7 @@ public class ServerlessController {
         response.put("functionName", result.getFunctionName());
         response.put("success", result.isSuccess());
         response.put("executionTime", result.getExecutionTime());
+        response.put("queueWaitTime", result.getQueueWaitTime());
         
         if (result.isSuccess()) {
             response.put("result", result.getResult());
@@ -107,6 +121,22 @@ public class ServerlessController {
         functionManager.registerFunction(functionName, jarPath, className, 
                                        timeoutMs, environment);
         
+        // 自定义并发配额
+        FunctionManager.FunctionDefinition definition = functionManager.getFunction(functionName);
+        if (config.get("maxConcurrency") != null) {
+            definition.setMaxConcurrency(((Number) config.get("maxConcurrency")).intValue());
+        }
+        if (config.get("queueCapacity") != null) {
+            definition.setQueueCapacity(((Number) config.get("queueCapacity")).intValue());
+        }
+        
+        // 自定义预热实例数
+        if (config.containsKey("minWarmInstances") || config.containsKey("maxWarmInstances")) {
+            functionManager.setWarmInstances(functionName,
+                config.get("minWarmInstances") != null ? ((Number) config.get("minWarmInstances")).intValue() : null,
+                config.get("maxWarmInstances") != null ? ((Number) config.get("maxWarmInstances")).intValue() : null);
+        }
+        
         Map<String, String> response = new HashMap<>();
         response.put("message", "Function registered successfully");
         response.put("functionName", functionName);
@@ -184,6 +214,26 @@ public class ServerlessController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 获取函数实例池和ClassLoader池状态
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("instances", instancePool.getPoolStats());
+        response.put("classLoaders", classLoaderPool.getPoolStats());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 获取调度器状态（并发、排队和拒绝情况）
+     */
+    @GetMapping("/scheduler")
+    public ResponseEntity<Map<String, Object>> getSchedulerStats() {
+        return ResponseEntity.ok(invocationScheduler.getStats());
+    }
+    
     /**
      * 注册定时任务
      */
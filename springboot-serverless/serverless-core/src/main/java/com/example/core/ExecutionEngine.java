@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 执行引擎
@@ -25,6 +26,9 @@ public class ExecutionEngine {
     @Autowired
     private FunctionExecutor functionExecutor;
     
+    @Autowired
+    private InvocationScheduler invocationScheduler;
+    
     /**
      * 调用函数
      */
@@ -37,12 +41,21 @@ public class ExecutionEngine {
      */
     public ExecutionResult invoke(String functionName, Map<String, Object> input, 
                                 ExecutionContext customContext) {
+        return invokeAsync(functionName, input, customContext).join();
+    }
+    
+    /**
+     * 异步调用函数
+     * 调用经InvocationScheduler准入和排队后在虚拟线程中执行，返回的Future总是正常完成
+     */
+    public CompletableFuture<ExecutionResult> invokeAsync(String functionName, Map<String, Object> input,
+                                                        ExecutionContext customContext) {
         
         // 检查函数是否存在
         if (!functionManager.functionExists(functionName)) {
             ExecutionResult result = new ExecutionResult(UUID.randomUUID().toString(), functionName);
             result.markFailure("FUNCTION_NOT_FOUND", "Function not found: " + functionName);
-            return result;
+            return CompletableFuture.completedFuture(result);
         }
         
         // 获取函数定义
@@ -60,41 +73,27 @@ public class ExecutionEngine {
         // 设置环境变量
         function.getEnvironment().forEach(context::setEnvironment);
         
-        try {
-            // 执行函数
-            ExecutionResult result = functionExecutor.execute(
+        ExecutionContext invocationContext = context;
+        return invocationScheduler.submit(function, context, () -> functionExecutor.execute(
                 functionName,
                 function.getJarPath(),
                 function.getClassName(),
                 input,
-                context
-            );
-            
-            // 记录指标
-            FunctionMetrics metrics = functionManager.getFunctionMetrics(functionName);
-            if (metrics != null) {
-                metrics.recordInvocation(result);
-            }
-            
-            // 打印执行日志
-            System.out.printf("Function executed: %s, success: %s, time: %dms%n",
-                functionName, result.isSuccess(), result.getExecutionTime());
-            
-            return result;
-            
-        } catch (Exception e) {
-            log.error(e.getMessage(),e);
-            ExecutionResult result = new ExecutionResult(context.getRequestId(), functionName);
-            result.markFailure("EXECUTION_ERROR", e.getMessage());
-            
-            // 记录指标
-            FunctionMetrics metrics = functionManager.getFunctionMetrics(functionName);
-            if (metrics != null) {
-                metrics.recordInvocation(result);
-            }
-            
-            return result;
-        }
+                invocationContext
+            ))
+            .thenApply(result -> {
+                // 记录指标
+                FunctionMetrics metrics = functionManager.getFunctionMetrics(functionName);
+                if (metrics != null) {
+                    metrics.recordInvocation(result);
+                }
+                
+                // 打印执行日志
+                log.debug("Function executed: {}, success: {}, time: {}ms, queued: {}ms",
+                    functionName, result.isSuccess(), result.getExecutionTime(), result.getQueueWaitTime());
+                
+                return result;
+            });
     }
     
     /**
@@ -103,12 +102,11 @@ public class ExecutionEngine {
     public void invokeAsync(String functionName, Map<String, Object> input, 
                           AsyncCallback callback) {
         
-        new Thread(() -> {
-            ExecutionResult result = invoke(functionName, input);
+        invokeAsync(functionName, input, (ExecutionContext) null).thenAccept(result -> {
             if (callback != null) {
                 callback.onComplete(result);
             }
-        }).start();
+        });
     }
     
     /**
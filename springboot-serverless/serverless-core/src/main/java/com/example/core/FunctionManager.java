@@ -1,6 +1,8 @@
 package com.example.core;
 
+import com.example.executor.FunctionInstancePool;
 import com.example.model.FunctionMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -14,6 +16,9 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class FunctionManager {
     
+    @Autowired
+    private FunctionInstancePool instancePool;
+    
     // 函数注册表
     private final Map<String, FunctionDefinition> functions = new ConcurrentHashMap<>();
     
@@ -29,6 +34,10 @@ public class FunctionManager {
         private String jarPath;
         private String className;
         private long timeoutMs;
+        private Integer minWarmInstances; // 为空时使用全局默认值
+        private Integer maxWarmInstances;
+        private Integer maxConcurrency; // 为空时使用调度器默认配额
+        private Integer queueCapacity;
         private Map<String, Object> environment;
         private Date createTime;
         private Date updateTime;
@@ -59,6 +68,18 @@ public class FunctionManager {
         public long getTimeoutMs() { return timeoutMs; }
         public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
 
+        public Integer getMinWarmInstances() { return minWarmInstances; }
+        public void setMinWarmInstances(Integer minWarmInstances) { this.minWarmInstances = minWarmInstances; }
+
+        public Integer getMaxWarmInstances() { return maxWarmInstances; }
+        public void setMaxWarmInstances(Integer maxWarmInstances) { this.maxWarmInstances = maxWarmInstances; }
+
+        public Integer getMaxConcurrency() { return maxConcurrency; }
+        public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+        public Integer getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(Integer queueCapacity) { this.queueCapacity = queueCapacity; }
+
         public Map<String, Object> getEnvironment() { return environment; }
         public void setEnvironment(Map<String, Object> environment) { this.environment = environment; }
         
@@ -83,6 +104,9 @@ public class FunctionManager {
         // 初始化指标
         metrics.put(name, new FunctionMetrics(name));
         
+        // 预热函数实例
+        deploy(definition);
+        
         System.out.println("Function registered: " + name + " -> " + className);
     }
     
@@ -100,6 +124,24 @@ public class FunctionManager {
         }
     }
     
+    /**
+     * 设置函数预热实例数并重新预热
+     */
+    public void setWarmInstances(String name, Integer minWarmInstances, Integer maxWarmInstances) {
+        FunctionDefinition definition = functions.get(name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Function not found: " + name);
+        }
+        definition.setMinWarmInstances(minWarmInstances);
+        definition.setMaxWarmInstances(maxWarmInstances);
+        deploy(definition);
+    }
+    
+    private void deploy(FunctionDefinition definition) {
+        instancePool.deploy(definition.getName(), definition.getJarPath(), definition.getClassName(),
+            definition.getMinWarmInstances(), definition.getMaxWarmInstances());
+    }
+    
     /**
      * 获取函数定义
      */
@@ -140,6 +182,7 @@ public class FunctionManager {
         definition.setJarPath(jarPath);
         definition.setClassName(className);
         definition.setUpdateTime(new Date());
+        deploy(definition);
         
         System.out.println("Function updated: " + name);
     }
@@ -150,6 +193,7 @@ public class FunctionManager {
     public void removeFunction(String name) {
         if (functions.remove(name) != null) {
             metrics.remove(name);
+            instancePool.evict(name);
             System.out.println("Function removed: " + name);
         }
     }
@@ -0,0 +1,300 @@
+package com.example.core;
+
+import com.example.model.ExecutionContext;
+import com.example.model.ExecutionResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 函数调用调度器
+ * 准入控制：全局并发上限 + 每个函数的并发上限和有界等待队列，队列满时直接拒绝（THROTTLED）。
+ * 公平调度：有空闲槽位时在有排队请求的函数之间轮询出队，单个函数的突发流量不会占满全局并发。
+ * 每个调用运行在独立的虚拟线程上；超时从提交时开始计算（包含排队时间），
+ * 超时后调用方立即得到TIMEOUT结果，执行中的线程被中断，线程真正退出后才释放并发槽位。
+ */
+@Component
+@Slf4j
+public class InvocationScheduler {
+
+    @Value("${serverless.function.max-concurrent-executions:100}")
+    private int globalLimit;
+
+    @Value("${serverless.scheduler.default-max-concurrency:20}")
+    private int defaultMaxConcurrency;
+
+    @Value("${serverless.scheduler.default-queue-capacity:200}")
+    private int defaultQueueCapacity;
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("function-", 0).factory();
+
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "invocation-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 以下状态均由lock保护，临界区内只做计数和队列操作，线程的创建和启动在锁外进行
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, FunctionQueue> queues = new HashMap<>();
+    private final ArrayDeque<FunctionQueue> readyQueues = new ArrayDeque<>();
+    private int running;
+
+    /**
+     * 提交调用
+     *
+     * @param function 函数定义，用于读取并发配额
+     * @param context  执行上下文，timeoutMs为本次调用的总超时
+     * @param work     在虚拟线程中执行的调用逻辑
+     */
+    public CompletableFuture<ExecutionResult> submit(FunctionManager.FunctionDefinition function,
+                                                     ExecutionContext context,
+                                                     Supplier<ExecutionResult> work) {
+        Invocation invocation = new Invocation(function.getName(), context, work);
+        boolean startNow = false;
+        boolean rejected = false;
+
+        lock.lock();
+        try {
+            FunctionQueue queue = queues.computeIfAbsent(function.getName(), FunctionQueue::new);
+            queue.maxConcurrency = function.getMaxConcurrency() != null
+                ? function.getMaxConcurrency() : defaultMaxConcurrency;
+            queue.queueCapacity = function.getQueueCapacity() != null
+                ? function.getQueueCapacity() : defaultQueueCapacity;
+
+            if (queue.pending.isEmpty() && running < globalLimit && queue.running < queue.maxConcurrency) {
+                running++;
+                queue.running++;
+                startNow = true;
+            } else if (queue.pending.size() >= queue.queueCapacity) {
+                queue.rejected++;
+                rejected = true;
+            } else {
+                queue.pending.addLast(invocation);
+                invocation.queue = queue;
+                markReady(queue);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (rejected) {
+            invocation.complete(failure(invocation, "THROTTLED",
+                "Too many pending invocations for function: " + invocation.functionName));
+            return invocation.future;
+        }
+
+        long timeoutMs = context.getTimeoutMs();
+        if (timeoutMs > 0) {
+            invocation.timeoutTask = timeoutScheduler.schedule(() -> onTimeout(invocation),
+                timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        if (startNow) {
+            start(invocation);
+        }
+        return invocation.future;
+    }
+
+    private void start(Invocation invocation) {
+        invocation.startNanos = System.nanoTime();
+        Thread thread = threadFactory.newThread(() -> run(invocation));
+        invocation.thread = thread;
+        thread.start();
+    }
+
+    private void run(Invocation invocation) {
+        try {
+            if (invocation.future.isDone()) {
+                // 启动前已超时
+                return;
+            }
+            ExecutionResult result = invocation.work.get();
+            result.setQueueWaitTime(invocation.queueWaitMillis());
+            invocation.complete(result);
+        } catch (Throwable e) {
+            log.error("Function invocation failed: {}", invocation.functionName, e);
+            invocation.complete(failure(invocation, "EXECUTION_ERROR", e.getMessage()));
+        } finally {
+            release(invocation.functionName);
+        }
+    }
+
+    /**
+     * 调用线程退出后释放槽位，并按轮询顺序启动排队中的调用
+     */
+    private void release(String functionName) {
+        List<Invocation> toStart = new ArrayList<>();
+        lock.lock();
+        try {
+            running--;
+            FunctionQueue queue = queues.get(functionName);
+            queue.running--;
+            if (!queue.pending.isEmpty()) {
+                markReady(queue);
+            }
+
+            while (running < globalLimit && !readyQueues.isEmpty()) {
+                FunctionQueue next = readyQueues.pollFirst();
+                next.ready = false;
+                if (next.running >= next.maxConcurrency || next.pending.isEmpty()) {
+                    // 达到函数并发上限，等该函数有调用结束时再重新排入
+                    continue;
+                }
+                Invocation invocation = next.pending.pollFirst();
+                invocation.queue = null;
+                running++;
+                next.running++;
+                toStart.add(invocation);
+                if (!next.pending.isEmpty()) {
+                    // 放到队尾，其他函数优先获得下一个槽位
+                    markReady(next);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Invocation invocation : toStart) {
+            if (invocation.future.isDone()) {
+                // 排队期间已超时，不再执行
+                release(invocation.functionName);
+            } else {
+                start(invocation);
+            }
+        }
+    }
+
+    private void markReady(FunctionQueue queue) {
+        if (!queue.ready) {
+            queue.ready = true;
+            readyQueues.addLast(queue);
+        }
+    }
+
+    private void onTimeout(Invocation invocation) {
+        boolean wasQueued;
+        lock.lock();
+        try {
+            wasQueued = invocation.queue != null && invocation.queue.pending.remove(invocation);
+            if (wasQueued) {
+                invocation.queue = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        String message = wasQueued ? "Function invocation timeout while queued" : "Function execution timeout";
+        if (invocation.complete(failure(invocation, "TIMEOUT", message)) && !wasQueued) {
+            Thread thread = invocation.thread;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private ExecutionResult failure(Invocation invocation, String errorType, String message) {
+        ExecutionResult result = new ExecutionResult(invocation.context.getRequestId(), invocation.functionName);
+        result.markFailure(errorType, message);
+        result.setQueueWaitTime(invocation.queueWaitMillis());
+        return result;
+    }
+
+    /**
+     * 调度器状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        List<Map<String, Object>> details = new ArrayList<>();
+        lock.lock();
+        try {
+            stats.put("running", running);
+            stats.put("globalLimit", globalLimit);
+            for (FunctionQueue queue : queues.values()) {
+                Map<String, Object> detail = new HashMap<>();
+                detail.put("functionName", queue.functionName);
+                detail.put("running", queue.running);
+                detail.put("queued", queue.pending.size());
+                detail.put("maxConcurrency", queue.maxConcurrency);
+                detail.put("queueCapacity", queue.queueCapacity);
+                detail.put("rejected", queue.rejected);
+                details.add(detail);
+            }
+        } finally {
+            lock.unlock();
+        }
+        stats.put("functions", details);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+
+    /**
+     * 单个函数的排队状态
+     */
+    private static final class FunctionQueue {
+        private final String functionName;
+        private final ArrayDeque<Invocation> pending = new ArrayDeque<>();
+        private int running;
+        private int maxConcurrency;
+        private int queueCapacity;
+        private long rejected;
+        private boolean ready;
+
+        private FunctionQueue(String functionName) {
+            this.functionName = functionName;
+        }
+    }
+
+    /**
+     * 一次调用
+     */
+    private static final class Invocation {
+        private final String functionName;
+        private final ExecutionContext context;
+        private final Supplier<ExecutionResult> work;
+        private final CompletableFuture<ExecutionResult> future = new CompletableFuture<>();
+        private final long submitNanos = System.nanoTime();
+        private volatile long startNanos;
+        private volatile Thread thread;
+        private volatile ScheduledFuture<?> timeoutTask;
+        private FunctionQueue queue; // 排队中时不为空，由lock保护
+
+        private Invocation(String functionName, ExecutionContext context, Supplier<ExecutionResult> work) {
+            this.functionName = functionName;
+            this.context = context;
+            this.work = work;
+        }
+
+        private long queueWaitMillis() {
+            long start = startNanos != 0 ? startNanos : System.nanoTime();
+            return TimeUnit.NANOSECONDS.toMillis(start - submitNanos);
+        }
+
+        private boolean complete(ExecutionResult result) {
+            boolean completed = future.complete(result);
+            ScheduledFuture<?> task = timeoutTask;
+            if (completed && task != null) {
+                task.cancel(false);
+            }
+            return completed;
+        }
+    }
+}
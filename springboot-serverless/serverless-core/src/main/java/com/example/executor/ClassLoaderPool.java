@@ -27,11 +27,15 @@ package com.example.executor;
       // 配置参数
       private static final long MAX_IDLE_TIME = 30 * 60 * 1000; // 30分钟无使用则清理
       private static final long CLEANUP_INTERVAL = 10 * 60 * 1000; // 10分钟检查一次
+      private static final long JAR_CHECK_INTERVAL = 5 * 1000; // 5秒检查一次jar是否更新
 
       public ClassLoaderPool() {
           // 启动定期清理任务
           cleanupExecutor.scheduleAtFixedRate(this::cleanupIdleClassLoaders,
               CLEANUP_INTERVAL, CLEANUP_INTERVAL, TimeUnit.MILLISECONDS);
+          // jar版本检查放到后台定时执行，调用路径上不再读取文件属性
+          cleanupExecutor.scheduleWithFixedDelay(this::reloadChangedJars,
+              JAR_CHECK_INTERVAL, JAR_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
       }
 
       /**
@@ -43,13 +47,13 @@ package com.example.executor;
           private final AtomicLong useCount = new AtomicLong(0);
           private final String functionName;
           private final String jarPath;
-          private final String version; // jar文件的版本/时间戳
+          private volatile JarSnapshot snapshot; // jar文件的类字节快照
 
-          public PooledClassLoader(String functionName, String jarPath, String version, 
+          public PooledClassLoader(String functionName, String jarPath, JarSnapshot snapshot,
                                  IsolatedClassLoader classLoader) {
               this.functionName = functionName;
               this.jarPath = jarPath;
-              this.version = version;
+              this.snapshot = snapshot;
               this.classLoader = classLoader;
           }
 
@@ -66,12 +70,7 @@ package com.example.executor;
           public boolean isVersionChanged() {
               // 检查jar文件是否有更新
               File jarFile = new File(jarPath);
-              if (!jarFile.exists()) {
-                  return true;
-              }
-
-              String currentVersion = String.valueOf(jarFile.lastModified());
-              return !version.equals(currentVersion);
+              return !jarFile.exists() || snapshot.isStale(jarFile);
           }
 
           public void close() {
@@ -86,7 +85,8 @@ package com.example.executor;
           public long getLastUsedTime() { return lastUsedTime.get(); }
           public long getUseCount() { return useCount.get(); }
           public String getFunctionName() { return functionName; }
-          public String getVersion() { return version; }
+          public String getVersion() { return String.valueOf(snapshot.getLastModified()); }
+          public JarSnapshot getSnapshot() { return snapshot; }
       }
 
       /**
@@ -95,40 +95,96 @@ package com.example.executor;
       public IsolatedClassLoader getClassLoader(String functionName, String jarPath, String className) {
           String key = functionName + ":" + jarPath;
 
-          // 检查jar文件版本
-          File jarFile = new File(jarPath);
-          if (!jarFile.exists()) {
-              throw new IllegalArgumentException("JAR file not found: " + jarPath);
+          // 快速路径：已缓存且未过期直接返回，jar更新由后台检查负责
+          PooledClassLoader cached = pool.get(key);
+          if (cached != null && !cached.isExpired()) {
+              return cached.getClassLoader();
           }
 
-          String currentVersion = String.valueOf(jarFile.lastModified());
-
           PooledClassLoader pooled = pool.compute(key, (k, existing) -> {
-              // 如果不存在或版本已过期，创建新的
-              if (existing == null || existing.isVersionChanged() || existing.isExpired()) {
+              // 如果不存在或已过期，创建新的
+              if (existing == null || existing.isExpired()) {
                   if (existing != null) {
                       existing.close(); // 关闭旧的
                   }
+                  return createClassLoader(functionName, jarPath, null);
+              }
+
+              return existing;
+          });
 
-                  try {
-                      URL jarUrl = jarFile.toURI().toURL();
-                      IsolatedClassLoader newClassLoader = new IsolatedClassLoader(
-                          functionName,
-                          new URL[]{jarUrl},
-                          Thread.currentThread().getContextClassLoader()
-                      );
+          return pooled.getClassLoader();
+      }
 
-                      return new PooledClassLoader(functionName, jarPath, currentVersion, newClassLoader);
+      /**
+       * 创建ClassLoader，snapshot为null时从jar重新打快照
+       */
+      private PooledClassLoader createClassLoader(String functionName, String jarPath, JarSnapshot snapshot) {
+          File jarFile = new File(jarPath);
+          if (!jarFile.exists()) {
+              throw new IllegalArgumentException("JAR file not found: " + jarPath);
+          }
 
-                  } catch (Exception e) {
-                      throw new RuntimeException("Failed to create ClassLoader for " + functionName, e);
+          try {
+              if (snapshot == null) {
+                  snapshot = JarSnapshot.load(jarFile, null);
+              }
+              URL jarUrl = jarFile.toURI().toURL();
+              IsolatedClassLoader newClassLoader = new IsolatedClassLoader(
+                  functionName,
+                  new URL[]{jarUrl},
+                  Thread.currentThread().getContextClassLoader(),
+                  snapshot
+              );
+
+              return new PooledClassLoader(functionName, jarPath, snapshot, newClassLoader);
+
+          } catch (Exception e) {
+              throw new RuntimeException("Failed to create ClassLoader for " + functionName, e);
+          }
+      }
+
+      /**
+       * 重新加载已更新的jar
+       * class内容未变（如重新拷贝同一个jar）时保留原ClassLoader，只更新快照；
+       * 有变化时基于旧快照创建新ClassLoader，未变化的class直接复用已缓存的字节
+       */
+      private void reloadChangedJars() {
+          for (Map.Entry<String, PooledClassLoader> entry : pool.entrySet()) {
+              PooledClassLoader pooled = entry.getValue();
+              if (!pooled.isVersionChanged()) {
+                  continue;
+              }
+
+              File jarFile = new File(pooled.jarPath);
+              if (!jarFile.exists()) {
+                  if (pool.remove(entry.getKey(), pooled)) {
+                      pooled.close();
+                      System.out.println("JAR removed, closed ClassLoader for function: " + pooled.getFunctionName());
                   }
+                  continue;
               }
 
-              return existing;
-          });
+              try {
+                  JarSnapshot current = pooled.getSnapshot();
+                  JarSnapshot updated = JarSnapshot.load(jarFile, current);
+                  if (current.hasSameClasses(updated)) {
+                      pooled.snapshot = updated;
+                      continue;
+                  }
 
-          return pooled.getClassLoader();
+                  PooledClassLoader reloaded = createClassLoader(pooled.getFunctionName(), pooled.jarPath, updated);
+                  if (pool.replace(entry.getKey(), pooled, reloaded)) {
+                      pooled.close();
+                      System.out.println("Reloaded ClassLoader for function: " + pooled.getFunctionName()
+                          + ", reused " + updated.getReusedCount() + "/" + updated.getClassCount() + " classes");
+                  } else {
+                      reloaded.close();
+                  }
+              } catch (Exception e) {
+                  System.err.println("Error reloading JAR for " + pooled.getFunctionName() + ": " + e.getMessage());
+              }
+          }
       }
 
       /**
@@ -137,7 +193,7 @@ package com.example.executor;
       private void cleanupIdleClassLoaders() {
           pool.entrySet().removeIf(entry -> {
               PooledClassLoader pooled = entry.getValue();
-              if (pooled.isExpired() || pooled.isVersionChanged()) {
+              if (pooled.isExpired()) {
                   pooled.close();
                   System.out.println("Cleaned up ClassLoader for function: " + pooled.getFunctionName());
                   return true;
@@ -177,6 +233,8 @@ package com.example.executor;
                   detail.put("useCount", pooled.getUseCount());
                   detail.put("lastUsedTime", pooled.getLastUsedTime());
                   detail.put("idleTime", System.currentTimeMillis() - pooled.getLastUsedTime());
+                  detail.put("version", pooled.getVersion());
+                  detail.put("snapshotClasses", pooled.getSnapshot().getClassCount());
                   return detail;
               })
               .collect(Collectors.toList());
@@ -2,17 +2,11 @@ package com.example.executor;
 
 import com.example.model.ExecutionContext;
 import com.example.model.ExecutionResult;
-import com.example.model.ServerlessFunction;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryMXBean;
-import java.net.URL;
 import java.util.Map;
-import java.util.concurrent.*;
 
 /**
  * 函数执行器
@@ -23,86 +17,50 @@ import java.util.concurrent.*;
 public class FunctionExecutor {
 
     @Autowired
-    private ClassLoaderPool classLoaderPool;
+    private FunctionInstancePool instancePool;
 
-    private final ExecutorService executorService;
-    
-    public FunctionExecutor() {
-        // 创建线程池用于执行函数
-        this.executorService = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r);
-            t.setName("function-executor-" + System.currentTimeMillis());
-            t.setDaemon(true);
-            return t;
-        });
-    }
-    
     /**
-     * 执行函数
+     * 在当前线程中执行函数
+     * 调用线程由InvocationScheduler提供，超时由调度器中断该线程
      */
     public ExecutionResult execute(String functionName, String jarPath, String className, 
                                  Map<String, Object> input, ExecutionContext context) {
         
         ExecutionResult result = new ExecutionResult(context.getRequestId(), functionName);
 
-        Future<Object> future = executorService.submit(() -> {
-            // 从池中获取ClassLoader（不需要每次创建）
-            IsolatedClassLoader classLoader = classLoaderPool.getClassLoader(
-                    functionName, jarPath, className);
-
-            // 加载函数类
-            Class<?> functionClass = classLoader.loadClass(className);
-            Object functionInstance = functionClass.getDeclaredConstructor().newInstance();
+        FunctionInstancePool.Lease lease = null;
+        boolean reusable = false;
+        try {
+            // 从实例池借出预热好的函数实例（不需要每次加载类和实例化）
+            lease = instancePool.acquire(functionName, jarPath, className);
 
-            // 检查是否实现了ServerlessFunction接口
-            if (!(functionInstance instanceof ServerlessFunction)) {
-                throw new IllegalArgumentException(
-                    "Function class must implement ServerlessFunction interface");
+            // 执行函数
+            Object functionResult = lease.getFunction().handle(input, context);
+            if (Thread.currentThread().isInterrupted()) {
+                result.markFailure("TIMEOUT", "Function execution timeout");
+            } else {
+                reusable = true;
+                result.markSuccess(functionResult);
             }
 
-            ServerlessFunction function = (ServerlessFunction) functionInstance;
-            // 执行函数
-            return function.handle(input, context);
-        });
-        
-        try {
-            // 等待执行结果，支持超时
-            Object functionResult = future.get(context.getTimeoutMs(), TimeUnit.MILLISECONDS);
-            result.markSuccess(functionResult);
-        } catch (TimeoutException e) {
-            future.cancel(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             result.markFailure("TIMEOUT", "Function execution timeout");
-            
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            log.error(cause.getMessage(),cause);
-            result.markFailure(
-                cause.getClass().getSimpleName(), 
-                cause.getMessage()
-            );
-            
+
         } catch (Exception e) {
+            log.error(e.getMessage(), e);
             result.markFailure(
                 e.getClass().getSimpleName(), 
                 e.getMessage()
             );
-        }
 
-        return result;
-    }
-    
-    /**
-     * 关闭执行器
-     */
-    public void shutdown() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+        } finally {
+            // 异常或被中断的实例不再放回池中
+            if (lease != null) {
+                instancePool.release(lease, reusable);
             }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,313 @@
+package com.example.executor;
+
+import com.example.model.ServerlessFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 函数实例池
+ * 为每个函数维护一组已初始化的ServerlessFunction实例，调用时直接借出，避免每次反射加载类和创建实例。
+ * 部署时预热minWarm个实例；空闲实例最多保留maxWarm个，超过空闲时长的实例由定时任务回收到minWarm。
+ * 一个实例同一时刻只被一个调用使用。
+ */
+@Component
+@Slf4j
+public class FunctionInstancePool {
+
+    @Autowired
+    private ClassLoaderPool classLoaderPool;
+
+    @Value("${serverless.pool.min-warm-instances:1}")
+    private int defaultMinWarm;
+
+    @Value("${serverless.pool.max-warm-instances:16}")
+    private int defaultMaxWarm;
+
+    @Value("${serverless.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    private final ConcurrentHashMap<String, InstancePool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 部署函数：创建实例池并预热
+     *
+     * @param minWarm 最少保持的空闲实例数，null使用默认值
+     * @param maxWarm 最多保留的空闲实例数，null使用默认值
+     */
+    public void deploy(String functionName, String jarPath, String className, Integer minWarm, Integer maxWarm) {
+        int min = minWarm != null ? minWarm : defaultMinWarm;
+        int max = Math.max(min, maxWarm != null ? maxWarm : defaultMaxWarm);
+        InstancePool pool = new InstancePool(functionName, jarPath, className, min, max);
+        InstancePool old = pools.put(functionName, pool);
+        if (old != null) {
+            old.clear();
+        }
+
+        try {
+            pool.replenish();
+            log.info("Function pre-warmed: {}, instances={}", functionName, pool.idleCount.get());
+        } catch (Exception e) {
+            // 预热失败不影响部署，首次调用时会再次尝试并返回具体错误
+            log.warn("Function pre-warm failed: {}, {}", functionName, e.toString());
+        }
+    }
+
+    /**
+     * 借出实例，没有可用的空闲实例时新建（冷启动）
+     */
+    public Lease acquire(String functionName, String jarPath, String className) throws Exception {
+        InstancePool pool = pools.get(functionName);
+        if (pool == null || !pool.jarPath.equals(jarPath) || !pool.className.equals(className)) {
+            pool = pools.compute(functionName, (k, existing) ->
+                existing != null && existing.jarPath.equals(jarPath) && existing.className.equals(className)
+                    ? existing
+                    : new InstancePool(functionName, jarPath, className, defaultMinWarm,
+                        Math.max(defaultMinWarm, defaultMaxWarm)));
+        }
+        return pool.acquire();
+    }
+
+    /**
+     * 归还实例
+     *
+     * @param reusable 实例是否可以复用，执行异常或超时的实例不再放回池中
+     */
+    public void release(Lease lease, boolean reusable) {
+        lease.pool.release(lease, reusable);
+    }
+
+    /**
+     * 移除函数的实例池
+     */
+    public void evict(String functionName) {
+        InstancePool pool = pools.remove(functionName);
+        if (pool != null) {
+            pool.clear();
+        }
+    }
+
+    /**
+     * 回收超时空闲实例，并补足到最少预热数
+     */
+    @Scheduled(fixedDelayString = "${serverless.pool.reap-interval-ms:30000}")
+    public void reap() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        for (InstancePool pool : pools.values()) {
+            try {
+                pool.reap(deadline);
+                pool.replenish();
+            } catch (Exception e) {
+                log.warn("Function pool maintenance failed: {}, {}", pool.functionName, e.toString());
+            }
+        }
+    }
+
+    /**
+     * 获取实例池统计
+     */
+    public Map<String, Object> getPoolStats() {
+        List<Map<String, Object>> details = new ArrayList<>();
+        for (InstancePool pool : pools.values()) {
+            details.add(pool.stats());
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("functionCount", pools.size());
+        stats.put("details", details);
+        return stats;
+    }
+
+    /**
+     * 借出的实例
+     */
+    public static final class Lease {
+        private final InstancePool pool;
+        private final Generation generation;
+        private final ServerlessFunction function;
+        private final boolean coldStart;
+
+        private Lease(InstancePool pool, Generation generation, ServerlessFunction function, boolean coldStart) {
+            this.pool = pool;
+            this.generation = generation;
+            this.function = function;
+            this.coldStart = coldStart;
+        }
+
+        public ServerlessFunction getFunction() { return function; }
+        public boolean isColdStart() { return coldStart; }
+    }
+
+    /**
+     * 同一个ClassLoader加载出的函数类；jar重新加载后生成新的一代，旧一代的实例不再复用
+     */
+    private static final class Generation {
+        private final IsolatedClassLoader classLoader;
+        private final Constructor<?> constructor;
+
+        private Generation(IsolatedClassLoader classLoader, String className) throws Exception {
+            Class<?> functionClass = classLoader.loadClass(className);
+            // 检查是否实现了ServerlessFunction接口
+            if (!ServerlessFunction.class.isAssignableFrom(functionClass)) {
+                throw new IllegalArgumentException(
+                    "Function class must implement ServerlessFunction interface");
+            }
+            this.classLoader = classLoader;
+            this.constructor = functionClass.getDeclaredConstructor();
+        }
+
+        private ServerlessFunction newInstance() throws Exception {
+            return (ServerlessFunction) constructor.newInstance();
+        }
+    }
+
+    private static final class IdleInstance {
+        private final Generation generation;
+        private final ServerlessFunction function;
+        private final long idleSince = System.nanoTime();
+
+        private IdleInstance(Generation generation, ServerlessFunction function) {
+            this.generation = generation;
+            this.function = function;
+        }
+    }
+
+    /**
+     * 单个函数的实例池
+     */
+    private final class InstancePool {
+        private final String functionName;
+        private final String jarPath;
+        private final String className;
+        private final int minWarm;
+        private final int maxWarm;
+
+        // 头部是最近归还的实例，借出和归还都在头部，尾部是最久未用的实例，回收从尾部开始
+        private final ConcurrentLinkedDeque<IdleInstance> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private volatile Generation generation;
+
+        private final LongAdder warmHits = new LongAdder();
+        private final LongAdder coldStarts = new LongAdder();
+        private final LongAdder coldStartNanos = new LongAdder();
+        private final LongAdder discarded = new LongAdder();
+
+        private InstancePool(String functionName, String jarPath, String className, int minWarm, int maxWarm) {
+            this.functionName = functionName;
+            this.jarPath = jarPath;
+            this.className = className;
+            this.minWarm = minWarm;
+            this.maxWarm = maxWarm;
+        }
+
+        /**
+         * 当前一代函数类；ClassLoader被替换后重新加载类
+         */
+        private Generation currentGeneration() throws Exception {
+            IsolatedClassLoader classLoader = classLoaderPool.getClassLoader(functionName, jarPath, className);
+            Generation current = generation;
+            if (current != null && current.classLoader == classLoader) {
+                return current;
+            }
+            synchronized (this) {
+                current = generation;
+                if (current == null || current.classLoader != classLoader) {
+                    current = new Generation(classLoader, className);
+                    generation = current;
+                }
+                return current;
+            }
+        }
+
+        private Lease acquire() throws Exception {
+            long start = System.nanoTime();
+            Generation current = currentGeneration();
+            IdleInstance instance;
+            while ((instance = idle.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                if (instance.generation == current) {
+                    warmHits.increment();
+                    return new Lease(this, current, instance.function, false);
+                }
+                discarded.increment();
+            }
+
+            // 冷启动耗时包含类加载（ClassLoader或函数类尚未加载时）和实例化
+            ServerlessFunction function = current.newInstance();
+            coldStarts.increment();
+            coldStartNanos.add(System.nanoTime() - start);
+            return new Lease(this, current, function, true);
+        }
+
+        private void release(Lease lease, boolean reusable) {
+            // 函数已重新部署或jar已重新加载时，旧实例直接丢弃
+            boolean current = reusable && lease.generation == generation && pools.get(functionName) == this;
+            if (current && idleCount.incrementAndGet() <= maxWarm) {
+                idle.offerFirst(new IdleInstance(lease.generation, lease.function));
+                return;
+            }
+            if (current) {
+                idleCount.decrementAndGet();
+            }
+            discarded.increment();
+        }
+
+        private void reap(long deadline) {
+            IdleInstance instance;
+            while (idleCount.get() > minWarm && (instance = idle.peekLast()) != null
+                && instance.idleSince - deadline < 0) {
+                if (idle.removeLastOccurrence(instance)) {
+                    idleCount.decrementAndGet();
+                    discarded.increment();
+                }
+            }
+        }
+
+        private void replenish() throws Exception {
+            if (idleCount.get() >= minWarm) {
+                return;
+            }
+            Generation current = currentGeneration();
+            while (idleCount.get() < minWarm) {
+                ServerlessFunction function = current.newInstance();
+                if (idleCount.incrementAndGet() > minWarm) {
+                    idleCount.decrementAndGet();
+                    break;
+                }
+                // 预热实例放在尾部，优先借出刚归还的实例
+                idle.offerLast(new IdleInstance(current, function));
+            }
+        }
+
+        private void clear() {
+            idle.clear();
+            idleCount.set(0);
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("functionName", functionName);
+            stats.put("idleInstances", idleCount.get());
+            stats.put("minWarm", minWarm);
+            stats.put("maxWarm", maxWarm);
+            stats.put("warmHits", warmHits.sum());
+            stats.put("coldStarts", coldStarts.sum());
+            long cold = coldStarts.sum();
+            stats.put("avgColdStartMicros", cold == 0 ? 0 : coldStartNanos.sum() / cold / 1000);
+            stats.put("discarded", discarded.sum());
+            return stats;
+        }
+    }
+}
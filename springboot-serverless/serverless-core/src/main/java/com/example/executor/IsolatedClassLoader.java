@@ -1,29 +1,72 @@
 package com.example.executor;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 隔离类加载器
  * 为每个函数提供独立的类加载环境
+ * 注册为并行加载器，不同类名的加载互不阻塞；类字节来自JAR快照或构造时建立的JAR条目索引
  */
 public class IsolatedClassLoader extends URLClassLoader {
-    
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * 交给父加载器加载的包前缀
+     */
+    private static final PrefixTrie PARENT_FIRST = new PrefixTrie(
+        // 基础类
+        "com.example.model.",
+        // Java系统类
+        "java.", "javax.", "jdk.", "sun.", "com.sun.",
+        // Spring相关类
+        "org.springframework.", "org.apache.", "com.fasterxml."
+    );
+
     private final String functionName;
-    private final Map<String, Class<?>> loadedClasses = new HashMap<>();
+    private final Map<String, Class<?>> loadedClasses = new ConcurrentHashMap<>();
     private final ClassLoader parentClassLoader;
-    
+    private final JarSnapshot snapshot;
+    private final JarIndex index;
+
     public IsolatedClassLoader(String functionName, URL[] urls, ClassLoader parent) {
+        this(functionName, urls, parent, null);
+    }
+
+    /**
+     * 使用JAR快照创建，类字节优先从快照读取
+     */
+    public IsolatedClassLoader(String functionName, URL[] urls, ClassLoader parent, JarSnapshot snapshot) {
         super(urls, parent);
         this.functionName = functionName;
         this.parentClassLoader = parent;
+        this.snapshot = snapshot;
+        this.index = snapshot == null ? openIndex(urls) : null;
+    }
+
+    /**
+     * 单个本地JAR时建立条目索引，其他情况沿用URLClassLoader的查找方式
+     */
+    private static JarIndex openIndex(URL[] urls) {
+        if (urls.length != 1 || !"file".equals(urls[0].getProtocol())) {
+            return null;
+        }
+        try {
+            File file = new File(urls[0].toURI());
+            return file.isFile() ? JarIndex.open(file) : null;
+        } catch (Exception e) {
+            return null;
+        }
     }
-    
+
     @Override
     protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
         // 检查是否已经加载过
@@ -32,75 +75,121 @@ public class IsolatedClassLoader extends URLClassLoader {
             return loadedClass;
         }
 
-        // 优先使用父加载器加载基础类
-        if (name.startsWith("com.example.model.")) {
+        if (PARENT_FIRST.matches(name)) {
             return super.loadClass(name, resolve);
         }
 
-        // 对于Java系统类，使用父类加载器
-        if (name.startsWith("java.") || name.startsWith("javax.") || 
-            name.startsWith("sun.") || name.startsWith("com.sun.")) {
-            return super.loadClass(name, resolve);
-        }
-        
-        // 对于Spring相关类，使用父类加载器
-        if (name.startsWith("org.springframework.") || 
-            name.startsWith("org.apache.") ||
-            name.startsWith("com.fasterxml.")) {
-            return super.loadClass(name, resolve);
-        }
-        
-        try {
-            // 尝试自己加载类
-            Class<?> clazz = findClass(name);
-            loadedClasses.put(name, clazz);
+        // 同名类的加载串行化，不同类并行
+        synchronized (getClassLoadingLock(name)) {
+            loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                try {
+                    // 尝试自己加载类
+                    loadedClass = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    // 如果找不到，使用父类加载器
+                    return super.loadClass(name, resolve);
+                }
+            }
+            loadedClasses.put(name, loadedClass);
             if (resolve) {
-                resolveClass(clazz);
+                resolveClass(loadedClass);
             }
-            return clazz;
-        } catch (ClassNotFoundException e) {
-            // 如果找不到，使用父类加载器
-            return super.loadClass(name, resolve);
+            return loadedClass;
         }
     }
-    
+
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
-        try {
-            String path = name.replace('.', '/') + ".class";
-            InputStream is = getResourceAsStream(path);
-            if (is == null) {
-                throw new ClassNotFoundException(name);
+        byte[] classData;
+        if (snapshot != null) {
+            classData = snapshot.getClassBytes(name);
+        } else if (index != null) {
+            try {
+                classData = index.readClass(name);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
             }
-            
-            byte[] classData = readClassData(is);
-            return defineClass(name, classData, 0, classData.length);
-        } catch (IOException e) {
-            throw new ClassNotFoundException(name, e);
+        } else {
+            return super.findClass(name);
         }
-    }
-    
-    private byte[] readClassData(InputStream is) throws IOException {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] data = new byte[1024];
-        int bytesRead;
-        while ((bytesRead = is.read(data)) != -1) {
-            buffer.write(data, 0, bytesRead);
+
+        if (classData == null) {
+            throw new ClassNotFoundException(name);
         }
-        return buffer.toByteArray();
+        return defineClass(name, classData, 0, classData.length);
     }
-    
+
     public String getFunctionName() {
         return functionName;
     }
-    
+
     public int getLoadedClassCount() {
         return loadedClasses.size();
     }
-    
+
+    public JarSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     @Override
     public void close() throws IOException {
         loadedClasses.clear();
         super.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * 包前缀字典树，构造后只读，匹配时逐字符下行，遇到任一前缀的终点即命中
+     */
+    private static final class PrefixTrie {
+
+        private final Node root = new Node();
+
+        private PrefixTrie(String... prefixes) {
+            for (String prefix : prefixes) {
+                Node node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.child(prefix.charAt(i), true);
+                }
+                node.terminal = true;
+            }
+        }
+
+        private boolean matches(String name) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.child(name.charAt(i), false);
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final class Node {
+            private char[] keys = new char[0];
+            private Node[] children = new Node[0];
+            private boolean terminal;
+
+            private Node child(char c, boolean create) {
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] == c) {
+                        return children[i];
+                    }
+                }
+                if (!create) {
+                    return null;
+                }
+                int n = keys.length;
+                keys = Arrays.copyOf(keys, n + 1);
+                children = Arrays.copyOf(children, n + 1);
+                keys[n] = c;
+                children[n] = new Node();
+                return children[n];
+            }
+        }
+    }
+}
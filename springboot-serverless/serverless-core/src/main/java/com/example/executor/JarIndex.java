@@ -0,0 +1,205 @@
+package com.example.executor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * JAR条目索引
+ * 以只读方式内存映射JAR文件，构造时解析一次中央目录，建立 类名 -> 条目偏移/大小/CRC 的索引；
+ * 读取类字节时直接定位到条目数据，按声明的大小一次性读出（STORED直接拷贝，DEFLATED直接从映射区解压），
+ * 不经过JarFile的输入流和逐块拷贝
+ */
+public class JarIndex {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private final ByteBuffer buffer;
+    private final Map<String, Entry> entries;
+
+    private JarIndex(ByteBuffer buffer, Map<String, Entry> entries) {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /**
+     * 映射JAR文件并建立class条目索引
+     */
+    public static JarIndex open(File jarFile) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(jarFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("JAR file too large to map: " + jarFile);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return new JarIndex(buffer, readCentralDirectory(buffer, jarFile));
+    }
+
+    private static Map<String, Entry> readCentralDirectory(ByteBuffer buffer, File jarFile) throws IOException {
+        int end = findEndOfCentralDirectory(buffer);
+        if (end < 0) {
+            throw new IOException("Not a valid JAR file: " + jarFile);
+        }
+        int total = Short.toUnsignedInt(buffer.getShort(end + 10));
+        long directoryOffset = Integer.toUnsignedLong(buffer.getInt(end + 16));
+        if (total == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+            throw new IOException("ZIP64 JAR files are not supported: " + jarFile);
+        }
+
+        Map<String, Entry> entries = new HashMap<>(total * 4 / 3 + 1);
+        int position = (int) directoryOffset;
+        for (int i = 0; i < total; i++) {
+            if (buffer.getInt(position) != CENTRAL_SIGNATURE) {
+                throw new IOException("Corrupted central directory: " + jarFile);
+            }
+            int method = Short.toUnsignedInt(buffer.getShort(position + 10));
+            long crc = Integer.toUnsignedLong(buffer.getInt(position + 16));
+            int compressedSize = buffer.getInt(position + 20);
+            int size = buffer.getInt(position + 24);
+            int nameLength = Short.toUnsignedInt(buffer.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(buffer.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(buffer.getShort(position + 32));
+            int localOffset = buffer.getInt(position + 42);
+
+            String entryName = readName(buffer, position + CENTRAL_HEADER_SIZE, nameLength);
+            if (entryName.endsWith(CLASS_SUFFIX) && !entryName.endsWith("/")) {
+                if (compressedSize < 0 || size < 0 || localOffset < 0) {
+                    throw new IOException("ZIP64 JAR files are not supported: " + jarFile);
+                }
+                String className = entryName.substring(0, entryName.length() - CLASS_SUFFIX.length())
+                    .replace('/', '.');
+                entries.put(className, new Entry(method, crc, compressedSize, size, localOffset));
+            }
+            position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * 从文件尾部向前查找中央目录结束记录（其后可能跟有注释）
+     */
+    private static int findEndOfCentralDirectory(ByteBuffer buffer) {
+        int limit = Math.max(0, buffer.limit() - END_HEADER_SIZE - MAX_COMMENT_LENGTH);
+        for (int position = buffer.limit() - END_HEADER_SIZE; position >= limit; position--) {
+            if (buffer.getInt(position) == END_SIGNATURE) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static String readName(ByteBuffer buffer, int position, int length) {
+        byte[] name = new byte[length];
+        buffer.get(position, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取类字节，类不存在时返回null
+     */
+    public byte[] readClass(String className) throws IOException {
+        Entry entry = entries.get(className);
+        return entry != null ? read(entry, className) : null;
+    }
+
+    private byte[] read(Entry entry, String className) throws IOException {
+        int local = entry.localOffset;
+        if (buffer.getInt(local) != LOCAL_SIGNATURE) {
+            throw new IOException("Corrupted local header for class: " + className);
+        }
+        // 本地头中的扩展字段长度可能与中央目录不同，以本地头为准
+        int nameLength = Short.toUnsignedInt(buffer.getShort(local + 26));
+        int extraLength = Short.toUnsignedInt(buffer.getShort(local + 28));
+        int dataOffset = local + LOCAL_HEADER_SIZE + nameLength + extraLength;
+
+        byte[] bytes = new byte[entry.size];
+        if (entry.method == STORED) {
+            buffer.get(dataOffset, bytes);
+            return bytes;
+        }
+        if (entry.method != DEFLATED) {
+            throw new IOException("Unsupported compression method " + entry.method + " for class: " + className);
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(buffer.slice(dataOffset, entry.compressedSize));
+            int count = 0;
+            while (count < bytes.length && !inflater.finished()) {
+                int n = inflater.inflate(bytes, count, bytes.length - count);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                count += n;
+            }
+            if (count != bytes.length) {
+                throw new IOException("Truncated entry for class: " + className);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted entry for class: " + className, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public boolean contains(String className) {
+        return entries.containsKey(className);
+    }
+
+    public Set<String> getClassNames() {
+        return entries.keySet();
+    }
+
+    public long getCrc(String className) {
+        return entries.get(className).crc;
+    }
+
+    public int getSize(String className) {
+        return entries.get(className).size;
+    }
+
+    public int getClassCount() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final int method;
+        private final long crc;
+        private final int compressedSize;
+        private final int size;
+        private final int localOffset;
+
+        private Entry(int method, long crc, int compressedSize, int size, int localOffset) {
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localOffset = localOffset;
+        }
+    }
+}
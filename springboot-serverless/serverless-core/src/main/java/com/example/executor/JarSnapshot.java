@@ -0,0 +1,105 @@
+package com.example.executor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JAR类字节快照
+ * 部署时一次性读出JAR中全部class的字节，类加载直接从内存定义，不再回读JAR；
+ * 条目通过JarIndex从内存映射的JAR中按索引直接读出；
+ * JAR更新后重新打快照时，CRC和大小未变的class直接复用上一份快照的字节，只解压变化的class
+ */
+public class JarSnapshot {
+
+    private final String jarPath;
+    private final long lastModified;
+    private final long length;
+    private final Map<String, ClassEntry> classes;
+    private final int reusedCount;
+
+    private JarSnapshot(String jarPath, long lastModified, long length,
+                        Map<String, ClassEntry> classes, int reusedCount) {
+        this.jarPath = jarPath;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.classes = classes;
+        this.reusedCount = reusedCount;
+    }
+
+    /**
+     * 打快照
+     *
+     * @param jarFile  JAR文件
+     * @param previous 同一函数上一份快照，可为null
+     */
+    public static JarSnapshot load(File jarFile, JarSnapshot previous) throws IOException {
+        long lastModified = jarFile.lastModified();
+        long length = jarFile.length();
+        Map<String, ClassEntry> classes = new HashMap<>();
+        int reused = 0;
+
+        JarIndex index = JarIndex.open(jarFile);
+        for (String className : index.getClassNames()) {
+            // CRC和大小取自中央目录，比较时不需要解压
+            ClassEntry old = previous != null ? previous.classes.get(className) : null;
+            long crc = index.getCrc(className);
+            if (old != null && old.crc == crc && old.bytes.length == index.getSize(className)) {
+                classes.put(className, old);
+                reused++;
+                continue;
+            }
+            classes.put(className, new ClassEntry(crc, index.readClass(className)));
+        }
+
+        return new JarSnapshot(jarFile.getPath(), lastModified, length,
+            Collections.unmodifiableMap(classes), reused);
+    }
+
+    /**
+     * 获取类字节，不存在时返回null
+     */
+    public byte[] getClassBytes(String className) {
+        ClassEntry entry = classes.get(className);
+        return entry != null ? entry.bytes : null;
+    }
+
+    /**
+     * 文件时间戳或大小是否与快照不一致
+     */
+    public boolean isStale(File jarFile) {
+        return jarFile.lastModified() != lastModified || jarFile.length() != length;
+    }
+
+    /**
+     * 两份快照的class内容是否完全一致（例如JAR被重新拷贝但未改动）
+     */
+    public boolean hasSameClasses(JarSnapshot other) {
+        if (other == null || classes.size() != other.classes.size()) {
+            return false;
+        }
+        for (Map.Entry<String, ClassEntry> entry : classes.entrySet()) {
+            if (other.classes.get(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getJarPath() { return jarPath; }
+    public long getLastModified() { return lastModified; }
+    public int getClassCount() { return classes.size(); }
+    public int getReusedCount() { return reusedCount; }
+
+    private static final class ClassEntry {
+        private final long crc;
+        private final byte[] bytes;
+
+        private ClassEntry(long crc, byte[] bytes) {
+            this.crc = crc;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class ExecutionResult {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private long executionTime;
+    private long queueWaitTime; // 排队等待时间（毫秒），不计入executionTime
     
     public ExecutionResult(String requestId, String functionName) {
         this.requestId = requestId;
@@ -85,6 +86,14 @@ public class ExecutionResult {
     public long getExecutionTime() {
         return executionTime;
     }
+    
+    public long getQueueWaitTime() {
+        return queueWaitTime;
+    }
+    
+    public void setQueueWaitTime(long queueWaitTime) {
+        this.queueWaitTime = queueWaitTime;
+    }
 
 
     @Override
@@ -94,6 +103,7 @@ public class ExecutionResult {
                 ", functionName='" + functionName + '\'' +
                 ", success=" + success +
                 ", executionTime=" + executionTime +
+                ", queueWaitTime=" + queueWaitTime +
                 '}';
     }
 }
\ No newline at end of file
@@ -16,6 +16,9 @@ public class FunctionMetrics {
     private AtomicLong totalExecutionTime = new AtomicLong(0);
     private AtomicLong minExecutionTime = new AtomicLong(Long.MAX_VALUE);
     private AtomicLong maxExecutionTime = new AtomicLong(0);
+    private AtomicLong totalQueueWaitTime = new AtomicLong(0);
+    private AtomicLong maxQueueWaitTime = new AtomicLong(0);
+    private AtomicLong throttledCount = new AtomicLong(0);
     private AtomicReference<LocalDateTime> lastInvocation = new AtomicReference<>();
     private AtomicReference<LocalDateTime> createTime = new AtomicReference<>(LocalDateTime.now());
     
@@ -32,8 +35,18 @@ public class FunctionMetrics {
             successCount.incrementAndGet();
         } else {
             errorCount.incrementAndGet();
+            if ("THROTTLED".equals(result.getErrorType())) {
+                // 被拒绝的调用没有排队和执行，不计入耗时统计
+                throttledCount.incrementAndGet();
+                return;
+            }
         }
         
+        // 排队时间与执行时间分开统计
+        long queueWaitTime = result.getQueueWaitTime();
+        totalQueueWaitTime.addAndGet(queueWaitTime);
+        maxQueueWaitTime.updateAndGet(current -> Math.max(current, queueWaitTime));
+        
         long executionTime = result.getExecutionTime();
         totalExecutionTime.addAndGet(executionTime);
         
@@ -44,15 +57,24 @@ public class FunctionMetrics {
         maxExecutionTime.updateAndGet(current -> Math.max(current, executionTime));
     }
     
-    // 获取平均执行时间
+    // 获取平均执行时间（不含被拒绝的调用）
     public double getAvgExecutionTime() {
-        long count = invocationCount.get();
+        long count = invocationCount.get() - throttledCount.get();
         if (count == 0) {
             return 0.0;
         }
         return (double) totalExecutionTime.get() / count;
     }
     
+    // 获取平均排队时间（不含被拒绝的调用）
+    public double getAvgQueueWaitTime() {
+        long count = invocationCount.get() - throttledCount.get();
+        if (count == 0) {
+            return 0.0;
+        }
+        return (double) totalQueueWaitTime.get() / count;
+    }
+    
     // 获取成功率
     public double getSuccessRate() {
         long total = invocationCount.get();
@@ -97,6 +119,18 @@ public class FunctionMetrics {
         return maxExecutionTime.get();
     }
     
+    public long getTotalQueueWaitTime() {
+        return totalQueueWaitTime.get();
+    }
+    
+    public long getMaxQueueWaitTime() {
+        return maxQueueWaitTime.get();
+    }
+    
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+    
     public LocalDateTime getLastInvocation() {
         return lastInvocation.get();
     }
@@ -113,6 +147,8 @@ public class FunctionMetrics {
                 ", successCount=" + successCount.get() +
                 ", errorCount=" + errorCount.get() +
                 ", avgExecutionTime=" + String.format("%.2f", getAvgExecutionTime()) +
+                ", avgQueueWaitTime=" + String.format("%.2f", getAvgQueueWaitTime()) +
+                ", throttledCount=" + throttledCount.get() +
                 ", successRate=" + String.format("%.2f", getSuccessRate()) + "%" +
                 '}';
     }
@@ -3,8 +3,15 @@ package com.example.diff.controller;
 import com.example.diff.model.DiffResult;
 import com.example.diff.service.DiffService;
 import lombok.Data;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/diff")
@@ -29,9 +36,28 @@ public class DiffController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 比对两个文本的差异，以统一格式（unified diff）流式输出，适合大文件
+     */
+    @PostMapping("/unified")
+    public ResponseEntity<StreamingResponseBody> compareUnified(@RequestBody DiffRequest request) {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+            diffService.writeUnifiedDiff(request.getOriginal(), request.getRevised(), request.getContext(), writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "x-diff", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
     @Data
     public static class DiffRequest {
         private String original;
         private String revised;
+        /**
+         * 统一格式输出时每处差异前后保留的相同行数
+         */
+        private int context = 3;
     }
 }
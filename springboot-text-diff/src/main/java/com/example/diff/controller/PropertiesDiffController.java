@@ -1,6 +1,8 @@
 package com.example.diff.controller;
 
 import com.example.diff.model.PropertiesDiffResult;
+import com.example.diff.model.StructuralDiffResult;
+import com.example.diff.model.ThreeWayDiffResult;
 import com.example.diff.service.PropertiesDiffService;
 import lombok.Data;
 import org.springframework.http.ResponseEntity;
@@ -26,9 +28,38 @@ public class PropertiesDiffController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping("/structural")
+    public ResponseEntity<StructuralDiffResult> comparePropertiesStructure(@RequestBody DiffRequest request) {
+        StructuralDiffResult result = diffService.compareStructure(
+                request.getOriginal(),
+                request.getRevised()
+        );
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 三方比对与合并：base 为共同基线，ours、theirs 为两个修改版本
+     */
+    @PostMapping("/merge")
+    public ResponseEntity<ThreeWayDiffResult> mergeProperties(@RequestBody MergeRequest request) {
+        ThreeWayDiffResult result = diffService.merge(
+                request.getBase(),
+                request.getOurs(),
+                request.getTheirs()
+        );
+        return ResponseEntity.ok(result);
+    }
+
     @Data
     public static class DiffRequest {
         private String original;
         private String revised;
     }
+
+    @Data
+    public static class MergeRequest {
+        private String base;
+        private String ours;
+        private String theirs;
+    }
 }
@@ -1,6 +1,8 @@
 package com.example.diff.controller;
 
 import com.example.diff.model.DiffResult;
+import com.example.diff.model.StructuralDiffResult;
+import com.example.diff.model.ThreeWayDiffResult;
 import com.example.diff.service.YamlDiffService;
 import lombok.Data;
 import org.springframework.http.ResponseEntity;
@@ -43,9 +45,47 @@ public class YamlDiffController {
         }
     }
 
+    /**
+     * 结构化比对，按配置项路径给出变更
+     */
+    @PostMapping("/structural")
+    public ResponseEntity<StructuralDiffResult> compareYamlStructure(@RequestBody DiffRequest request) {
+        try {
+            return ResponseEntity.ok(yamlDiffService.compareStructure(
+                    request.getOriginal(),
+                    request.getRevised()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 三方比对与合并：base 为共同基线，ours、theirs 为两个修改版本
+     */
+    @PostMapping("/merge")
+    public ResponseEntity<ThreeWayDiffResult> mergeYaml(@RequestBody MergeRequest request) {
+        try {
+            return ResponseEntity.ok(yamlDiffService.merge(
+                    request.getBase(),
+                    request.getOurs(),
+                    request.getTheirs()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Data
     public static class DiffRequest {
         private String original;
         private String revised;
     }
+
+    @Data
+    public static class MergeRequest {
+        private String base;
+        private String ours;
+        private String theirs;
+    }
 }
@@ -0,0 +1,254 @@
+package com.example.diff.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 带子树哈希的配置树节点（Merkle 树）
+ *
+ * 每个节点的哈希由节点类型、取值以及全部子节点的哈希计算得出，对象的键按字典序参与计算，
+ * 因此键的书写顺序不影响哈希。两个节点哈希相同即可认为整棵子树相同，比对时直接跳过。
+ * 节点创建后不再修改，可以在多个请求之间共享
+ */
+public final class ConfigNode {
+
+    public enum Kind {
+        OBJECT, ARRAY, SCALAR
+    }
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Kind kind;
+    private final String value;
+    private final String valueType;
+    private final Map<String, ConfigNode> children;
+    private final List<ConfigNode> items;
+    private final JsonNode source;
+    private final byte[] hash;
+
+    private ConfigNode(Kind kind, String value, String valueType,
+                       Map<String, ConfigNode> children, List<ConfigNode> items, JsonNode source) {
+        this.kind = kind;
+        this.value = value;
+        this.valueType = valueType;
+        this.children = children;
+        this.items = items;
+        this.source = source;
+        this.hash = computeHash();
+    }
+
+    /**
+     * 由 JSON/YAML 树构建
+     */
+    public static ConfigNode fromJson(JsonNode node) {
+        if (node.isObject()) {
+            Map<String, ConfigNode> children = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                children.put(field.getKey(), fromJson(field.getValue()));
+            }
+            return new ConfigNode(Kind.OBJECT, children.isEmpty() ? "{}" : null, null,
+                    Collections.unmodifiableMap(children), null, null);
+        }
+        if (node.isArray()) {
+            List<ConfigNode> items = new ArrayList<>(node.size());
+            for (JsonNode item : node) {
+                items.add(fromJson(item));
+            }
+            return new ConfigNode(Kind.ARRAY, items.isEmpty() ? "[]" : null, null,
+                    null, Collections.unmodifiableList(items), null);
+        }
+        return new ConfigNode(Kind.SCALAR, node.asText(), node.getNodeType().name(), null, null, node);
+    }
+
+    /**
+     * 由 Properties 构建，键按 "." 拆分为层级；
+     * 同一路径既有取值又有下级键（如 a.b 与 a.b.c）时，取值保存在对象节点上
+     */
+    public static ConfigNode fromProperties(Properties properties) {
+        PropertyEntry root = new PropertyEntry();
+        for (String key : properties.stringPropertyNames()) {
+            PropertyEntry entry = root;
+            for (String segment : key.split("\\.", -1)) {
+                entry = entry.children.computeIfAbsent(segment, s -> new PropertyEntry());
+            }
+            entry.value = properties.getProperty(key);
+        }
+        if (root.children.isEmpty()) {
+            return new ConfigNode(Kind.OBJECT, null, null, Collections.emptyMap(), null, null);
+        }
+        return root.toNode();
+    }
+
+    /**
+     * 合并时生成的新对象节点
+     */
+    static ConfigNode object(Map<String, ConfigNode> children, String value) {
+        return new ConfigNode(Kind.OBJECT, value != null ? value : children.isEmpty() ? "{}" : null, null,
+                Collections.unmodifiableMap(children), null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 节点自身的取值：标量的文本、空对象 "{}"、空数组 "[]"，
+     * 或 Properties 中同时带有下级键的取值；其余情况为 null
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 容器节点自身携带的取值（只出现在 Properties 中），空容器的 "{}"、"[]" 不算
+     */
+    public String getOwnValue() {
+        if (kind == Kind.SCALAR) {
+            return value;
+        }
+        boolean empty = kind == Kind.OBJECT ? children.isEmpty() : items.isEmpty();
+        return empty ? null : value;
+    }
+
+    /**
+     * 标量的类型（YAML 中区分 1 与 "1"），Properties 中为 null
+     */
+    public String getValueType() {
+        return valueType;
+    }
+
+    public Map<String, ConfigNode> getChildren() {
+        return children == null ? Collections.emptyMap() : children;
+    }
+
+    public List<ConfigNode> getItems() {
+        return items == null ? Collections.emptyList() : items;
+    }
+
+    /**
+     * 子树内容是否相同
+     */
+    public boolean sameAs(ConfigNode other) {
+        return other != null && Arrays.equals(hash, other.hash);
+    }
+
+    /**
+     * 转换为 JSON 树，用于输出 YAML
+     */
+    public JsonNode toJson() {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        switch (kind) {
+            case OBJECT -> {
+                ObjectNode node = factory.objectNode();
+                children.forEach((key, child) -> node.set(key, child.toJson()));
+                return node;
+            }
+            case ARRAY -> {
+                ArrayNode node = factory.arrayNode();
+                items.forEach(item -> node.add(item.toJson()));
+                return node;
+            }
+            default -> {
+                return source != null ? source : TextNode.valueOf(value);
+            }
+        }
+    }
+
+    /**
+     * 按路径展开为叶子取值，路径格式与比对结果一致
+     */
+    public void flatten(String path, Map<String, String> result) {
+        if (value != null) {
+            result.put(path, value);
+        }
+        if (kind == Kind.OBJECT) {
+            children.forEach((key, child) -> child.flatten(childPath(path, key), result));
+        } else if (kind == Kind.ARRAY) {
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).flatten(itemPath(path, i), result);
+            }
+        }
+    }
+
+    static String childPath(String path, String key) {
+        return path.isEmpty() ? key : path + "." + key;
+    }
+
+    static String itemPath(String path, int index) {
+        return path + "[" + index + "]";
+    }
+
+    private byte[] computeHash() {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        digest.update((byte) kind.ordinal());
+        updateString(digest, valueType);
+        updateString(digest, value);
+        if (kind == Kind.OBJECT) {
+            new TreeMap<>(children).forEach((key, child) -> {
+                updateString(digest, key);
+                digest.update(child.hash);
+            });
+        } else if (kind == Kind.ARRAY) {
+            for (ConfigNode item : items) {
+                digest.update(item.hash);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void updateString(MessageDigest digest, String text) {
+        if (text == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    /**
+     * 构建 Properties 树时使用的可变节点
+     */
+    private static final class PropertyEntry {
+        private String value;
+        private final Map<String, PropertyEntry> children = new TreeMap<>();
+
+        private ConfigNode toNode() {
+            if (children.isEmpty()) {
+                return new ConfigNode(Kind.SCALAR, value, null, null, null, null);
+            }
+            Map<String, ConfigNode> nodes = new LinkedHashMap<>();
+            children.forEach((key, child) -> nodes.put(key, child.toNode()));
+            return new ConfigNode(Kind.OBJECT, value, null, Collections.unmodifiableMap(nodes), null, null);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.diff.engine;
+
+/**
+ * 一处差异：原文本 [beginA, endA) 被替换为新文本 [beginB, endB)，行号从 0 开始
+ */
+public record Edit(int beginA, int endA, int beginB, int endB) {
+
+    /**
+     * 差异类型: INSERT（新增）, DELETE（删除）, CHANGE（修改）
+     */
+    public String type() {
+        if (beginA == endA) {
+            return "INSERT";
+        }
+        if (beginB == endB) {
+            return "DELETE";
+        }
+        return "CHANGE";
+    }
+
+    public int lengthA() {
+        return endA - beginA;
+    }
+
+    public int lengthB() {
+        return endB - beginB;
+    }
+}
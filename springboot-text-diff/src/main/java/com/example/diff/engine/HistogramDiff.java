@@ -0,0 +1,285 @@
+package com.example.diff.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 基于行编号的直方图差异算法
+ *
+ * 先去掉公共前缀和后缀，再在剩余区间中选出在原文本中出现次数最少的公共行作为锚点，
+ * 以锚点向两侧扩展出的相同片段把区间一分为二，分别继续处理。
+ * 区间内公共行都过于频繁（如大量 "}"）时退回 Myers 算法，使用中间蛇分治，只占用线性空间；
+ * 差异过大的区间参照 GNU diff 的做法限制搜索深度。
+ * 两种算法都用显式栈代替递归，并按从左到右的顺序输出差异
+ */
+public final class HistogramDiff {
+
+    /**
+     * 单个行编号在区间内出现次数超过该值时不作为锚点
+     */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    /**
+     * Myers 算法单次搜索的编辑距离上限，超过后在最远到达点处拆分，结果不再保证最短，但耗时有界
+     */
+    private static final int MAX_MYERS_COST = 1024;
+
+    /**
+     * 区间内没有任何公共行
+     */
+    private static final int[] NO_COMMON_LINES = new int[0];
+
+    private final int[] a;
+    private final int[] b;
+
+    // 直方图：编号 -> 原文本区间内该编号最后一次出现的位置及出现次数；位置 -> 同编号的上一次出现
+    private final int[] lastOccurrence;
+    private final int[] occurrenceCount;
+    private final int[] previousOccurrence;
+
+    // Myers 算法的前向、后向最远到达位置
+    private int[] forward = new int[0];
+    private int[] backward = new int[0];
+
+    private final List<Edit> edits = new ArrayList<>();
+
+    private HistogramDiff(int[] a, int[] b, int idCount) {
+        this.a = a;
+        this.b = b;
+        this.lastOccurrence = new int[idCount];
+        this.occurrenceCount = new int[idCount];
+        this.previousOccurrence = new int[a.length];
+        Arrays.fill(lastOccurrence, -1);
+    }
+
+    /**
+     * 比较两段文本，返回按位置排序的差异列表
+     */
+    public static List<Edit> diff(LineText original, LineText revised, LineInterner interner) {
+        return diff(original.ids(), revised.ids(), interner.size());
+    }
+
+    /**
+     * 比较两个行编号序列
+     *
+     * @param idCount 行编号取值范围 [0, idCount)
+     */
+    public static List<Edit> diff(int[] a, int[] b, int idCount) {
+        HistogramDiff diff = new HistogramDiff(a, b, idCount);
+        diff.run();
+        return diff.edits;
+    }
+
+    private void run() {
+        Deque<Region> pending = new ArrayDeque<>();
+        pending.push(new Region(0, a.length, 0, b.length, false));
+        while (!pending.isEmpty()) {
+            Region region = pending.pop();
+            int beginA = region.beginA();
+            int endA = region.endA();
+            int beginB = region.beginB();
+            int endB = region.endB();
+
+            while (beginA < endA && beginB < endB && a[beginA] == b[beginB]) {
+                beginA++;
+                beginB++;
+            }
+            while (beginA < endA && beginB < endB && a[endA - 1] == b[endB - 1]) {
+                endA--;
+                endB--;
+            }
+            if (beginA == endA || beginB == endB) {
+                addEdit(beginA, endA, beginB, endB);
+                continue;
+            }
+
+            int[] split = region.myers()
+                    ? middleSnake(beginA, endA, beginB, endB)
+                    : findAnchor(beginA, endA, beginB, endB);
+            if (split == NO_COMMON_LINES) {
+                addEdit(beginA, endA, beginB, endB);
+                continue;
+            }
+            if (split == null) {
+                if (region.myers()) {
+                    addEdit(beginA, endA, beginB, endB);
+                } else {
+                    pending.push(new Region(beginA, endA, beginB, endB, true));
+                }
+                continue;
+            }
+            // 先压右侧再压左侧，保证差异按位置顺序输出
+            pending.push(new Region(split[2], endA, split[3], endB, region.myers()));
+            pending.push(new Region(beginA, split[0], beginB, split[1], region.myers()));
+        }
+    }
+
+    /**
+     * 在区间中寻找锚点片段，返回 {片段在 a 中的起点, 在 b 中的起点, 在 a 中的终点, 在 b 中的终点}；
+     * 区间内没有公共行时返回 {@link #NO_COMMON_LINES}，公共行都过于频繁时返回 null
+     */
+    private int[] findAnchor(int beginA, int endA, int beginB, int endB) {
+        // 倒序建立直方图，使出现链按位置从前往后
+        for (int i = endA - 1; i >= beginA; i--) {
+            int id = a[i];
+            previousOccurrence[i] = lastOccurrence[id];
+            lastOccurrence[id] = i;
+            occurrenceCount[id]++;
+        }
+
+        int[] best = null;
+        int bestCount = MAX_CHAIN_LENGTH + 1;
+        int bestLength = 0;
+        boolean hasCommon = false;
+        int j = beginB;
+        while (j < endB) {
+            int id = b[j];
+            int count = occurrenceCount[id];
+            if (count == 0) {
+                j++;
+                continue;
+            }
+            hasCommon = true;
+            if (count > bestCount || count > MAX_CHAIN_LENGTH) {
+                j++;
+                continue;
+            }
+
+            int nextJ = j + 1;
+            for (int i = lastOccurrence[id]; i >= 0; i = previousOccurrence[i]) {
+                int startA = i;
+                int startB = j;
+                int stopA = i + 1;
+                int stopB = j + 1;
+                int minCount = count;
+                while (startA > beginA && startB > beginB && a[startA - 1] == b[startB - 1]) {
+                    startA--;
+                    startB--;
+                    minCount = Math.min(minCount, occurrenceCount[a[startA]]);
+                }
+                while (stopA < endA && stopB < endB && a[stopA] == b[stopB]) {
+                    minCount = Math.min(minCount, occurrenceCount[a[stopA]]);
+                    stopA++;
+                    stopB++;
+                }
+                int length = stopA - startA;
+                if (minCount < bestCount || (minCount == bestCount && length > bestLength)) {
+                    best = new int[]{startA, startB, stopA, stopB};
+                    bestCount = minCount;
+                    bestLength = length;
+                }
+                nextJ = Math.max(nextJ, stopB);
+            }
+            j = nextJ;
+        }
+
+        for (int i = beginA; i < endA; i++) {
+            lastOccurrence[a[i]] = -1;
+            occurrenceCount[a[i]] = 0;
+        }
+
+        return hasCommon ? best : NO_COMMON_LINES;
+    }
+
+    /**
+     * 线性空间 Myers 中间蛇：返回最短编辑路径中间的对角线片段
+     * {在 a 中的起点, 在 b 中的起点, 在 a 中的终点, 在 b 中的终点}
+     */
+    private int[] middleSnake(int beginA, int endA, int beginB, int endB) {
+        int n = endA - beginA;
+        int m = endB - beginB;
+        int max = (n + m + 1) / 2;
+        int offset = max + 1;
+        int size = 2 * max + 3;
+        if (forward.length < size) {
+            forward = new int[size];
+            backward = new int[size];
+        }
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+
+        for (int d = 0; d <= max; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1]))
+                        ? forward[offset + k + 1]
+                        : forward[offset + k - 1] + 1;
+                int y = x - k;
+                int startX = x;
+                int startY = y;
+                while (x < n && y < m && a[beginA + x] == b[beginB + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                int reverseK = delta - k;
+                if (odd && reverseK >= -(d - 1) && reverseK <= d - 1
+                        && x + backward[offset + reverseK] >= n) {
+                    return new int[]{beginA + startX, beginB + startY, beginA + x, beginB + y};
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1]))
+                        ? backward[offset + k + 1]
+                        : backward[offset + k - 1] + 1;
+                int y = x - k;
+                int startX = x;
+                int startY = y;
+                while (x < n && y < m && a[endA - 1 - x] == b[endB - 1 - y]) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                int forwardK = delta - k;
+                if (!odd && forwardK >= -d && forwardK <= d
+                        && x + forward[offset + forwardK] >= n) {
+                    return new int[]{endA - x, endB - y, endA - startX, endB - startY};
+                }
+            }
+            if (d >= MAX_MYERS_COST) {
+                return furthestForward(d, offset, n, m, beginA, beginB);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 搜索过深时取前向搜索走得最远的点作为拆分点（空片段）
+     */
+    private int[] furthestForward(int d, int offset, int n, int m, int beginA, int beginB) {
+        int bestX = -1;
+        int bestY = -1;
+        for (int k = -d; k <= d; k += 2) {
+            int x = forward[offset + k];
+            int y = x - k;
+            if (x <= n && y >= 0 && y <= m && x + y > bestX + bestY && x + y < n + m) {
+                bestX = x;
+                bestY = y;
+            }
+        }
+        return bestX < 0 ? null : new int[]{beginA + bestX, beginB + bestY, beginA + bestX, beginB + bestY};
+    }
+
+    /**
+     * 记录差异，与上一处差异相邻时合并
+     */
+    private void addEdit(int beginA, int endA, int beginB, int endB) {
+        if (beginA == endA && beginB == endB) {
+            return;
+        }
+        int last = edits.size() - 1;
+        if (last >= 0 && edits.get(last).endA() == beginA && edits.get(last).endB() == beginB) {
+            Edit previous = edits.get(last);
+            edits.set(last, new Edit(previous.beginA(), endA, previous.beginB(), endB));
+        } else {
+            edits.add(new Edit(beginA, endA, beginB, endB));
+        }
+    }
+
+    private record Region(int beginA, int endA, int beginB, int endB, boolean myers) {
+    }
+}
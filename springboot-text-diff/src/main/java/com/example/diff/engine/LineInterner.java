@@ -0,0 +1,130 @@
+package com.example.diff.engine;
+
+import java.util.Arrays;
+
+/**
+ * 行编号分配器
+ * 把文本切分为行并为每种行内容分配一个从 0 开始的编号，比对算法只比较 int 编号。
+ * 使用开放寻址哈希表，表中记录每个编号首次出现的位置，查找时直接与原字符串逐字符比较
+ */
+public final class LineInterner {
+
+    private int[] table = new int[1024];
+    private int idCount;
+
+    // 编号 -> 首次出现的文本及起止位置、哈希值
+    private String[] idSources = new String[256];
+    private int[] idHashes = new int[256];
+    private int[] idStarts = new int[256];
+    private int[] idEnds = new int[256];
+
+    public LineInterner() {
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * 切分文本并分配行编号，支持 \n 与 \r\n 换行，末尾换行符不产生空行
+     */
+    public LineText add(String text) {
+        int lineCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lineCount++;
+            }
+        }
+        if (!text.isEmpty() && text.charAt(text.length() - 1) != '\n') {
+            lineCount++;
+        }
+
+        int[] starts = new int[lineCount];
+        int[] ends = new int[lineCount];
+        int[] ids = new int[lineCount];
+        int start = 0;
+        for (int line = 0; line < lineCount; line++) {
+            int newline = text.indexOf('\n', start);
+            int next = newline < 0 ? text.length() : newline + 1;
+            int end = newline < 0 ? text.length() : newline;
+            if (end > start && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            starts[line] = start;
+            ends[line] = end;
+            ids[line] = intern(text, start, end);
+            start = next;
+        }
+        return new LineText(text, starts, ends, ids);
+    }
+
+    /**
+     * 已分配的编号数量
+     */
+    public int size() {
+        return idCount;
+    }
+
+    private int intern(String text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int id = table[slot];
+            if (id < 0) {
+                return newId(slot, hash, text, start, end);
+            }
+            if (idHashes[id] == hash && matches(id, text, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int newId(int slot, int hash, String text, int start, int end) {
+        int id = idCount++;
+        if (id == idSources.length) {
+            int capacity = id * 2;
+            idSources = Arrays.copyOf(idSources, capacity);
+            idHashes = Arrays.copyOf(idHashes, capacity);
+            idStarts = Arrays.copyOf(idStarts, capacity);
+            idEnds = Arrays.copyOf(idEnds, capacity);
+        }
+        idSources[id] = text;
+        idHashes[id] = hash;
+        idStarts[id] = start;
+        idEnds[id] = end;
+        table[slot] = id;
+        if (idCount * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private boolean matches(int id, String text, int start, int end) {
+        int length = end - start;
+        return idEnds[id] - idStarts[id] == length
+                && idSources[id].regionMatches(idStarts[id], text, start, length);
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        Arrays.fill(newTable, -1);
+        int mask = newTable.length - 1;
+        for (int id = 0; id < idCount; id++) {
+            int slot = idHashes[id] & mask;
+            while (newTable[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id;
+        }
+        table = newTable;
+    }
+
+    private static int hash(String text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        // 打散低位，避免线性探测时聚集
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.diff.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 按行切分的文本
+ * 只记录每行在原字符串中的起止位置和行编号，不为每行创建字符串
+ */
+public final class LineText {
+
+    private final String source;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] ids;
+
+    LineText(String source, int[] starts, int[] ends, int[] ids) {
+        this.source = source;
+        this.starts = starts;
+        this.ends = ends;
+        this.ids = ids;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 第 index 行的内容（不含换行符）
+     */
+    public String line(int index) {
+        return source.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * 把第 index 行的内容写入 writer，不创建中间字符串
+     */
+    public void writeLine(int index, Writer writer) throws IOException {
+        writer.write(source, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * 每行的编号，内容相同的行编号相同
+     */
+    int[] ids() {
+        return ids;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.diff.engine;
+
+import com.example.diff.model.ConfigChange;
+import com.example.diff.model.MergeConflict;
+import com.example.diff.model.StructuralDiffResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 配置树的结构化比对与三方合并
+ * 哈希相同的子树直接跳过，只深入内容不同的分支
+ */
+public final class StructuralDiff {
+
+    private StructuralDiff() {
+    }
+
+    /**
+     * 比对两棵配置树，变更按叶子路径给出
+     */
+    public static StructuralDiffResult diff(ConfigNode original, ConfigNode revised) {
+        StructuralDiffResult result = new StructuralDiffResult();
+        diff("", original, revised, result);
+        result.setHasChanges(!result.getChanges().isEmpty());
+        return result;
+    }
+
+    /**
+     * 以 base 为基线合并 ours 与 theirs：只有一方修改的取修改方，双方修改相同的取其一，
+     * 双方修改不同且无法再按下级键拆分的记为冲突，合并结果中保留 ours
+     */
+    public static MergeOutcome merge(ConfigNode base, ConfigNode ours, ConfigNode theirs) {
+        List<MergeConflict> conflicts = new ArrayList<>();
+        ConfigNode merged = merge("", base, ours, theirs, conflicts);
+        return new MergeOutcome(merged, conflicts);
+    }
+
+    private static void diff(String path, ConfigNode a, ConfigNode b, StructuralDiffResult result) {
+        if (a == null && b == null) {
+            return;
+        }
+        if (a == null) {
+            addAll(path, b, "ADDED", result);
+            return;
+        }
+        if (b == null) {
+            addAll(path, a, "REMOVED", result);
+            return;
+        }
+        if (a.sameAs(b)) {
+            result.setSkippedSubtrees(result.getSkippedSubtrees() + 1);
+            return;
+        }
+        result.setComparedNodes(result.getComparedNodes() + 1);
+
+        // 同类容器只比较 Properties 中携带的取值，空容器标记不算变更
+        boolean sameContainer = a.getKind() == b.getKind() && a.getKind() != ConfigNode.Kind.SCALAR;
+        String oldValue = sameContainer ? a.getOwnValue() : a.getValue();
+        String newValue = sameContainer ? b.getOwnValue() : b.getValue();
+        if (!Objects.equals(oldValue, newValue) || !Objects.equals(a.getValueType(), b.getValueType())) {
+            if (Objects.equals(oldValue, newValue) && oldValue != null) {
+                // 文本相同、类型不同（如 1 与 "1"）时按 JSON 形式展示
+                oldValue = a.toJson().toString();
+                newValue = b.toJson().toString();
+            }
+            if (oldValue != null && newValue != null) {
+                result.getChanges().add(new ConfigChange(path, "MODIFIED", oldValue, newValue));
+            } else if (oldValue != null) {
+                result.getChanges().add(new ConfigChange(path, "REMOVED", oldValue, null));
+            } else if (newValue != null) {
+                result.getChanges().add(new ConfigChange(path, "ADDED", null, newValue));
+            }
+        }
+
+        if (a.getKind() == ConfigNode.Kind.OBJECT && b.getKind() == ConfigNode.Kind.OBJECT) {
+            Set<String> keys = new LinkedHashSet<>(a.getChildren().keySet());
+            keys.addAll(b.getChildren().keySet());
+            for (String key : keys) {
+                diff(ConfigNode.childPath(path, key), a.getChildren().get(key), b.getChildren().get(key), result);
+            }
+        } else if (a.getKind() == ConfigNode.Kind.ARRAY && b.getKind() == ConfigNode.Kind.ARRAY) {
+            int size = Math.max(a.getItems().size(), b.getItems().size());
+            for (int i = 0; i < size; i++) {
+                diff(ConfigNode.itemPath(path, i), item(a, i), item(b, i), result);
+            }
+        } else {
+            addChildren(path, a, "REMOVED", result);
+            addChildren(path, b, "ADDED", result);
+        }
+    }
+
+    private static ConfigNode merge(String path, ConfigNode base, ConfigNode ours, ConfigNode theirs,
+                                    List<MergeConflict> conflicts) {
+        if (ours == null ? theirs == null : ours.sameAs(theirs)) {
+            return ours;
+        }
+        if (base == null ? ours == null : base.sameAs(ours)) {
+            return theirs;
+        }
+        if (base == null ? theirs == null : base.sameAs(theirs)) {
+            return ours;
+        }
+
+        if (ours != null && theirs != null
+                && ours.getKind() == ConfigNode.Kind.OBJECT && theirs.getKind() == ConfigNode.Kind.OBJECT) {
+            boolean baseIsObject = base != null && base.getKind() == ConfigNode.Kind.OBJECT;
+            Map<String, ConfigNode> baseChildren = baseIsObject ? base.getChildren() : Map.of();
+            String baseValue = baseIsObject ? base.getOwnValue() : null;
+
+            String value = mergeValue(path, baseValue, ours.getOwnValue(), theirs.getOwnValue(), conflicts);
+            Set<String> keys = new LinkedHashSet<>(ours.getChildren().keySet());
+            keys.addAll(theirs.getChildren().keySet());
+            Map<String, ConfigNode> children = new LinkedHashMap<>();
+            for (String key : keys) {
+                ConfigNode child = merge(ConfigNode.childPath(path, key), baseChildren.get(key),
+                        ours.getChildren().get(key), theirs.getChildren().get(key), conflicts);
+                if (child != null) {
+                    children.put(key, child);
+                }
+            }
+            return ConfigNode.object(children, value);
+        }
+
+        conflicts.add(new MergeConflict(path, describe(base), describe(ours), describe(theirs)));
+        return ours;
+    }
+
+    private static String mergeValue(String path, String base, String ours, String theirs,
+                                     List<MergeConflict> conflicts) {
+        if (Objects.equals(ours, theirs) || Objects.equals(base, theirs)) {
+            return ours;
+        }
+        if (Objects.equals(base, ours)) {
+            return theirs;
+        }
+        conflicts.add(new MergeConflict(path, base, ours, theirs));
+        return ours;
+    }
+
+    private static String describe(ConfigNode node) {
+        if (node == null) {
+            return null;
+        }
+        if (node.getKind() == ConfigNode.Kind.SCALAR) {
+            return node.getValue();
+        }
+        return node.toJson().toString();
+    }
+
+    private static ConfigNode item(ConfigNode node, int index) {
+        return index < node.getItems().size() ? node.getItems().get(index) : null;
+    }
+
+    private static void addAll(String path, ConfigNode node, String type, StructuralDiffResult result) {
+        Map<String, String> leaves = new LinkedHashMap<>();
+        node.flatten(path, leaves);
+        addLeaves(leaves, type, result);
+    }
+
+    private static void addChildren(String path, ConfigNode node, String type, StructuralDiffResult result) {
+        Map<String, String> leaves = new LinkedHashMap<>();
+        if (node.getKind() == ConfigNode.Kind.OBJECT) {
+            node.getChildren().forEach((key, child) -> child.flatten(ConfigNode.childPath(path, key), leaves));
+        } else if (node.getKind() == ConfigNode.Kind.ARRAY) {
+            for (int i = 0; i < node.getItems().size(); i++) {
+                node.getItems().get(i).flatten(ConfigNode.itemPath(path, i), leaves);
+            }
+        }
+        addLeaves(leaves, type, result);
+    }
+
+    private static void addLeaves(Map<String, String> leaves, String type, StructuralDiffResult result) {
+        boolean added = "ADDED".equals(type);
+        leaves.forEach((leafPath, value) -> result.getChanges().add(
+                new ConfigChange(leafPath, type, added ? null : value, added ? value : null)));
+    }
+
+    /**
+     * 三方合并结果
+     *
+     * @param merged    合并后的配置树，整个文档被删除时为 null
+     * @param conflicts 冲突列表
+     */
+    public record MergeOutcome(ConfigNode merged, List<MergeConflict> conflicts) {
+    }
+}
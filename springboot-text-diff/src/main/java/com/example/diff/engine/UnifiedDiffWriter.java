@@ -0,0 +1,110 @@
+package com.example.diff.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 统一格式（unified diff）输出
+ * 按差异列表逐个生成带上下文的 hunk 并直接写入 writer，相同的行只输出上下文部分
+ */
+public final class UnifiedDiffWriter {
+
+    private final Writer writer;
+    private final int context;
+
+    /**
+     * @param writer  输出目标
+     * @param context 每处差异前后保留的相同行数
+     */
+    public UnifiedDiffWriter(Writer writer, int context) {
+        if (context < 0) {
+            throw new IllegalArgumentException("context must not be negative: " + context);
+        }
+        this.writer = writer;
+        this.context = context;
+    }
+
+    /**
+     * 输出文件头和全部 hunk，没有差异时只输出文件头
+     *
+     * @return 输出的 hunk 数量
+     */
+    public int write(String originalName, String revisedName,
+                     LineText original, LineText revised, List<Edit> edits) throws IOException {
+        writer.write("--- ");
+        writer.write(originalName);
+        writer.write('\n');
+        writer.write("+++ ");
+        writer.write(revisedName);
+        writer.write('\n');
+
+        int hunks = 0;
+        int first = 0;
+        while (first < edits.size()) {
+            // 相邻差异之间的相同行不超过两倍上下文时合并为一个 hunk
+            int last = first;
+            while (last + 1 < edits.size()
+                    && edits.get(last + 1).beginA() - edits.get(last).endA() <= 2 * context) {
+                last++;
+            }
+            writeHunk(original, revised, edits, first, last);
+            hunks++;
+            first = last + 1;
+        }
+        return hunks;
+    }
+
+    private void writeHunk(LineText original, LineText revised, List<Edit> edits,
+                           int first, int last) throws IOException {
+        Edit firstEdit = edits.get(first);
+        Edit lastEdit = edits.get(last);
+        int startA = Math.max(0, firstEdit.beginA() - context);
+        int startB = firstEdit.beginB() - (firstEdit.beginA() - startA);
+        int endA = Math.min(original.size(), lastEdit.endA() + context);
+        int endB = lastEdit.endB() + (endA - lastEdit.endA());
+
+        writer.write("@@ -");
+        writeRange(startA, endA - startA);
+        writer.write(" +");
+        writeRange(startB, endB - startB);
+        writer.write(" @@\n");
+
+        int lineA = startA;
+        for (int i = first; i <= last; i++) {
+            Edit edit = edits.get(i);
+            for (; lineA < edit.beginA(); lineA++) {
+                writeLine(' ', original, lineA);
+            }
+            for (int line = edit.beginA(); line < edit.endA(); line++) {
+                writeLine('-', original, line);
+            }
+            for (int line = edit.beginB(); line < edit.endB(); line++) {
+                writeLine('+', revised, line);
+            }
+            lineA = edit.endA();
+        }
+        for (; lineA < endA; lineA++) {
+            writeLine(' ', original, lineA);
+        }
+    }
+
+    /**
+     * 行号从 1 开始；只有一行时省略长度，长度为 0 时起始行号为区间前一行
+     */
+    private void writeRange(int start, int length) throws IOException {
+        if (length == 1) {
+            writer.write(Integer.toString(start + 1));
+        } else {
+            writer.write(Integer.toString(length == 0 ? start : start + 1));
+            writer.write(',');
+            writer.write(Integer.toString(length));
+        }
+    }
+
+    private void writeLine(char prefix, LineText text, int line) throws IOException {
+        writer.write(prefix);
+        text.writeLine(line, writer);
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.diff.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigChange {
+    /**
+     * 配置项路径，如 spring.datasource.url、servers[0].host
+     */
+    private String path;
+
+    /**
+     * 变更类型: ADDED（新增）, REMOVED（删除）, MODIFIED（修改）
+     */
+    private String type;
+
+    private String oldValue;
+    private String newValue;
+}
@@ -0,0 +1,15 @@
+package com.example.diff.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MergeConflict {
+    private String path;
+    private String baseValue;
+    private String oursValue;
+    private String theirsValue;
+}
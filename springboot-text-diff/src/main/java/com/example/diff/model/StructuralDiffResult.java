@@ -0,0 +1,21 @@
+package com.example.diff.model;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class StructuralDiffResult {
+    private boolean hasChanges;
+    private List<ConfigChange> changes = new ArrayList<>();
+
+    /**
+     * 逐个比较过的节点数
+     */
+    private int comparedNodes;
+
+    /**
+     * 因哈希相同而整体跳过的子树数
+     */
+    private int skippedSubtrees;
+}
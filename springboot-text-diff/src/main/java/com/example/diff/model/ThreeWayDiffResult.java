@@ -0,0 +1,30 @@
+package com.example.diff.model;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ThreeWayDiffResult {
+    private boolean hasConflicts;
+
+    /**
+     * 基线到 ours 的变更
+     */
+    private List<ConfigChange> oursChanges = new ArrayList<>();
+
+    /**
+     * 基线到 theirs 的变更
+     */
+    private List<ConfigChange> theirsChanges = new ArrayList<>();
+
+    /**
+     * 两个版本对同一配置项做了不同修改
+     */
+    private List<MergeConflict> conflicts = new ArrayList<>();
+
+    /**
+     * 合并后的文档，冲突处保留 ours 的值
+     */
+    private String merged;
+}
@@ -0,0 +1,117 @@
+package com.example.diff.service;
+
+import com.example.diff.engine.ConfigNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 配置树缓存
+ * 以文档内容的 SHA-256 为键缓存解析并计算好哈希的配置树，
+ * 同一基线与多个版本比对时基线只解析一次；按最近使用淘汰
+ */
+@Component
+public class ConfigTreeCache {
+
+    public enum Format {
+        YAML, PROPERTIES
+    }
+
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private final Map<String, CachedTree> entries;
+
+    public ConfigTreeCache(@Value("${diff.tree-cache.max-entries:64}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTree> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取文档的配置树，未命中时解析并放入缓存
+     */
+    public ConfigNode getTree(Format format, String content) {
+        return getEntry(format, content).tree;
+    }
+
+    /**
+     * 获取 YAML 文档的规范 JSON 文本（键顺序与原文一致），用于文本比对
+     */
+    public String getCanonicalJson(String yamlContent) {
+        CachedTree entry = getEntry(Format.YAML, yamlContent);
+        String text = entry.canonicalJson;
+        if (text == null) {
+            try {
+                text = jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(entry.tree.toJson());
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to render canonical JSON", e);
+            }
+            entry.canonicalJson = text;
+        }
+        return text;
+    }
+
+    private CachedTree getEntry(Format format, String content) {
+        String key = format + ":" + sha256(content);
+        synchronized (entries) {
+            CachedTree entry = entries.get(key);
+            if (entry != null) {
+                return entry;
+            }
+        }
+
+        // 解析在锁外进行，并发解析同一文档时以后放入的为准，结果相同
+        CachedTree entry = new CachedTree(parse(format, content));
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private ConfigNode parse(Format format, String content) {
+        try {
+            if (format == Format.YAML) {
+                JsonNode tree = yamlMapper.readTree(content);
+                return ConfigNode.fromJson(tree == null ? jsonMapper.nullNode() : tree);
+            }
+            Properties properties = new Properties();
+            properties.load(new StringReader(content));
+            return ConfigNode.fromProperties(properties);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to parse " + format.name().toLowerCase(), e);
+        }
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedTree {
+        private final ConfigNode tree;
+        private volatile String canonicalJson;
+
+        private CachedTree(ConfigNode tree) {
+            this.tree = tree;
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.example.diff.service;
 
+import com.example.diff.engine.Edit;
+import com.example.diff.engine.HistogramDiff;
+import com.example.diff.engine.LineInterner;
+import com.example.diff.engine.LineText;
+import com.example.diff.engine.UnifiedDiffWriter;
+import com.example.diff.model.DiffChange;
 import com.example.diff.model.DiffLine;
 import com.example.diff.model.DiffResult;
-import com.github.difflib.DiffUtils;
-import com.github.difflib.patch.AbstractDelta;
-import com.github.difflib.patch.DeltaType;
-import com.github.difflib.patch.Patch;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 @Service
@@ -19,98 +22,107 @@ public class DiffService {
      * 比对两个配置文本的差异，返回 Git 风格的左右对比结果
      */
     public DiffResult compareConfigs(String original, String revised) {
-        List<String> originalLines = Arrays.asList(original.split("\\r?\\n"));
-        List<String> revisedLines = Arrays.asList(revised.split("\\r?\\n"));
+        LineInterner interner = new LineInterner();
+        LineText originalLines = interner.add(original);
+        LineText revisedLines = interner.add(revised);
 
-        Patch<String> patch = DiffUtils.diff(originalLines, revisedLines);
+        List<Edit> edits = HistogramDiff.diff(originalLines, revisedLines, interner);
 
         DiffResult result = new DiffResult();
-        result.setHasChanges(!patch.getDeltas().isEmpty());
+        result.setHasChanges(!edits.isEmpty());
 
         // 构建 Git 风格的行级对比
-        List<DiffLine> diffLines = buildGitStyleDiff(originalLines, revisedLines, patch);
+        List<DiffLine> diffLines = buildGitStyleDiff(originalLines, revisedLines, edits);
         result.setDiffLines(diffLines);
 
         // 同时保留原有的 change 信息（用于其他用途）
-        for (AbstractDelta<String> delta : patch.getDeltas()) {
-            com.example.diff.model.DiffChange change = new com.example.diff.model.DiffChange();
-            change.setType(delta.getType().name());
-            change.setSourceLine(delta.getSource().getPosition() + 1);
-            change.setTargetLine(delta.getTarget().getPosition() + 1);
-            change.setOriginalLines(new ArrayList<>(delta.getSource().getLines()));
-            change.setRevisedLines(new ArrayList<>(delta.getTarget().getLines()));
+        for (Edit edit : edits) {
+            DiffChange change = new DiffChange();
+            change.setType(edit.type());
+            change.setSourceLine(edit.beginA() + 1);
+            change.setTargetLine(edit.beginB() + 1);
+            change.setOriginalLines(lines(originalLines, edit.beginA(), edit.endA()));
+            change.setRevisedLines(lines(revisedLines, edit.beginB(), edit.endB()));
             result.getChanges().add(change);
         }
 
         return result;
     }
 
+    /**
+     * 比对两个文本并以统一格式（unified diff）写入 writer
+     * 只输出差异及其上下文，不为相同的行创建对象，适合大文件比对
+     *
+     * @param context 每处差异前后保留的相同行数
+     * @return 输出的 hunk 数量
+     */
+    public int writeUnifiedDiff(String original, String revised, int context, Writer writer) throws IOException {
+        LineInterner interner = new LineInterner();
+        LineText originalLines = interner.add(original);
+        LineText revisedLines = interner.add(revised);
+
+        List<Edit> edits = HistogramDiff.diff(originalLines, revisedLines, interner);
+
+        return new UnifiedDiffWriter(writer, context)
+                .write("original", "revised", originalLines, revisedLines, edits);
+    }
+
     /**
      * 构建 Git 风格的左右对比 diff
      */
-    private List<DiffLine> buildGitStyleDiff(List<String> originalLines, List<String> revisedLines, Patch<String> patch) {
+    private List<DiffLine> buildGitStyleDiff(LineText originalLines, LineText revisedLines, List<Edit> edits) {
         List<DiffLine> result = new ArrayList<>();
         int origIdx = 0;
         int revIdx = 0;
 
-        for (AbstractDelta<String> delta : patch.getDeltas()) {
-            int origDeltaStart = delta.getSource().getPosition();
-            int revDeltaStart = delta.getTarget().getPosition();
-
+        for (Edit edit : edits) {
             // 添加差异之前的相同内容
-            while (origIdx < origDeltaStart && revIdx < revDeltaStart) {
-                result.add(new DiffLine("EQUAL", originalLines.get(origIdx), revisedLines.get(revIdx)));
+            while (origIdx < edit.beginA() && revIdx < edit.beginB()) {
+                result.add(new DiffLine("EQUAL", originalLines.line(origIdx), revisedLines.line(revIdx)));
                 origIdx++;
                 revIdx++;
             }
 
             // 处理差异块
-            DeltaType type = delta.getType();
-            List<String> origLines = delta.getSource().getLines();
-            List<String> revLines = delta.getTarget().getLines();
-
-            if (type == DeltaType.INSERT) {
+            String type = edit.type();
+            if ("INSERT".equals(type)) {
                 // INSERT: 右侧新增，左侧为空
-                for (String line : revLines) {
-                    result.add(new DiffLine("INSERT", null, line));
+                for (int i = edit.beginB(); i < edit.endB(); i++) {
+                    result.add(new DiffLine("INSERT", null, revisedLines.line(i)));
                 }
-                revIdx += revLines.size();
-            } else if (type == DeltaType.DELETE) {
+            } else if ("DELETE".equals(type)) {
                 // DELETE: 左侧删除，右侧为空
-                for (String line : origLines) {
-                    result.add(new DiffLine("DELETE", line, null));
+                for (int i = edit.beginA(); i < edit.endA(); i++) {
+                    result.add(new DiffLine("DELETE", originalLines.line(i), null));
                 }
-                origIdx += origLines.size();
-            } else if (type == DeltaType.CHANGE) {
+            } else {
                 // CHANGE: 两侧都有内容
-                int maxLines = Math.max(origLines.size(), revLines.size());
+                int maxLines = Math.max(edit.lengthA(), edit.lengthB());
                 for (int i = 0; i < maxLines; i++) {
-                    String origLine = i < origLines.size() ? origLines.get(i) : null;
-                    String revLine = i < revLines.size() ? revLines.get(i) : null;
+                    String origLine = i < edit.lengthA() ? originalLines.line(edit.beginA() + i) : null;
+                    String revLine = i < edit.lengthB() ? revisedLines.line(edit.beginB() + i) : null;
                     result.add(new DiffLine("CHANGE", origLine, revLine));
                 }
-                origIdx += origLines.size();
-                revIdx += revLines.size();
             }
+            origIdx = edit.endA();
+            revIdx = edit.endB();
         }
 
         // 添加最后一个差异块之后的相同内容
         while (origIdx < originalLines.size() && revIdx < revisedLines.size()) {
-            result.add(new DiffLine("EQUAL", originalLines.get(origIdx), revisedLines.get(revIdx)));
+            result.add(new DiffLine("EQUAL", originalLines.line(origIdx), revisedLines.line(revIdx)));
             origIdx++;
             revIdx++;
         }
 
-        // 处理剩余的行（一边还有内容）
-        while (origIdx < originalLines.size()) {
-            result.add(new DiffLine("DELETE", originalLines.get(origIdx), null));
-            origIdx++;
-        }
-        while (revIdx < revisedLines.size()) {
-            result.add(new DiffLine("INSERT", null, revisedLines.get(revIdx)));
-            revIdx++;
-        }
-
         return result;
     }
+
+    private List<String> lines(LineText text, int begin, int end) {
+        List<String> lines = new ArrayList<>(end - begin);
+        for (int i = begin; i < end; i++) {
+            lines.add(text.line(i));
+        }
+        return lines;
+    }
 }
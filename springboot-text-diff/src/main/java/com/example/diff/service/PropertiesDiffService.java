@@ -1,62 +1,108 @@
 package com.example.diff.service;
 
+import com.example.diff.engine.ConfigNode;
+import com.example.diff.engine.StructuralDiff;
+import com.example.diff.model.ConfigChange;
 import com.example.diff.model.PropertiesDiffResult;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.example.diff.model.StructuralDiffResult;
+import com.example.diff.model.ThreeWayDiffResult;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.util.HashSet;
-import java.util.Objects;
-import java.util.Properties;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class PropertiesDiffService {
 
+    private final ConfigTreeCache treeCache;
+
+    public PropertiesDiffService(ConfigTreeCache treeCache) {
+        this.treeCache = treeCache;
+    }
+
     /**
      * 智能比对 Properties 配置
+     * 键按 "." 拆分为层级结构比对，前缀相同且内容未变的配置段整体跳过
      */
     public PropertiesDiffResult compareProperties(String originalContent, String revisedContent) {
-        Properties original = parseProperties(originalContent);
-        Properties revised = parseProperties(revisedContent);
+        StructuralDiffResult diff = compareStructure(originalContent, revisedContent);
 
         PropertiesDiffResult result = new PropertiesDiffResult();
-
-        // 找出删除的 key
-        Set<String> removedKeys = new HashSet<>(original.stringPropertyNames());
-        removedKeys.removeAll(revised.stringPropertyNames());
-        result.setRemovedKeys(removedKeys);
-
-        // 找出新增的 key
-        Set<String> addedKeys = new HashSet<>(revised.stringPropertyNames());
-        addedKeys.removeAll(original.stringPropertyNames());
-        result.setAddedKeys(addedKeys);
-
-        // 找出修改的 key
+        Set<String> removedKeys = new HashSet<>();
+        Set<String> addedKeys = new HashSet<>();
         Set<String> modifiedKeys = new HashSet<>();
-        for (String key : original.stringPropertyNames()) {
-            if (revised.containsKey(key)) {
-                String oldValue = original.getProperty(key);
-                String newValue = revised.getProperty(key);
-                if (!Objects.equals(oldValue, newValue)) {
-                    modifiedKeys.add(key);
-                    result.addModifiedKey(key, oldValue, newValue);
+        for (ConfigChange change : diff.getChanges()) {
+            switch (change.getType()) {
+                case "REMOVED" -> removedKeys.add(change.getPath());
+                case "ADDED" -> addedKeys.add(change.getPath());
+                default -> {
+                    modifiedKeys.add(change.getPath());
+                    result.addModifiedKey(change.getPath(), change.getOldValue(), change.getNewValue());
                 }
             }
         }
+        result.setRemovedKeys(removedKeys);
+        result.setAddedKeys(addedKeys);
         result.setModifiedKeys(modifiedKeys);
 
         return result;
     }
 
-    private Properties parseProperties(String content) {
-        Properties props = new Properties();
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(content.getBytes())) {
-            props.load(bis);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse properties", e);
+    /**
+     * 结构化比对 Properties 配置，给出逐项变更
+     */
+    public StructuralDiffResult compareStructure(String originalContent, String revisedContent) {
+        return StructuralDiff.diff(
+                treeCache.getTree(ConfigTreeCache.Format.PROPERTIES, originalContent),
+                treeCache.getTree(ConfigTreeCache.Format.PROPERTIES, revisedContent));
+    }
+
+    /**
+     * 三方比对：以 base 为基线分别比对 ours、theirs，并给出合并结果与冲突
+     */
+    public ThreeWayDiffResult merge(String baseContent, String oursContent, String theirsContent) {
+        ConfigNode base = treeCache.getTree(ConfigTreeCache.Format.PROPERTIES, baseContent);
+        ConfigNode ours = treeCache.getTree(ConfigTreeCache.Format.PROPERTIES, oursContent);
+        ConfigNode theirs = treeCache.getTree(ConfigTreeCache.Format.PROPERTIES, theirsContent);
+
+        StructuralDiff.MergeOutcome outcome = StructuralDiff.merge(base, ours, theirs);
+
+        ThreeWayDiffResult result = new ThreeWayDiffResult();
+        result.setOursChanges(StructuralDiff.diff(base, ours).getChanges());
+        result.setTheirsChanges(StructuralDiff.diff(base, theirs).getChanges());
+        result.setConflicts(outcome.conflicts());
+        result.setHasConflicts(!outcome.conflicts().isEmpty());
+        result.setMerged(outcome.merged() == null ? "" : render(outcome.merged()));
+        return result;
+    }
+
+    /**
+     * 按键排序输出为 Properties 文本
+     */
+    private String render(ConfigNode tree) {
+        Map<String, String> values = new TreeMap<>();
+        tree.flatten("", values);
+        StringBuilder sb = new StringBuilder();
+        values.forEach((key, value) -> sb.append(escape(key, true)).append('=').append(escape(value, false)).append('\n'));
+        return sb.toString();
+    }
+
+    private String escape(String text, boolean key) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '=', ':', '#', '!' -> sb.append(key || i == 0 ? "\\" + c : String.valueOf(c));
+                case ' ' -> sb.append(key || i == 0 ? "\\ " : " ");
+                default -> sb.append(c);
+            }
         }
-        return props;
+        return sb.toString();
     }
 }
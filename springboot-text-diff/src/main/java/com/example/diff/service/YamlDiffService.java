@@ -1,34 +1,73 @@
 package com.example.diff.service;
 
+import com.example.diff.engine.ConfigNode;
+import com.example.diff.engine.StructuralDiff;
 import com.example.diff.model.DiffResult;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.diff.model.StructuralDiffResult;
+import com.example.diff.model.ThreeWayDiffResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 import org.springframework.stereotype.Service;
 
 @Service
 public class YamlDiffService {
 
-    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
-    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory()
+            .disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+            .enable(YAMLGenerator.Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS));
+
+    private final DiffService diffService;
+    private final ConfigTreeCache treeCache;
+
+    public YamlDiffService(DiffService diffService, ConfigTreeCache treeCache) {
+        this.diffService = diffService;
+        this.treeCache = treeCache;
+    }
 
     /**
      * 比对 YAML 配置
-     * 先解析为 JSON 树，再转为规范格式进行比对
+     * 先解析为 JSON 树，再转为规范格式进行比对；解析结果按内容缓存，结构相同时直接返回无差异
      */
     public DiffResult compareYaml(String originalYaml, String revisedYaml) throws Exception {
-        // 解析 YAML
-        JsonNode originalTree = yamlMapper.readTree(originalYaml);
-        JsonNode revisedTree = yamlMapper.readTree(revisedYaml);
-
-        // 转为规范 JSON 字符串
-        String originalJson = jsonMapper.writerWithDefaultPrettyPrinter()
-                .writeValueAsString(originalTree);
-        String revisedJson = jsonMapper.writerWithDefaultPrettyPrinter()
-                .writeValueAsString(revisedTree);
+        ConfigNode originalTree = treeCache.getTree(ConfigTreeCache.Format.YAML, originalYaml);
+        ConfigNode revisedTree = treeCache.getTree(ConfigTreeCache.Format.YAML, revisedYaml);
+        if (originalTree.sameAs(revisedTree)) {
+            return new DiffResult();
+        }
 
         // 使用 DiffService 进行文本比对
-        DiffService diffService = new DiffService();
-        return diffService.compareConfigs(originalJson, revisedJson);
+        return diffService.compareConfigs(
+                treeCache.getCanonicalJson(originalYaml),
+                treeCache.getCanonicalJson(revisedYaml));
+    }
+
+    /**
+     * 结构化比对 YAML 配置，按配置项路径给出变更，相同的子树整体跳过
+     */
+    public StructuralDiffResult compareStructure(String originalYaml, String revisedYaml) {
+        return StructuralDiff.diff(
+                treeCache.getTree(ConfigTreeCache.Format.YAML, originalYaml),
+                treeCache.getTree(ConfigTreeCache.Format.YAML, revisedYaml));
+    }
+
+    /**
+     * 三方比对：以 base 为基线分别比对 ours、theirs，并给出合并结果与冲突
+     */
+    public ThreeWayDiffResult merge(String baseYaml, String oursYaml, String theirsYaml) throws Exception {
+        ConfigNode base = treeCache.getTree(ConfigTreeCache.Format.YAML, baseYaml);
+        ConfigNode ours = treeCache.getTree(ConfigTreeCache.Format.YAML, oursYaml);
+        ConfigNode theirs = treeCache.getTree(ConfigTreeCache.Format.YAML, theirsYaml);
+
+        StructuralDiff.MergeOutcome outcome = StructuralDiff.merge(base, ours, theirs);
+
+        ThreeWayDiffResult result = new ThreeWayDiffResult();
+        result.setOursChanges(StructuralDiff.diff(base, ours).getChanges());
+        result.setTheirsChanges(StructuralDiff.diff(base, theirs).getChanges());
+        result.setConflicts(outcome.conflicts());
+        result.setHasConflicts(!outcome.conflicts().isEmpty());
+        result.setMerged(outcome.merged() == null ? "" : yamlMapper.writeValueAsString(outcome.merged().toJson()));
+        return result;
     }
 }